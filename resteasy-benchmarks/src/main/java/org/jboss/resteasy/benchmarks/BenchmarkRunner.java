@@ -0,0 +1,43 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of {@code benchmarks.jar}.  Takes the usual JMH command line, and unless told otherwise runs with the GC
+ * profiler ({@code -prof gc}, allocation rate per operation) and writes the results as JSON ({@code -rf json}) to
+ * {@code jmh-result.json}, so that runs can be kept and compared.  The benchmarks that measure latency also run in
+ * {@link org.openjdk.jmh.annotations.Mode#SampleTime} mode, which reports the p99 and other percentiles.
+ */
+public final class BenchmarkRunner
+{
+   private BenchmarkRunner()
+   {
+   }
+
+   public static void main(String[] args) throws Exception
+   {
+      CommandLineOptions cmd = new CommandLineOptions(args);
+      if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+            || cmd.shouldListResultFormats())
+      {
+         Main.main(args);
+         return;
+      }
+      ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+      if (cmd.getProfilers().isEmpty())
+      {
+         options.addProfiler(GCProfiler.class);
+      }
+      if (!cmd.getResultFormat().hasValue())
+      {
+         options.resultFormat(ResultFormatType.JSON);
+      }
+      new Runner(options.build()).run();
+   }
+}
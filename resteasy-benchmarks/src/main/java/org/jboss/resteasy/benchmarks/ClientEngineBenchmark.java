@@ -0,0 +1,187 @@
+package org.jboss.resteasy.benchmarks;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpAsyncClient4Engine;
+import org.jboss.resteasy.client.jaxrs.engines.netty.NettyClientEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Requests per second of the client engines against a stub server answering straight from a Netty handler, so that
+ * the client side dominates.  {@link #asyncBatch()} keeps {@link #BATCH} requests in flight per thread, which is
+ * where the event loop driven {@link NettyClientEngine} and the thread per request Apache engine differ most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+public class ClientEngineBenchmark
+{
+   static final int BATCH = 16;
+
+   @ChannelHandler.Sharable
+   static class StubHandler extends SimpleChannelInboundHandler<FullHttpRequest>
+   {
+      private static final byte[] HELLO = "hello".getBytes(StandardCharsets.US_ASCII);
+
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request)
+      {
+         ByteBuf content = request.content().isReadable() ? request.content().retain() : Unpooled.wrappedBuffer(HELLO);
+         FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content);
+         response.headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.TEXT_PLAIN);
+         HttpUtil.setContentLength(response, content.readableBytes());
+         ctx.writeAndFlush(response);
+      }
+   }
+
+   @Param({"netty", "apache43", "apacheAsync"})
+   public String engine;
+
+   @Param({"16", "16384"})
+   public int payload;
+
+   private EventLoopGroup group;
+   private Channel server;
+   private ResteasyClient client;
+   private ResteasyWebTarget target;
+   private String body;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      group = new NioEventLoopGroup(4);
+      StubHandler handler = new StubHandler();
+      server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>()
+            {
+               @Override
+               protected void initChannel(SocketChannel ch)
+               {
+                  ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(1024 * 1024), handler);
+               }
+            }).bind("127.0.0.1", 0).sync().channel();
+
+      ResteasyClientBuilder builder = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).connectionPoolSize(64).maxPooledPerRoute(64);
+      if ("netty".equals(engine))
+      {
+         builder.httpEngine(new NettyClientEngine(null, null, 64));
+      }
+      else if ("apacheAsync".equals(engine))
+      {
+         CloseableHttpAsyncClient async = HttpAsyncClients.custom().setMaxConnPerRoute(64).setMaxConnTotal(64).build();
+         builder.httpEngine(new ApacheHttpAsyncClient4Engine(async, true));
+      }
+      // apache43 is the default engine
+      client = builder.build();
+      int port = ((InetSocketAddress) server.localAddress()).getPort();
+      target = client.target("http://127.0.0.1:" + port + "/");
+      StringBuilder sb = new StringBuilder(payload);
+      while (sb.length() < payload)
+      {
+         sb.append('x');
+      }
+      body = sb.toString();
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws Exception
+   {
+      client.close();
+      server.close().sync();
+      group.shutdownGracefully().sync();
+   }
+
+   @Benchmark
+   public String get()
+   {
+      return target.request().get(String.class);
+   }
+
+   @Benchmark
+   public String post()
+   {
+      return target.request().post(Entity.text(body), String.class);
+   }
+
+   @Benchmark
+   public int asyncBatch() throws Exception
+   {
+      @SuppressWarnings("unchecked")
+      Future<String>[] futures = new Future[BATCH];
+      for (int i = 0; i < BATCH; i++)
+      {
+         futures[i] = target.request().async().post(Entity.text(body), String.class);
+      }
+      int length = 0;
+      for (Future<String> future : futures)
+      {
+         length += future.get().length();
+      }
+      return length;
+   }
+
+   @Benchmark
+   public int rxBatch()
+   {
+      @SuppressWarnings("unchecked")
+      CompletableFuture<String>[] stages = new CompletableFuture[BATCH];
+      for (int i = 0; i < BATCH; i++)
+      {
+         stages[i] = target.request().rx().post(Entity.text(body), String.class).toCompletableFuture();
+      }
+      CompletableFuture.allOf(stages).join();
+      int length = 0;
+      for (CompletableFuture<String> stage : stages)
+      {
+         length += stage.join().length();
+      }
+      return length;
+   }
+}
@@ -0,0 +1,143 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ProxyBuilderImpl;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.test.profiling.InMemoryClientEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a client proxy call, for dynamic proxies and for the classes generated by
+ * {@link org.jboss.resteasy.client.jaxrs.internal.proxy.ClientProxyGenerator}.  The {@code inMemory} benchmarks go
+ * through {@link InMemoryClientEngine} and the server side dispatcher, the {@code aborted} ones stop at a request
+ * filter so that what remains is the proxy and the building of the request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClientProxyBenchmark
+{
+   @Path("/items")
+   public interface Items
+   {
+      @GET
+      @Path("{id}")
+      @Produces(MediaType.TEXT_PLAIN)
+      String get(@PathParam("id") int id);
+
+      @POST
+      @Consumes(MediaType.TEXT_PLAIN)
+      @Produces(MediaType.TEXT_PLAIN)
+      String post(String body);
+   }
+
+   @Path("/items")
+   public static class ItemsResource
+   {
+      @GET
+      @Path("{id}")
+      @Produces(MediaType.TEXT_PLAIN)
+      public String get(@PathParam("id") int id)
+      {
+         return "item";
+      }
+
+      @POST
+      @Consumes(MediaType.TEXT_PLAIN)
+      @Produces(MediaType.TEXT_PLAIN)
+      public String post(String body)
+      {
+         return body;
+      }
+   }
+
+   public static class AbortFilter implements ClientRequestFilter
+   {
+      @Override
+      public void filter(ClientRequestContext requestContext)
+      {
+         requestContext.abortWith(Response.ok("item", MediaType.TEXT_PLAIN_TYPE).build());
+      }
+   }
+
+   @Param({"reflect", "generated"})
+   public String proxy;
+
+   private ResteasyClient inMemoryClient;
+   private ResteasyClient abortingClient;
+   private Items inMemory;
+   private Items aborted;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      boolean generated = "generated".equals(proxy);
+      Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+      dispatcher.getRegistry().addPerRequestResource(ItemsResource.class);
+      InMemoryClientEngine engine = new InMemoryClientEngine(dispatcher);
+      engine.setBaseUri(URI.create("http://localhost"));
+      inMemoryClient = (ResteasyClient) ((ResteasyClientBuilder) ClientBuilder.newBuilder()).httpEngine(engine)
+            .property(ProxyBuilderImpl.GENERATED_PROXIES, generated).build();
+      inMemory = inMemoryClient.target("http://localhost").proxy(Items.class);
+
+      abortingClient = (ResteasyClient) ClientBuilder.newBuilder().register(AbortFilter.class)
+            .property(ProxyBuilderImpl.GENERATED_PROXIES, generated).build();
+      aborted = abortingClient.target("http://localhost").proxy(Items.class);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      inMemoryClient.close();
+      abortingClient.close();
+   }
+
+   @Benchmark
+   public String inMemoryGet()
+   {
+      return inMemory.get(42);
+   }
+
+   @Benchmark
+   public String inMemoryPost()
+   {
+      return inMemory.post("item");
+   }
+
+   @Benchmark
+   public String abortedGet()
+   {
+      return aborted.get(42);
+   }
+}
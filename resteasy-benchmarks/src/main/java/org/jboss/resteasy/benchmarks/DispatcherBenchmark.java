@@ -0,0 +1,124 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request through {@link org.jboss.resteasy.core.SynchronousDispatcher}, from a {@link MockHttpRequest} to the
+ * bytes written to a {@link MockHttpResponse}, with no transport at all.  Each invocation builds its own request and
+ * response as a container would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatcherBenchmark
+{
+   @Path("/items")
+   public static class ItemsResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String list()
+      {
+         return "items";
+      }
+
+      @GET
+      @Path("{id}")
+      @Produces(MediaType.TEXT_PLAIN)
+      public String get(@PathParam("id") int id, @QueryParam("format") String format)
+      {
+         return "item";
+      }
+
+      @GET
+      @Path("{id}")
+      @Produces({MediaType.APPLICATION_XML, MediaType.TEXT_HTML})
+      public String getMarkup(@PathParam("id") int id)
+      {
+         return "<item/>";
+      }
+
+      @POST
+      @Consumes(MediaType.TEXT_PLAIN)
+      @Produces(MediaType.TEXT_PLAIN)
+      public String post(String body)
+      {
+         return body;
+      }
+   }
+
+   private static final byte[] BODY = "item".getBytes(StandardCharsets.UTF_8);
+
+   private Dispatcher dispatcher;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      dispatcher = MockDispatcherFactory.createDispatcher();
+      dispatcher.getRegistry().addPerRequestResource(ItemsResource.class);
+   }
+
+   @Benchmark
+   public byte[] get() throws Exception
+   {
+      return invoke(MockHttpRequest.get("/items"));
+   }
+
+   @Benchmark
+   public byte[] getWithParams() throws Exception
+   {
+      return invoke(MockHttpRequest.get("/items/42?format=short"));
+   }
+
+   @Benchmark
+   public byte[] negotiated() throws Exception
+   {
+      return invoke(MockHttpRequest.get("/items/42")
+            .header("Accept", "text/html;q=0.9, application/xml;q=0.8, text/plain;q=0.5, */*;q=0.1"));
+   }
+
+   @Benchmark
+   public byte[] post() throws Exception
+   {
+      return invoke(MockHttpRequest.post("/items").contentType(MediaType.TEXT_PLAIN).content(BODY));
+   }
+
+   private byte[] invoke(MockHttpRequest request)
+   {
+      MockHttpResponse response = new MockHttpResponse();
+      dispatcher.invoke(request, response);
+      if (response.getStatus() != 200)
+      {
+         throw new IllegalStateException("Unexpected status " + response.getStatus());
+      }
+      return response.getOutput();
+   }
+}
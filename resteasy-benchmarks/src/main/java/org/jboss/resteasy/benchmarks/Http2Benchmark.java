@@ -0,0 +1,213 @@
+package org.jboss.resteasy.benchmarks;
+
+import io.undertow.client.ClientCallback;
+import io.undertow.client.ClientConnection;
+import io.undertow.client.ClientExchange;
+import io.undertow.client.ClientRequest;
+import io.undertow.client.UndertowClient;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.StringReadChannelListener;
+import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xnio.ChannelListeners;
+import org.xnio.OptionMap;
+import org.xnio.Xnio;
+import org.xnio.XnioWorker;
+import org.xnio.channels.StreamSinkChannel;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GETs on {@link UndertowJaxrsServer} with HTTP/2 enabled, sent by the Undertow client either over HTTP/1.1, each
+ * benchmark thread on its own keep-alive connection, or over HTTP/2 after an h2c upgrade, all threads multiplexing
+ * their streams on a single connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+public class Http2Benchmark
+{
+   @Path("/hello")
+   public static class HelloResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String hello()
+      {
+         return "hello";
+      }
+   }
+
+   public static class HelloApplication extends Application
+   {
+      @Override
+      public Set<Class<?>> getClasses()
+      {
+         return Collections.<Class<?>>singleton(HelloResource.class);
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class ThreadConnection
+   {
+      private ClientConnection connection;
+
+      @Setup(Level.Trial)
+      public void setup(Http2Benchmark benchmark) throws IOException
+      {
+         connection = "http1".equals(benchmark.protocol) ? benchmark.connect("http") : benchmark.shared;
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() throws IOException
+      {
+         if (connection != null)
+         {
+            connection.close();
+         }
+      }
+   }
+
+   @Param({"http1", "h2c"})
+   public String protocol;
+
+   private UndertowJaxrsServer server;
+   private int port;
+   private XnioWorker worker;
+   private ByteBufferPool bufferPool;
+   private ClientConnection shared;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      try (ServerSocket socket = new ServerSocket(0))
+      {
+         port = socket.getLocalPort();
+      }
+      server = new UndertowJaxrsServer().setPort(port).setHttp2(true).deploy(HelloApplication.class).start();
+
+      worker = Xnio.getInstance().createWorker(OptionMap.EMPTY);
+      bufferPool = new DefaultByteBufferPool(true, 16 * 1024);
+      if ("h2c".equals(protocol))
+      {
+         shared = connect("h2c");
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws InterruptedException
+   {
+      // the thread states close the shared connection, wait for its IO threads before the buffers go
+      worker.shutdown();
+      worker.awaitTermination(10, TimeUnit.SECONDS);
+      bufferPool.close();
+      server.stop();
+   }
+
+   @Benchmark
+   public String get(ThreadConnection thread) throws Exception
+   {
+      return get(thread.connection, "/hello");
+   }
+
+   private ClientConnection connect(String scheme) throws IOException
+   {
+      return UndertowClient.getInstance().connect(URI.create(scheme + "://localhost:" + port), worker, bufferPool,
+            OptionMap.EMPTY).get();
+   }
+
+   private String get(ClientConnection connection, String path) throws Exception
+   {
+      CompletableFuture<String> result = new CompletableFuture<String>();
+      ClientRequest request = new ClientRequest().setMethod(Methods.GET).setPath(path);
+      request.getRequestHeaders().put(Headers.HOST, "localhost");
+      ClientCallback<ClientExchange> responseListener = new ClientCallback<ClientExchange>()
+      {
+         @Override
+         public void completed(ClientExchange exchange)
+         {
+            new StringReadChannelListener(bufferPool)
+            {
+               @Override
+               protected void stringDone(String string)
+               {
+                  result.complete(string);
+               }
+
+               @Override
+               protected void error(IOException e)
+               {
+                  result.completeExceptionally(e);
+               }
+            }.setup(exchange.getResponseChannel());
+         }
+
+         @Override
+         public void failed(IOException e)
+         {
+            result.completeExceptionally(e);
+         }
+      };
+      // the client connections expect to be used from their IO thread
+      connection.getIoThread().execute(() -> connection.sendRequest(request, new ClientCallback<ClientExchange>()
+      {
+         @Override
+         public void completed(ClientExchange exchange)
+         {
+            exchange.setResponseListener(responseListener);
+            try
+            {
+               StreamSinkChannel channel = exchange.getRequestChannel();
+               channel.shutdownWrites();
+               if (!channel.flush())
+               {
+                  channel.getWriteSetter().set(ChannelListeners.<StreamSinkChannel>flushingChannelListener(null, null));
+                  channel.resumeWrites();
+               }
+            }
+            catch (IOException e)
+            {
+               result.completeExceptionally(e);
+            }
+         }
+
+         @Override
+         public void failed(IOException e)
+         {
+            result.completeExceptionally(e);
+         }
+      }));
+      return result.get(10, TimeUnit.SECONDS);
+   }
+}
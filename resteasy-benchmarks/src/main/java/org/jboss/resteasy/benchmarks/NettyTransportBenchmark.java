@@ -0,0 +1,92 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Requests per second of a plain GET resource served by {@link NettyJaxrsServer} over loopback, on the NIO and on
+ * the native epoll transport.  The epoll run fails if the native transport is not available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+public class NettyTransportBenchmark
+{
+   @Path("/hello")
+   public static class HelloResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String hello()
+      {
+         return "hello";
+      }
+   }
+
+   @Param({"nio", "epoll"})
+   public String transport;
+
+   private NettyJaxrsServer server;
+   private ResteasyClient client;
+   private ResteasyWebTarget target;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      server = new NettyJaxrsServer();
+      server.setPort(0);
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.setNativeTransport("epoll".equals(transport));
+      server.setReusePort(true);
+      server.setAcceptorCount(4);
+      server.start();
+      ResteasyDeployment deployment = server.getDeployment();
+      deployment.getRegistry().addPerRequestResource(HelloResource.class);
+      if (server.isNativeTransport() != "epoll".equals(transport))
+      {
+         server.stop();
+         throw new IllegalStateException("Native transport is not available");
+      }
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).connectionPoolSize(64).maxPooledPerRoute(64).build();
+      target = client.target("http://localhost:" + server.getPort() + "/hello");
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      client.close();
+      server.stop();
+   }
+
+   @Benchmark
+   public String get()
+   {
+      return target.request().get(String.class);
+   }
+}
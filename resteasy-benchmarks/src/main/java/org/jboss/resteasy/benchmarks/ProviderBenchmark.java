@@ -0,0 +1,205 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.core.ResteasyProviderFactoryImpl;
+import org.jboss.resteasy.plugins.providers.jackson.ResteasyJackson2Provider;
+import org.jboss.resteasy.plugins.providers.jaxb.JAXBXmlRootElementProvider;
+import org.jboss.resteasy.plugins.providers.jaxb.XmlJAXBContextFinder;
+import org.jboss.resteasy.plugins.providers.jsonb.JsonBindingProvider;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing of the same entity by the Jackson, JSON-B and JAXB providers, looked up from a provider
+ * factory as the dispatcher and the client do, without any request around them.  {@link #lines} sets the size of the
+ * entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProviderBenchmark
+{
+   public static class Order
+   {
+      private long id;
+      private String customer;
+      private List<Line> lines = new ArrayList<Line>();
+
+      public long getId()
+      {
+         return id;
+      }
+
+      public void setId(long id)
+      {
+         this.id = id;
+      }
+
+      public String getCustomer()
+      {
+         return customer;
+      }
+
+      public void setCustomer(String customer)
+      {
+         this.customer = customer;
+      }
+
+      public List<Line> getLines()
+      {
+         return lines;
+      }
+
+      public void setLines(List<Line> lines)
+      {
+         this.lines = lines;
+      }
+   }
+
+   /**
+    * JSON-B leaves JAXB annotated classes to the JAXB providers, so only the JAXB runs use this one.
+    */
+   @XmlRootElement(name = "order")
+   public static class XmlOrder extends Order
+   {
+   }
+
+   public static class Line
+   {
+      private String sku;
+      private int quantity;
+      private double price;
+
+      public String getSku()
+      {
+         return sku;
+      }
+
+      public void setSku(String sku)
+      {
+         this.sku = sku;
+      }
+
+      public int getQuantity()
+      {
+         return quantity;
+      }
+
+      public void setQuantity(int quantity)
+      {
+         this.quantity = quantity;
+      }
+
+      public double getPrice()
+      {
+         return price;
+      }
+
+      public void setPrice(double price)
+      {
+         this.price = price;
+      }
+   }
+
+   private static final Annotation[] ANNOTATIONS = new Annotation[0];
+
+   @Param({"jackson", "jsonb", "jaxb"})
+   public String provider;
+
+   @Param({"1", "100"})
+   public int lines;
+
+   private MediaType mediaType;
+   private Class<Object> type;
+   private MessageBodyReader<Object> reader;
+   private MessageBodyWriter<Object> writer;
+   private Order order;
+   private byte[] bytes;
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      ResteasyProviderFactory factory = new ResteasyProviderFactoryImpl();
+      if ("jackson".equals(provider))
+      {
+         factory.registerProvider(ResteasyJackson2Provider.class);
+         mediaType = MediaType.APPLICATION_JSON_TYPE;
+         type = (Class) Order.class;
+      }
+      else if ("jsonb".equals(provider))
+      {
+         factory.registerProvider(JsonBindingProvider.class);
+         mediaType = MediaType.APPLICATION_JSON_TYPE;
+         type = (Class) Order.class;
+      }
+      else
+      {
+         factory.registerProvider(JAXBXmlRootElementProvider.class);
+         factory.registerProvider(XmlJAXBContextFinder.class);
+         mediaType = MediaType.APPLICATION_XML_TYPE;
+         type = (Class) XmlOrder.class;
+      }
+      reader = factory.getMessageBodyReader(type, type, ANNOTATIONS, mediaType);
+      writer = factory.getMessageBodyWriter(type, type, ANNOTATIONS, mediaType);
+      if (reader == null || writer == null)
+      {
+         throw new IllegalStateException("No " + provider + " provider for " + mediaType);
+      }
+
+      order = (Order) type.newInstance();
+      order.setId(42L);
+      order.setCustomer("customer");
+      for (int i = 0; i < lines; i++)
+      {
+         Line line = new Line();
+         line.setSku("sku-" + i);
+         line.setQuantity(i);
+         line.setPrice(i * 1.5);
+         order.getLines().add(line);
+      }
+      bytes = write();
+   }
+
+   @Benchmark
+   public byte[] write() throws Exception
+   {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+      MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+      writer.writeTo(order, type, type, ANNOTATIONS, mediaType, headers, out);
+      return out.toByteArray();
+   }
+
+   @Benchmark
+   public Object read() throws Exception
+   {
+      MultivaluedMap<String, String> headers = new MultivaluedHashMap<String, String>();
+      return reader.readFrom(type, type, ANNOTATIONS, mediaType, headers, new ByteArrayInputStream(bytes));
+   }
+}
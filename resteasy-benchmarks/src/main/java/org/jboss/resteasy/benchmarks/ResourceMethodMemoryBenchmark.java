@@ -0,0 +1,186 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.core.ResteasyProviderFactoryImpl;
+import org.jboss.resteasy.spi.Registry;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration of {@link #METHODS} resource methods, to be run with the GC profiler ({@code -prof gc}, the default
+ * of {@link BenchmarkRunner}): {@code gc.alloc.rate.norm} divided by {@link #METHODS} is what a resource method
+ * allocates.  They are removed again in the same invocation so that every invocation starts from an empty registry,
+ * which is counted too, so compare runs rather than read it as an absolute size.  Every resource method gets its own
+ * provider factory when a {@link DynamicFeature} is registered, {@link #copyProviderFactories} gives the cost of an
+ * eagerly copied factory to compare with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResourceMethodMemoryBenchmark
+{
+   public static final int METHODS = 800;
+
+   private static final int METHODS_PER_RESOURCE = 4;
+   private static final int RESOURCES = METHODS / METHODS_PER_RESOURCE;
+
+   @Path("/resource")
+   public static class Resource
+   {
+      @GET
+      @Produces("text/plain")
+      public String get()
+      {
+         return "get";
+      }
+
+      @GET
+      @Path("{id}")
+      @Produces("text/plain")
+      public String getById(@PathParam("id") String id)
+      {
+         return id;
+      }
+
+      @GET
+      @Path("bound")
+      @Produces("text/plain")
+      public String bound()
+      {
+         return "bound";
+      }
+
+      @GET
+      @Path("other")
+      @Produces("text/plain")
+      public String other()
+      {
+         return "other";
+      }
+   }
+
+   public static class NoopFilter implements ContainerRequestFilter
+   {
+      @Override
+      public void filter(ContainerRequestContext requestContext)
+      {
+      }
+   }
+
+   public static class BindingFeature implements DynamicFeature
+   {
+      @Override
+      public void configure(ResourceInfo resourceInfo, FeatureContext context)
+      {
+         if ("bound".equals(resourceInfo.getResourceMethod().getName()))
+         {
+            context.register(NoopFilter.class);
+         }
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class Deployment
+   {
+      @Param({"false", "true"})
+      public boolean dynamicFeature;
+
+      private ResteasyDeployment deployment;
+
+      @Setup(Level.Trial)
+      public void setup()
+      {
+         deployment = new ResteasyDeploymentImpl();
+         deployment.start();
+         if (dynamicFeature)
+         {
+            deployment.getProviderFactory().register(BindingFeature.class);
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown()
+      {
+         deployment.stop();
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class ProviderFactory
+   {
+      private ResteasyDeployment deployment;
+
+      @Setup(Level.Trial)
+      public void setup()
+      {
+         deployment = new ResteasyDeploymentImpl();
+         deployment.start();
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown()
+      {
+         deployment.stop();
+      }
+   }
+
+   @Benchmark
+   public int register(Deployment state)
+   {
+      Registry registry = state.deployment.getRegistry();
+      for (int i = 0; i < RESOURCES; i++)
+      {
+         registry.addPerRequestResource(Resource.class, "/r" + i);
+      }
+      int size = registry.getSize();
+      if (size != METHODS)
+      {
+         throw new IllegalStateException("Not all resource methods registered: " + size);
+      }
+      for (int i = 0; i < RESOURCES; i++)
+      {
+         registry.removeRegistrations(Resource.class, "/r" + i);
+      }
+      return size;
+   }
+
+   @Benchmark
+   public List<ResteasyProviderFactory> copyProviderFactories(ProviderFactory state)
+   {
+      ResteasyProviderFactory factory = state.deployment.getProviderFactory();
+      List<ResteasyProviderFactory> copies = new ArrayList<ResteasyProviderFactory>(METHODS);
+      for (int i = 0; i < METHODS; i++)
+      {
+         copies.add(new ResteasyProviderFactoryImpl(factory, true));
+      }
+      return copies;
+   }
+}
@@ -0,0 +1,129 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.spi.Registry;
+import org.jboss.resteasy.spi.ResourceInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of a request to its resource method in registries of {@link #resources} resource classes, each of which
+ * has a few templated methods of its own.  The requests go round all of the registered base paths so that the
+ * result does not depend on where in the registry the match is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoutingBenchmark
+{
+   @Path("/items")
+   public static class ItemsResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String list()
+      {
+         return "items";
+      }
+
+      @GET
+      @Path("{id}")
+      @Produces(MediaType.TEXT_PLAIN)
+      public String get(@PathParam("id") int id)
+      {
+         return "item";
+      }
+
+      @GET
+      @Path("{id}/lines/{line}")
+      @Produces(MediaType.TEXT_PLAIN)
+      public String line(@PathParam("id") int id, @PathParam("line") int line)
+      {
+         return "line";
+      }
+
+      @PUT
+      @Path("{id}")
+      public void put(@PathParam("id") int id, String body)
+      {
+      }
+
+      @POST
+      public void post(String body)
+      {
+      }
+
+      @DELETE
+      @Path("{id}")
+      public void delete(@PathParam("id") int id)
+      {
+      }
+   }
+
+   @Param({"10", "100", "1000"})
+   public int resources;
+
+   private Registry registry;
+   private String[] literal;
+   private String[] templated;
+   private int next;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+      registry = dispatcher.getRegistry();
+      literal = new String[resources];
+      templated = new String[resources];
+      for (int i = 0; i < resources; i++)
+      {
+         registry.addPerRequestResource(ItemsResource.class, "/api" + i);
+         literal[i] = "/api" + i + "/items";
+         templated[i] = "/api" + i + "/items/42/lines/7";
+      }
+   }
+
+   @Benchmark
+   public ResourceInvoker literal() throws Exception
+   {
+      return registry.getResourceInvoker(MockHttpRequest.get(literal[next()]));
+   }
+
+   @Benchmark
+   public ResourceInvoker templated() throws Exception
+   {
+      return registry.getResourceInvoker(MockHttpRequest.get(templated[next()]));
+   }
+
+   private int next()
+   {
+      int i = next;
+      next = i + 1 == resources ? 0 : i + 1;
+      return i;
+   }
+}
@@ -0,0 +1,174 @@
+package org.jboss.resteasy.benchmarks;
+
+import io.undertow.Undertow;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.jboss.resteasy.plugins.server.embedded.EmbeddedJaxrsServer;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.plugins.server.sun.http.SunHttpJaxrsServer;
+import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+import org.jboss.resteasy.plugins.server.vertx.VertxJaxrsServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same resource deployed on each embedded server adapter and called over loopback by the default client engine,
+ * so that runs of this benchmark compare the adapters with each other rather than measure them in isolation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+public class ServerAdapterBenchmark
+{
+   @Path("/hello")
+   public static class HelloResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String hello()
+      {
+         return "hello";
+      }
+
+      @POST
+      @Consumes(MediaType.TEXT_PLAIN)
+      @Produces(MediaType.TEXT_PLAIN)
+      public String echo(String body)
+      {
+         return body;
+      }
+   }
+
+   public static class HelloApplication extends Application
+   {
+      @Override
+      public Set<Class<?>> getClasses()
+      {
+         return Collections.<Class<?>>singleton(HelloResource.class);
+      }
+   }
+
+   @Param({"netty", "vertx", "undertow", "sun"})
+   public String adapter;
+
+   @Param({"16", "16384"})
+   public int payload;
+
+   private EmbeddedJaxrsServer embedded;
+   private UndertowJaxrsServer undertow;
+   private ResteasyClient client;
+   private ResteasyWebTarget target;
+   private String body;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      int port = freePort();
+      if ("undertow".equals(adapter))
+      {
+         undertow = new UndertowJaxrsServer().deploy(HelloApplication.class);
+         undertow.start(Undertow.builder().addHttpListener(port, "localhost"));
+      }
+      else
+      {
+         if ("netty".equals(adapter))
+         {
+            NettyJaxrsServer server = new NettyJaxrsServer();
+            server.setPort(port);
+            embedded = server;
+         }
+         else if ("vertx".equals(adapter))
+         {
+            VertxJaxrsServer server = new VertxJaxrsServer();
+            server.setPort(port);
+            embedded = server;
+         }
+         else
+         {
+            SunHttpJaxrsServer server = new SunHttpJaxrsServer();
+            server.setPort(port);
+            embedded = server;
+         }
+         embedded.setRootResourcePath("");
+         embedded.setSecurityDomain(null);
+         embedded.getDeployment().getActualResourceClasses().add(HelloResource.class);
+         embedded.start();
+      }
+
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).connectionPoolSize(64).maxPooledPerRoute(64).build();
+      target = client.target("http://localhost:" + port + "/hello");
+      StringBuilder sb = new StringBuilder(payload);
+      while (sb.length() < payload)
+      {
+         sb.append('x');
+      }
+      body = sb.toString();
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      client.close();
+      if (undertow != null)
+      {
+         undertow.stop();
+      }
+      else
+      {
+         embedded.stop();
+      }
+   }
+
+   @Benchmark
+   public String get()
+   {
+      return target.request().get(String.class);
+   }
+
+   @Benchmark
+   public String post()
+   {
+      return target.request().post(Entity.text(body), String.class);
+   }
+
+   private static int freePort() throws IOException
+   {
+      // VertxJaxrsServer reports the configured port, not the bound one, so 0 cannot be used
+      try (ServerSocket socket = new ServerSocket(0))
+      {
+         return socket.getLocalPort();
+      }
+   }
+}
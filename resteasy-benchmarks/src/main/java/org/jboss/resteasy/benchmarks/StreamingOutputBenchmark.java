@@ -0,0 +1,111 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to transfer a large chunked response written through a {@link StreamingOutput} by {@link NettyJaxrsServer}
+ * over loopback, in small and in large writes.  The client reads the whole body and the benchmark fails if its
+ * length is wrong.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StreamingOutputBenchmark
+{
+   @Path("/large")
+   public static class LargeResource
+   {
+      @GET
+      @Produces(MediaType.APPLICATION_OCTET_STREAM)
+      public StreamingOutput large(@QueryParam("size") final int size, @QueryParam("write") final int write)
+      {
+         return output -> {
+            byte[] data = new byte[write];
+            for (int written = 0; written < size; written += write)
+            {
+               output.write(data, 0, Math.min(write, size - written));
+            }
+         };
+      }
+   }
+
+   @Param({"100", "65536"})
+   public int write;
+
+   @Param({"67108864"})
+   public int size;
+
+   private NettyJaxrsServer server;
+   private ResteasyClient client;
+   private ResteasyWebTarget target;
+   private final byte[] buf = new byte[64 * 1024];
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      server = new NettyJaxrsServer();
+      server.setPort(0);
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.start();
+      server.getDeployment().getRegistry().addPerRequestResource(LargeResource.class);
+      client = (ResteasyClient) ClientBuilder.newClient();
+      target = client.target("http://localhost:" + server.getPort() + "/large")
+            .queryParam("size", size).queryParam("write", write);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      client.close();
+      server.stop();
+   }
+
+   @Benchmark
+   public long transfer() throws IOException
+   {
+      long count = 0;
+      try (InputStream in = target.request().get(InputStream.class))
+      {
+         int n;
+         while ((n = in.read(buf)) != -1)
+         {
+            count += n;
+         }
+      }
+      if (count != size)
+      {
+         throw new IllegalStateException("Read " + count + " of " + size + " bytes");
+      }
+      return count;
+   }
+}
@@ -0,0 +1,129 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.jboss.resteasy.plugins.server.sun.http.HttpServerExecutors;
+import org.jboss.resteasy.plugins.server.sun.http.SunHttpJaxrsServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loopback load on {@link SunHttpJaxrsServer} with each executor of {@link HttpServerExecutors}, and without one
+ * ({@code dispatcher}), in which case the exchanges are handled one at a time.  The pools are sized to the number of
+ * cores.  Run it with increasing client threads ({@code -t 1}, {@code -t 4}, ... {@code -t max}) to see how
+ * throughput scales; {@code -p executor=virtual} adds virtual threads on a JVM that has them.  With
+ * {@code blockMillis} the resource method sleeps, as one calling another service would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+public class SunHttpExecutorBenchmark
+{
+   @Path("/work")
+   public static class WorkResource
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      public String work(@QueryParam("block") long blockMillis) throws InterruptedException
+      {
+         if (blockMillis > 0)
+         {
+            Thread.sleep(blockMillis);
+         }
+         return "done";
+      }
+   }
+
+   @Param({"dispatcher", "fixed", "workstealing"})
+   public String executor;
+
+   @Param({"0", "1"})
+   public long blockMillis;
+
+   private SunHttpJaxrsServer server;
+   private ExecutorService executorService;
+   private ResteasyClient client;
+   private ResteasyWebTarget target;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      int cores = Runtime.getRuntime().availableProcessors();
+      if ("fixed".equals(executor))
+      {
+         executorService = HttpServerExecutors.newFixedThreadPool(cores);
+      }
+      else if ("workstealing".equals(executor))
+      {
+         executorService = HttpServerExecutors.newWorkStealingPool(cores);
+      }
+      else if ("virtual".equals(executor))
+      {
+         executorService = HttpServerExecutors.newVirtualThreadPerTaskExecutor();
+      }
+
+      int port;
+      try (ServerSocket socket = new ServerSocket(0))
+      {
+         port = socket.getLocalPort();
+      }
+      server = new SunHttpJaxrsServer();
+      server.setPort(port);
+      server.setBacklog(1024);
+      server.setExecutor(executorService);
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.getDeployment().getActualResourceClasses().add(WorkResource.class);
+      server.start();
+
+      int connections = Math.max(64, 4 * cores);
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+            .connectionPoolSize(connections).maxPooledPerRoute(connections).build();
+      target = client.target("http://localhost:" + port + "/work").queryParam("block", blockMillis);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws InterruptedException
+   {
+      client.close();
+      server.stop();
+      if (executorService != null)
+      {
+         executorService.shutdown();
+         executorService.awaitTermination(10, TimeUnit.SECONDS);
+      }
+   }
+
+   @Benchmark
+   public String get()
+   {
+      return target.request().get(String.class);
+   }
+}
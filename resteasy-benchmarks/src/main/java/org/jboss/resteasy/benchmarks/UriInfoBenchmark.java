@@ -0,0 +1,90 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.specimpl.ResteasyUriInfo;
+import org.jboss.resteasy.util.Encode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the {@link ResteasyUriInfo} of a request, as the server adapters do it from the request URI, the
+ * query string and the context path, and what matching and parameter injection then read from it.  The request URI and
+ * base URI are only built by {@link #requestUri()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UriInfoBenchmark
+{
+   @Param({"simple", "query", "encoded"})
+   public String request;
+
+   private String absoluteUri;
+   private String queryString;
+   private String encodedPath;
+
+   @Setup
+   public void setup()
+   {
+      if ("simple".equals(request))
+      {
+         absoluteUri = "http://localhost:8080/app/api/customers/42";
+         queryString = null;
+      }
+      else if ("query".equals(request))
+      {
+         absoluteUri = "http://localhost:8080/app/api/customers/42/orders";
+         queryString = "status=open&sort=date&page=3&size=50";
+      }
+      else
+      {
+         absoluteUri = "http://localhost:8080/app/api/products/caf%C3%A9%20cr%C3%A8me;lang=fr/reviews";
+         queryString = "q=tr%C3%A8s%20bon&author=j%C3%BCrgen";
+      }
+      encodedPath = URI.create(absoluteUri).getRawPath();
+   }
+
+   @Benchmark
+   public ResteasyUriInfo create()
+   {
+      return new ResteasyUriInfo(absoluteUri, queryString, "/app");
+   }
+
+   @Benchmark
+   public Object match()
+   {
+      ResteasyUriInfo uriInfo = new ResteasyUriInfo(absoluteUri, queryString, "/app");
+      uriInfo.getPath();
+      uriInfo.getPathSegments();
+      uriInfo.getQueryParameters();
+      return uriInfo.getMatchingPath();
+   }
+
+   @Benchmark
+   public URI requestUri()
+   {
+      ResteasyUriInfo uriInfo = new ResteasyUriInfo(absoluteUri, queryString, "/app");
+      uriInfo.getBaseUri();
+      return uriInfo.getRequestUri();
+   }
+
+   @Benchmark
+   public String decodePath()
+   {
+      return Encode.decodePath(encodedPath);
+   }
+}
@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ClientEngineBenchmark_jmhType extends ClientEngineBenchmark_jmhType_B3 {
+}
+
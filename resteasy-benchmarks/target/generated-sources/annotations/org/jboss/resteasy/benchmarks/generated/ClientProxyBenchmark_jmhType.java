@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ClientProxyBenchmark_jmhType extends ClientProxyBenchmark_jmhType_B3 {
+}
+
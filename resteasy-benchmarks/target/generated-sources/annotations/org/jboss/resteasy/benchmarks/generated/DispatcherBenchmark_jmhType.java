@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class DispatcherBenchmark_jmhType extends DispatcherBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class Http2Benchmark_ThreadConnection_jmhType extends Http2Benchmark_ThreadConnection_jmhType_B3 {
+}
+
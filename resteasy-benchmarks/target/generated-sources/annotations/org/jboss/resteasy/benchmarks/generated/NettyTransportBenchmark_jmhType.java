@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class NettyTransportBenchmark_jmhType extends NettyTransportBenchmark_jmhType_B3 {
+}
+
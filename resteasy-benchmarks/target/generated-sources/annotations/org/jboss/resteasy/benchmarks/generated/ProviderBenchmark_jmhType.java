@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ProviderBenchmark_jmhType extends ProviderBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ResourceMethodMemoryBenchmark_Deployment_jmhType extends ResourceMethodMemoryBenchmark_Deployment_jmhType_B3 {
+}
+
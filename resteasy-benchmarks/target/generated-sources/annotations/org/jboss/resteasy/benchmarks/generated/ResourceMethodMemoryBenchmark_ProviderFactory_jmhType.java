@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ResourceMethodMemoryBenchmark_ProviderFactory_jmhType extends ResourceMethodMemoryBenchmark_ProviderFactory_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ResourceMethodMemoryBenchmark_jmhType extends ResourceMethodMemoryBenchmark_jmhType_B3 {
+}
+
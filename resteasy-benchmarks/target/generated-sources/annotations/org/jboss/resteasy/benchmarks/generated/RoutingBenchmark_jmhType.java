@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class RoutingBenchmark_jmhType extends RoutingBenchmark_jmhType_B3 {
+}
+
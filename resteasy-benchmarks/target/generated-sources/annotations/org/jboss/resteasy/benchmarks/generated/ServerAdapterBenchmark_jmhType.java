@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class ServerAdapterBenchmark_jmhType extends ServerAdapterBenchmark_jmhType_B3 {
+}
+
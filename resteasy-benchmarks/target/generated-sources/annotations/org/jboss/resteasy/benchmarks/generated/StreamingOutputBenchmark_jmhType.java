@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class StreamingOutputBenchmark_jmhType extends StreamingOutputBenchmark_jmhType_B3 {
+}
+
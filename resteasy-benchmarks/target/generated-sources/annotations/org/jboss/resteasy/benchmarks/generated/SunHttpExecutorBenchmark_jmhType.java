@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class SunHttpExecutorBenchmark_jmhType extends SunHttpExecutorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jboss.resteasy.benchmarks.generated;
+public class UriInfoBenchmark_jmhType extends UriInfoBenchmark_jmhType_B3 {
+}
+
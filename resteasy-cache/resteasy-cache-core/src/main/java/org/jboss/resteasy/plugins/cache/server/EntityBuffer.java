@@ -0,0 +1,89 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Buffer of an entity to cache.  It checksums the entity as it is written, so no second pass over it is needed to
+ * create an ETag, and copies it to the response stream as it is written when the ETag is already known.  The buffered
+ * entity is handed to the cache without copying it.
+ */
+class EntityBuffer extends OutputStream
+{
+   private final CRC32 checksum;
+   private final OutputStream target;
+   private byte[] buf = new byte[4096];
+   private int count;
+
+   /**
+    * @param checksum if a checksum of the entity has to be computed
+    * @param target stream every write is copied to, may be null
+    */
+   EntityBuffer(final boolean checksum, final OutputStream target)
+   {
+      this.checksum = checksum ? new CRC32() : null;
+      this.target = target;
+   }
+
+   @Override
+   public void write(int b) throws IOException
+   {
+      ensureCapacity(count + 1);
+      buf[count++] = (byte) b;
+      if (checksum != null) checksum.update(b);
+      if (target != null) target.write(b);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException
+   {
+      ensureCapacity(count + len);
+      System.arraycopy(b, off, buf, count, len);
+      count += len;
+      if (checksum != null) checksum.update(b, off, len);
+      if (target != null) target.write(b, off, len);
+   }
+
+   @Override
+   public void flush() throws IOException
+   {
+      if (target != null) target.flush();
+   }
+
+   int size()
+   {
+      return count;
+   }
+
+   void writeTo(OutputStream out) throws IOException
+   {
+      out.write(buf, 0, count);
+   }
+
+   /**
+    * @return ETag made of the checksum and the length of the entity
+    */
+   String getEtag()
+   {
+      return Long.toHexString(checksum.getValue()) + "-" + Integer.toHexString(count);
+   }
+
+   /**
+    * @return buffered entity, sharing the array of this buffer
+    */
+   ByteBuffer toByteBuffer()
+   {
+      return ByteBuffer.wrap(buf, 0, count).slice();
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity < 0) throw new OutOfMemoryError();
+      if (capacity <= buf.length) return;
+      int grown = buf.length << 1;
+      buf = Arrays.copyOf(buf, grown < capacity || grown < 0 ? capacity : grown);
+   }
+}
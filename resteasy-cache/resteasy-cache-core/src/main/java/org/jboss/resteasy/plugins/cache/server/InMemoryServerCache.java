@@ -0,0 +1,544 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process {@link ServerCache} bounded by the size of the cached entries in bytes.
+ *
+ * All variants of a URI are kept in one immutable array that is replaced atomically, so a lookup is a single map
+ * access and concurrent adds of variants of the same URI don't lose each other.  Reads never block, accesses are
+ * recorded in a lossy buffer and, like all writes, replayed by whichever thread gets the maintenance lock.
+ *
+ * Eviction is segmented LRU.  New entries start in the probation segment and move to the protected segment when they
+ * are hit, so a burst of URIs requested only once evicts other one-time entries rather than the frequently used
+ * ones.  Expired entries are dropped when they are looked up, after their <code>stale-while-revalidate</code> period
+ * if the response had one.
+ *
+ * Entities are kept on the heap, in the array they were buffered in unless it has too much spare capacity, or in
+ * direct memory with {@link #setDirect(boolean)}.  Variants with a different <code>Content-Encoding</code> are kept
+ * side by side.
+ */
+public class InMemoryServerCache implements ServerCache
+{
+   public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+   // headers, etag and bookkeeping of an entry, roughly
+   private static final int ENTRY_OVERHEAD = 256;
+   private static final int READ_BUFFER_SIZE = 128;
+
+   public static class CacheEntry implements Entry
+   {
+      private final ByteBuffer cached;
+      private final int expires;
+      private final int staleWhileRevalidate;
+      private final long timestamp = System.currentTimeMillis();
+      private final String etag;
+      private final MultivaluedMap<String, Object> headers;
+      private final MediaType mediaType;
+      private final MultivaluedMap<String, String> varyHeaders;
+      private final String contentEncoding;
+      private final long identityLength;
+
+      protected CacheEntry(final MultivaluedMap<String, Object> headers, final ByteBuffer cached, final int expires, final int staleWhileRevalidate, final String etag, final MediaType mediaType, final MultivaluedMap<String, String> varyHeaders)
+      {
+         this(headers, cached, expires, staleWhileRevalidate, etag, mediaType, varyHeaders, -1);
+      }
+
+      protected CacheEntry(final MultivaluedMap<String, Object> headers, final ByteBuffer cached, final int expires, final int staleWhileRevalidate, final String etag, final MediaType mediaType, final MultivaluedMap<String, String> varyHeaders, final long identityLength)
+      {
+         this.cached = cached;
+         this.expires = expires;
+         this.staleWhileRevalidate = staleWhileRevalidate;
+         this.headers = headers;
+         this.etag = etag;
+         this.mediaType = mediaType;
+         this.varyHeaders = varyHeaders;
+         Object encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+         this.contentEncoding = encoding == null ? null : encoding.toString().toLowerCase(Locale.ENGLISH);
+         this.identityLength = contentEncoding == null ? cached.remaining() : identityLength;
+      }
+
+      public int getExpirationInSeconds()
+      {
+         return expires - (int) ((System.currentTimeMillis() - timestamp) / 1000);
+      }
+
+      public boolean isExpired()
+      {
+         return System.currentTimeMillis() - timestamp >= expires * 1000L;
+      }
+
+      public int getStaleWhileRevalidate()
+      {
+         return staleWhileRevalidate;
+      }
+
+      boolean isDead()
+      {
+         return System.currentTimeMillis() - timestamp >= (expires + (long) staleWhileRevalidate) * 1000L;
+      }
+
+      public String getEtag()
+      {
+         return etag;
+      }
+
+      public MultivaluedMap<String, Object> getHeaders()
+      {
+         return headers;
+      }
+
+      public MultivaluedMap<String, String> getVaryHeaders()
+      {
+         return varyHeaders;
+      }
+
+      public byte[] getCached()
+      {
+         if (cached.hasArray() && cached.arrayOffset() == 0 && cached.array().length == cached.remaining()) return cached.array();
+         byte[] bytes = new byte[cached.remaining()];
+         cached.duplicate().get(bytes);
+         return bytes;
+      }
+
+      @Override
+      public ByteBuffer getCachedBuffer()
+      {
+         return cached.duplicate();
+      }
+
+      public MediaType getMediaType()
+      {
+         return mediaType;
+      }
+
+      @Override
+      public String getContentEncoding()
+      {
+         return contentEncoding;
+      }
+
+      @Override
+      public long getIdentityLength()
+      {
+         return identityLength;
+      }
+
+      boolean isSameVariant(CacheEntry other)
+      {
+         return mediaType.equals(other.mediaType) && varyHeaders.equals(other.varyHeaders) && Objects.equals(contentEncoding, other.contentEncoding);
+      }
+   }
+
+   private static final class Node
+   {
+      private final String uri;
+      private final CacheEntry entry;
+      private final long weight;
+
+      // guarded by the eviction lock
+      private Node prev;
+      private Node next;
+      private boolean inProtected;
+      private boolean linked;
+      private boolean retired;
+
+      Node(final String uri, final CacheEntry entry, final long weight)
+      {
+         this.uri = uri;
+         this.entry = entry;
+         this.weight = weight;
+      }
+   }
+
+   /**
+    * Access ordered list of nodes, least recently used first.
+    */
+   private static final class Segment
+   {
+      private Node head;
+      private Node tail;
+      private long weight;
+
+      void addLast(Node node)
+      {
+         node.prev = tail;
+         node.next = null;
+         if (tail == null) head = node;
+         else tail.next = node;
+         tail = node;
+         weight += node.weight;
+      }
+
+      void remove(Node node)
+      {
+         if (node.prev == null) head = node.next;
+         else node.prev.next = node.next;
+         if (node.next == null) tail = node.prev;
+         else node.next.prev = node.prev;
+         node.prev = null;
+         node.next = null;
+         weight -= node.weight;
+      }
+   }
+
+   protected final ConcurrentHashMap<String, Node[]> cache = new ConcurrentHashMap<String, Node[]>();
+   private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<Runnable>();
+   private final ConcurrentLinkedQueue<Node> readBuffer = new ConcurrentLinkedQueue<Node>();
+   private final AtomicInteger readBufferSize = new AtomicInteger();
+   private final ReentrantLock evictionLock = new ReentrantLock();
+   private final Segment probation = new Segment();
+   private final Segment protectedSegment = new Segment();
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong evictions = new AtomicLong();
+   private volatile long maxSize;
+   private volatile boolean direct;
+   private volatile long size;
+   private volatile int entries;
+
+   public InMemoryServerCache()
+   {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   /**
+    * @param maxSize max size of the cached entries in bytes, including an estimate of their headers
+    */
+   public InMemoryServerCache(final long maxSize)
+   {
+      this.maxSize = maxSize;
+   }
+
+   @Override
+   public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers)
+   {
+      return get(uri, accept, null, headers);
+   }
+
+   @Override
+   public Entry get(String uri, MediaType accept, String contentEncoding, MultivaluedMap<String, String> headers)
+   {
+      Node[] nodes = cache.get(uri);
+      if (nodes != null)
+      {
+         for (Node node : nodes)
+         {
+            CacheEntry entry = node.entry;
+            if (entry.isDead())
+            {
+               remove(node);
+               continue;
+            }
+            if (accept.isCompatible(entry.getMediaType()) && ServerCache.isEncoded(entry, contentEncoding) && !ServerCache.mayVary(entry, headers))
+            {
+               hits.incrementAndGet();
+               afterRead(node);
+               return entry;
+            }
+         }
+      }
+      misses.incrementAndGet();
+      return null;
+   }
+
+   @Override
+   public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      return add(uri, mediaType, cc, headers, ByteBuffer.wrap(entity), etag, varyHeaders);
+   }
+
+   @Override
+   public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, ByteBuffer entity, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      return add(uri, mediaType, cc, headers, entity, -1, etag, varyHeaders);
+   }
+
+   @Override
+   public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, ByteBuffer entity, long identityLength, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      int staleWhileRevalidate = ServerCache.getStaleWhileRevalidate(cc);
+      // would be expired right away
+      if (cc.getMaxAge() <= 0) return new CacheEntry(headers, entity, cc.getMaxAge(), staleWhileRevalidate, etag, mediaType, varyHeaders, identityLength);
+      ByteBuffer stored = store(entity);
+      CacheEntry entry = new CacheEntry(headers, stored, cc.getMaxAge(), staleWhileRevalidate, etag, mediaType, varyHeaders, identityLength);
+      Node node = new Node(uri, entry, weigh(uri, stored));
+      if (node.weight > maxSize) return entry;
+
+      Node[] replaced = new Node[1];
+      cache.compute(uri, (key, nodes) -> {
+         if (nodes == null) return new Node[]{node};
+         for (int i = 0; i < nodes.length; i++)
+         {
+            if (nodes[i].entry.isSameVariant(entry))
+            {
+               replaced[0] = nodes[i];
+               Node[] copy = nodes.clone();
+               copy[i] = node;
+               return copy;
+            }
+         }
+         Node[] copy = Arrays.copyOf(nodes, nodes.length + 1);
+         copy[nodes.length] = node;
+         return copy;
+      });
+      afterWrite(() -> {
+         if (replaced[0] != null) onRemove(replaced[0]);
+         onAdd(node);
+      });
+      return entry;
+   }
+
+   @Override
+   public void remove(String uri)
+   {
+      Node[] nodes = cache.remove(uri);
+      if (nodes == null) return;
+      afterWrite(() -> {
+         for (Node node : nodes) onRemove(node);
+      });
+   }
+
+   @Override
+   public void clear()
+   {
+      for (String uri : cache.keySet())
+      {
+         remove(uri);
+      }
+   }
+
+   /**
+    * Apply pending reads and writes and evict entries over the budget now instead of on the next write.
+    */
+   public void cleanUp()
+   {
+      evictionLock.lock();
+      try
+      {
+         maintenance();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public boolean isDirect()
+   {
+      return direct;
+   }
+
+   /**
+    * @param direct if entities added from now on are copied to direct memory, off the heap
+    */
+   public void setDirect(boolean direct)
+   {
+      this.direct = direct;
+   }
+
+   public long getMaxSize()
+   {
+      return maxSize;
+   }
+
+   public void setMaxSize(long maxSize)
+   {
+      this.maxSize = maxSize;
+      cleanUp();
+   }
+
+   /**
+    * @return size of the cached entries in bytes, as accounted for the budget
+    */
+   public long getSize()
+   {
+      return size;
+   }
+
+   /**
+    * @return number of cached variants
+    */
+   public int getEntryCount()
+   {
+      return entries;
+   }
+
+   public long getHits()
+   {
+      return hits.get();
+   }
+
+   public long getMisses()
+   {
+      return misses.get();
+   }
+
+   public long getEvictions()
+   {
+      return evictions.get();
+   }
+
+   protected long weigh(String uri, ByteBuffer entity)
+   {
+      return (entity.hasArray() ? entity.array().length : entity.capacity()) + 2L * uri.length() + ENTRY_OVERHEAD;
+   }
+
+   private ByteBuffer store(ByteBuffer entity)
+   {
+      if (direct)
+      {
+         ByteBuffer copy = ByteBuffer.allocateDirect(entity.remaining());
+         copy.put(entity.duplicate());
+         copy.flip();
+         return copy;
+      }
+      // don't keep the spare capacity of the buffer the entity was written to
+      if (entity.hasArray() && entity.array().length - entity.remaining() > entity.remaining() / 4)
+      {
+         byte[] bytes = new byte[entity.remaining()];
+         entity.duplicate().get(bytes);
+         return ByteBuffer.wrap(bytes);
+      }
+      return entity;
+   }
+
+   private void remove(Node node)
+   {
+      cache.computeIfPresent(node.uri, (key, nodes) -> without(nodes, node));
+      afterWrite(() -> onRemove(node));
+   }
+
+   private static Node[] without(Node[] nodes, Node node)
+   {
+      for (int i = 0; i < nodes.length; i++)
+      {
+         if (nodes[i] != node) continue;
+         if (nodes.length == 1) return null;
+         Node[] copy = new Node[nodes.length - 1];
+         System.arraycopy(nodes, 0, copy, 0, i);
+         System.arraycopy(nodes, i + 1, copy, i, nodes.length - i - 1);
+         return copy;
+      }
+      return nodes;
+   }
+
+   private void afterRead(Node node)
+   {
+      // lossy, a dropped access only makes the eviction order a little less accurate
+      if (readBufferSize.incrementAndGet() > READ_BUFFER_SIZE)
+      {
+         readBufferSize.decrementAndGet();
+         tryMaintenance();
+         return;
+      }
+      readBuffer.add(node);
+   }
+
+   private void afterWrite(Runnable task)
+   {
+      writeBuffer.add(task);
+      tryMaintenance();
+   }
+
+   private void tryMaintenance()
+   {
+      while (evictionLock.tryLock())
+      {
+         try
+         {
+            maintenance();
+         }
+         finally
+         {
+            evictionLock.unlock();
+         }
+         // a write added while the lock was held would otherwise wait for the next one
+         if (writeBuffer.isEmpty()) return;
+      }
+   }
+
+   private void maintenance()
+   {
+      Runnable task;
+      while ((task = writeBuffer.poll()) != null)
+      {
+         task.run();
+      }
+      Node node;
+      while ((node = readBuffer.poll()) != null)
+      {
+         readBufferSize.decrementAndGet();
+         onAccess(node);
+      }
+      evict();
+      size = probation.weight + protectedSegment.weight;
+   }
+
+   private void onAdd(Node node)
+   {
+      // removed before its add was applied
+      if (node.retired) return;
+      node.linked = true;
+      probation.addLast(node);
+      entries++;
+   }
+
+   private void onRemove(Node node)
+   {
+      if (node.retired) return;
+      node.retired = true;
+      if (!node.linked) return;
+      node.linked = false;
+      (node.inProtected ? protectedSegment : probation).remove(node);
+      entries--;
+   }
+
+   private void onAccess(Node node)
+   {
+      if (!node.linked) return;
+      if (node.inProtected)
+      {
+         protectedSegment.remove(node);
+         protectedSegment.addLast(node);
+         return;
+      }
+      probation.remove(node);
+      node.inProtected = true;
+      protectedSegment.addLast(node);
+      // the protected segment gets at most 80% of the budget, its least recently used entries go back on probation
+      long maxProtected = maxSize - maxSize / 5;
+      while (protectedSegment.weight > maxProtected && protectedSegment.head != node)
+      {
+         Node demoted = protectedSegment.head;
+         protectedSegment.remove(demoted);
+         demoted.inProtected = false;
+         probation.addLast(demoted);
+      }
+   }
+
+   private void evict()
+   {
+      while (probation.weight + protectedSegment.weight > maxSize)
+      {
+         Node victim = probation.head != null ? probation.head : protectedSegment.head;
+         if (victim == null) break;
+         cache.computeIfPresent(victim.uri, (key, nodes) -> without(nodes, victim));
+         onRemove(victim);
+         evictions.incrementAndGet();
+      }
+   }
+}
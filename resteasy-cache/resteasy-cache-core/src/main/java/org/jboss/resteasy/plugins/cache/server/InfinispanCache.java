@@ -116,6 +116,12 @@ public class InfinispanCache implements ServerCache
    }
 
    public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers)
+   {
+      return get(uri, accept, null, headers);
+   }
+
+   @Override
+   public Entry get(String uri, MediaType accept, String contentEncoding, MultivaluedMap<String, String> headers)
    {
       @SuppressWarnings("unchecked")
       Set<String> entries = (Set<String>)cache.get(uri);
@@ -125,7 +131,7 @@ public class InfinispanCache implements ServerCache
       {
          CacheEntry cacheEntry = (CacheEntry)cache.get(entry);
          if (cacheEntry == null) continue;
-         if (accept.isCompatible(cacheEntry.getMediaType()) && !ServerCache.mayVary(cacheEntry, headers))
+         if (accept.isCompatible(cacheEntry.getMediaType()) && ServerCache.isEncoded(cacheEntry, contentEncoding) && !ServerCache.mayVary(cacheEntry, headers))
          {
             return cacheEntry;
          }
@@ -142,6 +148,8 @@ public class InfinispanCache implements ServerCache
       StringBuffer varyHeadersString = new StringBuffer();
       varyHeaders.forEach((name, values) -> values.forEach(value -> varyHeadersString.append(name).append(value)));
       String entryName = uri + "    " + mediaType.toString() + "    " + varyHeadersString.toString();
+      String contentEncoding = cacheEntry.getContentEncoding();
+      if (contentEncoding != null) entryName += "    " + contentEncoding.toLowerCase();
       Set<String> entries = (Set<String>)cache.get(uri);
       Set<String> newEntries = new HashSet<String>();
       newEntries.add(entryName);
@@ -0,0 +1,161 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets a single request compute the response for a cache key.  Concurrent misses of the same key wait until the
+ * first one has cached its response and are then served from the cache, instead of all of them running the resource
+ * method and adding the same entry.
+ *
+ * A waiting request gives up after the timeout and runs the resource method itself.  A flight whose leader timed out
+ * is dropped so the next miss leads a new one.
+ */
+public class RequestCoalescer
+{
+   public static final long DEFAULT_TIMEOUT = 5000;
+
+   /**
+    * Request property holding the flight the request leads.
+    */
+   static final String FLIGHT = RequestCoalescer.class.getName() + ".flight";
+
+   final class Flight
+   {
+      private final String key;
+      private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+
+      Flight(final String key)
+      {
+         this.key = key;
+      }
+
+      void release()
+      {
+         flights.remove(key, this);
+         done.complete(null);
+      }
+
+      void abandon()
+      {
+         flights.remove(key, this);
+      }
+   }
+
+   private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+   private final long timeout;
+   private final ScheduledThreadPoolExecutor timer;
+   private volatile Executor executor = ForkJoinPool.commonPool();
+
+   public RequestCoalescer()
+   {
+      this(DEFAULT_TIMEOUT);
+   }
+
+   /**
+    * @param timeout max time in milliseconds a request waits for the response of another one
+    */
+   public RequestCoalescer(final long timeout)
+   {
+      this.timeout = timeout;
+      timer = new ScheduledThreadPoolExecutor(1, r -> {
+         Thread thread = new Thread(r, "resteasy-cache-coalescer");
+         thread.setDaemon(true);
+         return thread;
+      });
+      timer.setRemoveOnCancelPolicy(true);
+      timer.setKeepAliveTime(1, TimeUnit.SECONDS);
+      timer.allowCoreThreadTimeOut(true);
+   }
+
+   public long getTimeout()
+   {
+      return timeout;
+   }
+
+   /**
+    * @param executor executor resuming the requests that waited asynchronously
+    */
+   public void setExecutor(Executor executor)
+   {
+      this.executor = executor;
+   }
+
+   /**
+    * Join the flight of a key.  The first request leads it and must release it once its response is cached or
+    * written, see {@link #release(Object)}.
+    *
+    * @param key key of the response
+    * @param request request joining
+    * @return null if the request leads the flight, otherwise the flight to wait for
+    */
+   Flight join(String key, ContainerRequestContext request)
+   {
+      Flight flight = new Flight(key);
+      Flight current = flights.putIfAbsent(key, flight);
+      if (current != null) return current;
+      request.setProperty(FLIGHT, flight);
+      return null;
+   }
+
+   /**
+    * Run a callback once the flight is released or the timeout elapsed, without blocking the caller.
+    */
+   void await(Flight flight, Runnable callback)
+   {
+      AtomicBoolean called = new AtomicBoolean();
+      ScheduledFuture<?> expiry = timer.schedule(() -> {
+         if (!called.compareAndSet(false, true)) return;
+         flight.abandon();
+         executor.execute(callback);
+      }, timeout, TimeUnit.MILLISECONDS);
+      flight.done.whenComplete((v, t) -> {
+         if (!called.compareAndSet(false, true)) return;
+         expiry.cancel(false);
+         executor.execute(callback);
+      });
+   }
+
+   /**
+    * Block until the flight is released or the timeout elapsed.
+    */
+   void awaitUninterruptibly(Flight flight)
+   {
+      try
+      {
+         flight.done.get(timeout, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+      catch (ExecutionException e)
+      {
+         // never completed exceptionally
+      }
+      catch (TimeoutException e)
+      {
+         flight.abandon();
+      }
+   }
+
+   /**
+    * Release the flight led by a request, if any.
+    *
+    * @param flight value of the {@link #FLIGHT} request property
+    */
+   static void release(Object flight)
+   {
+      if (flight instanceof Flight) ((Flight) flight).release();
+   }
+}
@@ -1,9 +1,11 @@
 package org.jboss.resteasy.plugins.cache.server;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 
@@ -32,15 +34,105 @@ public interface ServerCache
 
       byte[] getCached();
 
+      /**
+       * @return the cached entity from its start, possibly in direct memory, must not be modified
+       */
+      default ByteBuffer getCachedBuffer()
+      {
+         return ByteBuffer.wrap(getCached());
+      }
+
       MultivaluedMap<String, Object> getHeaders();
 
       MultivaluedMap<String, String> getVaryHeaders();
+
+      /**
+       * @return content coding of the cached entity, null if it isn't encoded
+       */
+      default String getContentEncoding()
+      {
+         Object encoding = getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+         return encoding == null ? null : encoding.toString();
+      }
+
+      /**
+       * @return length of the entity before its content coding, -1 if the cache doesn't know it
+       */
+      default long getIdentityLength()
+      {
+         return getContentEncoding() == null ? getCachedBuffer().remaining() : -1;
+      }
+
+      /**
+       * @return seconds after expiration during which the entry may still be served while a request refreshes it
+       */
+      default int getStaleWhileRevalidate()
+      {
+         return 0;
+      }
+   }
+
+   /**
+    * @return value of the <code>stale-while-revalidate</code> extension of a cache control, 0 if it has none
+    */
+   static int getStaleWhileRevalidate(CacheControl cc)
+   {
+      String value = cc.getCacheExtension().get("stale-while-revalidate");
+      if (value == null) return 0;
+      try
+      {
+         return Math.max(0, Integer.parseInt(value.trim()));
+      }
+      catch (NumberFormatException e)
+      {
+         return 0;
+      }
    }
 
    Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders);
 
+   /**
+    * Add an entity the cache may keep without copying it.  The buffer must not be modified afterwards.
+    */
+   default Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, ByteBuffer entity, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      byte[] bytes = new byte[entity.remaining()];
+      entity.duplicate().get(bytes);
+      return add(uri, mediaType, cc, headers, bytes, etag, varyHeaders);
+   }
+
+   /**
+    * Add a content encoded variant along with the length of the entity before it was encoded, see
+    * {@link Entry#getIdentityLength()}.  Caches that don't keep that length don't need to override this.
+    */
+   default Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, ByteBuffer entity, long identityLength, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      return add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+   }
+
+   /**
+    * Get the variant that isn't content encoded.
+    */
    Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers);
 
+   /**
+    * Get the variant with a content coding.  Caches that keep a single variant per media type don't need to override
+    * this.
+    *
+    * @param contentEncoding content coding of the variant, null for the variant that isn't encoded
+    */
+   default Entry get(String uri, MediaType accept, String contentEncoding, MultivaluedMap<String, String> headers)
+   {
+      Entry entry = get(uri, accept, headers);
+      return entry != null && isEncoded(entry, contentEncoding) ? entry : null;
+   }
+
+   static boolean isEncoded(Entry entry, String contentEncoding)
+   {
+      String encoding = entry.getContentEncoding();
+      return contentEncoding == null ? encoding == null : contentEncoding.equalsIgnoreCase(encoding);
+   }
+
    void remove(String uri);
 
    void clear();
@@ -7,13 +7,7 @@ import javax.ws.rs.core.Feature;
 import javax.ws.rs.core.FeatureContext;
 
 import org.infinispan.Cache;
-import org.infinispan.configuration.cache.Configuration;
-import org.infinispan.configuration.cache.ConfigurationBuilder;
-import org.infinispan.configuration.global.GlobalConfiguration;
-import org.infinispan.configuration.global.GlobalConfigurationBuilder;
-import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.manager.DefaultCacheManager;
-import org.infinispan.manager.EmbeddedCacheManager;
 import org.jboss.resteasy.core.ResteasyContext;
 import org.jboss.resteasy.plugins.cache.server.i18n.Messages;
 import org.jboss.resteasy.spi.ResteasyConfiguration;
@@ -40,8 +34,10 @@ public class ServerCacheFeature implements Feature
    {
       ServerCache cache = getCache(configurable);
       if (cache == null) return false;
-      configurable.register(new ServerCacheHitFilter(cache));
-      configurable.register(new ServerCacheInterceptor(cache));
+      ServerCacheStatistics statistics = new ServerCacheStatistics();
+      configurable.property(ServerCacheStatistics.class.getName(), statistics);
+      configurable.register(new ServerCacheHitFilter(cache, getCoalescer(configurable), statistics));
+      configurable.register(new ServerCacheInterceptor(cache, statistics));
       return true;
    }
 
@@ -58,6 +54,23 @@ public class ServerCacheFeature implements Feature
 
    }
 
+   /**
+    * Coalescing of concurrent cache misses is enabled with the <code>server.request.cache.coalesce</code> parameter,
+    * <code>server.request.cache.coalesce.timeout</code> sets how long in milliseconds a request waits for another
+    * one to compute the response.
+    */
+   protected RequestCoalescer getCoalescer(Configurable configurable)
+   {
+      Object coalesce = configurable.getConfiguration().getProperty("server.request.cache.coalesce");
+      if (coalesce == null) coalesce = getConfigProperty("server.request.cache.coalesce");
+      if (coalesce == null || !Boolean.parseBoolean(coalesce.toString().trim())) return null;
+
+      Object timeout = configurable.getConfiguration().getProperty("server.request.cache.coalesce.timeout");
+      if (timeout == null) timeout = getConfigProperty("server.request.cache.coalesce.timeout");
+      if (timeout == null) return new RequestCoalescer();
+      return new RequestCoalescer(Long.parseLong(timeout.toString().trim()));
+   }
+
    protected ServerCache getCache(Configurable configurable)
    {
       if (this.cache != null) return this.cache;
@@ -68,23 +81,17 @@ public class ServerCacheFeature implements Feature
       return getDefaultCache();
    }
 
+   /**
+    * Cache used when none is registered and no Infinispan configuration is given, an {@link InMemoryServerCache}
+    * whose size in bytes can be set with the <code>server.request.cache.max.size</code> parameter.  Entities are
+    * kept in direct memory if <code>server.request.cache.direct</code> is true.
+    */
    protected ServerCache getDefaultCache()
    {
-      GlobalConfiguration gconfig = new GlobalConfigurationBuilder()
-         .globalJmxStatistics()
-         .allowDuplicateDomains(true)
-         .enable()
-         .jmxDomain("custom-cache")
-         .build();
-      Configuration configuration = new ConfigurationBuilder()
-         .eviction()
-         .strategy(EvictionStrategy.LIRS)
-         .maxEntries(100)
-         .jmxStatistics().enable()
-         .build();
-      EmbeddedCacheManager manager = new DefaultCacheManager(gconfig, configuration);
-      Cache<Object, Object> c = manager.getCache("custom-cache");
-      return new InfinispanCache(c);
+      String maxSize = getConfigProperty("server.request.cache.max.size");
+      InMemoryServerCache cache = maxSize == null ? new InMemoryServerCache() : new InMemoryServerCache(Long.parseLong(maxSize.trim()));
+      cache.setDirect(Boolean.parseBoolean(getConfigProperty("server.request.cache.direct")));
+      return cache;
    }
 
    protected ServerCache getXmlCache(Configurable configurable)
@@ -1,14 +1,24 @@
 package org.jboss.resteasy.plugins.cache.server;
 
+import org.jboss.resteasy.core.interception.jaxrs.SuspendableContainerRequestContext;
+import org.jboss.resteasy.plugins.interceptors.GZIPEncodingInterceptor;
+import org.jboss.resteasy.util.HttpHeaderNames;
+
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -16,9 +26,11 @@ import java.util.Map;
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
  * @version $Revision: 1 $
  */
-public class ServerCacheHitFilter implements ContainerRequestFilter
+public class ServerCacheHitFilter implements ContainerRequestFilter, ContainerResponseFilter
 {
    protected ServerCache cache;
+   protected RequestCoalescer coalescer;
+   protected ServerCacheStatistics statistics;
    public static final String DO_NOT_CACHE_RESPONSE = "DO NOT CACHE RESPONSE";
 
    public ServerCacheHitFilter(final ServerCache cache)
@@ -26,6 +38,25 @@ public class ServerCacheHitFilter implements ContainerRequestFilter
       this.cache = cache;
    }
 
+   /**
+    * @param cache cache
+    * @param coalescer if not null, concurrent misses of the same URI and media type wait for the first one, and
+    *                  expired entries are served during their <code>stale-while-revalidate</code> period while one
+    *                  request refreshes them
+    */
+   public ServerCacheHitFilter(final ServerCache cache, final RequestCoalescer coalescer)
+   {
+      this.cache = cache;
+      this.coalescer = coalescer;
+   }
+
+   public ServerCacheHitFilter(final ServerCache cache, final RequestCoalescer coalescer, final ServerCacheStatistics statistics)
+   {
+      this.cache = cache;
+      this.coalescer = coalescer;
+      this.statistics = statistics;
+   }
+
    @Context
    protected Request validation;
 
@@ -43,55 +74,155 @@ public class ServerCacheHitFilter implements ContainerRequestFilter
       }
    }
 
-   private void handleGET(ContainerRequestContext request, String key)
+   @Override
+   public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException
+   {
+      // no entity to cache, ServerCacheInterceptor won't be called
+      if (!response.hasEntity()) RequestCoalescer.release(request.getProperty(RequestCoalescer.FLIGHT));
+   }
+
+   private MediaType getCachedMediaType(ContainerRequestContext request)
    {
-      ServerCache.Entry entry = null;
       List<MediaType> acceptableMediaTypes = request.getAcceptableMediaTypes();
       if (acceptableMediaTypes != null && acceptableMediaTypes.size() > 0)
       {
          // only see if most desired is cached.
-         entry = cache.get(key, acceptableMediaTypes.get(0), request.getHeaders());
+         return acceptableMediaTypes.get(0);
       }
-      else
+      return MediaType.WILDCARD_TYPE;
+   }
+
+   /**
+    * The gzip variant if the client accepts it and it is cached, the variant that isn't encoded otherwise.
+    */
+   private ServerCache.Entry lookup(ContainerRequestContext request, String key, MediaType mediaType)
+   {
+      if (acceptsGzip(request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING)))
       {
-         entry = cache.get(key, MediaType.WILDCARD_TYPE, request.getHeaders());
+         ServerCache.Entry entry = cache.get(key, mediaType, "gzip", request.getHeaders());
+         if (entry != null) return entry;
       }
-      if (entry != null)
+      return cache.get(key, mediaType, null, request.getHeaders());
+   }
+
+   private static boolean acceptsGzip(List<String> acceptEncoding)
+   {
+      if (acceptEncoding == null) return false;
+      for (String header : acceptEncoding)
       {
-         if (entry.isExpired())
+         for (String coding : header.split(","))
          {
-            cache.remove(key);
-            return;
+            int params = coding.indexOf(';');
+            String name = (params < 0 ? coding : coding.substring(0, params)).trim();
+            if (!name.equalsIgnoreCase("gzip")) continue;
+            return params < 0 || !coding.substring(params + 1).replace(" ", "").matches("q=0(\\.0*)?");
          }
-         else
+      }
+      return false;
+   }
+
+   private void handleGET(ContainerRequestContext request, String key)
+   {
+      MediaType mediaType = getCachedMediaType(request);
+      ServerCache.Entry entry = lookup(request, key, mediaType);
+      if (entry != null && !entry.isExpired())
+      {
+         serve(request, validation, entry);
+         return;
+      }
+      if (coalescer == null)
+      {
+         if (entry != null) cache.remove(key);
+         return;
+      }
+
+      String flightKey = key + " " + mediaType;
+      if (entry != null && entry.getExpirationInSeconds() + entry.getStaleWhileRevalidate() > 0)
+      {
+         // one request refreshes the entry, the others get the stale one meanwhile
+         if (coalescer.join(flightKey, request) != null) serve(request, validation, entry);
+         return;
+      }
+      if (entry != null) cache.remove(key);
+
+      RequestCoalescer.Flight flight = coalescer.join(flightKey, request);
+      if (flight == null) return;
+      if (request instanceof SuspendableContainerRequestContext)
+      {
+         SuspendableContainerRequestContext suspendable = (SuspendableContainerRequestContext) request;
+         // the Request proxy can't be resolved on the thread resuming the request
+         Request preconditions = request.getRequest();
+         suspendable.suspend();
+         coalescer.await(flight, () -> {
+            ServerCache.Entry cached = lookup(request, key, mediaType);
+            if (cached != null && !cached.isExpired()) serve(request, preconditions, cached);
+            else suspendable.resume();
+         });
+      }
+      else
+      {
+         coalescer.awaitUninterruptibly(flight);
+         ServerCache.Entry cached = lookup(request, key, mediaType);
+         if (cached != null && !cached.isExpired()) serve(request, validation, cached);
+      }
+   }
+
+   private void serve(ContainerRequestContext request, Request preconditions, ServerCache.Entry entry)
+   {
+      // validation if client sent
+      Response.ResponseBuilder builder = preconditions.evaluatePreconditions(new EntityTag(entry.getEtag()));
+      CacheControl cc = new CacheControl();
+      cc.setMaxAge(Math.max(0, entry.getExpirationInSeconds()));
+      if (builder != null)
+      {
+         request.abortWith(builder.cacheControl(cc).build());
+         return;
+      }
+
+      builder = Response.ok();
+      ByteBuffer cached = entry.getCachedBuffer();
+      if (cached.hasArray() && cached.arrayOffset() == 0 && cached.array().length == cached.remaining())
+      {
+         builder.entity(cached.array());
+      }
+      else
+      {
+         builder.entity((StreamingOutput) output -> write(cached, output));
+      }
+
+      for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet())
+      {
+         for (Object val : header.getValue())
          {
-            // validation if client sent
-            Response.ResponseBuilder builder = validation.evaluatePreconditions(new EntityTag(entry.getEtag()));
-            CacheControl cc = new CacheControl();
-            cc.setMaxAge(entry.getExpirationInSeconds());
-            if (builder != null)
-            {
-               request.abortWith(builder.cacheControl(cc).build());
-               return;
-            }
-
-            builder = Response.ok();
-            builder.entity(entry.getCached());
-
-            for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet())
-            {
-               for (Object val : header.getValue())
-               {
-                  builder.header(header.getKey(), val);
-               }
-            }
-            builder.cacheControl(cc);
-            request.setProperty(DO_NOT_CACHE_RESPONSE, true);
-            request.abortWith(builder.build());
+            builder.header(header.getKey(), val);
          }
       }
-      else
+      builder.cacheControl(cc);
+      if (entry.getContentEncoding() != null)
+      {
+         request.setProperty(GZIPEncodingInterceptor.ENTITY_ENCODED, true);
+         if (statistics != null) statistics.servedEncoded(entry.getIdentityLength(), cached.remaining());
+      }
+      if (entry.isExpired()) builder.header(HttpHeaderNames.WARNING, "110 - \"Response is Stale\"");
+      request.setProperty(DO_NOT_CACHE_RESPONSE, true);
+      request.abortWith(builder.build());
+   }
+
+   private static void write(ByteBuffer buffer, OutputStream output) throws IOException
+   {
+      if (buffer.hasArray())
+      {
+         output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+         return;
+      }
+      // direct memory
+      ByteBuffer source = buffer.duplicate();
+      byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+      while (source.hasRemaining())
       {
+         int length = Math.min(chunk.length, source.remaining());
+         source.get(chunk, 0, length);
+         output.write(chunk, 0, length);
       }
    }
 }
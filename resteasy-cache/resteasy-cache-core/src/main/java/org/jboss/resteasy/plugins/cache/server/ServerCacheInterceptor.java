@@ -1,5 +1,7 @@
 package org.jboss.resteasy.plugins.cache.server;
 
+import org.jboss.resteasy.core.Headers;
+import org.jboss.resteasy.plugins.interceptors.GZIPEncodingInterceptor;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.NoLogWebApplicationException;
@@ -17,11 +19,13 @@ import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
@@ -31,12 +35,19 @@ import java.security.NoSuchAlgorithmException;
 public class ServerCacheInterceptor implements WriterInterceptor
 {
    protected ServerCache cache;
+   protected ServerCacheStatistics statistics;
 
    public ServerCacheInterceptor(final ServerCache cache)
    {
       this.cache = cache;
    }
 
+   public ServerCacheInterceptor(final ServerCache cache, final ServerCacheStatistics statistics)
+   {
+      this.cache = cache;
+      this.statistics = statistics;
+   }
+
    @Context
    protected HttpRequest request;
 
@@ -74,6 +85,10 @@ public class ServerCacheInterceptor implements WriterInterceptor
 
    }
 
+   /**
+    * @deprecated ETags are now computed from a checksum updated while the entity is written
+    */
+   @Deprecated
    protected String createHash(byte[] entity)
    {
       try
@@ -90,6 +105,19 @@ public class ServerCacheInterceptor implements WriterInterceptor
 
    @Override
    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException
+   {
+      try
+      {
+         cacheAndWrite(context);
+      }
+      finally
+      {
+         // also if the response wasn't cached, so that requests waiting for it don't wait for the timeout
+         RequestCoalescer.release(request.getAttribute(RequestCoalescer.FLIGHT));
+      }
+   }
+
+   private void cacheAndWrite(WriterInterceptorContext context) throws IOException, WebApplicationException
    {
       LogMessages.LOGGER.debugf("Interceptor : %s,  Method : aroundWriteTo", getClass().getName());
 
@@ -119,50 +147,122 @@ public class ServerCacheInterceptor implements WriterInterceptor
          return;
       }
 
-      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      boolean store = !cc.isPrivate() && !cc.isNoStore();
       OutputStream old = context.getOutputStream();
+      // the entity is compressed after this interceptor
+      boolean gzip = old instanceof GZIPEncodingInterceptor.CommittedGZIPOutputStream;
+      Object etagObject = context.getHeaders().getFirst(HttpHeaders.ETAG);
+      // use application provided ETag if it exists, the entity can then be written as it is produced
+      String etag = etagObject == null ? null : etagObject.toString();
+      String sentEtag = etag;
+      if (etag != null && gzip)
+      {
+         sentEtag = gzipEtag(etag);
+         context.getHeaders().putSingle(HttpHeaders.ETAG, sentEtag);
+      }
+      boolean writeThrough = etag != null && validation.evaluatePreconditions(new EntityTag(sentEtag)) == null;
+      if (writeThrough && !store)
+      {
+         context.proceed();
+         return;
+      }
+
+      EntityBuffer buffer = new EntityBuffer(etag == null, writeThrough ? old : null);
       try
       {
          context.setOutputStream(buffer);
          context.proceed();
-         byte[] entity = buffer.toByteArray();
-         Object etagObject = context.getHeaders().getFirst(HttpHeaders.ETAG);
-         String etag = null;
-         if (etagObject == null)
-         {
-            etag = createHash(entity);
-            context.getHeaders().putSingle(HttpHeaders.ETAG, etag);
-         }
-         else // use application provided ETag if it exists
-         {
-            etag = etagObject.toString();
-         }
+      }
+      finally
+      {
+         context.setOutputStream(old);
+      }
+      if (etag == null)
+      {
+         etag = buffer.getEtag();
+         sentEtag = gzip ? gzipEtag(etag) : etag;
+         context.getHeaders().putSingle(HttpHeaders.ETAG, sentEtag);
+      }
 
-         if (!cc.isPrivate() && !cc.isNoStore()) {
-            MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
-            if (context.getHeaders().containsKey(HttpHeaders.VARY)) {
-               for (Object varyHeader : context.getHeaders().get(HttpHeaders.VARY)) {
-                  if (request.getMutableHeaders().containsKey(varyHeader)) {
-                     varyHeaders.addAll((String) varyHeader, request.getMutableHeaders().get(varyHeader));
-                  }
+      if (store) {
+         MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
+         if (context.getHeaders().containsKey(HttpHeaders.VARY)) {
+            for (Object varyHeader : context.getHeaders().get(HttpHeaders.VARY)) {
+               if (request.getMutableHeaders().containsKey(varyHeader)) {
+                  varyHeaders.addAll((String) varyHeader, request.getMutableHeaders().get(varyHeader));
                }
             }
-            cache.add(request.getUri().getRequestUri().toString(), context.getMediaType(), cc, context.getHeaders(), entity, etag, varyHeaders);
          }
-
-         // check to see if ETags are the same.  If they are, we don't need to send a response back.
-         Response.ResponseBuilder validatedResponse = validation.evaluatePreconditions(new EntityTag(etag));
-         if (validatedResponse != null)
+         String uri = request.getUri().getRequestUri().toString();
+         if (gzip)
          {
-            throw new NoLogWebApplicationException(validatedResponse.status(Response.Status.NOT_MODIFIED).cacheControl(cc).header(HttpHeaders.ETAG, etag).build());
+            // cache the entity as is and compressed once, so that hits aren't compressed again
+            MultivaluedMap<String, Object> headers = copy(context.getHeaders());
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            headers.putSingle(HttpHeaders.ETAG, etag);
+            cache.add(uri, context.getMediaType(), cc, headers, buffer.toByteBuffer(), etag, varyHeaders);
+            addGzipVariant(uri, context, cc, headers, buffer, etag, varyHeaders);
          }
+         else
+         {
+            cache.add(uri, context.getMediaType(), cc, context.getHeaders(), buffer.toByteBuffer(), etag, varyHeaders);
+         }
+         // requests waiting for this response don't have to wait for it to be written
+         RequestCoalescer.release(request.getAttribute(RequestCoalescer.FLIGHT));
+      }
+      if (writeThrough) return;
 
-         old.write(entity);
+      // check to see if ETags are the same.  If they are, we don't need to send a response back.
+      Response.ResponseBuilder validatedResponse = validation.evaluatePreconditions(new EntityTag(sentEtag));
+      if (validatedResponse != null)
+      {
+         throw new NoLogWebApplicationException(validatedResponse.status(Response.Status.NOT_MODIFIED).cacheControl(cc).header(HttpHeaders.ETAG, sentEtag).build());
       }
-      finally
+
+      buffer.writeTo(old);
+   }
+
+   private void addGzipVariant(String uri, WriterInterceptorContext context, CacheControl cc, MultivaluedMap<String, Object> identityHeaders, EntityBuffer buffer, String etag, MultivaluedMap<String, String> varyHeaders) throws IOException
+   {
+      EntityBuffer gzipped = new EntityBuffer(false, null);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped))
       {
-         context.setOutputStream(old);
+         buffer.writeTo(gzip);
+      }
+      if (statistics != null) statistics.encoded(buffer.size(), gzipped.size());
+      // clients accepting gzip get the entity as is
+      if (gzipped.size() >= buffer.size()) return;
+      String gzipEtag = gzipEtag(etag);
+      MultivaluedMap<String, Object> headers = copy(identityHeaders);
+      headers.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+      headers.putSingle(HttpHeaders.ETAG, gzipEtag);
+      cache.add(uri, context.getMediaType(), cc, headers, gzipped.toByteBuffer(), buffer.size(), gzipEtag, varyHeaders);
+   }
+
+   /**
+    * A strong ETag identifies the bytes sent, so the gzip encoded entity needs another one than the entity as is
+    * (RFC 7232, section 2.3.3).  A weak one may be shared by both.
+    *
+    * @param etag ETag of the entity as is
+    * @return ETag of the gzip encoded entity
+    */
+   static String gzipEtag(String etag)
+   {
+      if (etag.startsWith("W/")) return etag;
+      if (etag.length() > 1 && etag.startsWith("\"") && etag.endsWith("\""))
+      {
+         return etag.substring(0, etag.length() - 1) + "-gzip\"";
       }
+      return etag + "-gzip";
+   }
 
+   private static MultivaluedMap<String, Object> copy(MultivaluedMap<String, Object> headers)
+   {
+      MultivaluedMap<String, Object> copy = new Headers<Object>();
+      for (Map.Entry<String, List<Object>> header : headers.entrySet())
+      {
+         copy.addAll(header.getKey(), header.getValue());
+      }
+      return copy;
    }
 }
@@ -0,0 +1,80 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the gzip encoded variants stored by {@link ServerCacheInterceptor} and served by
+ * {@link ServerCacheHitFilter}.  {@link ServerCacheFeature} makes them available as the configuration property named
+ * after this class.
+ */
+public class ServerCacheStatistics
+{
+   private final LongAdder encodedEntries = new LongAdder();
+   private final LongAdder identityBytes = new LongAdder();
+   private final LongAdder encodedBytes = new LongAdder();
+   private final LongAdder encodedHits = new LongAdder();
+   private final LongAdder bytesSaved = new LongAdder();
+
+   void encoded(long identityLength, long encodedLength)
+   {
+      encodedEntries.increment();
+      identityBytes.add(identityLength);
+      encodedBytes.add(encodedLength);
+   }
+
+   void servedEncoded(long identityLength, long encodedLength)
+   {
+      encodedHits.increment();
+      // unknown if the cache doesn't keep the length before encoding
+      if (identityLength >= 0) bytesSaved.add(identityLength - encodedLength);
+   }
+
+   /**
+    * @return number of entities compressed for the cache
+    */
+   public long getEncodedEntries()
+   {
+      return encodedEntries.sum();
+   }
+
+   /**
+    * @return size of the compressed entities before compression
+    */
+   public long getIdentityBytes()
+   {
+      return identityBytes.sum();
+   }
+
+   /**
+    * @return size of the compressed entities
+    */
+   public long getEncodedBytes()
+   {
+      return encodedBytes.sum();
+   }
+
+   /**
+    * @return compressed size divided by size before compression, 1 if nothing was compressed
+    */
+   public double getCompressionRatio()
+   {
+      long identity = identityBytes.sum();
+      return identity == 0 ? 1 : (double) encodedBytes.sum() / identity;
+   }
+
+   /**
+    * @return number of cache hits served with a compressed variant
+    */
+   public long getEncodedHits()
+   {
+      return encodedHits.sum();
+   }
+
+   /**
+    * @return bytes not sent because cache hits were served with a compressed variant
+    */
+   public long getBytesSaved()
+   {
+      return bytesSaved.sum();
+   }
+}
@@ -0,0 +1,148 @@
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheStatistics;
+import org.jboss.resteasy.plugins.interceptors.GZIPEncodingInterceptor;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * A response compressed by {@link GZIPEncodingInterceptor} is cached as is and compressed, hits are served with the
+ * compressed variant to clients accepting gzip and with the other one to the other clients.
+ */
+public class GzipCacheVariantTest
+{
+   private static final String TEXT;
+
+   static
+   {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 1000; i++)
+      {
+         text.append("hello world ").append(i % 10).append('\n');
+      }
+      TEXT = text.toString();
+   }
+
+   private static NettyJaxrsServer server;
+   private static ResteasyDeployment deployment;
+   private static Client client;
+   private static final AtomicInteger count = new AtomicInteger();
+
+   @Path("/gzip")
+   public static class Resource
+   {
+      @GET
+      @Produces("text/plain")
+      public Response get()
+      {
+         count.incrementAndGet();
+         CacheControl cc = new CacheControl();
+         cc.setMaxAge(60);
+         return Response.ok(TEXT).cacheControl(cc).header(HttpHeaders.CONTENT_ENCODING, "gzip").build();
+      }
+   }
+
+   @BeforeClass
+   public static void beforeClass() throws Exception
+   {
+      server = new NettyJaxrsServer();
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("/");
+      server.start();
+      deployment = server.getDeployment();
+      deployment.getProviderFactory().register(GZIPEncodingInterceptor.class);
+      deployment.getProviderFactory().register(ServerCacheFeature.class);
+      deployment.getRegistry().addPerRequestResource(Resource.class);
+      client = ClientBuilder.newClient();
+   }
+
+   @AfterClass
+   public static void afterClass() throws Exception
+   {
+      client.close();
+      server.stop();
+      server = null;
+      deployment = null;
+   }
+
+   private static String gunzip(byte[] bytes) throws Exception
+   {
+      try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes)))
+      {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         byte[] buffer = new byte[4096];
+         int read;
+         while ((read = in.read(buffer)) != -1)
+         {
+            out.write(buffer, 0, read);
+         }
+         return new String(out.toByteArray(), StandardCharsets.UTF_8);
+      }
+   }
+
+   @Test
+   public void testVariants() throws Exception
+   {
+      String gzipEtag = null;
+      for (int i = 0; i < 3; i++)
+      {
+         Response response = client.target(generateURL("/gzip")).request().header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate").get();
+         Assert.assertEquals(200, response.getStatus());
+         Assert.assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+         Assert.assertEquals(TEXT, gunzip(response.readEntity(byte[].class)));
+         // the same for the response compressed on the way out and the cached compressed variant
+         if (gzipEtag == null) gzipEtag = response.getHeaderString(HttpHeaders.ETAG);
+         Assert.assertEquals(gzipEtag, response.getHeaderString(HttpHeaders.ETAG));
+      }
+
+      Response response = client.target(generateURL("/gzip")).request().get();
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+      Assert.assertEquals(TEXT, response.readEntity(String.class));
+      String etag = response.getHeaderString(HttpHeaders.ETAG);
+      Assert.assertNotNull(etag);
+      Assert.assertNotEquals(etag, gzipEtag);
+
+      Assert.assertEquals(1, count.get());
+
+      ServerCacheStatistics statistics = (ServerCacheStatistics) deployment.getProviderFactory().getConfiguration().getProperty(ServerCacheStatistics.class.getName());
+      Assert.assertEquals(1, statistics.getEncodedEntries());
+      Assert.assertEquals(2, statistics.getEncodedHits());
+      Assert.assertTrue(statistics.getCompressionRatio() < 0.5);
+      Assert.assertTrue(statistics.getBytesSaved() > TEXT.length());
+
+      // a strong ETag only validates the encoding it was sent with
+      response = client.target(generateURL("/gzip")).request().header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + gzipEtag + "\"").get();
+      Assert.assertEquals(304, response.getStatus());
+      response.close();
+      response = client.target(generateURL("/gzip")).request().header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + etag + "\"").get();
+      Assert.assertEquals(200, response.getStatus());
+      response.close();
+   }
+}
@@ -0,0 +1,155 @@
+package org.jboss.resteasy.test.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.jboss.resteasy.plugins.cache.server.InMemoryServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Byte budget, segmented LRU eviction, expiration, variants and direct memory storage of {@link InMemoryServerCache}.
+ */
+public class InMemoryServerCacheTest
+{
+   private static final int ENTITY_SIZE = 1000;
+
+   private static CacheControl maxAge(int seconds)
+   {
+      CacheControl cc = new CacheControl();
+      cc.setMaxAge(seconds);
+      return cc;
+   }
+
+   private static ServerCache.Entry add(InMemoryServerCache cache, String uri, MediaType mediaType, int maxAge)
+   {
+      return cache.add(uri, mediaType, maxAge(maxAge), new MultivaluedHashMap<String, Object>(), new byte[ENTITY_SIZE], "\"" + uri + "\"", new MultivaluedHashMap<String, String>());
+   }
+
+   private static ServerCache.Entry get(InMemoryServerCache cache, String uri)
+   {
+      return cache.get(uri, MediaType.WILDCARD_TYPE, new MultivaluedHashMap<String, String>());
+   }
+
+   @Test
+   public void testByteBudget()
+   {
+      InMemoryServerCache cache = new InMemoryServerCache(10 * ENTITY_SIZE);
+      for (int i = 0; i < 100; i++)
+      {
+         add(cache, "/item/" + i, MediaType.TEXT_PLAIN_TYPE, 60);
+      }
+      cache.cleanUp();
+      Assert.assertTrue(cache.getSize() <= cache.getMaxSize());
+      Assert.assertTrue(cache.getEntryCount() > 0);
+      Assert.assertEquals(100, cache.getEntryCount() + cache.getEvictions());
+      Assert.assertNotNull(get(cache, "/item/99"));
+      Assert.assertNull(get(cache, "/item/0"));
+   }
+
+   @Test
+   public void testFrequentlyUsedEntriesSurviveScan()
+   {
+      InMemoryServerCache cache = new InMemoryServerCache(10 * ENTITY_SIZE);
+      for (int i = 0; i < 3; i++)
+      {
+         add(cache, "/hot/" + i, MediaType.TEXT_PLAIN_TYPE, 60);
+      }
+      for (int i = 0; i < 3; i++)
+      {
+         Assert.assertNotNull(get(cache, "/hot/" + i));
+      }
+      cache.cleanUp();
+      for (int i = 0; i < 1000; i++)
+      {
+         add(cache, "/cold/" + i, MediaType.TEXT_PLAIN_TYPE, 60);
+      }
+      cache.cleanUp();
+      for (int i = 0; i < 3; i++)
+      {
+         Assert.assertNotNull(get(cache, "/hot/" + i));
+      }
+      Assert.assertTrue(cache.getSize() <= cache.getMaxSize());
+   }
+
+   @Test
+   public void testExpiration() throws Exception
+   {
+      InMemoryServerCache cache = new InMemoryServerCache();
+      add(cache, "/expires", MediaType.TEXT_PLAIN_TYPE, 1);
+      add(cache, "/never", MediaType.TEXT_PLAIN_TYPE, 0);
+      Assert.assertNotNull(get(cache, "/expires"));
+      Assert.assertNull(get(cache, "/never"));
+      Thread.sleep(1100);
+      Assert.assertNull(get(cache, "/expires"));
+      cache.cleanUp();
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertEquals(0, cache.getSize());
+   }
+
+   @Test
+   public void testVariants()
+   {
+      InMemoryServerCache cache = new InMemoryServerCache();
+      add(cache, "/variants", MediaType.TEXT_PLAIN_TYPE, 60);
+      add(cache, "/variants", MediaType.TEXT_HTML_TYPE, 60);
+      ServerCache.Entry html = add(cache, "/variants", MediaType.TEXT_HTML_TYPE, 60);
+      cache.cleanUp();
+      Assert.assertEquals(2, cache.getEntryCount());
+      Assert.assertSame(html, cache.get("/variants", MediaType.TEXT_HTML_TYPE, new MultivaluedHashMap<String, String>()));
+      Assert.assertNotNull(cache.get("/variants", MediaType.TEXT_PLAIN_TYPE, new MultivaluedHashMap<String, String>()));
+      Assert.assertNull(cache.get("/variants", MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<String, String>()));
+
+      cache.remove("/variants");
+      cache.cleanUp();
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertNull(get(cache, "/variants"));
+   }
+
+   @Test
+   public void testDirect()
+   {
+      InMemoryServerCache cache = new InMemoryServerCache();
+      cache.setDirect(true);
+      byte[] entity = new byte[ENTITY_SIZE];
+      Arrays.fill(entity, (byte) 'x');
+      cache.add("/direct", MediaType.TEXT_PLAIN_TYPE, maxAge(60), new MultivaluedHashMap<String, Object>(), ByteBuffer.wrap(entity), "etag", new MultivaluedHashMap<String, String>());
+      ServerCache.Entry entry = get(cache, "/direct");
+      Assert.assertTrue(entry.getCachedBuffer().isDirect());
+      Assert.assertEquals(ENTITY_SIZE, entry.getCachedBuffer().remaining());
+      Assert.assertArrayEquals(entity, entry.getCached());
+   }
+
+   @Test
+   public void testConcurrentAdds() throws Exception
+   {
+      InMemoryServerCache cache = new InMemoryServerCache(50 * ENTITY_SIZE);
+      Thread[] threads = new Thread[8];
+      for (int t = 0; t < threads.length; t++)
+      {
+         final int offset = t;
+         threads[t] = new Thread(() -> {
+            for (int i = 0; i < 2000; i++)
+            {
+               String uri = "/item/" + ((i * 7 + offset) % 200);
+               add(cache, uri, MediaType.TEXT_PLAIN_TYPE, 60);
+               get(cache, uri);
+            }
+         });
+         threads[t].start();
+      }
+      for (Thread thread : threads)
+      {
+         thread.join();
+      }
+      cache.clear();
+      cache.cleanUp();
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertEquals(0, cache.getSize());
+   }
+}
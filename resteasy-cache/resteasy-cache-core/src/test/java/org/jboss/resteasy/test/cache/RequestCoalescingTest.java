@@ -0,0 +1,125 @@
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.jboss.resteasy.util.HttpHeaderNames;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Concurrent misses of the same URI run the resource method once, and an expired response with a
+ * stale-while-revalidate extension is served while one request refreshes it.
+ */
+public class RequestCoalescingTest
+{
+   private static NettyJaxrsServer server;
+   private static ResteasyClient client;
+   private static final AtomicInteger count = new AtomicInteger();
+   private static final AtomicInteger staleCount = new AtomicInteger();
+
+   @Path("/coalesce")
+   public static class Resource
+   {
+      @GET
+      @Produces("text/plain")
+      @Cache(maxAge = 10)
+      public String get() throws Exception
+      {
+         int n = count.incrementAndGet();
+         Thread.sleep(500);
+         return "hello" + n;
+      }
+
+      @GET
+      @Path("stale")
+      @Produces("text/plain")
+      public Response stale() throws Exception
+      {
+         int n = staleCount.incrementAndGet();
+         if (n > 1) Thread.sleep(1000);
+         CacheControl cc = new CacheControl();
+         cc.setMaxAge(1);
+         cc.getCacheExtension().put("stale-while-revalidate", "30");
+         return Response.ok("stale" + n).cacheControl(cc).build();
+      }
+   }
+
+   @BeforeClass
+   public static void beforeClass() throws Exception
+   {
+      server = new NettyJaxrsServer();
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("/");
+      server.start();
+      ResteasyDeployment deployment = server.getDeployment();
+      deployment.getProviderFactory().property("server.request.cache.coalesce", true);
+      deployment.getProviderFactory().register(ServerCacheFeature.class);
+      deployment.getRegistry().addPerRequestResource(Resource.class);
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).connectionPoolSize(16).maxPooledPerRoute(16).build();
+   }
+
+   @AfterClass
+   public static void afterClass() throws Exception
+   {
+      client.close();
+      server.stop();
+      server = null;
+   }
+
+   @Test
+   public void testConcurrentMisses() throws Exception
+   {
+      List<Future<String>> responses = new ArrayList<Future<String>>();
+      for (int i = 0; i < 10; i++)
+      {
+         responses.add(client.target(generateURL("/coalesce")).request().async().get(String.class));
+      }
+      for (Future<String> response : responses)
+      {
+         Assert.assertEquals("hello1", response.get());
+      }
+      Assert.assertEquals(1, count.get());
+   }
+
+   @Test
+   public void testStaleWhileRevalidate() throws Exception
+   {
+      Assert.assertEquals("stale1", client.target(generateURL("/coalesce/stale")).request().get(String.class));
+      Thread.sleep(1100);
+
+      // refreshes the entry
+      Future<String> refresh = client.target(generateURL("/coalesce/stale")).request().async().get(String.class);
+      Thread.sleep(200);
+      Response stale = client.target(generateURL("/coalesce/stale")).request().get();
+      Assert.assertEquals(200, stale.getStatus());
+      Assert.assertEquals("stale1", stale.readEntity(String.class));
+      Assert.assertTrue(stale.getHeaderString(HttpHeaderNames.WARNING).startsWith("110"));
+
+      Assert.assertEquals("stale2", refresh.get());
+      Response fresh = client.target(generateURL("/coalesce/stale")).request().get();
+      Assert.assertEquals("stale2", fresh.readEntity(String.class));
+      Assert.assertNull(fresh.getHeaderString(HttpHeaderNames.WARNING));
+      Assert.assertEquals(2, staleCount.get());
+   }
+}
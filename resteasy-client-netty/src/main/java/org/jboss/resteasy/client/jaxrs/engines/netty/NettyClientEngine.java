@@ -0,0 +1,528 @@
+package org.jboss.resteasy.client.jaxrs.engines.netty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.ResponseProcessingException;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslHandler;
+import org.jboss.resteasy.client.jaxrs.engines.AsyncClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
+import org.jboss.resteasy.util.CaseInsensitiveMap;
+
+/**
+ * AsyncClientHttpEngine on Netty 4.  Requests of the same scheme, host and port share a pool of keep-alive
+ * connections, and responses are processed by the event loop of their connection: the futures returned by
+ * {@link #submit} are {@link CompletableFuture}s completed there, without any thread of the client involved.
+ * <p>
+ * Like in the Jetty engine, a response is buffered unless it is submitted without a
+ * {@link org.jboss.resteasy.client.jaxrs.engines.AsyncClientHttpEngine.ResultExtractor}, because extractors read the
+ * entity synchronously.  The chunks of a response that isn't buffered are handed over to the
+ * reader of the entity as they arrive, and reading from the connection is suspended while the reader is behind.
+ * <p>
+ * Synchronous invocations wait for the response headers, they must not be made by an event loop thread.
+ * <p>
+ * The host name of https connections is checked by the JDK as by {@code HttpsURLConnection}, unless a
+ * {@link HostnameVerifier} is given, which then checks the session once the handshake is done.
+ */
+public class NettyClientEngine implements AsyncClientHttpEngine
+{
+   public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+
+   private static final String EXCHANGE_HANDLER = "resteasy-exchange";
+
+   private final Bootstrap bootstrap;
+   private final EventLoopGroup ownGroup;
+   private final SSLContext sslContext;
+   private final HostnameVerifier hostnameVerifier;
+   private final AbstractChannelPoolMap<URI, FixedChannelPool> pools;
+
+   public NettyClientEngine()
+   {
+      this(null, null, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+   }
+
+   /**
+    * @param bootstrap bootstrap with the event loop group and channel type to use, which must be shut down by the
+    *                  caller, or null to create a group closed with the engine
+    * @param sslContext context of https connections, or null for the default
+    * @param maxConnectionsPerRoute maximal number of connections to the same scheme, host and port, further requests
+    *                               wait for one to be released
+    */
+   public NettyClientEngine(final Bootstrap bootstrap, final SSLContext sslContext, final int maxConnectionsPerRoute)
+   {
+      this(bootstrap, sslContext, null, maxConnectionsPerRoute);
+   }
+
+   /**
+    * @param bootstrap bootstrap with the event loop group and channel type to use, which must be shut down by the
+    *                  caller, or null to create a group closed with the engine
+    * @param sslContext context of https connections, or null for the default
+    * @param hostnameVerifier verifier of the host name of https connections, or null for the HTTPS endpoint
+    *                         identification of the JDK
+    * @param maxConnectionsPerRoute maximal number of connections to the same scheme, host and port, further requests
+    *                               wait for one to be released
+    */
+   public NettyClientEngine(final Bootstrap bootstrap, final SSLContext sslContext, final HostnameVerifier hostnameVerifier,
+                            final int maxConnectionsPerRoute)
+   {
+      if (bootstrap == null)
+      {
+         ownGroup = new NioEventLoopGroup();
+         this.bootstrap = new Bootstrap().group(ownGroup).channel(NioSocketChannel.class);
+      }
+      else
+      {
+         ownGroup = null;
+         this.bootstrap = bootstrap.clone();
+      }
+      this.bootstrap.option(ChannelOption.TCP_NODELAY, true);
+      this.sslContext = sslContext;
+      this.hostnameVerifier = hostnameVerifier;
+      pools = new AbstractChannelPoolMap<URI, FixedChannelPool>()
+      {
+         @Override
+         protected FixedChannelPool newPool(URI route)
+         {
+            Bootstrap routeBootstrap = NettyClientEngine.this.bootstrap.clone().remoteAddress(route.getHost(), route.getPort());
+            return new FixedChannelPool(routeBootstrap, new RouteHandler(route), maxConnectionsPerRoute);
+         }
+      };
+   }
+
+   @Override
+   public SSLContext getSslContext()
+   {
+      return sslContext;
+   }
+
+   @Override
+   public HostnameVerifier getHostnameVerifier()
+   {
+      return hostnameVerifier;
+   }
+
+   @Override
+   public boolean isCompletionStageSupported()
+   {
+      return true;
+   }
+
+   @Override
+   public ClientResponse invoke(Invocation invocation)
+   {
+      Future<ClientResponse> future = submit((ClientInvocation) invocation, false, null, null);
+      try
+      {
+         return future.get();
+      }
+      catch (InterruptedException e)
+      {
+         future.cancel(true);
+         Thread.currentThread().interrupt();
+         throw clientException(e, null);
+      }
+      catch (ExecutionException e)
+      {
+         throw clientException(e.getCause(), null);
+      }
+   }
+
+   /**
+    * The entity is written before the connection is acquired, the response is buffered unless there is no extractor.
+    *
+    * @see AsyncClientHttpEngine#submit(ClientInvocation, boolean, InvocationCallback, org.jboss.resteasy.client.jaxrs.engines.AsyncClientHttpEngine.ResultExtractor)
+    */
+   @Override
+   public <T> Future<T> submit(ClientInvocation invocation, boolean buffered, InvocationCallback<T> callback, ResultExtractor<T> extractor)
+   {
+      final ExchangeFuture<T> future = new ExchangeFuture<T>();
+      final FullHttpRequest request;
+      final ChannelPool pool;
+      try
+      {
+         URI uri = invocation.getUri();
+         pool = pools.get(route(uri));
+         request = createRequest(invocation, uri);
+      }
+      catch (Throwable t)
+      {
+         RuntimeException x = clientException(t, null);
+         future.completeExceptionally(x);
+         if (callback != null) callback.failed(x);
+         return future;
+      }
+
+      final Exchange<T> exchange = new Exchange<T>(invocation, pool, buffered || extractor != null, callback, extractor, future);
+      pool.acquire().addListener((io.netty.util.concurrent.Future<Channel> acquired) -> {
+         if (!acquired.isSuccess())
+         {
+            request.release();
+            exchange.fail(acquired.cause());
+            return;
+         }
+         Channel channel = acquired.getNow();
+         if (future.isDone())
+         {
+            // cancelled while waiting for a connection
+            request.release();
+            pool.release(channel);
+            return;
+         }
+         exchange.start(channel, request);
+      });
+      return future;
+   }
+
+   @Override
+   public void close()
+   {
+      pools.close();
+      if (ownGroup != null)
+      {
+         ownGroup.shutdownGracefully().syncUninterruptibly();
+      }
+   }
+
+   private static URI route(URI uri) throws URISyntaxException
+   {
+      String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase();
+      int port = uri.getPort();
+      if (port < 0) port = "https".equals(scheme) ? 443 : 80;
+      return new URI(scheme, null, uri.getHost(), port, null, null, null);
+   }
+
+   private static FullHttpRequest createRequest(ClientInvocation invocation, URI uri) throws IOException
+   {
+      String target = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+      if (uri.getRawQuery() != null) target += "?" + uri.getRawQuery();
+
+      ByteBuf content = Unpooled.EMPTY_BUFFER;
+      if (invocation.getEntity() != null)
+      {
+         content = ByteBufAllocator.DEFAULT.buffer();
+         try
+         {
+            invocation.getDelegatingOutputStream().setDelegate(new ByteBufOutputStream(content));
+            invocation.writeRequestBody(invocation.getEntityStream());
+         }
+         catch (IOException | RuntimeException e)
+         {
+            content.release();
+            throw e;
+         }
+      }
+
+      // headers are complete once writer interceptors and MessageBodyWriters have run
+      FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(invocation.getMethod()), target, content);
+      MultivaluedMap<String, String> headers = invocation.getHeaders().asMap();
+      for (Map.Entry<String, List<String>> header : headers.entrySet())
+      {
+         request.headers().add(header.getKey(), header.getValue());
+      }
+      if (!request.headers().contains(HttpHeaderNames.HOST))
+      {
+         request.headers().set(HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+      }
+      if (invocation.getEntity() != null)
+      {
+         request.headers().remove(HttpHeaderNames.TRANSFER_ENCODING);
+         HttpUtil.setContentLength(request, content.readableBytes());
+      }
+      return request;
+   }
+
+   private static RuntimeException clientException(Throwable ex, Response clientResponse)
+   {
+      RuntimeException ret;
+      if (ex == null)
+      {
+         ret = new ProcessingException(new NullPointerException());
+      }
+      else if (ex instanceof WebApplicationException)
+      {
+         ret = (WebApplicationException) ex;
+      }
+      else if (ex instanceof ProcessingException)
+      {
+         ret = (ProcessingException) ex;
+      }
+      else if (clientResponse != null)
+      {
+         ret = new ResponseProcessingException(clientResponse, ex);
+      }
+      else
+      {
+         ret = new ProcessingException(ex);
+      }
+      return ret;
+   }
+
+   private class RouteHandler extends AbstractChannelPoolHandler
+   {
+      private final URI route;
+
+      RouteHandler(final URI route)
+      {
+         this.route = route;
+      }
+
+      @Override
+      public void channelCreated(Channel channel) throws Exception
+      {
+         ChannelPipeline pipeline = channel.pipeline();
+         if ("https".equals(route.getScheme()))
+         {
+            SSLEngine engine = (sslContext == null ? SSLContext.getDefault() : sslContext)
+                  .createSSLEngine(route.getHost(), route.getPort());
+            engine.setUseClientMode(true);
+            if (hostnameVerifier == null)
+            {
+               SSLParameters parameters = engine.getSSLParameters();
+               parameters.setEndpointIdentificationAlgorithm("HTTPS");
+               engine.setSSLParameters(parameters);
+            }
+            SslHandler ssl = new SslHandler(engine);
+            if (hostnameVerifier != null)
+            {
+               // notified before the request waiting for the handshake is written
+               ssl.handshakeFuture().addListener(handshake -> {
+                  if (handshake.isSuccess() && !hostnameVerifier.verify(route.getHost(), engine.getSession()))
+                  {
+                     pipeline.fireExceptionCaught(new SSLPeerUnverifiedException("Host name " + route.getHost() + " not verified"));
+                     channel.close();
+                  }
+               });
+            }
+            pipeline.addLast(ssl);
+         }
+         pipeline.addLast(new HttpClientCodec());
+      }
+   }
+
+   private static class ExchangeFuture<T> extends CompletableFuture<T>
+   {
+      private volatile Channel channel;
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning)
+      {
+         boolean cancelled = super.cancel(mayInterruptIfRunning);
+         Channel current = channel;
+         // the response can't be told apart from the next one on the same connection anymore
+         if (cancelled && current != null) current.close();
+         return cancelled;
+      }
+   }
+
+   /**
+    * One request and its response on a pooled connection, removed from the pipeline when the connection is
+    * released.
+    */
+   private static class Exchange<T> extends SimpleChannelInboundHandler<HttpObject>
+   {
+      private final ClientInvocation invocation;
+      private final ChannelPool pool;
+      private final boolean buffered;
+      private final InvocationCallback<T> callback;
+      private final ResultExtractor<T> extractor;
+      private final ExchangeFuture<T> future;
+      private Channel channel;
+      private NettyResponseStream stream;
+      private ClientResponse response;
+      private boolean keepAlive;
+      private boolean released;
+
+      Exchange(final ClientInvocation invocation, final ChannelPool pool, final boolean buffered,
+               final InvocationCallback<T> callback, final ResultExtractor<T> extractor, final ExchangeFuture<T> future)
+      {
+         super(false);
+         this.invocation = invocation;
+         this.pool = pool;
+         this.buffered = buffered;
+         this.callback = callback;
+         this.extractor = extractor;
+         this.future = future;
+      }
+
+      void start(Channel channel, FullHttpRequest request)
+      {
+         this.channel = channel;
+         future.channel = channel;
+         channel.pipeline().addLast(EXCHANGE_HANDLER, this);
+         channel.writeAndFlush(request).addListener(written -> {
+            if (!written.isSuccess())
+            {
+               fail(written.cause());
+               release(false);
+            }
+         });
+      }
+
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg)
+      {
+         if (msg instanceof HttpResponse)
+         {
+            HttpResponse res = (HttpResponse) msg;
+            keepAlive = HttpUtil.isKeepAlive(res);
+            stream = new NettyResponseStream(channel, !buffered, () -> channel.eventLoop().execute(() -> release(false)));
+            response = new NettyClientResponse(invocation.getClientConfiguration(), stream);
+            response.setProperties(invocation.getMutableProperties());
+            response.setStatus(res.status().code());
+            response.setReasonPhrase(res.status().reasonPhrase());
+            CaseInsensitiveMap<String> headers = new CaseInsensitiveMap<String>();
+            for (Map.Entry<String, String> header : res.headers())
+            {
+               headers.add(header.getKey(), header.getValue());
+            }
+            response.setHeaders(headers);
+            if (!buffered) complete();
+         }
+         if (msg instanceof HttpContent)
+         {
+            ByteBuf content = ((HttpContent) msg).content();
+            if (stream == null)
+            {
+               content.release();
+               return;
+            }
+            if (content.isReadable())
+            {
+               stream.offer(content);
+            }
+            else
+            {
+               content.release();
+            }
+            if (msg instanceof LastHttpContent)
+            {
+               // back in the pool before the reader sees the end and sends its next request
+               release(keepAlive);
+               stream.end();
+               if (buffered) complete();
+            }
+         }
+      }
+
+      @Override
+      public void channelInactive(ChannelHandlerContext ctx) throws Exception
+      {
+         abort(new ClosedChannelException());
+         super.channelInactive(ctx);
+      }
+
+      @Override
+      public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+      {
+         abort(cause);
+      }
+
+      private void abort(Throwable cause)
+      {
+         if (stream != null) stream.fail(cause);
+         fail(cause);
+         release(false);
+      }
+
+      @SuppressWarnings("unchecked")
+      private void complete()
+      {
+         T result;
+         try
+         {
+            if (buffered) response.bufferEntity();
+            result = extractor == null ? (T) response : extractor.extractResult(response);
+         }
+         catch (Throwable t)
+         {
+            fail(t);
+            return;
+         }
+         if (future.complete(result) && callback != null)
+         {
+            callback.completed(result);
+         }
+      }
+
+      private void fail(Throwable t)
+      {
+         if (future.isDone()) return;
+         RuntimeException x = clientException(t, response);
+         if (future.completeExceptionally(x) && callback != null)
+         {
+            callback.failed(x);
+         }
+      }
+
+      /**
+       * Returns the connection to the pool, runs on the event loop.
+       *
+       * @param reuse if the connection can take the next request
+       */
+      private void release(boolean reuse)
+      {
+         if (released) return;
+         released = true;
+         future.channel = null;
+         if (channel.pipeline().get(EXCHANGE_HANDLER) == this)
+         {
+            channel.pipeline().remove(this);
+         }
+         if (stream != null) stream.detach();
+         channel.config().setAutoRead(true);
+         if (!reuse || !channel.isActive())
+         {
+            channel.close();
+         }
+         pool.release(channel);
+      }
+   }
+}
@@ -0,0 +1,59 @@
+package org.jboss.resteasy.client.jaxrs.engines.netty;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.resteasy.client.jaxrs.internal.ClientConfiguration;
+import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
+
+class NettyClientResponse extends ClientResponse
+{
+   private final NettyResponseStream connection;
+   private InputStream stream;
+
+   NettyClientResponse(final ClientConfiguration configuration, final NettyResponseStream connection)
+   {
+      super(configuration);
+      this.connection = connection;
+      this.stream = connection;
+   }
+
+   @Override
+   protected synchronized InputStream getInputStream()
+   {
+      return stream;
+   }
+
+   @Override
+   protected synchronized void setInputStream(InputStream is)
+   {
+      stream = is;
+      resetEntity();
+   }
+
+   @Override
+   public void releaseConnection() throws IOException
+   {
+      releaseConnection(false);
+   }
+
+   @Override
+   public void releaseConnection(boolean consumeInputStream) throws IOException
+   {
+      InputStream is = getInputStream();
+      try
+      {
+         if (is != null && consumeInputStream)
+         {
+            while (is.read() > 0)
+            {
+            }
+         }
+      }
+      finally
+      {
+         // closes the channel instead of returning it to the pool if the body was not fully received
+         connection.close();
+      }
+   }
+}
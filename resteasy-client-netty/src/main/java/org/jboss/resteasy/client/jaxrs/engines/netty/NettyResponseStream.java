@@ -0,0 +1,199 @@
+package org.jboss.resteasy.client.jaxrs.engines.netty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * Response body made of the chunks received by the event loop, read without copying them into one buffer.  The
+ * chunks are released as soon as they are read.
+ * <p>
+ * When the body is streamed, reading from the channel stops while more than {@link #HIGH_WATERMARK} bytes wait to
+ * be read and resumes once the reader caught up, so a slow reader doesn't make the whole body pile up in memory.
+ * Reads never block the event loop: a read there that would have to wait fails.
+ */
+class NettyResponseStream extends InputStream
+{
+   static final int HIGH_WATERMARK = 256 * 1024;
+   static final int LOW_WATERMARK = 64 * 1024;
+
+   private final Channel channel;
+   private final boolean backPressure;
+   private final Runnable abort;
+   private final ArrayDeque<ByteBuf> chunks = new ArrayDeque<ByteBuf>();
+   private ByteBuf current;
+   private long queued;
+   private boolean suspended;
+   private boolean detached;
+   private boolean ended;
+   private boolean closed;
+   private Throwable failure;
+
+   /**
+    * @param channel channel the body is received from
+    * @param backPressure if reading from the channel is suspended while the reader is behind
+    * @param abort closes the channel when the stream is closed before the whole body was received
+    */
+   NettyResponseStream(final Channel channel, final boolean backPressure, final Runnable abort)
+   {
+      this.channel = channel;
+      this.backPressure = backPressure;
+      this.abort = abort;
+   }
+
+   /**
+    * @param chunk retained chunk of the body, released by this stream
+    */
+   synchronized void offer(ByteBuf chunk)
+   {
+      if (closed)
+      {
+         chunk.release();
+         return;
+      }
+      chunks.add(chunk);
+      queued += chunk.readableBytes();
+      if (backPressure && !suspended && !detached && queued > HIGH_WATERMARK)
+      {
+         suspended = true;
+         channel.config().setAutoRead(false);
+      }
+      notifyAll();
+   }
+
+   /**
+    * The channel went back to the pool, its auto read belongs to the next exchange from now on.
+    */
+   synchronized void detach()
+   {
+      detached = true;
+      suspended = false;
+   }
+
+   synchronized void end()
+   {
+      ended = true;
+      notifyAll();
+   }
+
+   synchronized void fail(Throwable t)
+   {
+      if (ended) return;
+      failure = t;
+      ended = true;
+      notifyAll();
+   }
+
+   /**
+    * @return if the whole body was received
+    */
+   synchronized boolean isEnded()
+   {
+      return ended;
+   }
+
+   @Override
+   public int read() throws IOException
+   {
+      synchronized (this)
+      {
+         if (!next()) return -1;
+         return current.readByte() & 0xff;
+      }
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException
+   {
+      if (len == 0) return 0;
+      synchronized (this)
+      {
+         if (!next()) return -1;
+         int read = Math.min(len, current.readableBytes());
+         current.readBytes(b, off, read);
+         return read;
+      }
+   }
+
+   @Override
+   public synchronized int available()
+   {
+      return (int) Math.min(Integer.MAX_VALUE, (current == null ? 0 : current.readableBytes()) + queued);
+   }
+
+   @Override
+   public void close()
+   {
+      boolean aborted;
+      synchronized (this)
+      {
+         if (closed) return;
+         closed = true;
+         if (current != null)
+         {
+            current.release();
+            current = null;
+         }
+         ByteBuf chunk;
+         while ((chunk = chunks.poll()) != null)
+         {
+            chunk.release();
+         }
+         queued = 0;
+         aborted = !ended;
+         notifyAll();
+      }
+      // the rest of the body would be left in the connection
+      if (aborted) abort.run();
+   }
+
+   /**
+    * Waits for a readable chunk.
+    *
+    * @return false at the end of the body
+    */
+   private boolean next() throws IOException
+   {
+      while (true)
+      {
+         if (closed) throw new IOException("stream closed");
+         if (current != null)
+         {
+            if (current.isReadable()) return true;
+            current.release();
+            current = null;
+         }
+         ByteBuf chunk = chunks.poll();
+         if (chunk != null)
+         {
+            current = chunk;
+            queued -= chunk.readableBytes();
+            if (suspended && queued < LOW_WATERMARK)
+            {
+               suspended = false;
+               channel.config().setAutoRead(true);
+            }
+            continue;
+         }
+         if (failure != null) throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+         if (ended) return false;
+         if (channel.eventLoop().inEventLoop())
+         {
+            throw new IOException("blocking reads inside the event loop are not allowed");
+         }
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+   }
+}
@@ -0,0 +1,62 @@
+package org.jboss.resteasy.client.jaxrs.engines.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+public class NettyResponseStreamTest
+{
+   @Test
+   public void testBackPressure() throws Exception
+   {
+      EmbeddedChannel channel = new EmbeddedChannel();
+      NettyResponseStream stream = new NettyResponseStream(channel, true, () -> { });
+      ByteBuf chunk = chunk(NettyResponseStream.HIGH_WATERMARK + 1);
+      stream.offer(chunk);
+      stream.end();
+      assertFalse(channel.config().isAutoRead());
+
+      assertEquals(0, stream.read());
+      assertTrue(channel.config().isAutoRead());
+      stream.close();
+      assertEquals(0, chunk.refCnt());
+   }
+
+   @Test
+   public void testAutoReadAfterDetach() throws Exception
+   {
+      EmbeddedChannel channel = new EmbeddedChannel();
+      NettyResponseStream stream = new NettyResponseStream(channel, true, () -> { });
+      stream.offer(chunk(NettyResponseStream.HIGH_WATERMARK + 1));
+      stream.end();
+      assertFalse(channel.config().isAutoRead());
+
+      // back in the pool, the next exchange of the channel suspends reading
+      stream.detach();
+      channel.config().setAutoRead(false);
+      try (InputStream in = stream)
+      {
+         long read = 0;
+         byte[] buffer = new byte[8192];
+         int n;
+         while ((n = in.read(buffer)) != -1)
+         {
+            read += n;
+         }
+         assertEquals(NettyResponseStream.HIGH_WATERMARK + 1, read);
+      }
+      assertFalse(channel.config().isAutoRead());
+   }
+
+   private static ByteBuf chunk(int size)
+   {
+      return Unpooled.buffer(size).writeZero(size);
+   }
+}
@@ -0,0 +1,274 @@
+package org.jboss.resteasy.test.client.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.netty.NettyClientEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NettyClientEngineTest
+{
+   private static final int CHUNK_SIZE = 8192;
+
+   private EventLoopGroup group;
+   private Channel server;
+   private final Set<Channel> connections = ConcurrentHashMap.newKeySet();
+   private Client client;
+
+   @Before
+   public void start() throws Exception
+   {
+      group = new NioEventLoopGroup(1);
+      server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>()
+            {
+               @Override
+               protected void initChannel(SocketChannel ch)
+               {
+                  connections.add(ch);
+                  ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(1024 * 1024), new StubHandler());
+               }
+            }).bind("127.0.0.1", 0).sync().channel();
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).httpEngine(new NettyClientEngine()).build();
+   }
+
+   @After
+   public void stop() throws Exception
+   {
+      client.close();
+      server.close().sync();
+      group.shutdownGracefully().sync();
+   }
+
+   private String uri(String path)
+   {
+      return "http://127.0.0.1:" + ((InetSocketAddress) server.localAddress()).getPort() + path;
+   }
+
+   @Test
+   public void testEcho() throws Exception
+   {
+      byte[] data = new byte[100000];
+      new Random().nextBytes(data);
+      Response response = client.target(uri("/echo")).request()
+            .post(Entity.entity(data, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+      assertEquals(200, response.getStatus());
+      assertArrayEquals(data, response.readEntity(byte[].class));
+   }
+
+   @Test
+   public void testKeepAlive() throws Exception
+   {
+      for (int i = 0; i < 10; i++)
+      {
+         assertEquals("request " + i, client.target(uri("/echo")).request().post(Entity.text("request " + i), String.class));
+      }
+      assertEquals(1, connections.size());
+   }
+
+   @Test
+   public void testConnectionClose() throws Exception
+   {
+      for (int i = 0; i < 3; i++)
+      {
+         assertEquals("closed", client.target(uri("/close")).request().get(String.class));
+      }
+      assertEquals(3, connections.size());
+   }
+
+   @Test
+   public void testStreamedResponse() throws Exception
+   {
+      int chunks = 200;
+      Response response = client.target(uri("/stream/" + chunks)).request().get();
+      long read = 0;
+      byte[] buffer = new byte[1000];
+      try (InputStream in = response.readEntity(InputStream.class))
+      {
+         int n;
+         while ((n = in.read(buffer)) != -1)
+         {
+            read += n;
+         }
+      }
+      assertEquals((long) chunks * CHUNK_SIZE, read);
+
+      // the connection is reused once the body was read
+      assertEquals("again", client.target(uri("/echo")).request().post(Entity.text("again"), String.class));
+      assertEquals(1, connections.size());
+   }
+
+   @Test
+   public void testUnreadResponseClosesConnection() throws Exception
+   {
+      Response response = client.target(uri("/stream/1000")).request().get();
+      assertEquals(200, response.getStatus());
+      response.close();
+      assertEquals("next", client.target(uri("/echo")).request().post(Entity.text("next"), String.class));
+      assertEquals(2, connections.size());
+   }
+
+   @Test
+   public void testConcurrentAsync() throws Exception
+   {
+      List<Future<String>> futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < 200; i++)
+      {
+         futures.add(client.target(uri("/echo")).request().async().post(Entity.text("async " + i), String.class));
+      }
+      for (int i = 0; i < futures.size(); i++)
+      {
+         assertEquals("async " + i, futures.get(i).get(10, TimeUnit.SECONDS));
+      }
+      assertTrue(connections.size() <= NettyClientEngine.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+   }
+
+   @Test
+   public void testCompletionStage() throws Exception
+   {
+      CompletionStage<String> stage = client.target(uri("/echo")).request().rx().post(Entity.text("rx"), String.class);
+      assertEquals("rx", stage.toCompletableFuture().get(10, TimeUnit.SECONDS));
+
+      CompletionStage<String> failed = client.target(uri("/missing")).request().rx().get(String.class);
+      try
+      {
+         failed.toCompletableFuture().get(10, TimeUnit.SECONDS);
+         fail();
+      }
+      catch (ExecutionException e)
+      {
+         assertTrue(e.getCause() instanceof NotFoundException);
+      }
+   }
+
+   @Test
+   public void testConnectionRefused() throws Exception
+   {
+      String refused = uri("/echo");
+      server.close().sync();
+      try
+      {
+         client.target(refused).request().get();
+         fail();
+      }
+      catch (ProcessingException e)
+      {
+         // expected
+      }
+   }
+
+   @Test
+   public void testHostnameVerifier() throws Exception
+   {
+      assertNull(((ResteasyClient) client).httpEngine().getHostnameVerifier());
+      HostnameVerifier verifier = (hostname, session) -> true;
+      NettyClientEngine engine = new NettyClientEngine(null, null, verifier, 1);
+      try
+      {
+         assertSame(verifier, engine.getHostnameVerifier());
+      }
+      finally
+      {
+         engine.close();
+      }
+   }
+
+   private static class StubHandler extends SimpleChannelInboundHandler<FullHttpRequest>
+   {
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request)
+      {
+         String uri = request.uri();
+         if (uri.startsWith("/echo"))
+         {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                  request.content().retain());
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, request.headers().get(HttpHeaderNames.CONTENT_TYPE));
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            ctx.writeAndFlush(response);
+         }
+         else if (uri.startsWith("/close"))
+         {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                  Unpooled.copiedBuffer("closed".getBytes()));
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.TEXT_PLAIN);
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            HttpUtil.setContentLength(response, 6);
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+         }
+         else if (uri.startsWith("/stream/"))
+         {
+            int chunks = Integer.parseInt(uri.substring("/stream/".length()));
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM);
+            HttpUtil.setTransferEncodingChunked(response, true);
+            ctx.write(response);
+            for (int i = 0; i < chunks; i++)
+            {
+               ctx.write(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[CHUNK_SIZE])));
+            }
+            ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+         }
+         else
+         {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND);
+            HttpUtil.setContentLength(response, 0);
+            ctx.writeAndFlush(response);
+         }
+      }
+   }
+}
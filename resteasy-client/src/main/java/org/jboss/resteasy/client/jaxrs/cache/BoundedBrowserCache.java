@@ -0,0 +1,338 @@
+package org.jboss.resteasy.client.jaxrs.cache;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory BrowserCache holding at most {@code maxBytes} of cached responses.  Unlike
+ * {@link LightweightBrowserCache}, which empties itself when it is full, it drops the least recently used responses
+ * until the new one fits.  Every media type variant of a URI is its own entry, weighed by the size of its entity
+ * plus the URI and a fixed overhead for its headers.
+ * <p>
+ * Lookups don't lock, so that clients calling other services from many threads don't queue on the cache: the
+ * variants of a URI are kept in an array replaced as a whole, and accesses are recorded in a lossy buffer that is
+ * applied to the eviction order by the next write, or by the reader that finds it full if no other thread does it.
+ * Writes are rarer and lock the cache.
+ */
+public class BoundedBrowserCache implements BrowserCache
+{
+   public static final long DEFAULT_MAX_BYTES = 2000000;
+
+   // headers and bookkeeping of an entry, roughly
+   private static final int ENTRY_OVERHEAD = 256;
+
+   private static final int READ_BUFFER_SIZE = 64;
+
+   private static final class Node
+   {
+      private final String key;
+      private final MediaType mediaType;
+      private final Entry entry;
+      private final long weight;
+
+      Node(final String key, final MediaType mediaType, final Entry entry, final long weight)
+      {
+         this.key = key;
+         this.mediaType = mediaType;
+         this.entry = entry;
+         this.weight = weight;
+      }
+   }
+
+   // variants of a URI in the order they were added
+   private final ConcurrentHashMap<String, Node[]> variants = new ConcurrentHashMap<String, Node[]>();
+   private final ConcurrentLinkedQueue<Node> readBuffer = new ConcurrentLinkedQueue<Node>();
+   private final AtomicInteger readBufferSize = new AtomicInteger();
+   private final ReentrantLock evictionLock = new ReentrantLock();
+   // guarded by the eviction lock, every variant, least recently used first
+   private final LinkedHashMap<Node, Node> lru = new LinkedHashMap<Node, Node>(16, 0.75f, true);
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong evictions = new AtomicLong();
+   private volatile long maxBytes;
+   // written under the eviction lock
+   private volatile long byteCount;
+
+   public BoundedBrowserCache()
+   {
+      this(DEFAULT_MAX_BYTES);
+   }
+
+   public BoundedBrowserCache(final long maxBytes)
+   {
+      this.maxBytes = maxBytes;
+   }
+
+   public Entry getAny(String key)
+   {
+      Node[] nodes = variants.get(key);
+      if (nodes == null) return null;
+      afterRead(nodes[0]);
+      return nodes[0].entry;
+   }
+
+   public Entry get(String key, MediaType accept)
+   {
+      Node found = find(variants.get(key), accept);
+      if (found == null || found.entry.expired())
+      {
+         misses.incrementAndGet();
+      }
+      else
+      {
+         hits.incrementAndGet();
+      }
+      if (found == null) return null;
+      afterRead(found);
+      return found.entry;
+   }
+
+   private static Node find(Node[] nodes, MediaType accept)
+   {
+      if (nodes == null) return null;
+      // if the client accepts */*, return just the first entry for requested URL
+      if (accept.isWildcardType()) return nodes[0];
+      for (Node node : nodes)
+      {
+         if (accept.isWildcardSubtype() ? accept.getType().equalsIgnoreCase(node.mediaType.getType()) : accept.equals(node.mediaType))
+         {
+            return node;
+         }
+      }
+      return null;
+   }
+
+   public Entry put(String key, MediaType mediaType, MultivaluedMap<String, String> headers, byte[] cached, int expires, String etag, String lastModified)
+   {
+      Entry entry = new CacheEntry(key, headers, cached, expires, etag, lastModified, mediaType);
+      Node node = new Node(key, mediaType, entry, cached.length + 2L * key.length() + ENTRY_OVERHEAD);
+      if (node.weight > maxBytes) return entry;
+
+      evictionLock.lock();
+      try
+      {
+         drainReads();
+         Node[] nodes = variants.get(key);
+         Node replaced = null;
+         if (nodes == null)
+         {
+            nodes = new Node[]{node};
+         }
+         else
+         {
+            int i = 0;
+            while (i < nodes.length && !nodes[i].mediaType.equals(mediaType)) i++;
+            if (i < nodes.length) replaced = nodes[i];
+            // a copy, the array may be read concurrently
+            nodes = Arrays.copyOf(nodes, replaced == null ? nodes.length + 1 : nodes.length);
+            nodes[i] = node;
+         }
+         variants.put(key, nodes);
+         if (replaced != null)
+         {
+            lru.remove(replaced);
+            byteCount -= replaced.weight;
+         }
+         lru.put(node, node);
+         byteCount += node.weight;
+         evict();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+      return entry;
+   }
+
+   public Entry remove(String key, MediaType type)
+   {
+      evictionLock.lock();
+      try
+      {
+         Node[] nodes = variants.get(key);
+         if (nodes == null) return null;
+         for (Node node : nodes)
+         {
+            if (node.mediaType.equals(type))
+            {
+               remove(node);
+               return node.entry;
+            }
+         }
+         return null;
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public void clear()
+   {
+      evictionLock.lock();
+      try
+      {
+         drainReads();
+         variants.clear();
+         lru.clear();
+         byteCount = 0;
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   /**
+    * Apply the recorded accesses and evict entries over the budget.  Entries are evicted as they are added, so this
+    * is only needed to apply a lower {@link #setMaxBytes(long)}, which calls it, or to get an exact
+    * {@link #getEntryCount()}.
+    */
+   public void cleanUp()
+   {
+      evictionLock.lock();
+      try
+      {
+         drainReads();
+         evict();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public long getMaxBytes()
+   {
+      return maxBytes;
+   }
+
+   public void setMaxBytes(long maxBytes)
+   {
+      this.maxBytes = maxBytes;
+      cleanUp();
+   }
+
+   /**
+    * @return size of the cached entries in bytes, as accounted for the budget
+    */
+   public long getByteCount()
+   {
+      return byteCount;
+   }
+
+   public int getEntryCount()
+   {
+      evictionLock.lock();
+      try
+      {
+         return lru.size();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   /**
+    * @return number of lookups that found an entry that hasn't expired
+    */
+   public long getHits()
+   {
+      return hits.get();
+   }
+
+   /**
+    * @return number of lookups that found no entry or an expired one
+    */
+   public long getMisses()
+   {
+      return misses.get();
+   }
+
+   public long getEvictions()
+   {
+      return evictions.get();
+   }
+
+   private void afterRead(Node node)
+   {
+      // lossy, a dropped access only makes the eviction order a little less accurate
+      if (readBufferSize.incrementAndGet() > READ_BUFFER_SIZE)
+      {
+         readBufferSize.decrementAndGet();
+         if (evictionLock.tryLock())
+         {
+            try
+            {
+               drainReads();
+            }
+            finally
+            {
+               evictionLock.unlock();
+            }
+         }
+         return;
+      }
+      readBuffer.add(node);
+   }
+
+   private void drainReads()
+   {
+      Node node;
+      while ((node = readBuffer.poll()) != null)
+      {
+         readBufferSize.decrementAndGet();
+         // moves the node to the end, unless it was removed since
+         lru.get(node);
+      }
+   }
+
+   private void evict()
+   {
+      Iterator<Node> eldest = lru.keySet().iterator();
+      while (byteCount > maxBytes && eldest.hasNext())
+      {
+         Node victim = eldest.next();
+         eldest.remove();
+         removeVariant(victim);
+         byteCount -= victim.weight;
+         evictions.incrementAndGet();
+      }
+   }
+
+   private void remove(Node node)
+   {
+      lru.remove(node);
+      removeVariant(node);
+      byteCount -= node.weight;
+   }
+
+   private void removeVariant(Node node)
+   {
+      Node[] nodes = variants.get(node.key);
+      for (int i = 0; i < nodes.length; i++)
+      {
+         if (nodes[i] != node) continue;
+         if (nodes.length == 1)
+         {
+            variants.remove(node.key);
+            return;
+         }
+         Node[] copy = new Node[nodes.length - 1];
+         System.arraycopy(nodes, 0, copy, 0, i);
+         System.arraycopy(nodes, i + 1, copy, i, nodes.length - i - 1);
+         variants.put(node.key, copy);
+         return;
+      }
+   }
+}
@@ -40,6 +40,15 @@ public interface BrowserCache
 
       boolean expired();
 
+      /**
+       * @param staleSeconds how long the entry may still be used after it expired
+       * @return if the entry expired more than staleSeconds ago
+       */
+      default boolean expired(int staleSeconds)
+      {
+         return expired();
+      }
+
       Header[] getValidationHeaders();
 
       byte[] getCached();
@@ -9,6 +9,12 @@ import javax.ws.rs.core.FeatureContext;
  */
 public class BrowserCacheFeature implements Feature
 {
+   /**
+    * Configuration property with the maximum size of the cached entities in bytes.  When it is set and no cache was
+    * given, a {@link BoundedBrowserCache} of that size is used instead of a {@link LightweightBrowserCache}.
+    */
+   public static final String MAX_BYTES = "resteasy.client.cache.max.bytes";
+
    protected BrowserCache cache;
 
    public BrowserCache getCache()
@@ -24,7 +30,11 @@ public class BrowserCacheFeature implements Feature
    @Override
    public boolean configure(FeatureContext configuration)
    {
-      if (cache == null) cache = new LightweightBrowserCache();
+      if (cache == null)
+      {
+         Object maxBytes = configuration.getConfiguration().getProperty(MAX_BYTES);
+         cache = maxBytes == null ? new LightweightBrowserCache() : new BoundedBrowserCache(Long.parseLong(maxBytes.toString()));
+      }
       configuration.property(BrowserCache.class.getName(), cache);
       configuration.register(new CacheInterceptor(cache));
       return true;
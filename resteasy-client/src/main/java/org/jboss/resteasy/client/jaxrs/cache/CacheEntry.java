@@ -66,6 +66,11 @@ public class CacheEntry implements Entry, Serializable
       return System.currentTimeMillis() - timestamp >= expires * 1000L;
    }
 
+   public boolean expired(int staleSeconds)
+   {
+      return System.currentTimeMillis() - timestamp >= (expires + (long) staleSeconds) * 1000L;
+   }
+
    public Header[] getValidationHeaders()
    {
       return validationHeaders;
@@ -2,6 +2,7 @@ package org.jboss.resteasy.client.jaxrs.cache;
 
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.util.DateUtil;
+import org.jboss.resteasy.util.HttpHeaderNames;
 import org.jboss.resteasy.util.MediaTypeHelper;
 import org.jboss.resteasy.util.ReadFromStream;
 
@@ -44,8 +45,11 @@ public class CacheInterceptor implements ClientRequestFilter, ClientResponseFilt
          if (entry == null) return;
          if (entry.expired())
          {
-            // entry should have a remove method
-            cache.remove(request.getUri().toString(), entry.getMediaType());
+            // kept while it may still be used if the server fails
+            if (entry.expired(getStaleIfError(entry)))
+            {
+               cache.remove(request.getUri().toString(), entry.getMediaType());
+            }
 
             // add validation headers
             BrowserCache.Header[] headers = entry.getValidationHeaders();
@@ -97,6 +101,34 @@ public class CacheInterceptor implements ClientRequestFilter, ClientResponseFilt
       {
          cache(request, response);
       }
+      else if (response.getStatus() >= 500)
+      {
+         BrowserCache.Entry entry = (BrowserCache.Entry)request.getProperty("expired.cache.entry");
+         if (entry != null && !entry.expired(getStaleIfError(entry)))
+         {
+            useCacheEntry(response, entry);
+            response.getHeaders().add(HttpHeaderNames.WARNING, "111 - \"Revalidation Failed\"");
+         }
+      }
+   }
+
+   /**
+    * @return seconds an entry may be used after it expired when the server fails, from the stale-if-error extension of
+    * its Cache-Control header
+    */
+   protected int getStaleIfError(BrowserCache.Entry entry)
+   {
+      String cc = entry.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL);
+      if (cc == null) return 0;
+      try
+      {
+         String value = CacheControl.valueOf(cc).getCacheExtension().get("stale-if-error");
+         return value == null ? 0 : Math.max(0, Integer.parseInt(value.trim()));
+      }
+      catch (IllegalArgumentException e)
+      {
+         return 0;
+      }
    }
 
    private void useCacheEntry(ClientResponseContext response, BrowserCache.Entry entry)
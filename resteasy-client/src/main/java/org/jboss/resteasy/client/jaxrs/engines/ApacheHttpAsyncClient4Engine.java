@@ -1,15 +1,16 @@
 package org.jboss.resteasy.client.jaxrs.engines;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -27,18 +28,22 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
 import org.apache.http.nio.IOControl;
 import org.apache.http.nio.client.methods.HttpAsyncMethods;
 import org.apache.http.nio.entity.ContentInputStream;
@@ -47,6 +52,7 @@ import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
 import org.apache.http.nio.util.HeapByteBufferAllocator;
 import org.apache.http.nio.util.SharedInputBuffer;
+import org.apache.http.nio.util.SharedOutputBuffer;
 import org.apache.http.nio.util.SimpleInputBuffer;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
@@ -64,7 +70,9 @@ import org.jboss.resteasy.util.CaseInsensitiveMap;
  * As such, performance may profit from fewer thread switches and less memory usage due to fewer thread-stacks. But doing
  * synchronous, blocking IO (the invoke-methods not returning a future) may suffer, because the data has to be transferred
  * piecewiese to/from the io-threads.</li>
- * <li>Request-Entities are fully buffered in memory, thus this engine is unsuitable for very large uploads.</li>
+ * <li>Request-Entities are written by the calling thread and transferred piecewise to the io-threads. Thus submitting a
+ * request returns only after its entity is written, except for its last {@value #ENTITY_BUFFER_SIZE} bytes, and
+ * requests with larger entities must not be submitted from within the io-threads (see InvocationCallbacks below).</li>
  * <li>Response-Entities are buffered in memory, except if requesting a Response, InputStream or Reader as Result. Thus
  * for large downloads or COMET one of these three return types must be requested, but there may be a performance penalty
  * because the response-body is transferred piecewise from the io-threads. When using InvocationCallbacks, the response is
@@ -84,6 +92,11 @@ import org.jboss.resteasy.util.CaseInsensitiveMap;
  */
 public class ApacheHttpAsyncClient4Engine implements AsyncClientHttpEngine, Closeable
 {
+   /**
+    * Size of the buffer between the thread writing a request entity and the io-thread sending it.
+    */
+   public static final int ENTITY_BUFFER_SIZE = 16 * 1024;
+
    protected final CloseableHttpAsyncClient client;
    protected final boolean closeHttpClient;
 
@@ -149,8 +162,6 @@ public class ApacheHttpAsyncClient4Engine implements AsyncClientHttpEngine, Clos
    public <T> Future<T> submit(
       ClientInvocation request, boolean buffered, InvocationCallback<T> callback, ResultExtractor<T> extractor)
    {
-      HttpUriRequest httpRequest = buildHttpRequest(request);
-
       if (buffered)
       {
          // Request+Response fully buffered in memory. Optional callback is called inside io-thread after response-body and
@@ -167,11 +178,10 @@ public class ApacheHttpAsyncClient4Engine implements AsyncClientHttpEngine, Clos
          //     the future-response is unusable (bc. closed) together with a callback
          // Of course the one big drawback is that exceptions inside the callback are not visible to the application,
          // but callbacks are mostly treated as fire-and-forget, meaning their result is not checked anyway.
-         HttpAsyncRequestProducer requestProducer = HttpAsyncMethods.create(httpRequest);
          HttpAsyncResponseConsumer<T> responseConsumer = new BufferingResponseConsumer<T>(request, extractor);
          FutureCallback<T> httpCallback = callback != null ? new CallbackAdapter<T>(callback) : null;
 
-         return client.execute(requestProducer, responseConsumer, httpCallback);
+         return execute(request, requestProducer -> client.execute(requestProducer, responseConsumer, httpCallback));
       }
       else
       {
@@ -181,10 +191,9 @@ public class ApacheHttpAsyncClient4Engine implements AsyncClientHttpEngine, Clos
          // would be easy to call an InvocationCallback after response-BODY, but cant see any usecase for it.
          if (callback != null) throw new IllegalArgumentException("unbuffered InvocationCallback is not supported");
 
-         HttpAsyncRequestProducer requestProducer = HttpAsyncMethods.create(httpRequest);
          StreamingResponseConsumer<T> responseConsumer = new StreamingResponseConsumer<T>(request, extractor);
 
-         Future<T> httpFuture = client.execute(requestProducer, responseConsumer, null);
+         Future<T> httpFuture = execute(request, requestProducer -> client.execute(requestProducer, responseConsumer, null));
          return responseConsumer.future(httpFuture);
       }
    }
@@ -709,42 +718,210 @@ public class ApacheHttpAsyncClient4Engine implements AsyncClientHttpEngine, Clos
       }
    }
 
-   private static HttpUriRequest buildHttpRequest(ClientInvocation request)
+   /**
+    * Writes the request entity, if any, and passes the request to the http client once its headers are known.
+    */
+   private static <T> Future<T> execute(ClientInvocation request, Function<HttpAsyncRequestProducer, Future<T>> execute)
    {
-      // Writers may change headers. Thus buffer the content before committing the headers.
-      // For simplicity's sake the content is buffered in memory. File-buffering (ZeroCopyConsumer...) would be
-      // possible, but resource management is error-prone.
-
       HttpRequestBase httpRequest = createHttpMethod(request.getUri(), request.getMethod());
-      if (request.getEntity() != null)
+      if (request.getEntity() == null)
+      {
+         commitHeaders(request, httpRequest);
+         return execute.apply(HttpAsyncMethods.create(httpRequest));
+      }
+
+      EntityOutputStream<T> entityStream = new EntityOutputStream<T>(request, httpRequest, execute);
+      request.getDelegatingOutputStream().setDelegate(entityStream);
+      try
+      {
+         request.writeRequestBody(request.getEntityStream());
+         entityStream.close();
+      }
+      catch (IOException | RuntimeException e)
+      {
+         entityStream.abort(e);
+         if (e instanceof RuntimeException) throw (RuntimeException) e;
+         throw new RuntimeException(e);
+      }
+      return entityStream.getFuture();
+   }
+
+   /**
+    * Stream the request entity is written to.  Writers may change headers, so they are committed only when the first
+    * {@value #ENTITY_BUFFER_SIZE} bytes are written, like a servlet container commits a response when its buffer is
+    * full.  An entity fitting into that buffer is sent with a Content-Length, the others are chunked and transferred to
+    * the io-thread through a {@link SharedOutputBuffer}, which blocks the writer while it is full.
+    */
+   private static class EntityOutputStream<T> extends OutputStream
+   {
+      private final ClientInvocation request;
+      private final HttpRequestBase httpRequest;
+      private final Function<HttpAsyncRequestProducer, Future<T>> execute;
+      private byte[] head = new byte[ENTITY_BUFFER_SIZE];
+      private int count;
+      private StreamingRequestProducer producer;
+      private Future<T> future;
+      private boolean closed;
+
+      EntityOutputStream(final ClientInvocation request, final HttpRequestBase httpRequest, final Function<HttpAsyncRequestProducer, Future<T>> execute)
       {
-         byte[] requestContent = requestContent(request);
-         ByteArrayEntity entity = new ByteArrayEntity(requestContent);
-         entity.setContentType(new BasicHeader(HTTP.CONTENT_TYPE, request.getHeaders().getMediaType().toString()));
+         this.request = request;
+         this.httpRequest = httpRequest;
+         this.execute = execute;
+      }
+
+      @Override
+      public void write(int b) throws IOException
+      {
+         if (producer == null && !closed && count < head.length)
+         {
+            head[count++] = (byte) b;
+            return;
+         }
+         write(new byte[]{(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException
+      {
+         if (closed) throw new IOException("stream closed");
+         if (producer == null)
+         {
+            if (count + len <= head.length)
+            {
+               System.arraycopy(b, off, head, count, len);
+               count += len;
+               return;
+            }
+            commit();
+         }
+         producer.buffer.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+         if (closed) return;
+         closed = true;
+         if (producer != null)
+         {
+            producer.buffer.writeCompleted();
+            return;
+         }
+         ByteArrayEntity entity = new ByteArrayEntity(head, 0, count);
+         entity.setContentType(contentType());
          commitHeaders(request, httpRequest);
          ((HttpEntityEnclosingRequest) httpRequest).setEntity(entity);
+         head = null;
+         future = execute.apply(HttpAsyncMethods.create(httpRequest));
       }
-      else
+
+      void abort(Exception e)
+      {
+         closed = true;
+         if (producer != null) producer.abort(e);
+      }
+
+      Future<T> getFuture()
+      {
+         return future;
+      }
+
+      private void commit() throws IOException
       {
+         BasicHttpEntity entity = new BasicHttpEntity();
+         entity.setChunked(true);
+         entity.setContentType(contentType());
          commitHeaders(request, httpRequest);
+         ((HttpEntityEnclosingRequest) httpRequest).setEntity(entity);
+         producer = new StreamingRequestProducer(httpRequest);
+         future = execute.apply(producer);
+         producer.buffer.write(head, 0, count);
+         head = null;
       }
 
-      return httpRequest;
+      private Header contentType()
+      {
+         return new BasicHeader(HTTP.CONTENT_TYPE, request.getHeaders().getMediaType().toString());
+      }
    }
 
-   private static byte[] requestContent(ClientInvocation request)
+   /**
+    * Request producer sending the entity written to its buffer by another thread.  It is not repeatable, as the entity
+    * is not kept once sent.
+    */
+   private static class StreamingRequestProducer implements HttpAsyncRequestProducer
    {
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      request.getDelegatingOutputStream().setDelegate(baos);
-      try
+      private final HttpRequestBase httpRequest;
+      private final SharedOutputBuffer buffer = new SharedOutputBuffer(ENTITY_BUFFER_SIZE);
+      private volatile Exception aborted;
+      private volatile IOControl ioctrl;
+
+      StreamingRequestProducer(final HttpRequestBase httpRequest)
       {
-         request.writeRequestBody(request.getEntityStream());
-         baos.close();
-         return baos.toByteArray();
+         this.httpRequest = httpRequest;
       }
-      catch (IOException e)
+
+      @Override
+      public HttpHost getTarget()
       {
-         throw new RuntimeException(e);
+         return URIUtils.extractHost(httpRequest.getURI());
+      }
+
+      @Override
+      public HttpRequest generateRequest()
+      {
+         return httpRequest;
+      }
+
+      @Override
+      public void produceContent(ContentEncoder encoder, IOControl ioctrl) throws IOException
+      {
+         this.ioctrl = ioctrl;
+         if (aborted != null) throw ioException(aborted);
+         buffer.produceContent(encoder, ioctrl);
+      }
+
+      @Override
+      public void requestCompleted(HttpContext context)
+      {
+      }
+
+      @Override
+      public void failed(Exception ex)
+      {
+         // releases the writer
+         buffer.shutdown();
+      }
+
+      @Override
+      public boolean isRepeatable()
+      {
+         return false;
+      }
+
+      @Override
+      public void resetRequest()
+      {
+         buffer.shutdown();
+      }
+
+      @Override
+      public void close()
+      {
+         buffer.shutdown();
+      }
+
+      /**
+       * Fails the request because the entity could not be written.
+       */
+      void abort(Exception e)
+      {
+         aborted = e;
+         buffer.shutdown();
+         // output may be suspended while waiting for the writer
+         IOControl ioctrl = this.ioctrl;
+         if (ioctrl != null) ioctrl.requestOutput();
       }
    }
 
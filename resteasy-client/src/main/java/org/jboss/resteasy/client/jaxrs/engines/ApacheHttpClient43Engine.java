@@ -13,8 +13,11 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
 
 import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.http.Header;
@@ -30,7 +33,9 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicHeader;
@@ -40,6 +45,9 @@ import org.jboss.resteasy.client.jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.client.jaxrs.i18n.Messages;
 import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
 import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
+import org.jboss.resteasy.plugins.providers.FileProvider;
+import org.jboss.resteasy.plugins.providers.InputStreamProvider;
+import org.jboss.resteasy.plugins.providers.StreamingOutputProvider;
 import org.jboss.resteasy.util.CaseInsensitiveMap;
 
 /**
@@ -525,9 +533,10 @@ public class ApacheHttpClient43Engine implements ApacheHttpClientEngine
    }
 
    /**
-    * Build the HttpEntity to be sent to the Service as part of (POST) request. Creates a off-memory
-    * {@link FileExposingFileEntity} or a regular in-memory {@link ByteArrayEntity} depending on if the request
-    * OutputStream fit into memory when built by calling.
+    * Build the HttpEntity to be sent to the Service as part of (POST) request. Sends File, InputStream and
+    * StreamingOutput entities directly if {@link #buildDirectEntity(ClientInvocation)} allows it, otherwise creates a
+    * off-memory {@link FileExposingFileEntity} or a regular in-memory {@link ByteArrayEntity} depending on if the
+    * request OutputStream fit into memory when built by calling.
     *
     * @param request -
     * @return - the built HttpEntity
@@ -535,7 +544,15 @@ public class ApacheHttpClient43Engine implements ApacheHttpClientEngine
     */
    protected HttpEntity buildEntity(final ClientInvocation request) throws IOException
    {
-      AbstractHttpEntity entityToBuild = null;
+      AbstractHttpEntity entityToBuild = buildDirectEntity(request);
+      if (entityToBuild != null)
+      {
+         if (request.isChunked())
+         {
+            entityToBuild.setChunked(true);
+         }
+         return entityToBuild;
+      }
       DeferredFileOutputStream memoryManagedOutStream = writeRequestBodyToOutputStream(request);
 
       if (memoryManagedOutStream.isInMemory())
@@ -557,6 +574,55 @@ public class ApacheHttpClient43Engine implements ApacheHttpClientEngine
       return (HttpEntity) entityToBuild;
    }
 
+   /**
+    * Build an HttpEntity sending the request entity as is, without writing it to memory or to a temp file first. This
+    * is possible for a File, sent as a {@link FileEntity}, an InputStream and a StreamingOutput, both streamed while
+    * the request is sent, when they would be written by the built-in provider and no WriterInterceptor could change
+    * them. The InputStream and StreamingOutput entities can be sent only once, so they are buffered anyway if
+    * redirects are followed.
+    *
+    * @param request -
+    * @return - the built HttpEntity, or null if the request entity has to be buffered
+    */
+   protected AbstractHttpEntity buildDirectEntity(final ClientInvocation request)
+   {
+      Object entity = request.getEntity();
+      if (!(entity instanceof File || entity instanceof InputStream || entity instanceof StreamingOutput)
+            || request.getWriterInterceptors().length > 0)
+      {
+         return null;
+      }
+      MediaType mediaType = request.getHeaders().getMediaType();
+      MessageBodyWriter<?> writer = request.getClientConfiguration().getMessageBodyWriter(request.getEntityClass(),
+            request.getEntityGenericType(), request.getEntityAnnotations(), mediaType);
+
+      AbstractHttpEntity entityToBuild;
+      if (entity instanceof File && writer instanceof FileProvider)
+      {
+         entityToBuild = new FileEntity((File) entity);
+      }
+      else if (isFollowRedirects())
+      {
+         return null;
+      }
+      else if (entity instanceof InputStream && writer instanceof InputStreamProvider)
+      {
+         entityToBuild = new InputStreamEntity((InputStream) entity, -1);
+      }
+      else if (entity instanceof StreamingOutput && writer instanceof StreamingOutputProvider)
+      {
+         StreamingOutput streamingOutput = (StreamingOutput) entity;
+         entityToBuild = new EntityTemplate(streamingOutput::write);
+         entityToBuild.setChunked(true);
+      }
+      else
+      {
+         return null;
+      }
+      entityToBuild.setContentType(mediaType.toString());
+      return entityToBuild;
+   }
+
    /**
     * Creates the request OutputStream, to be sent to the end Service invoked, as a
     * <a href="http://commons.apache.org/io/api-release/org/apache/commons/io/output/DeferredFileOutputStream.html"
@@ -44,4 +44,16 @@ public interface AsyncClientHttpEngine extends ClientHttpEngine
     */
    <T> Future<T> submit(ClientInvocation request, boolean buffered, InvocationCallback<T> callback, ResultExtractor<T> extractor);
 
+   /**
+    * If the futures returned by {@link #submit} are {@link java.util.concurrent.CompletionStage}s completed by the
+    * io-threads.  The {@link javax.ws.rs.client.CompletionStageRxInvoker} of the client then returns them instead of
+    * blocking a thread of its executor for each request.
+    *
+    * @return false by default
+    */
+   default boolean isCompletionStageSupported()
+   {
+      return false;
+   }
+
 }
@@ -2,15 +2,22 @@ package org.jboss.resteasy.client.jaxrs.internal;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.CompletionStageRxInvoker;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.SyncInvoker;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.engines.AsyncClientHttpEngine;
+
 /**
  *
  * @author <a href="mailto:ron.sigal@jboss.com">Ron Sigal</a>
@@ -24,6 +31,8 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
 
    private final ExecutorService executor;
 
+   private final boolean completionStageSupported;
+
    public CompletionStageRxInvokerImpl(final SyncInvoker builder)
    {
       this(builder, null);
@@ -33,11 +42,51 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    {
       this.builder = builder;
       this.executor = executor;
+      this.completionStageSupported = builder instanceof ClientInvocationBuilder
+            && isCompletionStageSupported(((ClientInvocationBuilder) builder).invocation.getClient().httpEngine());
+   }
+
+   private static boolean isCompletionStageSupported(ClientHttpEngine engine)
+   {
+      return engine instanceof AsyncClientHttpEngine && ((AsyncClientHttpEngine) engine).isCompletionStageSupported();
+   }
+
+   /**
+    * Submits the request to an engine completing its futures itself, no thread waits for the response.
+    */
+   @SuppressWarnings("unchecked")
+   private <T> CompletionStage<T> submit(Function<AsyncInvoker, Future<T>> invocation)
+   {
+      Future<T> future = invocation.apply(((ClientInvocationBuilder) builder).async());
+      if (future instanceof CompletionStage)
+      {
+         return (CompletionStage<T>) future;
+      }
+      // aborted by a request filter, already done
+      CompletableFuture<T> stage = new CompletableFuture<T>();
+      try
+      {
+         stage.complete(future.get());
+      }
+      catch (ExecutionException e)
+      {
+         stage.completeExceptionally(e.getCause());
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         stage.completeExceptionally(e);
+      }
+      return stage;
    }
 
    @Override
    public CompletionStage<Response> get()
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.get());
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.get());
@@ -52,6 +101,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> get(Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.get(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.get(responseType));
@@ -65,6 +118,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> get(GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.get(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.get(responseType));
@@ -78,6 +135,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> put(Entity<?> entity)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.put(entity));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.put(entity));
@@ -91,6 +152,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> put(Entity<?> entity, Class<T> clazz)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.put(entity, clazz));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.put(entity, clazz));
@@ -104,6 +169,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> put(Entity<?> entity, GenericType<T> type)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.put(entity, type));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.put(entity, type));
@@ -117,6 +186,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> post(Entity<?> entity)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.post(entity));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.post(entity));
@@ -130,6 +203,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> post(Entity<?> entity, Class<T> clazz)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.post(entity, clazz));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.post(entity, clazz));
@@ -143,6 +220,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> post(Entity<?> entity, GenericType<T> type)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.post(entity, type));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.post(entity, type));
@@ -156,6 +237,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> delete()
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.delete());
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.delete());
@@ -169,6 +254,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> delete(Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.delete(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.delete(responseType));
@@ -182,6 +271,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> delete(GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.delete(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.delete(responseType));
@@ -195,6 +288,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> head()
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.head());
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.head());
@@ -208,6 +305,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> options()
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.options());
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.options());
@@ -221,6 +322,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> options(Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.options(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.options(responseType));
@@ -233,6 +338,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> options(GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.options(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.options(responseType));
@@ -246,6 +355,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> trace()
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.trace());
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.trace());
@@ -259,6 +372,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> trace(Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.trace(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.trace(responseType));
@@ -272,6 +389,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> trace(GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.trace(responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.trace(responseType));
@@ -285,6 +406,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> method(String name)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name));
@@ -298,6 +423,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> method(String name, Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name, responseType));
@@ -311,6 +440,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> method(String name, GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name, responseType));
@@ -324,6 +457,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public CompletionStage<Response> method(String name, Entity<?> entity)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name, entity));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name, entity));
@@ -336,6 +473,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> method(String name, Entity<?> entity, Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name, entity, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name, entity, responseType));
@@ -349,6 +490,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
    @Override
    public <T> CompletionStage<T> method(String name, Entity<?> entity, GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(name, entity, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(name, entity, responseType));
@@ -366,6 +511,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
 
    public CompletionStage<Response> patch(Entity<?> entity)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(HttpMethod.PATCH, entity));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(HttpMethod.PATCH, entity));
@@ -378,6 +527,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
 
    public <T> CompletionStage<T> patch(Entity<?> entity, Class<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(HttpMethod.PATCH, entity, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(HttpMethod.PATCH, entity, responseType));
@@ -390,6 +543,10 @@ public class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker
 
    public <T> CompletionStage<T> patch(Entity<?> entity, GenericType<T> responseType)
    {
+      if (completionStageSupported)
+      {
+         return submit(invoker -> invoker.method(HttpMethod.PATCH, entity, responseType));
+      }
       if (executor == null)
       {
          return CompletableFuture.supplyAsync(() -> builder.method(HttpMethod.PATCH, entity, responseType));
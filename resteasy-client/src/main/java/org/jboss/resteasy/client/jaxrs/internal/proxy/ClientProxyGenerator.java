@@ -0,0 +1,315 @@
+package org.jboss.resteasy.client.jaxrs.internal.proxy;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.ws.rs.client.WebTarget;
+
+import javassist.CannotCompileException;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+import org.jboss.resteasy.client.jaxrs.ProxyConfig;
+
+/**
+ * Generates a proxy class per client interface, as an alternative to {@link java.lang.reflect.Proxy} and
+ * {@link ClientProxy}.  Each interface method is implemented by a call to its prebuilt invoker, kept in a field of
+ * its own, so there is no method lookup, no reflective dispatch and no InvocationHandler in between, and each call
+ * site only ever sees one invoker.
+ * <p>
+ * The class of an interface is generated once, into a class loader of its own whose parent is the loader of the
+ * interface.  Interfaces using types that such a class cannot access (not public) are not supported, see
+ * {@link #isSupported(Class)}.
+ * <p>
+ * Generated classes are cached per class loader of the interface, with weak keys and a weak reference to the
+ * generated class, so the cache doesn't keep a redeployed application loaded.  A class no longer used by any proxy
+ * may be collected and is generated again when needed.
+ */
+public final class ClientProxyGenerator
+{
+   private static final String SUFFIX = "$$ResteasyClientProxy";
+
+   private static final CtClass[] PRIMITIVE_TYPES = {CtClass.booleanType, CtClass.charType, CtClass.byteType,
+         CtClass.shortType, CtClass.intType, CtClass.longType, CtClass.floatType, CtClass.doubleType};
+
+   // guarded by itself
+   private static final Map<ClassLoader, Map<Class<?>, WeakReference<Class<?>>>> PROXY_CLASSES =
+         new WeakHashMap<ClassLoader, Map<Class<?>, WeakReference<Class<?>>>>();
+
+   private ClientProxyGenerator()
+   {
+   }
+
+   /**
+    * @param iface client interface
+    * @return if a proxy class can be generated for the interface
+    */
+   public static boolean isSupported(Class<?> iface)
+   {
+      if (!iface.isInterface() || !isPublic(iface) || iface.getName().startsWith("java."))
+      {
+         return false;
+      }
+      for (Method method : iface.getMethods())
+      {
+         if (!isPublic(method.getReturnType()))
+         {
+            return false;
+         }
+         for (Class<?> type : method.getParameterTypes())
+         {
+            if (!isPublic(type))
+            {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Creates a proxy implementing the interface and {@link ResteasyClientProxy}.
+    *
+    * @param iface client interface, must be {@link #isSupported(Class) supported}
+    * @param target base target of the proxy
+    * @param config proxy configuration
+    * @param invokers invokers of the interface methods, methods without one fail when called
+    * @param <T> interface type
+    * @return proxy
+    */
+   @SuppressWarnings("unchecked")
+   public static <T> T createProxy(Class<T> iface, WebTarget target, ProxyConfig config, Map<Method, MethodInvoker> invokers)
+   {
+      Class<?> proxyClass = getProxyClass(iface);
+      Method[] methods = ((ProxyClassLoader) proxyClass.getClassLoader()).methods;
+      MethodInvoker[] methodInvokers = new MethodInvoker[methods.length];
+      for (int i = 0; i < methods.length; i++)
+      {
+         methodInvokers[i] = invokers.get(methods[i]);
+      }
+      try
+      {
+         Constructor<?> constructor = proxyClass.getConstructors()[0];
+         return (T) constructor.newInstance(iface, target, config, methods, methodInvokers);
+      }
+      catch (ReflectiveOperationException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static Class<?> getProxyClass(Class<?> iface)
+   {
+      Class<?> proxyClass = lookup(iface);
+      if (proxyClass != null) return proxyClass;
+      // generated outside the lock, a concurrent caller may generate the same class and one of them is kept
+      proxyClass = generate(iface);
+      synchronized (PROXY_CLASSES)
+      {
+         Class<?> existing = lookup(iface);
+         if (existing != null) return existing;
+         PROXY_CLASSES.computeIfAbsent(iface.getClassLoader(), loader -> new WeakHashMap<Class<?>, WeakReference<Class<?>>>())
+               .put(iface, new WeakReference<Class<?>>(proxyClass));
+      }
+      return proxyClass;
+   }
+
+   private static Class<?> lookup(Class<?> iface)
+   {
+      synchronized (PROXY_CLASSES)
+      {
+         Map<Class<?>, WeakReference<Class<?>>> classes = PROXY_CLASSES.get(iface.getClassLoader());
+         WeakReference<Class<?>> proxyClass = classes == null ? null : classes.get(iface);
+         return proxyClass == null ? null : proxyClass.get();
+      }
+   }
+
+   private static boolean isPublic(Class<?> type)
+   {
+      while (type.isArray())
+      {
+         type = type.getComponentType();
+      }
+      for (Class<?> c = type; c != null; c = c.getDeclaringClass())
+      {
+         if (!c.isPrimitive() && !Modifier.isPublic(c.getModifiers())) return false;
+      }
+      return true;
+   }
+
+   /**
+    * @return the proxy class, its loader holds the implemented interface methods in the order of the invoker fields
+    */
+   private static Class<?> generate(Class<?> iface)
+   {
+      List<Method> methods = new ArrayList<Method>();
+      Set<String> signatures = new HashSet<String>();
+      for (Method method : iface.getMethods())
+      {
+         if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) continue;
+         // the same method inherited from several interfaces is implemented once, covariant overrides each get theirs
+         if (!signatures.add(method.getName() + descriptor(method))) continue;
+         methods.add(method);
+      }
+
+      ClassPool pool = new ClassPool(false);
+      if (iface.getClassLoader() != null)
+      {
+         pool.appendClassPath(new LoaderClassPath(iface.getClassLoader()));
+      }
+      pool.appendClassPath(new ClassClassPath(GeneratedClientProxy.class));
+      pool.appendSystemPath();
+
+      ProxyClassLoader loader = new ProxyClassLoader(iface.getClassLoader(), methods.toArray(new Method[0]));
+      String name = iface.getName() + SUFFIX;
+      try
+      {
+         CtClass proxy = pool.makeClass(name, pool.get(GeneratedClientProxy.class.getName()));
+         proxy.setModifiers(javassist.Modifier.PUBLIC | javassist.Modifier.FINAL);
+         proxy.addInterface(pool.get(iface.getName()));
+
+         StringBuilder init = new StringBuilder("{ super($1, $2, $3, $4, $5);");
+         for (int i = 0; i < methods.size(); i++)
+         {
+            Method method = methods.get(i);
+            String field = "i" + i;
+            proxy.addField(CtField.make("private " + MethodInvoker.class.getName() + " " + field + ";", proxy));
+            init.append(" this.").append(field).append(" = getMethodInvoker(").append(i).append(");");
+
+            String body;
+            if (isAs(method))
+            {
+               body = method.getReturnType() == void.class ? "{ super.as($1); }" : "{ return ($r) super.as($1); }";
+            }
+            else
+            {
+               String call = "this." + field + ".invoke($args)";
+               String missing = "if (this." + field + " == null) throw couldNotFindMethod(" + i + ");";
+               body = method.getReturnType() == void.class
+                     ? "{ " + missing + " " + call + "; }"
+                     : "{ " + missing + " return ($r) " + call + "; }";
+            }
+            CtMethod ctMethod = CtNewMethod.make(javassist.Modifier.PUBLIC | javassist.Modifier.FINAL,
+                  ctClass(pool, method.getReturnType()), method.getName(), ctClasses(pool, method.getParameterTypes()),
+                  ctClasses(pool, method.getExceptionTypes()), body, proxy);
+            proxy.addMethod(ctMethod);
+         }
+         init.append(" }");
+
+         CtClass[] parameters = ctClasses(pool, new Class<?>[]{Class.class, WebTarget.class, ProxyConfig.class,
+               Method[].class, MethodInvoker[].class});
+         CtConstructor constructor = CtNewConstructor.make(parameters, new CtClass[0], init.toString(), proxy);
+         proxy.addConstructor(constructor);
+
+         byte[] bytes = proxy.toBytecode();
+         proxy.detach();
+         return loader.define(name, bytes, iface.getProtectionDomain());
+      }
+      catch (NotFoundException | CannotCompileException | IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   /**
+    * equals, hashCode and toString redeclared by the interface are left to {@link GeneratedClientProxy}.
+    */
+   private static boolean isObjectMethod(Method method)
+   {
+      try
+      {
+         Object.class.getMethod(method.getName(), method.getParameterTypes());
+         return true;
+      }
+      catch (NoSuchMethodException e)
+      {
+         return false;
+      }
+   }
+
+   private static boolean isAs(Method method)
+   {
+      return "as".equals(method.getName()) && method.getParameterTypes().length == 1
+            && method.getParameterTypes()[0] == Class.class;
+   }
+
+   private static String descriptor(Method method)
+   {
+      StringBuilder sb = new StringBuilder("(");
+      for (Class<?> type : method.getParameterTypes())
+      {
+         sb.append(type.getName()).append(';');
+      }
+      return sb.append(')').append(method.getReturnType().getName()).toString();
+   }
+
+   private static CtClass[] ctClasses(ClassPool pool, Class<?>[] types) throws NotFoundException
+   {
+      CtClass[] ctClasses = new CtClass[types.length];
+      for (int i = 0; i < types.length; i++)
+      {
+         ctClasses[i] = ctClass(pool, types[i]);
+      }
+      return ctClasses;
+   }
+
+   private static CtClass ctClass(ClassPool pool, Class<?> type) throws NotFoundException
+   {
+      if (type.isArray())
+      {
+         return pool.get(ctClass(pool, type.getComponentType()).getName() + "[]");
+      }
+      if (type.isPrimitive())
+      {
+         if (type == void.class) return CtClass.voidType;
+         for (CtClass primitive : PRIMITIVE_TYPES)
+         {
+            if (primitive.getName().equals(type.getName())) return primitive;
+         }
+      }
+      return pool.get(type.getName());
+   }
+
+   /**
+    * Sees the classes of the interface and, for the generated class itself, those of RESTEasy.  Keeps the methods
+    * implemented by the generated class as long as the class is loaded.
+    */
+   private static final class ProxyClassLoader extends ClassLoader
+   {
+      private final Method[] methods;
+
+      ProxyClassLoader(final ClassLoader parent, final Method[] methods)
+      {
+         super(parent);
+         this.methods = methods;
+      }
+
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException
+      {
+         return GeneratedClientProxy.class.getClassLoader().loadClass(name);
+      }
+
+      Class<?> define(String name, byte[] bytes, ProtectionDomain domain)
+      {
+         return defineClass(name, bytes, 0, bytes.length, domain);
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package org.jboss.resteasy.client.jaxrs.internal.proxy;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.ws.rs.client.WebTarget;
+
+import org.jboss.resteasy.client.jaxrs.ProxyBuilder;
+import org.jboss.resteasy.client.jaxrs.ProxyConfig;
+import org.jboss.resteasy.client.jaxrs.i18n.Messages;
+
+/**
+ * Superclass of the proxy classes generated by {@link ClientProxyGenerator}.  Each generated method calls the
+ * invoker of its interface method directly, the rest behaves like {@link ClientProxy}.
+ */
+public abstract class GeneratedClientProxy implements ResteasyClientProxy
+{
+   private final Class<?> clazz;
+   private final WebTarget target;
+   private final ProxyConfig config;
+   private final Method[] methods;
+   private final MethodInvoker[] invokers;
+
+   protected GeneratedClientProxy(final Class<?> clazz, final WebTarget target, final ProxyConfig config,
+         final Method[] methods, final MethodInvoker[] invokers)
+   {
+      this.clazz = clazz;
+      this.target = target;
+      this.config = config;
+      this.methods = methods;
+      this.invokers = invokers;
+   }
+
+   /**
+    * @param index index of the generated method
+    * @return the invoker called by a generated method, null if the interface method has none
+    */
+   protected MethodInvoker getMethodInvoker(int index)
+   {
+      return invokers[index];
+   }
+
+   /**
+    * Thrown by the generated methods whose interface method has no invoker.
+    */
+   protected RuntimeException couldNotFindMethod(int index)
+   {
+      return new RuntimeException(Messages.MESSAGES.couldNotFindMethod(methods[index]));
+   }
+
+   @Override
+   public Collection<ClientInvoker> getResteasyClientInvokers()
+   {
+      List<ClientInvoker> clientInvokers = new ArrayList<ClientInvoker>();
+      for (MethodInvoker invoker : invokers)
+      {
+         if (invoker instanceof ClientInvoker)
+         {
+            clientInvokers.add((ClientInvoker) invoker);
+         }
+      }
+      return clientInvokers;
+   }
+
+   @Override
+   public void applyClientInvokerModifier(ClientInvokerModifier modifier)
+   {
+      for (ClientInvoker invoker : getResteasyClientInvokers())
+      {
+         modifier.modify(invoker);
+      }
+   }
+
+   @Override
+   public <T> T as(Class<T> iface)
+   {
+      return ProxyBuilder.proxy(iface, target, config);
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      return this == obj;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return clazz.hashCode();
+   }
+
+   @Override
+   public String toString()
+   {
+      return Messages.MESSAGES.resteasyClientProxyFor(clazz.getName());
+   }
+}
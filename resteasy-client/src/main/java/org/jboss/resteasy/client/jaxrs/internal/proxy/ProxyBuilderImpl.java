@@ -20,6 +20,12 @@ import java.util.Set;
 
 public class ProxyBuilderImpl<T> extends ProxyBuilder<T>
 {
+   /**
+    * Client property, if true proxies are instances of classes generated by {@link ClientProxyGenerator} rather than
+    * of {@link Proxy}.  Requires javassist.
+    */
+   public static final String GENERATED_PROXIES = "resteasy.client.proxy.generated";
+
    private static final Class<?>[] cClassArgArray = {Class.class};
 
    private final Class<T> iface;
@@ -32,6 +38,8 @@ public class ProxyBuilderImpl<T> extends ProxyBuilder<T>
 
    private MediaType serverProduces;
 
+   private Boolean generated;
+
    private static <T> ClientInvoker createClientInvoker(Class<T> clazz, Method method, ResteasyWebTarget base,
          ProxyConfig config)
    {
@@ -96,6 +104,16 @@ public class ProxyBuilderImpl<T> extends ProxyBuilder<T>
       return this;
    }
 
+   /**
+    * @param generated if the proxy class is generated, overrides {@link #GENERATED_PROXIES}
+    * @return this builder
+    */
+   public ProxyBuilderImpl<T> generated(boolean generated)
+   {
+      this.generated = generated;
+      return this;
+   }
+
    public T build()
    {
       return build(new ProxyConfig(loader, serverConsumes, serverProduces));
@@ -144,6 +162,11 @@ public class ProxyBuilderImpl<T> extends ProxyBuilder<T>
          methodMap.put(method, invoker);
       }
 
+      if (isGenerated() && ClientProxyGenerator.isSupported(iface))
+      {
+         return ClientProxyGenerator.createProxy(iface, base, config, methodMap);
+      }
+
       Class<?>[] intfs = {iface, ResteasyClientProxy.class};
 
       ClientProxy clientProxy = new ClientProxy(methodMap, base, config);
@@ -155,4 +178,14 @@ public class ProxyBuilderImpl<T> extends ProxyBuilder<T>
       return (T) Proxy.newProxyInstance(config.getLoader(), intfs, clientProxy);
    }
 
+   private boolean isGenerated()
+   {
+      if (generated != null)
+      {
+         return generated;
+      }
+      Object property = webTarget.getConfiguration().getProperty(GENERATED_PROXIES);
+      return property instanceof Boolean ? (Boolean) property : property != null && Boolean.parseBoolean(property.toString());
+   }
+
 }
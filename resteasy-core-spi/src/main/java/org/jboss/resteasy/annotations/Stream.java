@@ -17,4 +17,11 @@ public @interface Stream
    String INCLUDE_STREAMING_PARAMETER = "streaming";
    MODE value() default MODE.GENERAL;
    boolean includeStreaming() default false;
+
+   /**
+    * Number of elements requested from the publisher before any is written.  More are requested once three
+    * quarters of them are written, elements received in the meantime are written together and flushed once.
+    * A value {@literal <=} 0 uses the {@code resteasy.stream.prefetch} context parameter, which defaults to 1.
+    */
+   int prefetch() default 0;
 }
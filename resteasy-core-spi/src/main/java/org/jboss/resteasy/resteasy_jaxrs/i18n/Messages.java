@@ -833,6 +833,12 @@ public interface Messages
    @Message(id = BASE + 1099, value = "MultiValuedCollectionParamConverter unable to parse: %s")
    String unableToParse(String s);
 
+   @Message(id = BASE + 1100, value = "Event queue of SseEventSink is full, event dropped")
+   String sseEventQueueIsFull();
+
+   @Message(id = BASE + 1101, value = "Writing an event to SseEventSink took more than %s ms, sink closed")
+   String sseEventWriteTimedOut(long timeout);
+
    @Message(id = BASE + 13, value = "Error creating array from %s")
    String errorCreatingArray(String s);
 }
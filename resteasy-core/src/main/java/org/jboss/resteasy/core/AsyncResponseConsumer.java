@@ -1,12 +1,15 @@
 package org.jboss.resteasy.core;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -20,7 +23,9 @@ import javax.ws.rs.sse.SseEventSink;
 import org.jboss.resteasy.annotations.Stream;
 import org.jboss.resteasy.plugins.providers.sse.OutboundSseEventImpl;
 import org.jboss.resteasy.plugins.providers.sse.SseConstants;
+import org.jboss.resteasy.plugins.providers.sse.SseEventOutputImpl;
 import org.jboss.resteasy.plugins.providers.sse.SseImpl;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
 import org.jboss.resteasy.specimpl.BuiltResponse;
 import org.jboss.resteasy.specimpl.MultivaluedTreeMap;
@@ -30,6 +35,8 @@ import org.jboss.resteasy.spi.Dispatcher;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.HttpResponse;
 import org.jboss.resteasy.spi.ResteasyAsynchronousResponse;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.util.DelegatingOutputStream;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
@@ -252,11 +259,59 @@ public abstract class AsyncResponseConsumer
    {
       protected Subscription subscription;
       private AsyncStreamProvider<?> asyncStreamProvider;
+      // elements requested up front, more are requested once replenish of them are done with
+      private final int prefetch;
+      private final int replenish;
+      private int done;
 
       AsyncStreamResponseConsumer(final ResourceMethodInvoker method, final AsyncStreamProvider<?> asyncStreamProvider)
       {
          super(method);
          this.asyncStreamProvider = asyncStreamProvider;
+         this.prefetch = getPrefetch(method);
+         this.replenish = Math.max(1, prefetch - prefetch / 4);
+      }
+
+      private static int getPrefetch(ResourceMethodInvoker method)
+      {
+         Stream stream = method.getMethod().getAnnotation(Stream.class);
+         if (stream != null && stream.prefetch() > 0)
+         {
+            return stream.prefetch();
+         }
+         ResteasyDeployment deployment = ResteasyContext.getContextData(ResteasyDeployment.class);
+         Object prefetch = deployment != null ? deployment.getProperty(ResteasyContextParameters.RESTEASY_STREAM_PREFETCH) : null;
+         return prefetch != null ? Math.max(1, Integer.parseInt(prefetch.toString())) : 1;
+      }
+
+      /**
+       * Request more elements once enough of the requested ones are done with.
+       * @param count number of elements done with
+       */
+      protected void elementsDone(int count)
+      {
+         int request;
+         synchronized (this)
+         {
+            done += count;
+            if (done < replenish)
+            {
+               return;
+            }
+            request = done;
+            done = 0;
+         }
+         // the publisher may call onNext from request, don't hold the lock
+         requestElements(request);
+      }
+
+      /**
+       * Request more elements from the subscription.
+       * @param n number of elements
+       */
+      protected void requestElements(long n)
+      {
+         subscription.request(n);
       }
 
       @Override
@@ -303,7 +358,7 @@ public abstract class AsyncResponseConsumer
       public void onSubscribe(Subscription subscription)
       {
          this.subscription = subscription;
-         subscription.request(1);
+         requestElements(prefetch);
       }
 
       @Override
@@ -315,14 +370,143 @@ public abstract class AsyncResponseConsumer
       }
    }
 
+   /*
+    * AsyncStreamingResponseConsumer writes elements as they arrive.  Elements received while a write is in
+    * progress are queued and written together as one batch, more elements are requested once a batch is written.
+    */
+   private abstract static class AsyncStreamingResponseConsumer extends AsyncStreamResponseConsumer
+   {
+      private final ArrayDeque<Object> pending = new ArrayDeque<Object>();
+      private boolean writing;
+      private boolean completeReceived;
+
+      AsyncStreamingResponseConsumer(final ResourceMethodInvoker method, final AsyncStreamProvider<?> asyncStreamProvider)
+      {
+         super(method, asyncStreamProvider);
+      }
+
+      /**
+       * Write a batch of elements in order.
+       * @param elements elements to write
+       * @param onComplete called once all elements are written or with the first failure
+       */
+      protected abstract void writeElements(List<Object> elements, Consumer<Throwable> onComplete);
+
+      @Override
+      protected void addNextElement(Object element)
+      {
+         synchronized (pending)
+         {
+            pending.add(element);
+            if (writing)
+            {
+               return;
+            }
+            writing = true;
+         }
+         writePending();
+      }
+
+      @Override
+      protected void requestElements(long n)
+      {
+         // elements a synchronous publisher delivers from request are queued and written as one batch
+         boolean write;
+         synchronized (pending)
+         {
+            write = !writing;
+            writing = true;
+         }
+         super.requestElements(n);
+         if (write)
+         {
+            writePending();
+         }
+      }
+
+      @Override
+      public void onComplete()
+      {
+         synchronized (pending)
+         {
+            completeReceived = true;
+            if (writing)
+            {
+               return;
+            }
+         }
+         super.onComplete();
+      }
+
+      private void writePending()
+      {
+         // loop rather than recurse, a synchronous publisher delivers the next elements from elementsDone
+         for (;;)
+         {
+            List<Object> batch;
+            synchronized (pending)
+            {
+               if (pending.isEmpty())
+               {
+                  writing = false;
+                  if (!completeReceived)
+                  {
+                     return;
+                  }
+                  batch = null;
+               }
+               else
+               {
+                  batch = new ArrayList<Object>(pending);
+                  pending.clear();
+               }
+            }
+            if (batch == null)
+            {
+               super.onComplete();
+               return;
+            }
+            CompletableFuture<Throwable> written = new CompletableFuture<Throwable>();
+            writeElements(batch, written::complete);
+            if (!written.isDone())
+            {
+               written.thenAccept(t -> {
+                  if (batchWritten(batch.size(), t))
+                  {
+                     writePending();
+                  }
+               });
+               return;
+            }
+            if (!batchWritten(batch.size(), written.join()))
+            {
+               return;
+            }
+         }
+      }
+
+      private boolean batchWritten(int count, Throwable t)
+      {
+         if (t != null)
+         {
+            complete(t);
+            return false;
+         }
+         elementsDone(count);
+         return true;
+      }
+   }
+
    /*
     * AsyncRawStreamingResponseConsumer supports raw streaming, which is invoked when a resource method
     * is annotated with @Stream(Stream.MODE.RAW). In raw streaming, an undelimited sequence of data elements
     * such as bytes or chars is written. The client application is responsible for parsing it.
     */
-   private static class AsyncRawStreamingResponseConsumer extends AsyncStreamResponseConsumer
+   private static class AsyncRawStreamingResponseConsumer extends AsyncStreamingResponseConsumer
    {
       private boolean sentEntity;
+      // as for SSE only the end of a batch is flushed
+      private DeferredFlushOutputStream output;
 
       AsyncRawStreamingResponseConsumer(final ResourceMethodInvoker method, final AsyncStreamProvider<?> asyncStreamProvider)
       {
@@ -365,16 +549,62 @@ public abstract class AsyncResponseConsumer
          sentEntity = true;
       }
 
-      protected void addNextElement(Object element)
+      @Override
+      protected void writeElements(List<Object> elements, Consumer<Throwable> onComplete)
       {
-         internalResume(element, t -> {
+         HttpResponse httpResponse = (HttpResponse) contextDataMap.get(HttpResponse.class);
+         try
+         {
+            if (output == null && httpResponse.getOutputStream() != null)
+            {
+               output = new DeferredFlushOutputStream(httpResponse.getOutputStream());
+               httpResponse.setOutputStream(output);
+            }
+         }
+         catch (IOException e)
+         {
+            onComplete.accept(e);
+            return;
+         }
+         if (output == null)
+         {
+            writeElement(elements, 0, onComplete);
+            return;
+         }
+         output.deferring = true;
+         writeElement(elements, 0, t -> {
+            output.deferring = false;
+            if (t == null)
+            {
+               try
+               {
+                  output.flush();
+               }
+               catch (IOException e)
+               {
+                  onComplete.accept(e);
+                  return;
+               }
+            }
+            onComplete.accept(t);
+         });
+      }
+
+      private void writeElement(List<Object> elements, int index, Consumer<Throwable> onComplete)
+      {
+         if (index == elements.size())
+         {
+            onComplete.accept(null);
+            return;
+         }
+         internalResume(elements.get(index), t -> {
             if(t != null)
             {
-               complete(t);
+               onComplete.accept(t);
             }
             else
             {
-               subscription.request(1);
+               writeElement(elements, index + 1, onComplete);
             }
          });
       }
@@ -386,6 +616,28 @@ public abstract class AsyncResponseConsumer
       }
    }
 
+   /*
+    * Ignores flushes, such as the ones of message body writers, while the elements of a batch are written.
+    */
+   private static class DeferredFlushOutputStream extends DelegatingOutputStream
+   {
+      private boolean deferring;
+
+      DeferredFlushOutputStream(final OutputStream delegate)
+      {
+         super(delegate);
+      }
+
+      @Override
+      public void flush() throws IOException
+      {
+         if (!deferring)
+         {
+            super.flush();
+         }
+      }
+   }
+
    /*
     * Rather than writing a stream of data items, AsyncStreamCollectorResponseConsumer collects a sequence
     * of data items into a list and writes the entire list when all data items have been collected.
@@ -409,7 +661,7 @@ public abstract class AsyncResponseConsumer
       protected void addNextElement(Object element)
       {
          collector.add(element);
-         subscription.request(1);
+         elementsDone(1);
       }
 
       @Override
@@ -453,12 +705,12 @@ public abstract class AsyncResponseConsumer
     * General streaming is an extension of streaming as defined for SSE. The extension include
     * support for encoding non-text data.
     */
-   private static class AsyncGeneralStreamingSseResponseConsumer extends AsyncStreamResponseConsumer
+   private static class AsyncGeneralStreamingSseResponseConsumer extends AsyncStreamingResponseConsumer
    {
       private SseImpl sse;
       private SseEventSink sseEventSink;
-      private volatile boolean onCompleteReceived = false;
-      private volatile boolean sendingEvent = false;
+      // only the last event of a batch is flushed
+      private boolean flush = true;
 
       private AsyncGeneralStreamingSseResponseConsumer(final ResourceMethodInvoker method, final AsyncStreamProvider<?> asyncStreamProvider)
       {
@@ -478,17 +730,29 @@ public abstract class AsyncResponseConsumer
       }
 
       @Override
-      protected void addNextElement(Object element)
+      protected void writeElements(List<Object> elements, Consumer<Throwable> onComplete)
       {
-         super.addNextElement(element);
+         writeElement(elements, 0, onComplete);
       }
 
-      @Override
-      public synchronized void onComplete()
+      private void writeElement(List<Object> elements, int index, Consumer<Throwable> onComplete)
       {
-         onCompleteReceived = true;
-         if(sendingEvent == false)
-            super.onComplete();
+         if (index == elements.size())
+         {
+            onComplete.accept(null);
+            return;
+         }
+         flush = index == elements.size() - 1;
+         internalResume(elements.get(index), t -> {
+            if(t != null)
+            {
+               onComplete.accept(t);
+            }
+            else
+            {
+               writeElement(elements, index + 1, onComplete);
+            }
+         });
       }
 
       @Override
@@ -538,27 +802,17 @@ public abstract class AsyncResponseConsumer
          {
             ((OutboundSseEventImpl) event).setEscape(true);
          }
-         sendingEvent = true;
-         // we can only get onComplete after we return from this method
          try {
-            sseEventSink.send(event).whenComplete((val, ex) -> {
-               synchronized(this) {
-                  sendingEvent = false;
-                  if(onCompleteReceived)
-                     super.onComplete();
-                  else if(ex != null)
-                  {
-                     // cancel the subscription
-                     complete(ex);
-                     onComplete.accept(ex);
-                  }
-                  else
-                  {
-                     // we're good, ask for the next one
-                     subscription.request(1);
-                     onComplete.accept(ex);
-                  }
+            CompletionStage<?> sent = sseEventSink instanceof SseEventOutputImpl
+                  ? ((SseEventOutputImpl) sseEventSink).send(event, flush)
+                  : sseEventSink.send(event);
+            sent.whenComplete((val, ex) -> {
+               if(ex != null)
+               {
+                  // cancel the subscription
+                  complete(ex);
                }
+               onComplete.accept(ex);
             });
          }catch(Exception x) {
             // most likely connection closed
@@ -236,11 +236,12 @@ public class MediaTypeMap<T>
    private volatile List<Entry<T>> wildcards = new ArrayList<Entry<T>>();
    private volatile List<Entry<T>> all = new ArrayList<Entry<T>>();
    private volatile List<T> everything = new ArrayList<T>();
-   private Map<CachedMediaTypeAndClass, List<T>> classCache = new ConcurrentHashMap<CachedMediaTypeAndClass, List<T>>();
+   private MediaTypeMapCache<T> classCache = new MediaTypeMapCache<T>();
 
    public MediaTypeMap<T> clone()
    {
       MediaTypeMap<T> clone = new MediaTypeMap<T>();
+      clone.classCache = new MediaTypeMapCache<T>(classCache.getMaxSize(), classCache.getEvictionPolicy());
       for (Map.Entry<String, SubtypeMap<T>> entry : index.entrySet())
       {
          clone.index.put(entry.getKey(), entry.getValue().clone());
@@ -248,11 +249,27 @@ public class MediaTypeMap<T>
       clone.wildcards.addAll(wildcards);
       clone.all.addAll(all);
       clone.everything.addAll(everything);
-      // don't clone class cache
+      // don't clone class cache contents, only its configuration
       return clone;
    }
 
+   /**
+    * @return snapshot of the class cache
+    * @deprecated use {@link #getCache()}
+    */
+   @Deprecated
    public Map<CachedMediaTypeAndClass, List<T>> getClassCache()
+   {
+      return classCache.asMap();
+   }
+
+   /**
+    * Cache of {@link #getPossible(MediaType, Class)} results.  Its size, eviction policy and statistics are
+    * per map instance.
+    *
+    * @return class cache
+    */
+   public MediaTypeMapCache<T> getCache()
    {
       return classCache;
    }
@@ -282,6 +299,11 @@ public class MediaTypeMap<T>
          return clazz.get();
       }
 
+      MediaType getMediaType()
+      {
+         return mediaType;
+      }
+
       @Override
       public boolean equals(Object o)
       {
@@ -326,8 +348,9 @@ public class MediaTypeMap<T>
     */
    public synchronized void add(MediaType type, T obj)
    {
-      classCache.clear();
       type = new MediaType(type.getType().toLowerCase(), type.getSubtype().toLowerCase(), type.getParameters());
+      final MediaType added = type;
+      classCache.invalidate(key -> mayMatch(added, key.getMediaType()));
       Entry<T> entry = new Entry<T>(type, obj);
       List<Entry<T>> newall = new ArrayList<Entry<T>>(all.size() + 1);
       newall.addAll(all);
@@ -356,6 +379,19 @@ public class MediaTypeMap<T>
    }
 
 
+   /**
+    * Whether {@link #getPossible(MediaType, Class)} for the accept media type could return an entry registered
+    * for the added media type.  Errs on the side of true, composite subtypes are not inspected.
+    */
+   private static boolean mayMatch(MediaType added, MediaType accept)
+   {
+      if (added.isWildcardType() || accept.isWildcardType()) return true;
+      if (!added.getType().equalsIgnoreCase(accept.getType())) return false;
+      if (added.isWildcardSubtype() || accept.isWildcardSubtype()) return true;
+      if (added.getSubtype().indexOf('+') > -1 || accept.getSubtype().indexOf('+') > -1) return true;
+      return added.getSubtype().equalsIgnoreCase(accept.getSubtype());
+   }
+
    private static <T> List<T> convert(List<Entry<T>> list)
    {
       List<T> newList = new ArrayList<T>(list.size());
@@ -401,14 +437,17 @@ public class MediaTypeMap<T>
     * By default, MediaTypeMap will cache possible MediaType/Class matches.  Set this to false to turn off
     * caching
     *
+    * @deprecated global switch, set the size of {@link #getCache()} to {@code 0} to disable the cache of a
+    * single map, or use {@code ResteasyProviderFactoryImpl.setMediaTypeCacheSize(int)}
     */
+   @Deprecated
    public static boolean useCache = true;
 
    public List<T> getPossible(MediaType accept, Class<?> type)
    {
       List<T> cached = null;
       CachedMediaTypeAndClass cacheEntry = null;
-      if (useCache)
+      if (useCache && classCache.getMaxSize() > 0)
       {
          cacheEntry = new CachedMediaTypeAndClass(type, accept);
          cached = classCache.get(cacheEntry);
@@ -432,7 +471,7 @@ public class MediaTypeMap<T>
       }
       Collections.sort(matches, new TypedEntryComparator(type));
       cached = convert(matches);
-      if (useCache) classCache.put(cacheEntry, cached);
+      if (cacheEntry != null) classCache.put(cacheEntry, cached);
       return cached;
 
    }
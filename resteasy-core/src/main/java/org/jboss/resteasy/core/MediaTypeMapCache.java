@@ -0,0 +1,252 @@
+package org.jboss.resteasy.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of {@link MediaTypeMap#getPossible(javax.ws.rs.core.MediaType, Class)} results.  Lookups are
+ * lock free; when an insert takes the cache over its maximum size the {@link EvictionPolicy} picks the entries
+ * to drop.  Hits, misses and evictions are counted.
+ *
+ * @param <T> type of the objects stored in the owning {@link MediaTypeMap}
+ */
+public class MediaTypeMapCache<T>
+{
+   public static final int DEFAULT_MAX_SIZE = 1024;
+
+   /**
+    * Cached value together with the bookkeeping an {@link EvictionPolicy} needs.
+    */
+   public static final class Slot<T>
+   {
+      private final MediaTypeMap.CachedMediaTypeAndClass key;
+      private final List<T> value;
+      private volatile boolean referenced;
+
+      private Slot(final MediaTypeMap.CachedMediaTypeAndClass key, final List<T> value)
+      {
+         this.key = key;
+         this.value = value;
+      }
+
+      public boolean isReferenced()
+      {
+         return referenced;
+      }
+
+      public void setReferenced(boolean referenced)
+      {
+         this.referenced = referenced;
+      }
+   }
+
+   /**
+    * Decides which entry is dropped when the cache is full.  Implementations are stateless and may be shared
+    * between caches; the insertion ordered queue of entries is owned by the cache.
+    */
+   public interface EvictionPolicy
+   {
+      /**
+       * Evicts entries in insertion order.
+       */
+      EvictionPolicy FIFO = new EvictionPolicy()
+      {
+         @Override
+         public void onHit(Slot<?> slot)
+         {
+         }
+
+         @Override
+         public <T> Slot<T> selectVictim(Queue<Slot<T>> queue)
+         {
+            return queue.poll();
+         }
+      };
+
+      /**
+       * Approximates least recently used with a second chance (CLOCK) queue: an entry read since it was last
+       * looked at is moved to the back of the queue instead of being evicted.
+       */
+      EvictionPolicy LRU = new EvictionPolicy()
+      {
+         @Override
+         public void onHit(Slot<?> slot)
+         {
+            if (!slot.isReferenced()) slot.setReferenced(true);
+         }
+
+         @Override
+         public <T> Slot<T> selectVictim(Queue<Slot<T>> queue)
+         {
+            // every entry is passed over at most once before the queue head is taken unconditionally
+            int chances = queue.size();
+            Slot<T> slot = queue.poll();
+            while (slot != null && slot.isReferenced() && chances-- > 0)
+            {
+               slot.setReferenced(false);
+               queue.offer(slot);
+               slot = queue.poll();
+            }
+            return slot;
+         }
+      };
+
+      /**
+       * Called on every cache hit.
+       *
+       * @param slot entry that was read
+       */
+      void onHit(Slot<?> slot);
+
+      /**
+       * Remove the entry to evict from the queue.  Entries taken from the queue and not evicted must be offered
+       * back.
+       *
+       * @param queue cached entries in insertion order
+       * @param <T> type of the cached objects
+       * @return evicted entry, null if the queue is empty
+       */
+      <T> Slot<T> selectVictim(Queue<Slot<T>> queue);
+   }
+
+   protected final Map<MediaTypeMap.CachedMediaTypeAndClass, Slot<T>> cache = new ConcurrentHashMap<MediaTypeMap.CachedMediaTypeAndClass, Slot<T>>();
+   protected final Queue<Slot<T>> queue = new ConcurrentLinkedQueue<Slot<T>>();
+   protected final AtomicLong hits = new AtomicLong();
+   protected final AtomicLong misses = new AtomicLong();
+   protected final AtomicLong evictions = new AtomicLong();
+   protected volatile int maxSize;
+   protected volatile EvictionPolicy evictionPolicy;
+
+   public MediaTypeMapCache()
+   {
+      this(DEFAULT_MAX_SIZE, EvictionPolicy.LRU);
+   }
+
+   public MediaTypeMapCache(final int maxSize, final EvictionPolicy evictionPolicy)
+   {
+      this.maxSize = maxSize;
+      this.evictionPolicy = evictionPolicy;
+   }
+
+   public List<T> get(MediaTypeMap.CachedMediaTypeAndClass key)
+   {
+      Slot<T> slot = cache.get(key);
+      if (slot == null)
+      {
+         misses.incrementAndGet();
+         return null;
+      }
+      hits.incrementAndGet();
+      evictionPolicy.onHit(slot);
+      return slot.value;
+   }
+
+   public void put(MediaTypeMap.CachedMediaTypeAndClass key, List<T> value)
+   {
+      if (maxSize <= 0) return;
+      Slot<T> slot = new Slot<T>(key, value);
+      if (cache.putIfAbsent(key, slot) != null) return;
+      queue.offer(slot);
+      evict();
+   }
+
+   protected void evict()
+   {
+      while (cache.size() > maxSize)
+      {
+         Slot<T> victim = evictionPolicy.selectVictim(queue);
+         if (victim == null) return;
+         if (cache.remove(victim.key, victim)) evictions.incrementAndGet();
+      }
+   }
+
+   /**
+    * Remove the entries whose key matches the filter.
+    *
+    * @param filter entries to remove
+    * @return number of removed entries
+    */
+   public int invalidate(Predicate<MediaTypeMap.CachedMediaTypeAndClass> filter)
+   {
+      int removed = 0;
+      for (Iterator<Slot<T>> it = cache.values().iterator(); it.hasNext();)
+      {
+         Slot<T> slot = it.next();
+         if (filter.test(slot.key))
+         {
+            it.remove();
+            queue.remove(slot);
+            removed++;
+         }
+      }
+      return removed;
+   }
+
+   public void clear()
+   {
+      cache.clear();
+      queue.clear();
+   }
+
+   public int size()
+   {
+      return cache.size();
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   /**
+    * @param maxSize maximum number of entries, {@code 0} disables the cache
+    */
+   public void setMaxSize(int maxSize)
+   {
+      this.maxSize = maxSize;
+      if (maxSize <= 0) clear();
+      else evict();
+   }
+
+   public EvictionPolicy getEvictionPolicy()
+   {
+      return evictionPolicy;
+   }
+
+   public void setEvictionPolicy(EvictionPolicy evictionPolicy)
+   {
+      this.evictionPolicy = evictionPolicy;
+   }
+
+   public long getHits()
+   {
+      return hits.get();
+   }
+
+   public long getMisses()
+   {
+      return misses.get();
+   }
+
+   public long getEvictions()
+   {
+      return evictions.get();
+   }
+
+   /**
+    * @return snapshot of the cached entries
+    */
+   public Map<MediaTypeMap.CachedMediaTypeAndClass, List<T>> asMap()
+   {
+      Map<MediaTypeMap.CachedMediaTypeAndClass, List<T>> map = new HashMap<MediaTypeMap.CachedMediaTypeAndClass, List<T>>();
+      for (Slot<T> slot : cache.values()) map.put(slot.key, slot.value);
+      return map;
+   }
+}
@@ -3,6 +3,7 @@ package org.jboss.resteasy.core;
 import org.jboss.resteasy.annotations.Stream;
 import org.jboss.resteasy.core.interception.jaxrs.PostMatchContainerRequestContext;
 import org.jboss.resteasy.core.registry.SegmentNode;
+import org.jboss.resteasy.core.registry.ServerMediaType;
 import org.jboss.resteasy.plugins.server.resourcefactory.SingletonResource;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.specimpl.BuiltResponse;
@@ -30,6 +31,7 @@ import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
 import org.jboss.resteasy.util.FeatureContextDelegate;
 
 import javax.ws.rs.ProcessingException;
+import javax.ws.rs.Produces;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.container.DynamicFeature;
@@ -81,7 +83,8 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
    protected ResourceInfo resourceInfo;
 
    protected boolean expectsBody;
-
+   protected ServerMediaType[] producesMediaTypes;
+   protected ServerMediaType[] consumesMediaTypes;
 
 
    public ResourceMethodInvoker(final ResourceMethod method, final InjectorFactory injector, final ResourceFactory resource, final ResteasyProviderFactory providerFactory)
@@ -107,11 +110,7 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
          }
       };
 
-      this.resourceMethodProviderFactory = new ResteasyProviderFactoryImpl(providerFactory);
-      for (DynamicFeature feature : providerFactory.getServerDynamicFeatures())
-      {
-         feature.configure(resourceInfo, new FeatureContextDelegate(resourceMethodProviderFactory));
-      }
+      this.resourceMethodProviderFactory = createResourceMethodProviderFactory(providerFactory);
 
       this.methodInjector = injector.createMethodInjector(method, resourceMethodProviderFactory);
 
@@ -155,6 +154,12 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
          isSse = true;
          method.markAsynchronous();
       }
+
+      boolean hasProduces = getMethod().isAnnotationPresent(Produces.class)
+            || method.getAnnotatedMethod().isAnnotationPresent(Produces.class)
+            || method.getResourceClass().getClazz().isAnnotationPresent(Produces.class);
+      producesMediaTypes = ServerMediaType.of(method.getProduces(), hasProduces);
+      consumesMediaTypes = ServerMediaType.of(method.getConsumes(), false);
    }
 
    // spec section 9.3 Server API:
@@ -221,13 +226,31 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
       }
    }
 
-   public void registryUpdated(JaxrsInterceptorRegistry registry)
+   /**
+    * Provider factory seen by this resource method.  Only needed when a {@link DynamicFeature} may register
+    * method specific providers; the child factory delegates everything it does not override to its parent.
+    *
+    * @param providerFactory parent provider factory
+    * @return provider factory of the resource method
+    */
+   protected ResteasyProviderFactory createResourceMethodProviderFactory(ResteasyProviderFactory providerFactory)
    {
-      this.resourceMethodProviderFactory = new ResteasyProviderFactoryImpl(parentProviderFactory);
-      for (DynamicFeature feature : parentProviderFactory.getServerDynamicFeatures())
+      Set<DynamicFeature> features = providerFactory.getServerDynamicFeatures();
+      if (features == null || features.isEmpty())
       {
-         feature.configure(resourceInfo, new FeatureContextDelegate(resourceMethodProviderFactory));
+         return providerFactory;
       }
+      ResteasyProviderFactory factory = new ResteasyProviderFactoryImpl(providerFactory);
+      for (DynamicFeature feature : features)
+      {
+         feature.configure(resourceInfo, new FeatureContextDelegate(factory));
+      }
+      return factory;
+   }
+
+   public void registryUpdated(JaxrsInterceptorRegistry registry)
+   {
+      this.resourceMethodProviderFactory = createResourceMethodProviderFactory(parentProviderFactory);
       if (registry.getIntf().equals(WriterInterceptor.class))
       {
          writerInterceptors = resourceMethodProviderFactory.getServerWriterInterceptorRegistry().postMatch(method.getResourceClass().getClazz(), method.getAnnotatedMethod());
@@ -690,6 +713,26 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
       return method.getConsumes();
    }
 
+   /**
+    * Pre-parsed produced media types used for content negotiation, a single wildcard if the method declares none.
+    *
+    * @return produced media types
+    */
+   public ServerMediaType[] getProducesMediaTypes()
+   {
+      return producesMediaTypes;
+   }
+
+   /**
+    * Pre-parsed consumed media types used for content negotiation, a single wildcard if the method declares none.
+    *
+    * @return consumed media types
+    */
+   public ServerMediaType[] getConsumesMediaTypes()
+   {
+      return consumesMediaTypes;
+   }
+
    public boolean isSse()
    {
       return isSse;
@@ -699,4 +742,13 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
    {
       method.markAsynchronous();
    }
+
+   /**
+    * @return if the method completes its response asynchronously: its return type has an async response or async
+    * stream provider (CompletionStage, Publisher...), or it is asynchronous itself (suspended AsyncResponse, SSE)
+    */
+   public boolean isAsynchronous()
+   {
+      return asyncResponseProvider != null || asyncStreamProvider != null || method.isAsynchronous();
+   }
 }
@@ -68,6 +68,51 @@ public class ResourceMethodRegistry implements Registry
       this.widerMatching = widerMatching;
    }
 
+   /**
+    * Match resource methods with a segment trie instead of one regex per path template.  Templates with a
+    * custom regex parameter and resource locators keep being matched by regex.
+    *
+    * @param trieMatching whether to use the trie
+    */
+   public void setTrieMatching(boolean trieMatching)
+   {
+      root.setTrieMatching(trieMatching);
+      rootNode.setTrieMatching(trieMatching);
+   }
+
+   /**
+    * Set the maximum number of resolved matches cached by the registry.  A value of zero or less disables the cache.
+    *
+    * @param size max cache size
+    */
+   public void setMatchCacheSize(int size)
+   {
+      root.setMatchCacheSize(size);
+      rootNode.setMatchCacheSize(size);
+   }
+
+   /**
+    * Number of requests that were dispatched from the match cache.
+    *
+    * @return number of cache hits
+    */
+   public long getMatchCacheHits()
+   {
+      if (widerMatching) return rootNode.getMatchCache().getHits();
+      else return root.getMatchCacheHits();
+   }
+
+   /**
+    * Number of requests that had to be matched against the registered expressions.
+    *
+    * @return number of cache misses
+    */
+   public long getMatchCacheMisses()
+   {
+      if (widerMatching) return rootNode.getMatchCache().getMisses();
+      else return root.getMatchCacheMisses();
+   }
+
    public void addPerRequestResource(Class clazz, String basePath)
    {
       addResourceFactory(new POJOResourceFactory(resourceBuilder, clazz), basePath);
@@ -190,6 +190,21 @@ public class ResteasyDeploymentImpl implements ResteasyDeployment
       {
          ((ResourceMethodRegistry)registry).setWiderMatching(widerRequestMatching);
       }
+      Object trieMatching = getProperty(ResteasyContextParameters.RESTEASY_TRIE_REQUEST_MATCHING);
+      if (trieMatching != null && registry instanceof ResourceMethodRegistry)
+      {
+         ((ResourceMethodRegistry)registry).setTrieMatching(Boolean.parseBoolean(trieMatching.toString()));
+      }
+      Object matchCacheSize = getProperty(ResteasyContextParameters.RESTEASY_MATCH_CACHE_SIZE);
+      if (matchCacheSize != null && registry instanceof ResourceMethodRegistry)
+      {
+         ((ResourceMethodRegistry)registry).setMatchCacheSize(Integer.parseInt(matchCacheSize.toString()));
+      }
+      Object mediaTypeCacheSize = getProperty(ResteasyContextParameters.RESTEASY_MEDIA_TYPE_CACHE_SIZE);
+      if (mediaTypeCacheSize != null && providerFactory instanceof ResteasyProviderFactoryImpl)
+      {
+         ((ResteasyProviderFactoryImpl)providerFactory).setMediaTypeCacheSize(Integer.parseInt(mediaTypeCacheSize.toString()));
+      }
 
 
       dispatcher.getDefaultContextObjects().putAll(defaultContextObjects);
@@ -262,6 +262,7 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
    /**
     * Copies a specific component registry when a new
     * provider is added. Otherwise delegates to the parent.
+    * A child that never registers anything only holds a reference to its parent.
     *
     * @param parent provider factory
     */
@@ -286,14 +287,8 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       }
       else
       {
+         // every component is created on first write, reads fall through to the parent until then
          this.parent = (ResteasyProviderFactoryImpl) parent;
-         providerClasses = new CopyOnWriteArraySet<>();
-         providerInstances = new CopyOnWriteArraySet<>();
-         properties = new ConcurrentHashMap<>();
-         properties.putAll(parent.getProperties());
-         enabledFeatures = new CopyOnWriteArraySet<>();
-         reactiveClasses = new ConcurrentHashMap<>();
-         resourceBuilder = new ResourceBuilder();
       }
    }
 
@@ -336,7 +331,7 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       asyncContextInjectors = parent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(parent.getAsyncContextInjectors());
       sortedParamConverterProviders = Collections.synchronizedSortedSet(parent == null ? new TreeSet<>() : new TreeSet<>(parent.getSortedParamConverterProviders()));
       stringParameterUnmarshallers = parent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(parent.getStringParameterUnmarshallers());
-      reactiveClasses = parent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(parent.reactiveClasses);
+      reactiveClasses = parent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(parent.reactiveClasses());
       headerDelegates = parent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(parent.getHeaderDelegates());
       addHeaderDelegateIfAbsent(MediaType.class, new MediaTypeHeaderDelegate());
       addHeaderDelegateIfAbsent(NewCookie.class, new NewCookieHeaderDelegate());
@@ -414,6 +409,60 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       return clientMessageBodyWriters;
    }
 
+   private List<MediaTypeMapCache<?>> getMessageBodyCaches(boolean own)
+   {
+      if (own && parent != null)
+      {
+         // configuring the caches must not change the parent's maps
+         if (serverMessageBodyReaders == null) serverMessageBodyReaders = parent.getServerMessageBodyReaders().clone();
+         if (serverMessageBodyWriters == null) serverMessageBodyWriters = parent.getServerMessageBodyWriters().clone();
+         if (clientMessageBodyReaders == null) clientMessageBodyReaders = parent.getClientMessageBodyReaders().clone();
+         if (clientMessageBodyWriters == null) clientMessageBodyWriters = parent.getClientMessageBodyWriters().clone();
+      }
+      List<MediaTypeMapCache<?>> caches = new ArrayList<MediaTypeMapCache<?>>(4);
+      caches.add(getServerMessageBodyReaders().getCache());
+      caches.add(getServerMessageBodyWriters().getCache());
+      caches.add(getClientMessageBodyReaders().getCache());
+      caches.add(getClientMessageBodyWriters().getCache());
+      return caches;
+   }
+
+   /**
+    * Maximum number of cached reader and writer lookups, per media type map.  {@code 0} disables the caches.
+    *
+    * @param size maximum number of entries
+    */
+   public void setMediaTypeCacheSize(int size)
+   {
+      for (MediaTypeMapCache<?> cache : getMessageBodyCaches(true)) cache.setMaxSize(size);
+   }
+
+   public void setMediaTypeCacheEvictionPolicy(MediaTypeMapCache.EvictionPolicy evictionPolicy)
+   {
+      for (MediaTypeMapCache<?> cache : getMessageBodyCaches(true)) cache.setEvictionPolicy(evictionPolicy);
+   }
+
+   public long getMediaTypeCacheHits()
+   {
+      long hits = 0;
+      for (MediaTypeMapCache<?> cache : getMessageBodyCaches(false)) hits += cache.getHits();
+      return hits;
+   }
+
+   public long getMediaTypeCacheMisses()
+   {
+      long misses = 0;
+      for (MediaTypeMapCache<?> cache : getMessageBodyCaches(false)) misses += cache.getMisses();
+      return misses;
+   }
+
+   public long getMediaTypeCacheEvictions()
+   {
+      long evictions = 0;
+      for (MediaTypeMapCache<?> cache : getMessageBodyCaches(false)) evictions += cache.getEvictions();
+      return evictions;
+   }
+
    public Map<Class<?>, ExceptionMapper> getExceptionMappers()
    {
       if (exceptionMappers != null)
@@ -1319,6 +1368,10 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       }
       Map<Class<?>, Integer> newContracts = new HashMap<Class<?>, Integer>();
       processProviderContracts(provider, priorityOverride, isBuiltin, contracts, newContracts);
+      if (providerClasses == null)
+      {
+         providerClasses = new CopyOnWriteArraySet<>();
+      }
       providerClasses.add(provider);
       classContracts.put(provider, newContracts);
    }
@@ -1621,6 +1674,10 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
          {
             if (feature.configure(new FeatureContextDelegate(this)))
             {
+               if (enabledFeatures == null)
+               {
+                  enabledFeatures = new CopyOnWriteArraySet<>();
+               }
                enabledFeatures.add(feature);
             }
          }
@@ -1634,6 +1691,10 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
          clazz = Types.getTemplateParameterOfInterface(clazz, RxInvoker.class);
          if (clazz != null)
          {
+            if (reactiveClasses == null)
+            {
+               reactiveClasses = new ConcurrentHashMap<>(parent.reactiveClasses());
+            }
             reactiveClasses.put(clazz, provider);
          }
       }
@@ -1681,6 +1742,10 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       }
       Map<Class<?>, Integer> newContracts = new HashMap<Class<?>, Integer>();
       processProviderInstanceContracts(provider, contracts, priorityOverride, builtIn, newContracts);
+      if (providerInstances == null)
+      {
+         providerInstances = new CopyOnWriteArraySet<>();
+      }
       providerInstances.add(provider);
       classContracts.put(providerClass, newContracts);
    }
@@ -1965,6 +2030,10 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
          {
             if (feature.configure(new FeatureContextDelegate(this)))
             {
+               if (enabledFeatures == null)
+               {
+                  enabledFeatures = new CopyOnWriteArraySet<>();
+               }
                enabledFeatures.add(feature);
             }
          }
@@ -2356,18 +2425,31 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
    // Configurable
    public Map<String, Object> getMutableProperties()
    {
+      return ownProperties();
+   }
+
+   private Map<String, Object> ownProperties()
+   {
+      if (properties == null)
+      {
+         properties = new ConcurrentHashMap<>(parent.getProperties());
+      }
       return properties;
    }
 
    @Override
    public Map<String, Object> getProperties()
    {
+      if (properties == null && parent != null)
+         return parent.getProperties();
       return Collections.unmodifiableMap(properties);
    }
 
    @Override
    public Object getProperty(String name)
    {
+      if (properties == null && parent != null)
+         return parent.getProperty(name);
       return properties.get(name);
    }
 
@@ -2383,9 +2465,9 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
    public ResteasyProviderFactory property(String name, Object value)
    {
       if (value == null)
-         properties.remove(name);
+         ownProperties().remove(name);
       else
-         properties.put(name, value);
+         ownProperties().put(name, value);
       return this;
    }
 
@@ -2614,9 +2696,16 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       return null;
    }
 
+   private Map<Class<?>, Class<? extends RxInvokerProvider<?>>> reactiveClasses()
+   {
+      if (reactiveClasses == null && parent != null)
+         return parent.reactiveClasses();
+      return reactiveClasses;
+   }
+
    public RxInvokerProvider<?> getRxInvokerProviderFromReactiveClass(Class<?> clazz)
    {
-      Class<? extends RxInvokerProvider> rxInvokerProviderClass = reactiveClasses.get(clazz);
+      Class<? extends RxInvokerProvider> rxInvokerProviderClass = reactiveClasses().get(clazz);
       if (rxInvokerProviderClass != null)
       {
          return createProviderInstance(rxInvokerProviderClass);
@@ -2626,7 +2715,7 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
 
    public boolean isReactive(Class<?> clazz)
    {
-      return reactiveClasses.keySet().contains(clazz);
+      return reactiveClasses().keySet().contains(clazz);
    }
 
    private void addResourceClassProcessor(Class<ResourceClassProcessor> processorClass, int priority)
@@ -2637,11 +2726,17 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
 
    private void addResourceClassProcessor(ResourceClassProcessor processor, int priority)
    {
+      if (resourceBuilder == null)
+      {
+         resourceBuilder = new ResourceBuilder();
+      }
       resourceBuilder.registerResourceClassProcessor(processor, priority);
    }
 
    public ResourceBuilder getResourceBuilder()
    {
+      if (resourceBuilder == null && parent != null)
+         return parent.getResourceBuilder();
       return resourceBuilder;
    }
 
@@ -558,6 +558,36 @@ public final class ThreadLocalResteasyProviderFactory extends ResteasyProviderFa
       return getDelegate().getAsyncContextInjectors();
    }
 
+   @Override
+   public void setMediaTypeCacheSize(int size)
+   {
+      ((ResteasyProviderFactoryImpl)getDelegate()).setMediaTypeCacheSize(size);
+   }
+
+   @Override
+   public void setMediaTypeCacheEvictionPolicy(MediaTypeMapCache.EvictionPolicy evictionPolicy)
+   {
+      ((ResteasyProviderFactoryImpl)getDelegate()).setMediaTypeCacheEvictionPolicy(evictionPolicy);
+   }
+
+   @Override
+   public long getMediaTypeCacheHits()
+   {
+      return ((ResteasyProviderFactoryImpl)getDelegate()).getMediaTypeCacheHits();
+   }
+
+   @Override
+   public long getMediaTypeCacheMisses()
+   {
+      return ((ResteasyProviderFactoryImpl)getDelegate()).getMediaTypeCacheMisses();
+   }
+
+   @Override
+   public long getMediaTypeCacheEvictions()
+   {
+      return ((ResteasyProviderFactoryImpl)getDelegate()).getMediaTypeCacheEvictions();
+   }
+
    @Override
    public <T> MessageBodyWriter<T> getClientMessageBodyWriter(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType)
    {
@@ -0,0 +1,242 @@
+package org.jboss.resteasy.core.registry;
+
+import org.jboss.resteasy.spi.HttpRequest;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of resolved resource method matches, keyed by the HTTP method, the raw Content-Type and Accept
+ * headers and either of:
+ * <ul>
+ * <li>the matching path, for matches of expressions without path parameters.  A hit skips the potentials lookup,
+ * the regex matching, the sort and the content negotiation done by {@link SegmentNode}.</li>
+ * <li>the expressions the path matched, for templated routes, whose concrete paths are not cached.  The path is
+ * still matched on every request, a hit only skips the content negotiation between the matched expressions and the
+ * path parameters are extracted from the request as usual.</li>
+ * </ul>
+ * Lookups are lock free.  When the cache is full the least recently used entries are evicted, approximated with a
+ * second chance queue like {@link org.jboss.resteasy.core.MediaTypeMapCache.EvictionPolicy#LRU}.
+ */
+public class MatchCache
+{
+   public static final int DEFAULT_MAX_SIZE = 2048;
+
+   protected final Map<Key, Entry> cache = new ConcurrentHashMap<Key, Entry>();
+   protected final Queue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+   protected final AtomicLong hits = new AtomicLong();
+   protected final AtomicLong misses = new AtomicLong();
+   protected volatile int maxSize;
+
+   public MatchCache()
+   {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   public MatchCache(final int maxSize)
+   {
+      this.maxSize = maxSize;
+   }
+
+   public static class Key
+   {
+      private final String httpMethod;
+      private final String path;
+      private final int start;
+      private final MethodExpression[] expressions;
+      private final String contentType;
+      private final String accept;
+      private final int hash;
+
+      public Key(final HttpRequest request, final String path, final int start)
+      {
+         this.httpMethod = request.getHttpMethod();
+         this.path = path;
+         this.start = start;
+         this.expressions = null;
+         MultivaluedMap<String, String> headers = request.getHttpHeaders().getRequestHeaders();
+         this.contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+         List<String> accepts = headers.get(HttpHeaders.ACCEPT);
+         if (accepts == null || accepts.isEmpty()) this.accept = null;
+         else if (accepts.size() == 1) this.accept = accepts.get(0);
+         else this.accept = String.join(",", accepts);
+         this.hash = hash(path.hashCode() * 31 + start);
+      }
+
+      private Key(final Key headers, final MethodExpression[] expressions)
+      {
+         this.httpMethod = headers.httpMethod;
+         this.path = null;
+         this.start = 0;
+         this.expressions = expressions;
+         this.contentType = headers.contentType;
+         this.accept = headers.accept;
+         this.hash = hash(Arrays.hashCode(expressions));
+      }
+
+      /**
+       * @param expressions expressions that matched the path of the request
+       * @return key of the same request headers for the given matched expressions instead of the path
+       */
+      public Key forExpressions(MethodExpression[] expressions)
+      {
+         return new Key(this, expressions);
+      }
+
+      private int hash(int route)
+      {
+         int h = httpMethod.hashCode();
+         h = 31 * h + route;
+         h = 31 * h + (contentType == null ? 0 : contentType.hashCode());
+         h = 31 * h + (accept == null ? 0 : accept.hashCode());
+         return h;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (!(o instanceof Key)) return false;
+         Key key = (Key) o;
+         return hash == key.hash
+               && start == key.start
+               && httpMethod.equals(key.httpMethod)
+               && (path == null ? key.path == null : path.equals(key.path))
+               && Arrays.equals(expressions, key.expressions)
+               && (contentType == null ? key.contentType == null : contentType.equals(key.contentType))
+               && (accept == null ? key.accept == null : accept.equals(key.accept));
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   public static class Entry
+   {
+      private final MethodExpression expression;
+      private final MediaType chosenAccept;
+      private Key key;
+      private volatile boolean referenced;
+
+      public Entry(final MethodExpression expression, final MediaType chosenAccept)
+      {
+         this.expression = expression;
+         this.chosenAccept = chosenAccept;
+      }
+
+      public MethodExpression getExpression()
+      {
+         return expression;
+      }
+
+      public MediaType getChosenAccept()
+      {
+         return chosenAccept;
+      }
+   }
+
+   /**
+    * @param expression matched expression
+    * @return if a match of the expression can be cached by its path, that is if it has no path parameters
+    */
+   public static boolean isCacheable(MethodExpression expression)
+   {
+      return expression.getNumGroups() == 0;
+   }
+
+   public Entry get(Key key)
+   {
+      return get(key, true);
+   }
+
+   /**
+    * @param key key
+    * @param countMiss false for a lookup that is followed by another one on a miss, the path lookup before the
+    *                  lookup of the matched expressions
+    * @return cached entry or null
+    */
+   public Entry get(Key key, boolean countMiss)
+   {
+      Entry entry = cache.get(key);
+      if (entry == null)
+      {
+         if (countMiss) misses.incrementAndGet();
+         return null;
+      }
+      hits.incrementAndGet();
+      if (!entry.referenced) entry.referenced = true;
+      return entry;
+   }
+
+   public void put(Key key, Entry entry)
+   {
+      if (maxSize <= 0) return;
+      entry.key = key;
+      if (cache.putIfAbsent(key, entry) != null) return;
+      queue.offer(entry);
+      evict();
+   }
+
+   protected void evict()
+   {
+      while (cache.size() > maxSize)
+      {
+         // every entry read since it was last looked at gets a second chance, at most once per pass
+         int chances = queue.size();
+         Entry victim = queue.poll();
+         while (victim != null && victim.referenced && chances-- > 0)
+         {
+            victim.referenced = false;
+            queue.offer(victim);
+            victim = queue.poll();
+         }
+         if (victim == null) return;
+         cache.remove(victim.key, victim);
+      }
+   }
+
+   public void clear()
+   {
+      cache.clear();
+      queue.clear();
+   }
+
+   public int size()
+   {
+      return cache.size();
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   public void setMaxSize(int maxSize)
+   {
+      this.maxSize = maxSize;
+      if (maxSize <= 0) clear();
+      else evict();
+   }
+
+   public long getHits()
+   {
+      return hits.get();
+   }
+
+   public long getMisses()
+   {
+      return misses.get();
+   }
+}
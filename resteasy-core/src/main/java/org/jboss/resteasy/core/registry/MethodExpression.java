@@ -20,6 +20,8 @@ public class MethodExpression extends Expression
 {
    protected SegmentNode parent;
    protected ResourceInvoker invoker;
+   // segment index of every path param when the expression is matched through a PathTrie
+   protected int[] paramSegments;
 
    public int compareTo(Expression expression)
    {
@@ -47,47 +49,83 @@ public class MethodExpression extends Expression
 
    public void populatePathParams(HttpRequest request, Matcher matcher, String path)
    {
-      ResteasyUriInfo uriInfo = (ResteasyUriInfo) request.getUri();
       for (Group group : groups)
       {
-         String value = matcher.group(group.group);
-         uriInfo.addEncodedPathParameter(group.name, value);
-         int index = matcher.start(group.group);
-
-         int start = 0;
-         if (path.charAt(0) == '/') start++;
-         int segmentIndex = 0;
+         populatePathParam(request, group.name, matcher.group(group.group), matcher.start(group.group), path);
+      }
+   }
 
-         if (start < path.length())
+   /**
+    * Populate the path params of an expression matched through a {@link PathTrie}.  Values are located by
+    * their segment index, no regular expression is involved.
+    *
+    * @param request http request
+    * @param path matching path
+    * @param start index of the first character of the first matched segment
+    */
+   public void populatePathParams(HttpRequest request, String path, int start)
+   {
+      int segment = 0;
+      int segmentStart = start;
+      for (int i = 0; i < paramSegments.length; i++)
+      {
+         while (segment < paramSegments[i])
          {
-            int count = 0;
-            for (int i = start; i < index && i < path.length(); i++)
-            {
-               if (path.charAt(i) == '/') count++;
-            }
-            segmentIndex = count;
+            segmentStart = path.indexOf('/', segmentStart) + 1;
+            segment++;
          }
+         int segmentEnd = path.indexOf('/', segmentStart);
+         if (segmentEnd == -1) segmentEnd = path.length();
+         populatePathParam(request, groups.get(i).name, path.substring(segmentStart, segmentEnd), segmentStart, path);
+      }
+   }
 
-         int numSegments = 1;
-         for (int i = 0; i < value.length(); i++)
-         {
-            if (value.charAt(i) == '/') numSegments++;
-         }
+   protected void populatePathParam(HttpRequest request, String name, String value, int index, String path)
+   {
+      ResteasyUriInfo uriInfo = (ResteasyUriInfo) request.getUri();
+      uriInfo.addEncodedPathParameter(name, value);
 
-         if (segmentIndex + numSegments > request.getUri().getPathSegments().size())
-         {
-            throw new BadRequestException(Messages.MESSAGES.numberOfMatchedSegments());
-         }
-         PathSegment[] encodedSegments = new PathSegment[numSegments];
-         PathSegment[] decodedSegments = new PathSegment[numSegments];
-         for (int i = 0; i < numSegments; i++)
+      int start = 0;
+      if (path.charAt(0) == '/') start++;
+      int segmentIndex = 0;
+
+      if (start < path.length())
+      {
+         int count = 0;
+         for (int i = start; i < index && i < path.length(); i++)
          {
-            decodedSegments[i] = request.getUri().getPathSegments().get(segmentIndex + i);
-            encodedSegments[i] = request.getUri().getPathSegments(false).get(segmentIndex + i);
+            if (path.charAt(i) == '/') count++;
          }
-         uriInfo.getEncodedPathParameterPathSegments().add(group.name, encodedSegments);
-         uriInfo.getPathParameterPathSegments().add(group.name, decodedSegments);
+         segmentIndex = count;
       }
+
+      int numSegments = 1;
+      for (int i = 0; i < value.length(); i++)
+      {
+         if (value.charAt(i) == '/') numSegments++;
+      }
+
+      if (segmentIndex + numSegments > request.getUri().getPathSegments().size())
+      {
+         throw new BadRequestException(Messages.MESSAGES.numberOfMatchedSegments());
+      }
+      PathSegment[] encodedSegments = new PathSegment[numSegments];
+      PathSegment[] decodedSegments = new PathSegment[numSegments];
+      for (int i = 0; i < numSegments; i++)
+      {
+         decodedSegments[i] = request.getUri().getPathSegments().get(segmentIndex + i);
+         encodedSegments[i] = request.getUri().getPathSegments(false).get(segmentIndex + i);
+      }
+      uriInfo.getEncodedPathParameterPathSegments().add(name, encodedSegments);
+      uriInfo.getPathParameterPathSegments().add(name, decodedSegments);
+   }
+
+   /**
+    * @return true if this expression is matched through a {@link PathTrie} instead of its regex
+    */
+   public boolean isTrieExpression()
+   {
+      return paramSegments != null;
    }
 
    public boolean isLocator()
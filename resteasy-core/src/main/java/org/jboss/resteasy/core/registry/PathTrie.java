@@ -0,0 +1,134 @@
+package org.jboss.resteasy.core.registry;
+
+import org.jboss.resteasy.util.PathHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Segment level trie of resource method expressions.  Templates are split on '/' into literal segments and
+ * parameter segments ({@code {name}} without a custom regex).  Matching walks the request path one segment at a
+ * time and never runs a regular expression, path parameters are later extracted by segment index.
+ *
+ * Templates containing a parameter with a custom regex, or a segment mixing literal text and parameters,
+ * are not supported and stay on the regex based {@link SegmentNode} matching.
+ */
+public class PathTrie
+{
+   protected static class Node
+   {
+      protected Map<String, Node> literals = new HashMap<String, Node>();
+      protected Node param;
+      protected List<MethodExpression> targets = new ArrayList<MethodExpression>();
+   }
+
+   protected Node root = new Node();
+
+   /**
+    * Whether the path template can be matched by the trie.
+    *
+    * @param pathExpression path template without leading or trailing '/'
+    * @return true if every segment is either a literal or a parameter without custom regex
+    */
+   public static boolean supports(String pathExpression)
+   {
+      if (pathExpression.length() == 0) return true;
+      for (String segment : pathExpression.split("/"))
+      {
+         if (segment.length() == 0) return false;
+         if (segment.indexOf('{') < 0 && segment.indexOf('}') < 0) continue;
+         Matcher matcher = PathHelper.URI_PARAM_PATTERN.matcher(segment);
+         if (!matcher.matches() || matcher.group(3) != null) return false;
+      }
+      return true;
+   }
+
+   public void add(MethodExpression expression)
+   {
+      String[] split = split(expression.getPathExpression());
+      int[] paramSegments = new int[expression.getNumGroups()];
+      int param = 0;
+      Node node = root;
+      for (int i = 0; i < split.length; i++)
+      {
+         String segment = split[i];
+         if (segment.indexOf('{') > -1)
+         {
+            if (node.param == null) node.param = new Node();
+            node = node.param;
+            paramSegments[param++] = i;
+         }
+         else
+         {
+            Node tmp = node.literals.get(segment);
+            if (tmp == null)
+            {
+               tmp = new Node();
+               node.literals.put(segment, tmp);
+            }
+            node = tmp;
+         }
+      }
+      expression.paramSegments = paramSegments;
+      node.targets.add(expression);
+      Collections.sort(node.targets);
+   }
+
+   public void remove(MethodExpression expression)
+   {
+      Node node = root;
+      for (String segment : split(expression.getPathExpression()))
+      {
+         node = segment.indexOf('{') > -1 ? node.param : node.literals.get(segment);
+         if (node == null) return;
+      }
+      node.targets.remove(expression);
+   }
+
+   /**
+    * Add every expression whose template matches the path from start to its end.
+    *
+    * @param path matching path
+    * @param start index of the first character of the first segment
+    * @param matches list the matched expressions are added to
+    */
+   public void potentials(String path, int start, List<MethodExpression> matches)
+   {
+      if (start >= path.length())
+      {
+         matches.addAll(root.targets);
+         return;
+      }
+      walk(root, path, start, matches);
+   }
+
+   private void walk(Node node, String path, int start, List<MethodExpression> matches)
+   {
+      int end = path.indexOf('/', start);
+      int segmentEnd = end == -1 ? path.length() : end;
+      if (!node.literals.isEmpty())
+      {
+         Node child = node.literals.get(path.substring(start, segmentEnd));
+         if (child != null) next(child, path, end, matches);
+      }
+      // parameters without regex are [^/]+ so they never match an empty segment
+      if (node.param != null && segmentEnd > start) next(node.param, path, end, matches);
+   }
+
+   private void next(Node child, String path, int end, List<MethodExpression> matches)
+   {
+      // a trailing '/' is tolerated, as by SegmentNode.potentials
+      if (end == -1 || end == path.length() - 1) matches.addAll(child.targets);
+      else walk(child, path, end + 1, matches);
+   }
+
+   private static String[] split(String pathExpression)
+   {
+      if (pathExpression.length() == 0) return new String[0];
+      return pathExpression.split("/");
+   }
+}
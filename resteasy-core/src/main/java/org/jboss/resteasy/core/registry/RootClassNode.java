@@ -18,6 +18,9 @@ public class RootClassNode
 {
    protected ClassNode root = new ClassNode("");
    protected Map<String, ClassExpression> bounded = new HashMap<String, org.jboss.resteasy.core.registry.ClassExpression>();
+   protected int matchCacheSize = MatchCache.DEFAULT_MAX_SIZE;
+   protected boolean trieMatching;
+
    public int getSize()
    {
       int size = 0;
@@ -47,6 +50,58 @@ public class RootClassNode
       return root.match(request, start).match(request, start);
    }
 
+   /**
+    * Set the maximum number of cached matches of every class expression.  A value of zero or less disables
+    * the match cache.
+    *
+    * @param size max cache size
+    */
+   public void setMatchCacheSize(int size)
+   {
+      matchCacheSize = size;
+      for (ClassExpression exp : bounded.values())
+      {
+         exp.getRoot().setMatchCacheSize(size);
+      }
+   }
+
+   public void setTrieMatching(boolean trieMatching)
+   {
+      this.trieMatching = trieMatching;
+      for (ClassExpression exp : bounded.values())
+      {
+         exp.getRoot().setTrieMatching(trieMatching);
+      }
+   }
+
+   public long getMatchCacheHits()
+   {
+      long hits = 0;
+      for (ClassExpression exp : bounded.values())
+      {
+         hits += exp.getRoot().getMatchCache().getHits();
+      }
+      return hits;
+   }
+
+   public long getMatchCacheMisses()
+   {
+      long misses = 0;
+      for (ClassExpression exp : bounded.values())
+      {
+         misses += exp.getRoot().getMatchCache().getMisses();
+      }
+      return misses;
+   }
+
+   public void clearMatchCache()
+   {
+      for (ClassExpression exp : bounded.values())
+      {
+         exp.getRoot().getMatchCache().clear();
+      }
+   }
+
    public void removeBinding(String classExpression, String path, Method method)
    {
       if (classExpression.startsWith("/")) classExpression = classExpression.substring(1);
@@ -71,6 +126,8 @@ public class RootClassNode
       ClassExpression existing = bounded.get(regex);
       if (existing == null)
       {
+         newce.getRoot().setMatchCacheSize(matchCacheSize);
+         newce.getRoot().setTrieMatching(trieMatching);
          newce.getRoot().addInvoker(fullpath, invoker);
          addExpression(classExpression, newce);
          bounded.put(regex, newce);
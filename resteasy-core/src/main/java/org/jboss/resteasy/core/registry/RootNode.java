@@ -19,6 +19,8 @@ public class RootNode
    protected SegmentNode root = new SegmentNode("");
    protected int size = 0;
    protected MultivaluedMap<String, MethodExpression> bounded = new MultivaluedHashMap<String, MethodExpression>();
+   protected MatchCache cache = new MatchCache();
+   protected PathTrie trie;
 
    public int getSize()
    {
@@ -40,7 +42,52 @@ public class RootNode
 
    public ResourceInvoker match(HttpRequest request, int start)
    {
-      return root.match(request, start);
+      return root.match(request, start, cache.getMaxSize() > 0 ? cache : null, trie);
+   }
+
+   public boolean isTrieMatching()
+   {
+      return trie != null;
+   }
+
+   /**
+    * Match resource methods through a {@link PathTrie} instead of one regex per expression.  Expressions using
+    * a parameter with a custom regex and resource locators are still matched by regex.  Changing the mode
+    * re-registers every existing binding.
+    *
+    * @param trieMatching whether to use the trie
+    */
+   public void setTrieMatching(boolean trieMatching)
+   {
+      if (trieMatching == (trie != null)) return;
+      MultivaluedMap<String, MethodExpression> old = bounded;
+      root = new SegmentNode("");
+      bounded = new MultivaluedHashMap<String, MethodExpression>();
+      size = 0;
+      trie = trieMatching ? new PathTrie() : null;
+      for (Map.Entry<String, List<MethodExpression>> entry : old.entrySet())
+      {
+         for (MethodExpression exp : entry.getValue())
+         {
+            addInvoker(entry.getKey(), exp.getInvoker());
+         }
+      }
+      cache.clear();
+   }
+
+   public MatchCache getMatchCache()
+   {
+      return cache;
+   }
+
+   /**
+    * Set the maximum number of cached matches.  A value of zero or less disables the match cache.
+    *
+    * @param size max cache size
+    */
+   public void setMatchCacheSize(int size)
+   {
+      cache.setMaxSize(size);
    }
 
    public void removeBinding(String path, Method method)
@@ -52,10 +99,12 @@ public class RootNode
          ResourceInvoker invoker = expression.getInvoker();
          if (invoker.getMethod().equals(method))
          {
-            expression.parent.targets.remove(expression);
+            if (expression.isTrieExpression()) trie.remove(expression);
+            else expression.parent.targets.remove(expression);
             expressions.remove(expression);
             if (expressions.size() == 0) bounded.remove(path);
             size--;
+            cache.clear();
             if (invoker instanceof ResourceMethodInvoker)
             {
                ((ResourceMethodInvoker)invoker).cleanup();
@@ -70,11 +119,18 @@ public class RootNode
       MethodExpression expression = addExpression(path, invoker);
       size++;
       bounded.add(path, expression);
+      cache.clear();
    }
    protected MethodExpression addExpression(String path, ResourceInvoker invoker)
    {
       if (path.startsWith("/")) path = path.substring(1);
       if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+      if (trie != null && invoker instanceof ResourceMethodInvoker && PathTrie.supports(path))
+      {
+         MethodExpression expression = new MethodExpression(null, path, invoker);
+         trie.add(expression);
+         return expression;
+      }
       if ("".equals(path))
       {
          if (invoker instanceof ResourceMethodInvoker)
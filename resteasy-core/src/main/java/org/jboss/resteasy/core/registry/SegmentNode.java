@@ -10,6 +10,7 @@ import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.HttpResponseCodes;
 import org.jboss.resteasy.spi.ResourceInvoker;
 import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
+import org.jboss.resteasy.util.AcceptableMediaTypes;
 import org.jboss.resteasy.util.HttpHeaderNames;
 import org.jboss.resteasy.util.WeightedMediaType;
 
@@ -17,12 +18,10 @@ import javax.ws.rs.NotAcceptableException;
 import javax.ws.rs.NotAllowedException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.NotSupportedException;
-import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -47,6 +46,8 @@ public class SegmentNode
    public static final MediaType[] WILDCARD_ARRAY = {MediaType.WILDCARD_TYPE};
    public static final List<MediaType> DEFAULT_ACCEPTS = new ArrayList<MediaType>();
 
+   private static final List<WeightedMediaType> DEFAULT_WEIGHTED_ACCEPTS = Collections.singletonList(WeightedMediaType.parse(MediaType.WILDCARD_TYPE));
+
    static
    {
       DEFAULT_ACCEPTS.add(MediaType.WILDCARD_TYPE);
@@ -70,17 +71,43 @@ public class SegmentNode
          this.expression = expression;
          this.matcher = matcher;
       }
+
+      void populatePathParams(HttpRequest request, String path, int start)
+      {
+         if (matcher == null) expression.populatePathParams(request, path, start);
+         else expression.populatePathParams(request, matcher, path);
+      }
    }
 
    public ResourceInvoker match(HttpRequest request, int start)
+   {
+      return match(request, start, null, null);
+   }
+
+   public ResourceInvoker match(HttpRequest request, int start, MatchCache cache, PathTrie trie)
    {
       String path = ((ResteasyUriInfo) request.getUri()).getMatchingPath();
       RESTEasyTracingLogger logger = RESTEasyTracingLogger.getInstance(request);
       logger.log("MATCH_PATH_FIND", ((ResteasyUriInfo)request.getUri()).getMatchingPath());
 
       if (start < path.length() && path.charAt(start) == '/') start++;
+      MatchCache.Key key = null;
+      if (cache != null)
+      {
+         key = new MatchCache.Key(request, path, start);
+         MatchCache.Entry cached = cache.get(key, false);
+         if (cached != null)
+         {
+            // only expressions without path parameters are cached by path
+            MethodExpression expression = cached.getExpression();
+            request.setAttribute(RESTEASY_CHOSEN_ACCEPT, cached.getChosenAccept());
+            logger.log("MATCH_PATH_SELECTED", expression.getRegex());
+            return expression.getInvoker();
+         }
+      }
       List<MethodExpression> potentials = new ArrayList<MethodExpression>();
       potentials(path, start, potentials);
+      if (trie != null) trie.potentials(path, start, potentials);
       Collections.sort(potentials);
 
       boolean expressionMatched = false;
@@ -93,6 +120,14 @@ public class SegmentNode
             continue;
          }
 
+         if (expression.isTrieExpression())
+         {
+            // the trie only returns expressions that match
+            expressionMatched = true;
+            matches.add(new Match(expression, null));
+            continue;
+         }
+
          Pattern pattern = expression.getPattern();
          Matcher matcher = pattern.matcher(path);
          matcher.region(start, path.length());
@@ -149,8 +184,34 @@ public class SegmentNode
       {
          throw new NotFoundException(Messages.MESSAGES.couldNotFindResourceForFullPath(request.getUri().getRequestUri()));
       }
-      Match match = match(matches, request.getHttpMethod(), request);
-      match.expression.populatePathParams(request, match.matcher, path);
+      Match match = null;
+      MatchCache.Key expressionsKey = null;
+      if (key != null)
+      {
+         // the same expressions matched with the same headers negotiate to the same one, whatever the path values
+         MethodExpression[] matched = new MethodExpression[matches.size()];
+         for (int i = 0; i < matched.length; i++) matched[i] = matches.get(i).expression;
+         expressionsKey = key.forExpressions(matched);
+         MatchCache.Entry cached = cache.get(expressionsKey);
+         if (cached != null)
+         {
+            for (Match m : matches)
+            {
+               if (m.expression == cached.getExpression()) match = m;
+            }
+            request.setAttribute(RESTEASY_CHOSEN_ACCEPT, cached.getChosenAccept());
+         }
+      }
+      if (match == null)
+      {
+         match = match(matches, request.getHttpMethod(), request);
+         if (key != null)
+         {
+            MatchCache.Entry entry = new MatchCache.Entry(match.expression, (MediaType) request.getAttribute(RESTEASY_CHOSEN_ACCEPT));
+            cache.put(MatchCache.isCacheable(match.expression) ? key : expressionsKey, entry);
+         }
+      }
+      match.populatePathParams(request, path, start);
       logger.log("MATCH_PATH_SELECTED", match.expression.getRegex());
       return match.expression.getInvoker();
 
@@ -274,14 +335,74 @@ public class SegmentNode
       return sortFactor;
    }
 
+   /**
+    * Same as {@link #createSortFactor(MediaType, MediaType)} with the client q value and the server media type
+    * already parsed.
+    *
+    * @param client client media type
+    * @param clientQ q value of the client media type
+    * @param server pre-parsed server media type
+    * @return sort factor
+    */
+   public static SortFactor createSortFactor(MediaType client, float clientQ, ServerMediaType server)
+   {
+      MediaType serverType = server.getMediaType();
+      SortFactor sortFactor = new SortFactor();
+      if (client.isWildcardType() != serverType.isWildcardType())
+      {
+         sortFactor.type = (client.isWildcardType()) ? serverType.getType() : client.getType();
+         sortFactor.d++;
+      }
+      else
+      {
+         sortFactor.type = client.getType();
+      }
+      if (client.isWildcardSubtype() != serverType.isWildcardSubtype())
+      {
+         sortFactor.subtype = (client.isWildcardSubtype()) ? serverType.getSubtype() : client.getSubtype();
+         sortFactor.d++;
+      }
+      else
+      {
+         sortFactor.subtype = client.getSubtype();
+      }
+      sortFactor.q = clientQ;
+      sortFactor.qs = server.getQs();
+
+      Map<String, String> clientParams = client.getParameters();
+      Map<String, String> serverParams = server.getParameters();
+      sortFactor.dm = 0;
+      for (Map.Entry<String, String> entry : clientParams.entrySet())
+      {
+         String name = entry.getKey();
+         if ("q".equals(name)
+                 || "qs".equals(name)) continue;
+         String val = serverParams.get(name);
+         if (val == null || !val.equals(entry.getValue()))
+         {
+            sortFactor.dm++;
+         }
+      }
+
+      for (Map.Entry<String, String> entry : serverParams.entrySet())
+      {
+         String val = clientParams.get(entry.getKey());
+         if (val == null || !val.equals(entry.getValue()))
+         {
+            sortFactor.dm++;
+         }
+      }
+      return sortFactor;
+   }
+
    protected class SortEntry implements Comparable<SortEntry>
    {
       Match match;
-      MediaType serverProduce;
+      ServerMediaType serverProduce;
       SortFactor consumes;
       SortFactor produces;
 
-      public SortEntry(final Match match, final SortFactor consumes, final SortFactor produces, final MediaType serverProduce)
+      public SortEntry(final Match match, final SortFactor consumes, final SortFactor produces, final ServerMediaType serverProduce)
       {
          this.serverProduce = serverProduce;
          this.match = match;
@@ -293,41 +414,7 @@ public class SegmentNode
       {
          // take params from produce and type and subtype from sort factor
          // to define the returned media type
-         Map<String, String> params = new HashMap<String, String>();
-         for (Map.Entry<String, String> entry : serverProduce.getParameters().entrySet())
-         {
-            String name = entry.getKey();
-            if ("q".equals(name)
-               || "qs".equals(name)) continue;
-            params.put(name, entry.getValue());
-         }
-         Annotation[] annotations = match.expression.invoker.getMethod().getAnnotations();
-         boolean hasProduces = false;
-         for (Annotation annotation : annotations)
-         {
-            if (annotation instanceof Produces)
-            {
-               hasProduces = true;
-               break;
-            }
-         }
-         if (!hasProduces)
-         {
-            annotations = match.expression.invoker.getMethod().getClass().getAnnotations();
-            for (Annotation annotation : annotations)
-            {
-               if (annotation instanceof Produces)
-               {
-                  hasProduces = true;
-                  break;
-               }
-            }
-         }
-         if (hasProduces)
-         {
-            params.put(RESTEASY_SERVER_HAS_PRODUCES, "true");
-         }
-         return new MediaType(produces.type, produces.subtype, params);
+         return serverProduce.getAcceptType(produces.type, produces.subtype);
       }
 
 
@@ -376,9 +463,8 @@ public class SegmentNode
    {
       MediaType contentType = request.getHttpHeaders().getMediaType();
 
-      List<MediaType> requestAccepts = request.getHttpHeaders().getAcceptableMediaTypes();
-      List<WeightedMediaType> weightedAccepts = new ArrayList<WeightedMediaType>();
-      for (MediaType accept : requestAccepts) weightedAccepts.add(WeightedMediaType.parse(accept));
+      AcceptableMediaTypes acceptable = AcceptableMediaTypes.of(request.getHttpHeaders());
+      List<WeightedMediaType> weightedAccepts = acceptable.getWeightedMediaTypes();
 
       List<Match> list = new ArrayList<Match>();
       boolean methodMatch = false;
@@ -475,42 +561,36 @@ public class SegmentNode
       }
       //if (list.size() == 1) return list.get(0); //don't do this optimization as we need to set chosen accept
       List<SortEntry> sortList = new ArrayList<SortEntry>();
+      if (contentType == null) contentType = MediaType.WILDCARD_TYPE;
+      String contentTypeQ = contentType.getParameters().get("q");
+      float consumeQ = contentTypeQ == null ? 1.0f : Float.parseFloat(contentTypeQ);
+      List<MediaType> acceptableMediaTypes = acceptable.getMediaTypes();
+      if (acceptableMediaTypes.size() == 0)
+      {
+         acceptableMediaTypes = DEFAULT_ACCEPTS;
+         weightedAccepts = DEFAULT_WEIGHTED_ACCEPTS;
+      }
       for (Match match : list)
       {
          ResourceMethodInvoker invoker = (ResourceMethodInvoker) match.expression.getInvoker();
-         if (contentType == null) contentType = MediaType.WILDCARD_TYPE;
-
-         MediaType[] consumes = invoker.getConsumes();
-         if (consumes.length == 0)
-         {
-            consumes = WILDCARD_ARRAY;
-         }
-         MediaType[] produces = invoker.getProduces();
-         if (produces.length == 0)
-         {
-            produces = WILDCARD_ARRAY;
-         }
-         List<SortFactor> consumeCombo = new ArrayList<SortFactor>();
-         for (MediaType consume : consumes)
+         ServerMediaType[] consumes = invoker.getConsumesMediaTypes();
+         ServerMediaType[] produces = invoker.getProducesMediaTypes();
+         SortFactor[] consumeCombo = new SortFactor[consumes.length];
+         for (int i = 0; i < consumes.length; i++)
          {
-            consumeCombo.add(createSortFactor(contentType, consume));
+            consumeCombo[i] = createSortFactor(contentType, consumeQ, consumes[i]);
          }
-         for (MediaType produce : produces)
+         for (ServerMediaType produce : produces)
          {
-            List<MediaType> acceptableMediaTypes = requestAccepts;
-            if (acceptableMediaTypes.size() == 0)
-            {
-               acceptableMediaTypes = DEFAULT_ACCEPTS;
-            }
-            for (MediaType accept : acceptableMediaTypes)
+            for (int i = 0; i < acceptableMediaTypes.size(); i++)
             {
-               if (accept.isCompatible(produce))
+               MediaType accept = acceptableMediaTypes.get(i);
+               if (accept.isCompatible(produce.getMediaType()))
                {
-                  SortFactor sortFactor = createSortFactor(accept, produce);
+                  SortFactor sortFactor = createSortFactor(accept, weightedAccepts.get(i).getWeight(), produce);
 
                   for (SortFactor consume : consumeCombo)
                   {
-                     final Method m = match.expression.getInvoker().getMethod();
                      sortList.add(new SortEntry(match, consume, sortFactor, produce));
                   }
                }
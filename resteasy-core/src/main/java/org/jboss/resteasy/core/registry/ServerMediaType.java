@@ -0,0 +1,99 @@
+package org.jboss.resteasy.core.registry;
+
+import javax.ws.rs.core.MediaType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed form of a media type a resource method produces or consumes.  Built once at deployment so
+ * content negotiation in {@link SegmentNode} does not have to parse {@code qs} or copy parameter maps per request.
+ */
+public final class ServerMediaType
+{
+   private static final ServerMediaType[] WILDCARD = {new ServerMediaType(MediaType.WILDCARD_TYPE, false)};
+   private static final ServerMediaType[] WILDCARD_PRODUCES = {new ServerMediaType(MediaType.WILDCARD_TYPE, true)};
+
+   private final MediaType mediaType;
+   private final float qs;
+   private final Map<String, String> parameters;
+   private final Map<String, String> acceptParameters;
+   private final MediaType acceptType;
+
+   public ServerMediaType(final MediaType mediaType, final boolean hasProduces)
+   {
+      this.mediaType = mediaType;
+      String qs = mediaType.getParameters().get("qs");
+      this.qs = qs == null ? 1.0f : Float.parseFloat(qs);
+
+      Map<String, String> params = new HashMap<String, String>();
+      for (Map.Entry<String, String> entry : mediaType.getParameters().entrySet())
+      {
+         String name = entry.getKey();
+         if ("q".equals(name)
+               || "qs".equals(name)) continue;
+         params.put(name, entry.getValue());
+      }
+      this.parameters = Collections.unmodifiableMap(params);
+
+      Map<String, String> accept = new HashMap<String, String>(params);
+      if (hasProduces)
+      {
+         accept.put(SegmentNode.RESTEASY_SERVER_HAS_PRODUCES, "true");
+      }
+      this.acceptParameters = Collections.unmodifiableMap(accept);
+      this.acceptType = new MediaType(mediaType.getType(), mediaType.getSubtype(), acceptParameters);
+   }
+
+   /**
+    * @param types declared media types
+    * @param hasProduces whether the resource method or class is annotated with {@link javax.ws.rs.Produces}
+    * @return descriptors, a single wildcard descriptor if no media type is declared
+    */
+   public static ServerMediaType[] of(MediaType[] types, boolean hasProduces)
+   {
+      if (types == null || types.length == 0)
+      {
+         return hasProduces ? WILDCARD_PRODUCES.clone() : WILDCARD.clone();
+      }
+      ServerMediaType[] result = new ServerMediaType[types.length];
+      for (int i = 0; i < types.length; i++)
+      {
+         result[i] = new ServerMediaType(types[i], hasProduces);
+      }
+      return result;
+   }
+
+   public MediaType getMediaType()
+   {
+      return mediaType;
+   }
+
+   public float getQs()
+   {
+      return qs;
+   }
+
+   /**
+    * @return parameters without {@code q} and {@code qs}
+    */
+   public Map<String, String> getParameters()
+   {
+      return parameters;
+   }
+
+   /**
+    * Media type stored as {@link SegmentNode#RESTEASY_CHOSEN_ACCEPT}.  Type and subtype come from the sort factor,
+    * parameters from this media type.
+    *
+    * @param type chosen type
+    * @param subtype chosen subtype
+    * @return chosen accept media type
+    */
+   public MediaType getAcceptType(String type, String subtype)
+   {
+      if (type.equals(mediaType.getType()) && subtype.equals(mediaType.getSubtype())) return acceptType;
+      return new MediaType(type, subtype, acceptParameters);
+   }
+}
@@ -22,6 +22,12 @@ import java.util.zip.GZIPOutputStream;
 @Priority(Priorities.ENTITY_CODER)
 public class GZIPEncodingInterceptor implements WriterInterceptor
 {
+   /**
+    * Property of a request whose response entity is already gzip encoded, for example by a cache, so that it isn't
+    * encoded again.
+    */
+   public static final String ENTITY_ENCODED = GZIPEncodingInterceptor.class.getName() + ".entityEncoded";
+
    public static class EndableGZIPOutputStream extends GZIPOutputStream
    {
       public EndableGZIPOutputStream(final OutputStream os) throws IOException
@@ -77,7 +83,7 @@ public class GZIPEncodingInterceptor implements WriterInterceptor
 
       Object encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
 
-      if (encoding != null && encoding.toString().equalsIgnoreCase("gzip"))
+      if (encoding != null && encoding.toString().equalsIgnoreCase("gzip") && context.getProperty(ENTITY_ENCODED) == null)
       {
          OutputStream old = context.getOutputStream();
          // GZIPOutputStream constructor writes to underlying OS causing headers to be written.
@@ -0,0 +1,108 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.sse.OutboundSseEvent;
+
+/**
+ * Event broadcast to many sinks.  The event frame is serialized once per element media type and writer class, every
+ * sink resolving to the same combination writes the same bytes.  Writers are compared by class because every sink
+ * gets its own, stateless, {@link SseEventProvider}.
+ */
+final class EncodedSseEvent
+{
+   private static final class Key
+   {
+      private final MediaType mediaType;
+      private final Class<?> writer;
+
+      Key(final MediaType mediaType, final Class<?> writer)
+      {
+         this.mediaType = mediaType;
+         this.writer = writer;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (!(o instanceof Key)) return false;
+         Key key = (Key) o;
+         return writer == key.writer && mediaType.equals(key.mediaType);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return 31 * mediaType.hashCode() + writer.hashCode();
+      }
+   }
+
+   private final OutboundSseEvent event;
+   private final ConcurrentHashMap<Key, byte[]> frames = new ConcurrentHashMap<>(2);
+
+   EncodedSseEvent(final OutboundSseEvent event)
+   {
+      this.event = event;
+   }
+
+   OutboundSseEvent getEvent()
+   {
+      return event;
+   }
+
+   /**
+    * The first caller for a media type and writer serializes the event, concurrent callers wait for it.
+    *
+    * @param mediaType element media type resolved by the sink
+    * @param writer writer of the sink
+    * @return serialized event frame, must not be modified
+    * @throws IOException if the event can't be serialized
+    */
+   byte[] getFrame(MediaType mediaType, MessageBodyWriter<OutboundSseEvent> writer) throws IOException
+   {
+      try
+      {
+         return frames.computeIfAbsent(new Key(mediaType, writer.getClass()), key -> {
+            try
+            {
+               return encode(event, mediaType, writer);
+            }
+            catch (IOException e)
+            {
+               throw new UncheckedIOException(e);
+            }
+         });
+      }
+      catch (UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * Serialize an event without changing it, an {@link OutboundSseEventImpl} without an explicit media type is
+    * copied with the resolved media type.
+    */
+   static byte[] encode(OutboundSseEvent event, MediaType mediaType, MessageBodyWriter<OutboundSseEvent> writer) throws IOException
+   {
+      OutboundSseEvent toWrite = event;
+      if (event instanceof OutboundSseEventImpl)
+      {
+         OutboundSseEventImpl impl = (OutboundSseEventImpl) event;
+         if (!impl.isMediaTypeSet() || !mediaType.equals(impl.getMediaType()))
+         {
+            toWrite = impl.withMediaType(mediaType);
+         }
+      }
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      writer.writeTo(toWrite, toWrite.getClass(), null, new Annotation[]{}, mediaType, null, bout);
+      return bout.toByteArray();
+   }
+}
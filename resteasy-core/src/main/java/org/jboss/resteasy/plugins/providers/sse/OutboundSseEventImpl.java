@@ -167,6 +167,18 @@ public class OutboundSseEventImpl implements OutboundSseEvent
       this.data = data;
    }
 
+   /**
+    * @param mediaType media type of the data
+    * @return copy of this event with the media type set, this event is not changed
+    */
+   OutboundSseEventImpl withMediaType(MediaType mediaType)
+   {
+      OutboundSseEventImpl copy = new OutboundSseEventImpl(name, id, reconnectDelay, type, genericType, mediaType, data, comment);
+      copy.mediaTypeSet = true;
+      copy.escape = escape;
+      return copy;
+   }
+
    public String getName()
    {
       return name;
@@ -1,12 +1,22 @@
 package org.jboss.resteasy.plugins.providers.sse;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -19,8 +29,25 @@ import javax.ws.rs.sse.SseEventSink;
 
 import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
 
+/**
+ * Broadcasts an event to every registered sink.  The event is serialized once per element media type and written to
+ * every {@link SseEventOutputImpl} from a bounded per sink queue, so a stalled client neither blocks the broadcast
+ * nor the other clients.  Other sink implementations are sent the event on the executor.
+ * <p>
+ * Unless {@link #setExecutor(Executor)} is called the writes run on a pool of at most {@link #DEFAULT_MAX_THREADS}
+ * daemon threads shared by all broadcasters and started on demand.  A task writes a single event and reschedules
+ * itself for the next one, so the sinks take turns on the threads.  A write that takes longer than the write timeout
+ * closes its sink, which fails the events queued for it and releases the thread once the container aborts the
+ * write, so stalled clients don't keep the threads from the others.
+ */
 public class SseBroadcasterImpl implements SseBroadcaster
 {
+   public static final int DEFAULT_MAX_QUEUED_EVENTS = 256;
+
+   public static final int DEFAULT_MAX_THREADS = 16;
+
+   public static final long DEFAULT_WRITE_TIMEOUT = 30000;
+
    private ConcurrentLinkedQueue<SseEventSink> outputQueue = new ConcurrentLinkedQueue<>();
 
    private final List<BiConsumer<SseEventSink, Throwable>> onErrorConsumers = new CopyOnWriteArrayList<>();
@@ -29,6 +56,12 @@ public class SseBroadcasterImpl implements SseBroadcaster
 
    private final AtomicBoolean closed = new AtomicBoolean();
 
+   private volatile Executor executor;
+
+   private volatile int maxQueuedEvents = DEFAULT_MAX_QUEUED_EVENTS;
+
+   private volatile long writeTimeout = DEFAULT_WRITE_TIMEOUT;
+
    // Used to perform a mutual exclusion between register and close operations
    // since every registered SseEventSink needs to be closed when
    // SseBroadcaster.close() is invoked to prevent leaks due to SseEventSink
@@ -48,6 +81,90 @@ public class SseBroadcasterImpl implements SseBroadcaster
       this.writeLock = readWriteLock.writeLock();
    }
 
+   /**
+    * Pools shared by all broadcasters, created on first use.  Idle threads time out, so they are not shut down.
+    */
+   private static final class SharedPools
+   {
+      static final ThreadPoolExecutor EXECUTOR = newExecutor();
+
+      static final ScheduledThreadPoolExecutor WATCHDOG = newWatchdog();
+
+      private static ThreadPoolExecutor newExecutor()
+      {
+         AtomicInteger threadNumber = new AtomicInteger();
+         ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS, 60L,
+               TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+               r -> daemon(r, "sse-broadcaster-thread-" + threadNumber.incrementAndGet()));
+         executor.allowCoreThreadTimeOut(true);
+         return executor;
+      }
+
+      private static ScheduledThreadPoolExecutor newWatchdog()
+      {
+         ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, r -> daemon(r, "sse-broadcaster-watchdog"));
+         // most writes finish in time, don't keep their cancelled timeouts around
+         watchdog.setRemoveOnCancelPolicy(true);
+         watchdog.setKeepAliveTime(60L, TimeUnit.SECONDS);
+         watchdog.allowCoreThreadTimeOut(true);
+         return watchdog;
+      }
+
+      private static Thread daemon(Runnable r, String name)
+      {
+         Thread t = new Thread(r, name);
+         t.setDaemon(true);
+         return t;
+      }
+   }
+
+   static ScheduledFuture<?> schedule(Runnable task, long delay)
+   {
+      return SharedPools.WATCHDOG.schedule(task, delay, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * @param executor executor writing queued events to the sinks, or null for the pool shared by the broadcasters.
+    *                 Writes may block on slow clients until the write timeout, so it should have enough threads for
+    *                 the expected number of stalled clients.  The broadcaster does not shut it down.
+    */
+   public void setExecutor(Executor executor)
+   {
+      this.executor = executor;
+   }
+
+   /**
+    * Set how long writing an event to a sink may take.  A sink whose write takes longer is closed, and its
+    * response completed so that the container can abort the blocked write.
+    *
+    * @param writeTimeout write timeout in milliseconds, 0 or less to wait as long as the write blocks
+    */
+   public void setWriteTimeout(long writeTimeout)
+   {
+      this.writeTimeout = writeTimeout;
+   }
+
+   public long getWriteTimeout()
+   {
+      return writeTimeout;
+   }
+
+   /**
+    * Set how many events may wait to be written to a single sink.  Further events for that sink are dropped and
+    * reported to the error listeners, the sink stays registered.
+    *
+    * @param maxQueuedEvents max queued events per sink
+    */
+   public void setMaxQueuedEvents(int maxQueuedEvents)
+   {
+      this.maxQueuedEvents = maxQueuedEvents;
+   }
+
+   public int getMaxQueuedEvents()
+   {
+      return maxQueuedEvents;
+   }
+
    @Override
    public void close()
    {
@@ -141,25 +258,39 @@ public class SseBroadcasterImpl implements SseBroadcaster
    public CompletionStage<?> broadcast(OutboundSseEvent event)
    {
       checkClosed();
-      //return event immediately and doesn't block anything
-      return CompletableFuture.runAsync(() -> {
-         outputQueue.forEach(eventSink -> {
-            SseEventSink outputImpl = eventSink;
-            try
+      //only queues the event and doesn't block anything
+      EncodedSseEvent encoded = new EncodedSseEvent(event);
+      Executor executor = this.executor == null ? SharedPools.EXECUTOR : this.executor;
+      int maxQueued = maxQueuedEvents;
+      long timeout = writeTimeout;
+      List<CompletableFuture<?>> sent = new ArrayList<>();
+      for (SseEventSink eventSink : outputQueue)
+      {
+         try
+         {
+            CompletionStage<?> stage;
+            if (eventSink instanceof SseEventOutputImpl)
             {
-               outputImpl.send(event).whenComplete((object, err) -> {
-                  if (err != null)
-                  {
-                     notifyOnErrorListeners(eventSink, err);
-                  }
-               });
+               stage = ((SseEventOutputImpl) eventSink).send(encoded, executor, maxQueued, timeout);
             }
-            catch (IllegalStateException e)
+            else
             {
-               notifyOnErrorListeners(eventSink, e);
+               stage = CompletableFuture.supplyAsync(() -> eventSink.send(event), executor).thenCompose(s -> s);
             }
-         });
-      });
+            sent.add(stage.handle((object, err) -> {
+               if (err != null)
+               {
+                  notifyOnErrorListeners(eventSink, err instanceof CompletionException && err.getCause() != null ? err.getCause() : err);
+               }
+               return null;
+            }).toCompletableFuture());
+         }
+         catch (IllegalStateException | RejectedExecutionException e)
+         {
+            notifyOnErrorListeners(eventSink, e);
+         }
+      }
+      return CompletableFuture.allOf(sent.toArray(new CompletableFuture[sent.size()]));
    }
 
 }
@@ -3,10 +3,16 @@ package org.jboss.resteasy.plugins.providers.sse;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.Produces;
@@ -49,6 +55,28 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
 
    private final Object lock = new Object();
 
+   // events queued by broadcasts, written in order by a single task at a time
+   private final ArrayDeque<QueuedEvent> queue = new ArrayDeque<>();
+
+   private boolean draining;
+
+   // of the latest broadcast, guarded by queue
+   private Executor drainExecutor;
+
+   private long writeTimeout;
+
+   private static final class QueuedEvent
+   {
+      private final EncodedSseEvent event;
+
+      private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+      QueuedEvent(final EncodedSseEvent event)
+      {
+         this.event = event;
+      }
+   }
+
    public SseEventOutputImpl(final MessageBodyWriter<OutboundSseEvent> writer)
    {
       this.writer = writer;
@@ -178,6 +206,19 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
       }
    }
 
+   // GenericType equals by type, broadcasters remove failed sinks by equality
+   @Override
+   public boolean equals(Object obj)
+   {
+      return this == obj;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return System.identityHashCode(this);
+   }
+
    @Override
    public boolean isClosed()
    {
@@ -186,6 +227,16 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
 
    @Override
    public CompletionStage<?> send(OutboundSseEvent event)
+   {
+      return send(event, true);
+   }
+
+   /**
+    * @param event event to send
+    * @param flush false to leave the event buffered, e.g. when more events are about to be sent
+    * @return stage completed once the event is written
+    */
+   public CompletionStage<?> send(OutboundSseEvent event, boolean flush)
    {
       synchronized (lock)
       {
@@ -196,7 +247,14 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
          try
          {
             internalFlushResponseToClient(true);
-            writeEvent(event);
+            if (flush)
+            {
+               writeEvent(event);
+            }
+            else
+            {
+               writeEvent(event, null, false);
+            }
 
          }
          catch (Exception ex)
@@ -209,7 +267,157 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
       }
    }
 
+   /**
+    * Queue an event of a broadcast.  Queued events are written in order by tasks on the executor, one event per
+    * task, so a slow client only holds back its own events.
+    *
+    * @param event encoded event shared by all sinks of the broadcast
+    * @param executor executor writing the queued events
+    * @param maxQueued max number of events waiting to be written
+    * @param writeTimeout time in milliseconds after which a write that still blocks closes this sink, 0 or less for
+    *                     none
+    * @return stage completed once the event is written, completed exceptionally if the queue is full or the write
+    *         timed out
+    */
+   CompletionStage<?> send(EncodedSseEvent event, Executor executor, int maxQueued, long writeTimeout)
+   {
+      if (closed)
+      {
+         throw new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed());
+      }
+      QueuedEvent queued = new QueuedEvent(event);
+      boolean schedule;
+      synchronized (queue)
+      {
+         if (queue.size() >= maxQueued)
+         {
+            queued.future.completeExceptionally(new ProcessingException(Messages.MESSAGES.sseEventQueueIsFull()));
+            return queued.future;
+         }
+         queue.add(queued);
+         drainExecutor = executor;
+         this.writeTimeout = writeTimeout;
+         schedule = !draining;
+         draining = true;
+      }
+      if (schedule)
+      {
+         try
+         {
+            executor.execute(this::drain);
+         }
+         catch (RejectedExecutionException e)
+         {
+            synchronized (queue)
+            {
+               queue.remove(queued);
+               draining = false;
+            }
+            throw e;
+         }
+      }
+      return queued.future;
+   }
+
+   private void drain()
+   {
+      QueuedEvent next;
+      Executor executor;
+      long timeout;
+      synchronized (queue)
+      {
+         next = queue.poll();
+         if (next == null)
+         {
+            draining = false;
+            return;
+         }
+         executor = drainExecutor;
+         timeout = writeTimeout;
+      }
+      ScheduledFuture<?> watchdog = timeout > 0 ? SseBroadcasterImpl.schedule(() -> writeTimedOut(next, timeout), timeout) : null;
+      try
+      {
+         synchronized (lock)
+         {
+            if (closed)
+            {
+               throw new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed());
+            }
+            internalFlushResponseToClient(true);
+            writeEvent(next.event.getEvent(), next.event, true);
+         }
+         next.future.complete(next.event.getEvent());
+      }
+      catch (Exception ex)
+      {
+         next.future.completeExceptionally(ex);
+      }
+      finally
+      {
+         if (watchdog != null) watchdog.cancel(false);
+      }
+
+      // the next event in a new task, so that the sinks sharing the executor take turns
+      synchronized (queue)
+      {
+         if (queue.isEmpty())
+         {
+            draining = false;
+            return;
+         }
+      }
+      try
+      {
+         executor.execute(this::drain);
+      }
+      catch (RejectedExecutionException e)
+      {
+         failQueued(e);
+      }
+   }
+
+   /**
+    * Runs on the watchdog while the write of the event still blocks, and holds the lock.  The sink is closed
+    * without the lock, the response is completed so that the container can abort the write.
+    */
+   private void writeTimedOut(QueuedEvent event, long timeout)
+   {
+      // finished while the timeout fired
+      if (event.future.isDone()) return;
+      closed = true;
+      IOException e = new IOException(Messages.MESSAGES.sseEventWriteTimedOut(timeout));
+      event.future.completeExceptionally(e);
+      failQueued(e);
+      LogMessages.LOGGER.failedToWriteSseEvent(event.event.getEvent().toString(), e);
+      ResteasyAsynchronousResponse asyncResponse = asyncContext.getAsyncResponse();
+      if (asyncResponse != null)
+      {
+         asyncResponse.complete();
+      }
+   }
+
+   private void failQueued(Throwable t)
+   {
+      List<QueuedEvent> failed;
+      synchronized (queue)
+      {
+         failed = new ArrayList<>(queue);
+         queue.clear();
+         draining = false;
+      }
+      for (QueuedEvent event : failed)
+      {
+         event.future.completeExceptionally(t);
+      }
+   }
+
    protected void writeEvent(OutboundSseEvent event) throws IOException
+   {
+      writeEvent(event, null, true);
+   }
+
+   private void writeEvent(OutboundSseEvent event, EncodedSseEvent encoded, boolean flush) throws IOException
    {
       synchronized (lock)
       {
@@ -218,50 +426,27 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
          {
             if (event != null)
             {
-               //// Check media type?
-               ByteArrayOutputStream bout = new ByteArrayOutputStream();
-               MediaType mediaType = event.getMediaType();
-               boolean mediaTypeSet = event instanceof OutboundSseEventImpl ? ((OutboundSseEventImpl) event).isMediaTypeSet() : true;
-               if (mediaType == null || !mediaTypeSet)
+               MediaType mediaType = resolveMediaType(event);
+               byte[] frame;
+               if (encoded != null)
                {
-                  Object o = response.getOutputHeaders().getFirst("Content-Type");
-                  if (o != null)
-                  {
-                     if (o instanceof MediaType)
-                     {
-                        MediaType mt = (MediaType) o;
-                        String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
-                        if (s != null)
-                        {
-                           mediaType = MediaType.valueOf(s);
-                        }
-                     }
-                     else if (o instanceof String)
-                     {
-                        MediaType mt = MediaType.valueOf((String) o);
-                        String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
-                        if (s != null)
-                        {
-                           mediaType = MediaType.valueOf(s);
-                        }
-                     }
-                     else
-                     {
-                        throw new RuntimeException(Messages.MESSAGES.expectedStringOrMediaType(o));
-                     }
-                  }
+                  frame = encoded.getFrame(mediaType, writer);
                }
-               if (mediaType == null)
+               else
                {
-                  mediaType = MediaType.TEXT_PLAIN_TYPE;
+                  if (event instanceof OutboundSseEventImpl)
+                  {
+                     ((OutboundSseEventImpl) event).setMediaType(mediaType);
+                  }
+                  ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                  writer.writeTo(event, event.getClass(), null, new Annotation[]{}, mediaType, null, bout);
+                  frame = bout.toByteArray();
                }
-               if (event instanceof OutboundSseEventImpl)
+               response.getOutputStream().write(frame);
+               if (flush)
                {
-                  ((OutboundSseEventImpl) event).setMediaType(mediaType);
+                  response.flushBuffer();
                }
-               writer.writeTo(event, event.getClass(), null, new Annotation[]{}, mediaType, null, bout);
-               response.getOutputStream().write(bout.toByteArray());
-               response.flushBuffer();
             }
          }
          catch (IOException e)
@@ -284,6 +469,46 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
       }
    }
 
+   private MediaType resolveMediaType(OutboundSseEvent event)
+   {
+      MediaType mediaType = event.getMediaType();
+      boolean mediaTypeSet = event instanceof OutboundSseEventImpl ? ((OutboundSseEventImpl) event).isMediaTypeSet() : true;
+      if (mediaType == null || !mediaTypeSet)
+      {
+         Object o = response.getOutputHeaders().getFirst("Content-Type");
+         if (o != null)
+         {
+            if (o instanceof MediaType)
+            {
+               MediaType mt = (MediaType) o;
+               String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
+               if (s != null)
+               {
+                  mediaType = MediaType.valueOf(s);
+               }
+            }
+            else if (o instanceof String)
+            {
+               MediaType mt = MediaType.valueOf((String) o);
+               String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
+               if (s != null)
+               {
+                  mediaType = MediaType.valueOf(s);
+               }
+            }
+            else
+            {
+               throw new RuntimeException(Messages.MESSAGES.expectedStringOrMediaType(o));
+            }
+         }
+      }
+      if (mediaType == null)
+      {
+         mediaType = MediaType.TEXT_PLAIN_TYPE;
+      }
+      return mediaType;
+   }
+
    private String[] getStreamType(ResourceMethodInvoker method)
    {
       Stream stream = method.getMethod().getAnnotation(Stream.class);
@@ -211,6 +211,31 @@ public abstract class ConfigurationBootstrap implements ResteasyConfiguration
          deployment.setWiderRequestMatching(wider);
       }
 
+      String trieMatching = getParameter(ResteasyContextParameters.RESTEASY_TRIE_REQUEST_MATCHING);
+      if (trieMatching != null)
+      {
+         boolean trie = parseBooleanParam(ResteasyContextParameters.RESTEASY_TRIE_REQUEST_MATCHING, trieMatching);
+         deployment.setProperty(ResteasyContextParameters.RESTEASY_TRIE_REQUEST_MATCHING, trie);
+      }
+
+      String matchCacheSize = getParameter(ResteasyContextParameters.RESTEASY_MATCH_CACHE_SIZE);
+      if (matchCacheSize != null)
+      {
+         deployment.setProperty(ResteasyContextParameters.RESTEASY_MATCH_CACHE_SIZE, parseIntParam(ResteasyContextParameters.RESTEASY_MATCH_CACHE_SIZE, matchCacheSize));
+      }
+
+      String mediaTypeCacheSize = getParameter(ResteasyContextParameters.RESTEASY_MEDIA_TYPE_CACHE_SIZE);
+      if (mediaTypeCacheSize != null)
+      {
+         deployment.setProperty(ResteasyContextParameters.RESTEASY_MEDIA_TYPE_CACHE_SIZE, parseIntParam(ResteasyContextParameters.RESTEASY_MEDIA_TYPE_CACHE_SIZE, mediaTypeCacheSize));
+      }
+
+      String streamPrefetch = getParameter(ResteasyContextParameters.RESTEASY_STREAM_PREFETCH);
+      if (streamPrefetch != null)
+      {
+         deployment.setProperty(ResteasyContextParameters.RESTEASY_STREAM_PREFETCH, parseIntParam(ResteasyContextParameters.RESTEASY_STREAM_PREFETCH, streamPrefetch));
+      }
+
       String addCharset = getParameter(ResteasyContextParameters.RESTEASY_ADD_CHARSET);
       if (addCharset != null)
       {
@@ -248,6 +273,14 @@ public abstract class ConfigurationBootstrap implements ResteasyConfiguration
       }
    }
 
+   protected int parseIntParam(String key, String value) {
+      try {
+         return Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+         throw new RuntimeException(Messages.MESSAGES.keyCouldNotBeParsed(key));
+      }
+   }
+
    protected Map<String, String> parseMap(String map)
    {
       Map<String, String> parsed = new HashMap<String, String>();
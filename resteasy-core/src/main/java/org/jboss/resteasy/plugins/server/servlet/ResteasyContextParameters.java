@@ -93,5 +93,33 @@ public interface ResteasyContextParameters {
    String RESTEASY_SERVLET_MAPPING_PREFIX = "resteasy.servlet.mapping.prefix";
    String RESTEASY_WIDER_REQUEST_MATCHING = "resteasy.wider.request.matching";
 
+   /**
+    * Maximum number of resolved request matches kept by the resource method registry.  Matches are keyed by
+    * HTTP method, Content-Type and Accept headers, and by the path for routes without path parameters.  The
+    * concrete paths of templated routes are not cached: they are matched on every request and only the content
+    * negotiation between the matched templates is cached.  A value of {@code 0} disables the cache.
+    * The default value is {@code 2048}.
+    */
+   String RESTEASY_MATCH_CACHE_SIZE = "resteasy.match.cache.size";
+
+   /**
+    * Match resource methods by walking a trie of literal and parameter path segments instead of trying the
+    * regex of every path template.  Templates with a custom regex parameter, e.g. {@code {id: \d+}}, and
+    * resource locators are still matched by regex.  The default value is {@code false}.
+    */
+   String RESTEASY_TRIE_REQUEST_MATCHING = "resteasy.trie.request.matching";
+
+   /**
+    * Maximum number of cached message body reader and writer lookups per media type map of the provider factory.
+    * A value of {@code 0} disables the cache.  The default value is {@code 1024}.
+    */
+   String RESTEASY_MEDIA_TYPE_CACHE_SIZE = "resteasy.media.type.cache.size";
+
+   /**
+    * Number of elements requested ahead from a {@code Publisher} returned by a resource method, unless set by
+    * {@link org.jboss.resteasy.annotations.Stream#prefetch()}.  The default value is {@code 1}.
+    */
+   String RESTEASY_STREAM_PREFETCH = "resteasy.stream.prefetch";
+
    String RESTEASY_PREFER_JACKSON_OVER_JSONB = "resteasy.preferJacksonOverJsonB";
 }
@@ -1,8 +1,8 @@
 package org.jboss.resteasy.specimpl;
 
+import org.jboss.resteasy.util.AcceptableMediaTypes;
 import org.jboss.resteasy.util.CookieParser;
 import org.jboss.resteasy.util.DateUtil;
-import org.jboss.resteasy.util.MediaTypeHelper;
 import org.jboss.resteasy.util.WeightedLanguage;
 
 import javax.ws.rs.core.Cookie;
@@ -144,21 +144,7 @@ public class ResteasyHttpHeaders implements HttpHeaders
    @Override
    public List<MediaType> getAcceptableMediaTypes()
    {
-      List<String> vals = requestHeaders.get(ACCEPT);
-      if (vals == null || vals.isEmpty()) {
-         return Collections.singletonList(MediaType.WILDCARD_TYPE);
-      } else {
-         List<MediaType> list = new ArrayList<MediaType>();
-         for (String v : vals) {
-            StringTokenizer tokenizer = new StringTokenizer(v, ",");
-            while (tokenizer.hasMoreElements()) {
-               String item = tokenizer.nextToken().trim();
-               list.add(MediaType.valueOf(item));
-            }
-         }
-         MediaTypeHelper.sortByWeight(list);
-         return Collections.unmodifiableList(list);
-      }
+      return AcceptableMediaTypes.of(requestHeaders.get(ACCEPT)).getMediaTypes();
    }
 
    @Override
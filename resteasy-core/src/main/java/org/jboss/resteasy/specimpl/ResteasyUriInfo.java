@@ -20,6 +20,9 @@ import javax.ws.rs.ext.RuntimeDelegate;
 
 /**
  * UriInfo implementation with some added extra methods to help process requests.
+ * <p>
+ * When created from the request URI string, the request URI, absolute path and base URI are only built once they
+ * are asked for, matching a request only needs the encoded path and the query string.
  *
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
  * @version $Revision: 1 $
@@ -41,6 +44,9 @@ public class ResteasyUriInfo implements UriInfo
    private URI absolutePath;
    private URI requestURI;
    private URI baseURI;
+   private ResteasyUriBuilder absoluteBuilder;
+   private String queryString;
+   private String contextPath;
    private List<String> matchedUris;
    private List<String> encodedMatchedUris;
    private List<String> encodedMatchedPaths = new LinkedList<String>();
@@ -54,18 +60,19 @@ public class ResteasyUriInfo implements UriInfo
 
    protected void initialize(CharSequence absoluteUri, String queryString, String contextPath)
    {
-      ResteasyUriBuilder absoluteBuilder = (ResteasyUriBuilder) ((ResteasyUriBuilder) RuntimeDelegate.getInstance()
+      absoluteBuilder = (ResteasyUriBuilder) ((ResteasyUriBuilder) RuntimeDelegate.getInstance()
             .createUriBuilder()).uriFromCharSequence((CharSequence)absoluteUri);
-      absolutePath = absoluteBuilder.build();
-      requestURI = absoluteBuilder.replaceQuery(queryString).build();
-      encodedPath = PathHelper.getEncodedPathInfo(absolutePath.getRawPath(), contextPath);
-      baseURI = absolutePath;
-      if (!encodedPath.trim().equals(""))
-      {
-         String tmpContextPath = contextPath;
-         if (!tmpContextPath.endsWith("/")) tmpContextPath += "/";
-         baseURI = absoluteBuilder.clone().replacePath(tmpContextPath).replaceQuery(null).build();
-      }
+      this.queryString = queryString;
+      this.contextPath = contextPath;
+      absolutePath = null;
+      requestURI = null;
+      baseURI = null;
+      String rawPath = absoluteBuilder.getPath();
+      if (rawPath == null) rawPath = "";
+      if (absoluteBuilder.getHost() != null && !rawPath.startsWith("/")) rawPath = "/" + rawPath;
+      encodedPath = PathHelper.getEncodedPathInfo(rawPath, contextPath);
+      // the base URI of a request to the context root itself is its absolute path
+      if (encodedPath.trim().equals("")) this.contextPath = null;
 //      // make sure there is no trailing '/'
 //      if (encodedPath.length() > 1 && encodedPath.endsWith("/"))
 //         encodedPath = encodedPath.substring(0, encodedPath.length() - 1);
@@ -75,7 +82,8 @@ public class ResteasyUriInfo implements UriInfo
       {
          encodedPath = "/" + encodedPath;
       }
-      path = UriBuilder.fromPath(encodedPath).build().getPath();
+      // decoded lazily by getPath()
+      path = null;
       processPath();
    }
 
@@ -98,6 +106,7 @@ public class ResteasyUriInfo implements UriInfo
       requestURI = requestUriBuilder.build();
       absolutePath = requestUriBuilder.replaceQuery(null).build();
       baseURI = base;
+      queryString = requestURI.getRawQuery();
       processPath();
    }
 
@@ -120,7 +129,7 @@ public class ResteasyUriInfo implements UriInfo
       {
          pathSegments.add(new PathSegmentImpl(((PathSegmentImpl) segment).getOriginal(), true));
       }
-      extractParameters(requestURI.getRawQuery());
+      extractParameters(queryString);
       if (parse.hasMatrixParams) extractMatchingPath(encodedPathSegments);
       else
       {
@@ -155,6 +164,8 @@ public class ResteasyUriInfo implements UriInfo
       this.requestURI = requestURI;
       baseURI = UriBuilder.fromUri(requestURI).replacePath("").build();
       absolutePath = UriBuilder.fromUri(requestURI).replaceQuery(null).build();
+      absoluteBuilder = null;
+      queryString = requestURI.getRawQuery();
       processPath();
    }
 
@@ -190,11 +201,15 @@ public class ResteasyUriInfo implements UriInfo
     */
    public void setRequestUri(URI relative)
    {
-      setUri(baseURI, relative);
+      setUri(getBaseUri(), relative);
    }
 
    public String getPath()
    {
+      if (path == null)
+      {
+         path = Encode.decodePath(encodedPath, false);
+      }
       return path;
    }
 
@@ -217,32 +232,53 @@ public class ResteasyUriInfo implements UriInfo
 
    public URI getRequestUri()
    {
+      if (requestURI == null)
+      {
+         requestURI = absoluteBuilder.clone().replaceQuery(queryString).build();
+      }
       return requestURI;
    }
 
    public UriBuilder getRequestUriBuilder()
    {
-      return UriBuilder.fromUri(requestURI);
+      return UriBuilder.fromUri(getRequestUri());
    }
 
    public URI getAbsolutePath()
    {
+      if (absolutePath == null)
+      {
+         absolutePath = absoluteBuilder.build();
+      }
       return absolutePath;
    }
 
    public UriBuilder getAbsolutePathBuilder()
    {
-      return UriBuilder.fromUri(absolutePath);
+      return UriBuilder.fromUri(getAbsolutePath());
    }
 
    public URI getBaseUri()
    {
+      if (baseURI == null)
+      {
+         if (contextPath != null)
+         {
+            String tmpContextPath = contextPath;
+            if (!tmpContextPath.endsWith("/")) tmpContextPath += "/";
+            baseURI = absoluteBuilder.clone().replacePath(tmpContextPath).replaceQuery(null).build();
+         }
+         else
+         {
+            baseURI = getAbsolutePath();
+         }
+      }
       return baseURI;
    }
 
    public UriBuilder getBaseUriBuilder()
    {
-      return UriBuilder.fromUri(baseURI);
+      return UriBuilder.fromUri(getBaseUri());
    }
 
    public MultivaluedMap<String, String> getPathParameters()
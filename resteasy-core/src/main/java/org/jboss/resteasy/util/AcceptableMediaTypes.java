@@ -0,0 +1,108 @@
+package org.jboss.resteasy.util;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed value of an Accept header.  Parsed values are interned in a small cache keyed by the raw header so common
+ * browser and API Accept strings are only parsed once.  Instances are immutable and shared between requests.
+ */
+public final class AcceptableMediaTypes
+{
+   public static final int CACHE_SIZE = 64;
+   // longer headers are parsed but not interned
+   public static final int MAX_CACHED_HEADER_LENGTH = 512;
+
+   public static final AcceptableMediaTypes WILDCARD = new AcceptableMediaTypes(Collections.singletonList(MediaType.WILDCARD_TYPE));
+
+   // read on every request, so lock free: a full cache is emptied, the common headers are back after a few requests
+   private static final Map<String, AcceptableMediaTypes> CACHE = new ConcurrentHashMap<String, AcceptableMediaTypes>();
+
+   private final List<MediaType> mediaTypes;
+   private volatile List<WeightedMediaType> weightedMediaTypes;
+
+   private AcceptableMediaTypes(final List<MediaType> mediaTypes)
+   {
+      this.mediaTypes = mediaTypes;
+   }
+
+   /**
+    * Parsed Accept header of a request, {@link #WILDCARD} if the request has none.
+    *
+    * @param headers request headers
+    * @return parsed accept header
+    */
+   public static AcceptableMediaTypes of(HttpHeaders headers)
+   {
+      return of(headers.getRequestHeader(HttpHeaders.ACCEPT));
+   }
+
+   /**
+    * @param vals raw Accept header values
+    * @return parsed accept header, {@link #WILDCARD} if there is no value
+    */
+   public static AcceptableMediaTypes of(List<String> vals)
+   {
+      if (vals == null || vals.isEmpty()) return WILDCARD;
+      return valueOf(vals.size() == 1 ? vals.get(0) : String.join(",", vals));
+   }
+
+   public static AcceptableMediaTypes valueOf(String header)
+   {
+      AcceptableMediaTypes parsed = CACHE.get(header);
+      if (parsed != null) return parsed;
+      parsed = parse(header);
+      if (header.length() <= MAX_CACHED_HEADER_LENGTH)
+      {
+         if (CACHE.size() >= CACHE_SIZE) CACHE.clear();
+         CACHE.put(header, parsed);
+      }
+      return parsed;
+   }
+
+   private static AcceptableMediaTypes parse(String header)
+   {
+      List<MediaType> list = new ArrayList<MediaType>();
+      StringTokenizer tokenizer = new StringTokenizer(header, ",");
+      while (tokenizer.hasMoreElements())
+      {
+         String item = tokenizer.nextToken().trim();
+         list.add(MediaType.valueOf(item));
+      }
+      MediaTypeHelper.sortByWeight(list);
+      return new AcceptableMediaTypes(Collections.unmodifiableList(list));
+   }
+
+   /**
+    * @return accepted media types sorted by weight
+    */
+   public List<MediaType> getMediaTypes()
+   {
+      return mediaTypes;
+   }
+
+   /**
+    * Same order as {@link #getMediaTypes()}, the q parameter is parsed into the weight.  Computed on first use.
+    *
+    * @return weighted media types
+    */
+   public List<WeightedMediaType> getWeightedMediaTypes()
+   {
+      List<WeightedMediaType> weighted = weightedMediaTypes;
+      if (weighted == null)
+      {
+         List<WeightedMediaType> list = new ArrayList<WeightedMediaType>(mediaTypes.size());
+         for (MediaType accept : mediaTypes) list.add(WeightedMediaType.parse(accept));
+         weighted = Collections.unmodifiableList(list);
+         weightedMediaTypes = weighted;
+      }
+      return weighted;
+   }
+}
@@ -8,9 +8,11 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -209,45 +211,112 @@ public class Encode
 
    //private static final Pattern nonCodes = Pattern.compile("%([^a-fA-F0-9]|$)");
    private static final Pattern nonCodes = Pattern.compile("%([^a-fA-F0-9]|[a-fA-F0-9]$|$|[a-fA-F0-9][^a-fA-F0-9])");
-   private static final Pattern encodedChars = Pattern.compile("%([a-fA-F0-9][a-fA-F0-9])");
-   private static final Pattern encodedCharsMulti = Pattern.compile("((%[a-fA-F0-9][a-fA-F0-9])+)");
 
+   /**
+    * Decode the %XX sequences of a path as UTF-8.  A '%' that does not start such a sequence and '+' are kept as is.
+    *
+    * @param path encoded path
+    * @return decoded path
+    * @throws RuntimeException if the sequences are not valid UTF-8
+    */
    public static String decodePath(String path)
    {
-      Matcher matcher = encodedCharsMulti.matcher(path);
-      int start=0;
-      StringBuilder builder = new StringBuilder();
-      CharsetDecoder decoder = Charset.forName(UTF_8).newDecoder();
-      while (matcher.find())
-      {
-         builder.append(path, start, matcher.start());
-         decoder.reset();
-         String decoded = decodeBytes(matcher.group(1), decoder);
-         builder.append(decoded);
-         start = matcher.end();
-      }
-      builder.append(path, start, path.length());
-      return builder.toString();
+      return decodePath(path, true);
    }
 
-   private static String decodeBytes(String enc, CharsetDecoder decoder)
+   /**
+    * Decode the %XX sequences of a path as UTF-8 in a single pass, without copying the path if it has none.
+    *
+    * @param path encoded path
+    * @param strict true to fail on sequences that are not valid UTF-8, false to replace them with U+FFFD like
+    *               {@link java.net.URI#getPath()} does
+    * @return decoded path
+    */
+   public static String decodePath(String path, boolean strict)
    {
-      Matcher matcher = encodedChars.matcher(enc);
-      ByteBuffer bytes = ByteBuffer.allocate(enc.length() / 3);
-      while (matcher.find())
+      int percent = path.indexOf('%');
+      if (percent < 0) return path;
+
+      int length = path.length();
+      // a decoded path is never longer than the encoded one
+      char[] decoded = new char[length];
+      byte[] bytes = null;
+      CharsetDecoder decoder = null;
+      int count = 0;
+      int start = 0;
+      while (percent >= 0)
       {
-         int b = Integer.parseInt(matcher.group(1), 16);
-         bytes.put((byte) b);
+         int end = percent;
+         int n = 0;
+         boolean ascii = true;
+         while (end + 2 < length && path.charAt(end) == '%')
+         {
+            int high = hexValue(path.charAt(end + 1));
+            int low = hexValue(path.charAt(end + 2));
+            if (high < 0 || low < 0) break;
+            if (bytes == null) bytes = new byte[length / 3];
+            bytes[n] = (byte) ((high << 4) | low);
+            ascii &= bytes[n] >= 0;
+            n++;
+            end += 3;
+         }
+         if (n == 0)
+         {
+            percent = path.indexOf('%', percent + 1);
+            continue;
+         }
+
+         path.getChars(start, percent, decoded, count);
+         count += percent - start;
+         if (ascii)
+         {
+            for (int i = 0; i < n; i++)
+            {
+               decoded[count++] = (char) bytes[i];
+            }
+         }
+         else
+         {
+            if (decoder == null)
+            {
+               decoder = StandardCharsets.UTF_8.newDecoder();
+               if (!strict)
+               {
+                  decoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+               }
+            }
+            count = decodeBytes(bytes, n, decoder.reset(), decoded, count);
+         }
+         start = end;
+         percent = path.indexOf('%', end);
       }
-      bytes.flip();
+      path.getChars(start, length, decoded, count);
+      count += length - start;
+      return new String(decoded, 0, count);
+   }
+
+   private static int hexValue(char c)
+   {
+      if (c >= '0' && c <= '9') return c - '0';
+      if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+      if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+      return -1;
+   }
+
+   private static int decodeBytes(byte[] bytes, int n, CharsetDecoder decoder, char[] decoded, int count)
+   {
+      CharBuffer out = CharBuffer.wrap(decoded, count, decoded.length - count);
+      CoderResult result = decoder.decode(ByteBuffer.wrap(bytes, 0, n), out, true);
+      if (!result.isError()) result = decoder.flush(out);
       try
       {
-         return decoder.decode(bytes).toString();
+         if (result.isError()) result.throwException();
       }
       catch (CharacterCodingException e)
       {
          throw new RuntimeException(e);
       }
+      return out.position();
    }
 
    /**
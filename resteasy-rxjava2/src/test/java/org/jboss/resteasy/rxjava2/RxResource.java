@@ -45,6 +45,15 @@ public class RxResource
       return Flowable.fromArray("one", "two");
    }
 
+   @Produces(MediaType.APPLICATION_JSON)
+   @Path("flowable/prefetch")
+   @GET
+   @Stream(prefetch = 64)
+   public Flowable<String> prefetchFlowable()
+   {
+      return Flowable.range(0, 1000).map(String::valueOf);
+   }
+
    @Path("context/single")
    @GET
    public Single<String> contextSingle(@Context UriInfo uriInfo)
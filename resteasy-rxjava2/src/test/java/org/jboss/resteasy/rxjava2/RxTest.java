@@ -137,6 +137,24 @@ public class RxTest
       assertArrayEquals(new String[] {"one", "two"}, data.toArray());
    }
 
+   @Test
+   public void testFlowablePrefetch() throws Exception {
+      FlowableRxInvoker invoker = client.target(generateURL("/flowable/prefetch")).request().rx(FlowableRxInvoker.class);
+      @SuppressWarnings("unchecked")
+      Flowable<String> flowable = (Flowable<String>) invoker.get();
+      List<String> data = new ArrayList<String>();
+      flowable.subscribe(
+         (String s) -> data.add(s),
+         (Throwable t) -> LOG.error(t.getMessage(), t),
+         () -> latch.countDown());
+      latch.await();
+      assertEquals(1000, data.size());
+      for (int i = 0; i < data.size(); i++)
+      {
+         assertEquals(String.valueOf(i), data.get(i));
+      }
+   }
+
    @Test
    public void testFlowablecontext() throws Exception {
       FlowableRxInvoker invoker = client.target(generateURL("/context/flowable")).request().rx(FlowableRxInvoker.class);
@@ -0,0 +1,102 @@
+package org.jboss.resteasy.plugins.server.sun.http;
+
+import org.jboss.resteasy.plugins.server.sun.http.i18n.Messages;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the exchanges of a {@link com.sun.net.httpserver.HttpServer}, see
+ * {@link SunHttpJaxrsServer#setExecutor(java.util.concurrent.Executor)}.  Without one the server handles every exchange
+ * on its dispatcher thread, one at a time.
+ */
+public final class HttpServerExecutors
+{
+   private HttpServerExecutors()
+   {
+   }
+
+   /**
+    * @param threads number of threads
+    * @return a pool of daemon threads named {@code resteasy-http-N}
+    */
+   public static ExecutorService newFixedThreadPool(int threads)
+   {
+      return Executors.newFixedThreadPool(threads, new NamedThreadFactory());
+   }
+
+   /**
+    * @param parallelism targeted number of active threads, usually the number of cores
+    * @return a work stealing {@link ForkJoinPool}
+    */
+   public static ExecutorService newWorkStealingPool(int parallelism)
+   {
+      return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+   }
+
+   /**
+    * @return if the JVM has virtual threads
+    */
+   public static boolean isVirtualThreadSupported()
+   {
+      return virtualThreadPerTaskExecutor() != null;
+   }
+
+   /**
+    * Runs every exchange on its own virtual thread.  Virtual threads came with Java 21, the executor is looked up
+    * reflectively so that this class still runs on older JVMs.
+    *
+    * @return a new virtual thread per task executor
+    * @throws UnsupportedOperationException if the JVM has no virtual threads
+    */
+   public static ExecutorService newVirtualThreadPerTaskExecutor()
+   {
+      Method method = virtualThreadPerTaskExecutor();
+      if (method == null)
+      {
+         throw new UnsupportedOperationException(Messages.MESSAGES.virtualThreadsNotSupported());
+      }
+      try
+      {
+         return (ExecutorService) method.invoke(null);
+      }
+      catch (IllegalAccessException e)
+      {
+         throw new UnsupportedOperationException(Messages.MESSAGES.virtualThreadsNotSupported(), e);
+      }
+      catch (InvocationTargetException e)
+      {
+         throw new UnsupportedOperationException(Messages.MESSAGES.virtualThreadsNotSupported(), e.getCause());
+      }
+   }
+
+   private static Method virtualThreadPerTaskExecutor()
+   {
+      try
+      {
+         return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      }
+      catch (NoSuchMethodException e)
+      {
+         return null;
+      }
+   }
+
+   private static class NamedThreadFactory implements ThreadFactory
+   {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r)
+      {
+         Thread thread = new Thread(r, "resteasy-http-" + count.incrementAndGet());
+         thread.setDaemon(true);
+         return thread;
+      }
+   }
+}
@@ -7,6 +7,7 @@ import org.jboss.resteasy.spi.ResteasyDeployment;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
 
 /**
  * com.sun.net.httpserver.HttpServer adapter for Resteasy.  You may instead want to create and manage your own HttpServer.
@@ -21,6 +22,8 @@ public class SunHttpJaxrsServer implements EmbeddedJaxrsServer
    protected HttpServer httpServer;
    protected int configuredPort = 8080;
    protected int runtimePort = -1;
+   protected int backlog = 10;
+   protected Executor executor;
 
    public void setRootResourcePath(String rootResourcePath)
    {
@@ -67,6 +70,39 @@ public class SunHttpJaxrsServer implements EmbeddedJaxrsServer
       this.configuredPort = port;
    }
 
+   /**
+    * Value is ignored if HttpServer property is set. Default value is 10
+    *
+    * @param backlog max number of connections queued before they are accepted, 0 or less for the system default
+    */
+   public void setBacklog(int backlog)
+   {
+      this.backlog = backlog;
+   }
+
+   public int getBacklog()
+   {
+      return backlog;
+   }
+
+   /**
+    * Set the executor on which the exchanges are handled, see {@link HttpServerExecutors} for a fixed thread pool,
+    * a work stealing pool or virtual threads.  By default the server handles every exchange on its single dispatcher
+    * thread.  The executor is also set on an HttpServer provided with {@link #setHttpServer(HttpServer)}.  It is not
+    * shut down when the server stops.
+    *
+    * @param executor executor, null for the dispatcher thread
+    */
+   public void setExecutor(Executor executor)
+   {
+      this.executor = executor;
+   }
+
+   public Executor getExecutor()
+   {
+      return executor;
+   }
+
    /**
     * Gets port number of this HttpServer.
     *
@@ -84,7 +120,7 @@ public class SunHttpJaxrsServer implements EmbeddedJaxrsServer
       {
          try
          {
-            httpServer = HttpServer.create(new InetSocketAddress(configuredPort), 10);
+            httpServer = HttpServer.create(new InetSocketAddress(configuredPort), backlog);
             runtimePort = httpServer.getAddress().getPort();
          }
          catch (IOException e)
@@ -92,6 +128,10 @@ public class SunHttpJaxrsServer implements EmbeddedJaxrsServer
             throw new RuntimeException(e);
          }
       }
+      if (executor != null)
+      {
+         httpServer.setExecutor(executor);
+      }
       context.bind(httpServer);
       httpServer.start();
    }
@@ -100,7 +140,10 @@ public class SunHttpJaxrsServer implements EmbeddedJaxrsServer
    public void stop()
    {
       runtimePort = -1;
-      httpServer.stop(0);
+      if (httpServer != null)
+      {
+         httpServer.stop(0);
+      }
       context.cleanup();
    }
 }
@@ -27,4 +27,7 @@ public interface Messages
 
    @Message(id = BASE + 15, value = "WTF!")
    String wtf();
+
+   @Message(id = BASE + 20, value = "Virtual threads are not supported by this JVM")
+   String virtualThreadsNotSupported();
 }
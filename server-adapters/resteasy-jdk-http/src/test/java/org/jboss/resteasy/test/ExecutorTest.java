@@ -0,0 +1,130 @@
+package org.jboss.resteasy.test;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.plugins.server.sun.http.HttpServerExecutors;
+import org.jboss.resteasy.plugins.server.sun.http.SunHttpJaxrsServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchanges handled concurrently by the executor of the server.  Every request waits for the others, so they only
+ * complete if they are all handled at the same time.
+ */
+public class ExecutorTest
+{
+   private static final int REQUESTS = 4;
+
+   private static volatile CyclicBarrier barrier;
+
+   @Path("/")
+   public static class Resource
+   {
+      @GET
+      @Path("/barrier")
+      @Produces("text/plain")
+      public String barrier() throws Exception
+      {
+         barrier.await(10, TimeUnit.SECONDS);
+         return Thread.currentThread().getName();
+      }
+   }
+
+   private SunHttpJaxrsServer server;
+   private ExecutorService executor;
+   private ResteasyClient client;
+
+   @Before
+   public void before()
+   {
+      barrier = new CyclicBarrier(REQUESTS);
+      server = new SunHttpJaxrsServer();
+      server.setPort(TestPortProvider.getPort());
+      server.setBacklog(50);
+      server.getDeployment().getActualResourceClasses().add(Resource.class);
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+            .connectionPoolSize(REQUESTS).maxPooledPerRoute(REQUESTS).build();
+   }
+
+   @After
+   public void after() throws Exception
+   {
+      client.close();
+      server.stop();
+      if (executor != null)
+      {
+         executor.shutdown();
+         executor.awaitTermination(10, TimeUnit.SECONDS);
+      }
+   }
+
+   @Test
+   public void testFixedThreadPool() throws Exception
+   {
+      executor = HttpServerExecutors.newFixedThreadPool(REQUESTS);
+      for (String thread : run())
+      {
+         Assert.assertTrue(thread, thread.startsWith("resteasy-http-"));
+      }
+   }
+
+   @Test
+   public void testWorkStealingPool() throws Exception
+   {
+      executor = HttpServerExecutors.newWorkStealingPool(REQUESTS);
+      for (String thread : run())
+      {
+         Assert.assertTrue(thread, thread.startsWith("ForkJoinPool-"));
+      }
+   }
+
+   @Test
+   public void testStopWithoutStart()
+   {
+      // the virtual threads test is skipped before the server starts on older JVMs, after() still stops it
+      server.stop();
+      Assert.assertEquals(TestPortProvider.getPort(), server.getPort());
+   }
+
+   @Test
+   public void testVirtualThreads() throws Exception
+   {
+      Assume.assumeTrue(HttpServerExecutors.isVirtualThreadSupported());
+      executor = HttpServerExecutors.newVirtualThreadPerTaskExecutor();
+      Assert.assertEquals(REQUESTS, run().size());
+   }
+
+   private List<String> run() throws Exception
+   {
+      server.setExecutor(executor);
+      server.start();
+      List<Future<String>> futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < REQUESTS; i++)
+      {
+         futures.add(client.target(generateURL("/barrier")).request().async().get(String.class));
+      }
+      List<String> threads = new ArrayList<String>();
+      for (Future<String> future : futures)
+      {
+         threads.add(future.get(20, TimeUnit.SECONDS));
+      }
+      return threads;
+   }
+}
@@ -0,0 +1,177 @@
+package org.jboss.resteasy.plugins.server.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
+
+/**
+ * Request body stream fed with the {@link io.netty.handler.codec.http.HttpContent} chunks of a request while the
+ * resource method is already reading it.
+ * <p>
+ * At most about {@code maxBufferedBytes} are queued: when the queue grows over that limit auto read of the channel
+ * is turned off, and turned back on once the reader has drained half of it.
+ * <p>
+ * The stream can only be read off the event loop, so with {@link NettyJaxrsServer#setInvokeOnIoThreads(boolean)}
+ * a read that has to wait for a chunk fails.
+ *
+ * @see NettyJaxrsServer#setStreamingRequests(boolean)
+ */
+public class ChunkInputStream extends InputStream {
+   private final Channel channel;
+   private final int maxBufferedBytes;
+   private final ArrayDeque<ByteBuf> chunks = new ArrayDeque<ByteBuf>();
+   private int buffered;
+   private boolean complete;
+   private boolean closed;
+   private boolean suspended;
+   private Throwable failure;
+
+   ChunkInputStream(final Channel channel, final int maxBufferedBytes) {
+      this.channel = channel;
+      this.maxBufferedBytes = maxBufferedBytes;
+   }
+
+   /**
+    * Called on the event loop for every chunk of the request body.  Ownership of the buffer is transferred.
+    *
+    * @param buf chunk
+    */
+   synchronized void offer(ByteBuf buf) {
+      if (closed || complete || !buf.isReadable()) {
+         buf.release();
+         return;
+      }
+      chunks.add(buf);
+      buffered += buf.readableBytes();
+      if (!suspended && buffered >= maxBufferedBytes) {
+         suspended = true;
+         channel.config().setAutoRead(false);
+      }
+      notifyAll();
+   }
+
+   /**
+    * Called on the event loop once the last chunk was offered.
+    */
+   synchronized void complete() {
+      complete = true;
+      notifyAll();
+   }
+
+   /**
+    * Called on the event loop if the connection is lost before the request body is complete.
+    *
+    * @param cause failure
+    */
+   synchronized void fail(Throwable cause) {
+      if (complete) return;
+      failure = cause;
+      complete = true;
+      notifyAll();
+   }
+
+   @Override
+   public synchronized int read() throws IOException {
+      ByteBuf head = awaitChunk();
+      if (head == null) return -1;
+      int b = head.readByte() & 0xff;
+      if (!head.isReadable()) {
+         chunks.poll().release();
+      }
+      consumed(1);
+      return b;
+   }
+
+   @Override
+   public synchronized int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) return 0;
+      ByteBuf head = awaitChunk();
+      if (head == null) return -1;
+      int n = Math.min(len, head.readableBytes());
+      head.readBytes(b, off, n);
+      if (!head.isReadable()) {
+         chunks.poll().release();
+      }
+      consumed(n);
+      return n;
+   }
+
+   @Override
+   public synchronized long skip(long n) throws IOException {
+      long skipped = 0;
+      while (skipped < n) {
+         ByteBuf head = awaitChunk();
+         if (head == null) break;
+         int count = (int) Math.min(n - skipped, head.readableBytes());
+         head.skipBytes(count);
+         if (!head.isReadable()) {
+            chunks.poll().release();
+         }
+         consumed(count);
+         skipped += count;
+      }
+      return skipped;
+   }
+
+   @Override
+   public synchronized int available() throws IOException {
+      if (closed) throw new IOException(Messages.MESSAGES.streamIsClosed());
+      return buffered;
+   }
+
+   /**
+    * Releases the queued chunks, chunks that arrive later are discarded.
+    */
+   @Override
+   public synchronized void close() {
+      if (closed) return;
+      closed = true;
+      ByteBuf buf;
+      while ((buf = chunks.poll()) != null) {
+         buf.release();
+      }
+      buffered = 0;
+      resume();
+      notifyAll();
+   }
+
+   private ByteBuf awaitChunk() throws IOException {
+      while (true) {
+         if (closed) throw new IOException(Messages.MESSAGES.streamIsClosed());
+         ByteBuf head = chunks.peek();
+         if (head != null) return head;
+         if (failure != null) throw new IOException(Messages.MESSAGES.requestBodyIncomplete(), failure);
+         if (complete) return null;
+         if (channel.eventLoop().inEventLoop()) {
+            // the chunks are delivered by the event loop, waiting for them here would never end
+            throw new IOException(Messages.MESSAGES.cannotWaitOnEventLoop());
+         }
+         try {
+            wait();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+   }
+
+   private void consumed(int n) {
+      buffered -= n;
+      if (suspended && buffered <= maxBufferedBytes / 2) {
+         resume();
+      }
+   }
+
+   private void resume() {
+      if (suspended) {
+         suspended = false;
+         channel.config().setAutoRead(true);
+      }
+   }
+}
@@ -1,11 +1,12 @@
 package org.jboss.resteasy.plugins.server.netty;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultHttpContent;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 
 import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
@@ -25,35 +26,58 @@ import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
  * ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
  * }
  * </pre>
+ * Chunks are allocated from the channel's allocator and handed to the pipeline without copying.  They are only
+ * written, the channel is flushed on {@link #flush()} or once {@code flushThreshold} bytes are pending.  While the
+ * channel is not writable the writing thread waits for the pending chunks to be written, unless it is the event loop.
+ *
  * @author tbussier
  *
  */
 public class ChunkOutputStream extends OutputStream {
-   final ByteBuf buffer;
+   public static final int DEFAULT_CHUNK_SIZE = 8192;
+   public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
+   ByteBuf buffer;
    final ChannelHandlerContext ctx;
    final NettyHttpResponse response;
+   final int chunksize;
+   final int flushThreshold;
+   int pending;
 
    ChunkOutputStream(final NettyHttpResponse response, final ChannelHandlerContext ctx, final int chunksize) {
+      this(response, ctx, chunksize, DEFAULT_FLUSH_THRESHOLD);
+   }
+
+   ChunkOutputStream(final NettyHttpResponse response, final ChannelHandlerContext ctx, final int chunksize, final int flushThreshold) {
       this.response = response;
       if (chunksize < 1) {
          throw new IllegalArgumentException(Messages.MESSAGES.chunkSizeMustBeAtLeastOne());
       }
-      this.buffer = Unpooled.buffer(0, chunksize);
+      this.chunksize = chunksize;
+      this.flushThreshold = flushThreshold;
       this.ctx = ctx;
    }
 
+   private ByteBuf buffer() {
+      if (buffer == null) {
+         buffer = ctx.alloc().buffer(chunksize, chunksize);
+      }
+      return buffer;
+   }
+
    @Override
    public void write(int b) throws IOException {
-      if (buffer.maxWritableBytes() < 1) {
-         flush();
+      if (buffer().maxWritableBytes() < 1) {
+         writeChunk();
       }
-      buffer.writeByte(b);
+      buffer().writeByte(b);
    }
 
    public void reset()
    {
+      // the pending chunk is dropped even when committed, don't leak it
+      release();
       if (response.isCommitted()) throw new IllegalStateException(Messages.MESSAGES.responseIsCommitted());
-      buffer.clear();
    }
 
    @Override
@@ -68,24 +92,76 @@ public class ChunkOutputStream extends OutputStream {
       int dataLengthLeftToWrite = len;
       int dataToWriteOffset = off;
       int spaceLeftInCurrentChunk;
-      while ((spaceLeftInCurrentChunk = buffer.maxWritableBytes()) < dataLengthLeftToWrite) {
+      while ((spaceLeftInCurrentChunk = buffer().maxWritableBytes()) < dataLengthLeftToWrite) {
          buffer.writeBytes(b, dataToWriteOffset, spaceLeftInCurrentChunk);
          dataToWriteOffset = dataToWriteOffset + spaceLeftInCurrentChunk;
          dataLengthLeftToWrite = dataLengthLeftToWrite - spaceLeftInCurrentChunk;
-         flush();
+         writeChunk();
       }
       if (dataLengthLeftToWrite > 0) {
          buffer.writeBytes(b, dataToWriteOffset, dataLengthLeftToWrite);
       }
    }
 
-   @Override
-   public void flush() throws IOException {
+   /**
+    * Hands the current chunk to the pipeline, the channel is only flushed when enough data is pending or it is not
+    * writable.
+    */
+   private void writeChunk() throws IOException {
+      ChannelFuture future = write();
+      if (future == null) return;
+      if (!ctx.channel().isWritable()) {
+         ctx.flush();
+         pending = 0;
+         awaitWritten(future);
+      } else if (pending >= flushThreshold) {
+         ctx.flush();
+         pending = 0;
+      }
+   }
+
+   private ChannelFuture write() {
+      if (buffer == null) return null;
       int readable = buffer.readableBytes();
-      if (readable == 0) return;
+      if (readable == 0) return null;
       if (!response.isCommitted()) response.prepareChunkStream();
-      ctx.writeAndFlush(new DefaultHttpContent(buffer.copy()));
-      buffer.clear();
+      ChannelFuture future = ctx.write(new DefaultHttpContent(buffer));
+      // the pipeline owns and releases the chunk
+      buffer = null;
+      pending += readable;
+      return future;
+   }
+
+   private void awaitWritten(ChannelFuture future) throws IOException {
+      // blocking the event loop would dead lock
+      if (ctx.executor().inEventLoop()) return;
+      try {
+         future.await();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException();
+      }
+      if (!future.isSuccess()) {
+         throw new IOException(future.cause());
+      }
+   }
+
+   void release() {
+      if (buffer != null) {
+         buffer.release();
+         buffer = null;
+      }
+   }
+
+   @Override
+   public void flush() throws IOException {
+      if (write() == null) {
+         // nothing written, don't keep a pooled buffer around
+         release();
+         return;
+      }
+      ctx.flush();
+      pending = 0;
       super.flush();
    }
 
@@ -54,6 +54,7 @@ public class NettyHttpRequest extends BaseHttpRequest
    private final ChannelHandlerContext ctx;
    private volatile boolean flushed;
    private ByteBuf content;
+   private ChunkInputStream contentStream;
 
    public NettyHttpRequest(final ChannelHandlerContext ctx, final ResteasyHttpHeaders httpHeaders, final ResteasyUriInfo uri, final String httpMethod, final SynchronousDispatcher dispatcher, final NettyHttpResponse response, final boolean is100ContinueExpected)
    {
@@ -185,10 +186,23 @@ public class NettyHttpRequest extends BaseHttpRequest
       this.inputStream = new ByteBufInputStream(content);
    }
 
+   /**
+    * Streaming request body, see {@link NettyJaxrsServer#setStreamingRequests(boolean)}.
+    *
+    * @param stream body stream fed by the event loop
+    */
+   public void setContentStream(ChunkInputStream stream) {
+      this.contentStream = stream;
+      this.inputStream = stream;
+   }
+
    public void releaseContentBuffer() {
       if (content != null) {
          this.content.release();
       }
+      if (contentStream != null) {
+         contentStream.close();
+      }
    }
 
    class NettyExecutionContext extends AbstractExecutionContext {
@@ -36,6 +36,8 @@ public class NettyHttpResponse implements HttpResponse
    private static final int EMPTY_CONTENT_LENGTH = 0;
    private int status = 200;
    private OutputStream os;
+   // the stream owning the pooled chunk, os may be replaced by interceptors
+   private final ChunkOutputStream chunkOutputStream;
    private MultivaluedMap<String, Object> outputHeaders;
    private final ChannelHandlerContext ctx;
    private boolean committed;
@@ -52,7 +54,8 @@ public class NettyHttpResponse implements HttpResponse
    {
       outputHeaders = new MultivaluedMapImpl<String, Object>();
       this.method = method;
-      os = (method == null || !method.equals(HttpMethod.HEAD)) ? new ChunkOutputStream(this, ctx, 1000) : null; //[RESTEASY-1627]
+      chunkOutputStream = (method == null || !method.equals(HttpMethod.HEAD)) ? new ChunkOutputStream(this, ctx, ChunkOutputStream.DEFAULT_CHUNK_SIZE) : null; //[RESTEASY-1627]
+      os = chunkOutputStream;
       this.ctx = ctx;
       this.keepAlive = keepAlive;
       this.providerFactory = providerFactory;
@@ -152,6 +155,8 @@ public class NettyHttpResponse implements HttpResponse
    @Override
    public void reset()
    {
+      // what was written but not sent is discarded, also when the response can no longer be reset
+      releaseChunk();
       if (committed)
       {
          throw new IllegalStateException(Messages.MESSAGES.alreadyCommitted());
@@ -195,8 +200,13 @@ public class NettyHttpResponse implements HttpResponse
    }
 
    public void finish() throws IOException {
-      if (os != null)
-         os.flush();
+      try {
+         if (os != null)
+            os.flush();
+      } finally {
+         // left over if the flush failed
+         releaseChunk();
+      }
       ChannelFuture future;
       if (isCommitted()) {
          // if committed this means the output stream was used.
@@ -211,6 +221,11 @@ public class NettyHttpResponse implements HttpResponse
 
    }
 
+   private void releaseChunk() {
+      if (chunkOutputStream != null)
+         chunkOutputStream.release();
+   }
+
    @Override
    public void flushBuffer() throws IOException {
       if(os != null)
@@ -7,21 +7,32 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
 import io.netty.handler.ssl.SniHandler;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.NettyRuntime;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 import org.jboss.resteasy.core.ResteasyDeploymentImpl;
 import org.jboss.resteasy.core.SynchronousDispatcher;
 import org.jboss.resteasy.plugins.server.embedded.EmbeddedJaxrsServer;
 import org.jboss.resteasy.plugins.server.embedded.SecurityDomain;
+import org.jboss.resteasy.plugins.server.netty.i18n.LogMessages;
+import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
 import org.jboss.resteasy.spi.ResteasyDeployment;
 
 import javax.net.ssl.SSLContext;
@@ -56,16 +67,24 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
    protected String root = "";
    protected SecurityDomain domain;
    private EventLoopGroup eventLoopGroup;
-   private EventLoopGroup eventExecutor;
+   private EventExecutorGroup eventExecutor;
    private int ioWorkerCount = Runtime.getRuntime().availableProcessors() * 2;
    private int executorThreadCount = 16;
+   private boolean invokeOnIoThreads = false;
    private SSLContext sslContext;
    private SniConfiguration sniConfiguration;
    private int maxRequestSize = 1024 * 1024 * 10;
    private int maxInitialLineLength = 4096;
    private int maxHeaderSize = 8192;
    private int maxChunkSize = 8192;
+   private boolean streamingRequests = false;
+   private int maxBufferedRequestBytes = 64 * 1024;
    private int backlog = 128;
+   private boolean nativeTransport = false;
+   private boolean reusePort = false;
+   private int acceptorCount = 1;
+   private int tcpFastOpen = 0;
+   private boolean tcpNoDelay = true;
    // default no idle timeout.
    private int idleTimeout = -1;
    private List<ChannelHandler> channelHandlers = Collections.emptyList();
@@ -100,8 +119,9 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
 
    /**
     * Set the number of threads to use for the EventExecutor. For more information please see the javadocs of {@link EventExecutor}.
-    * If you want to disable the use of the {@link EventExecutor} specify a value {@literal <=} 0.  This should only be done if you are 100% sure that you don't have any blocking
-    * code in there.
+    * A value {@literal <=} 0 uses Netty's default thread count, twice the number of available processors unless set by
+    * the {@code io.netty.eventLoopThreads} system property.  To not use an {@link EventExecutor} at all see
+    * {@link #setInvokeOnIoThreads(boolean)}.
     *
     * @param executorThreadCount thread count
     */
@@ -110,6 +130,18 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
       this.executorThreadCount = executorThreadCount;
    }
 
+   /**
+    * Invoke resources directly on the IO threads instead of handing requests to the EventExecutor, the executor
+    * thread count is then ignored.  This should only be done if you are 100% sure that you don't have any blocking
+    * code in there.  Default is false.
+    *
+    * @param invokeOnIoThreads true to invoke resources on the IO threads
+    */
+   public void setInvokeOnIoThreads(boolean invokeOnIoThreads)
+   {
+      this.invokeOnIoThreads = invokeOnIoThreads;
+   }
+
    /**
     * Set the max. request size in bytes. If this size is exceed we will send a "413 Request Entity Too Large" to the client.
     *
@@ -119,6 +151,26 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
       this.maxRequestSize = maxRequestSize;
    }
 
+   /**
+    * Hand requests to the resource method as soon as their headers are read.  The body is streamed to the
+    * resource method chunk by chunk instead of being aggregated in memory first, so {@link #setMaxRequestSize(int)}
+    * does not apply.  Reading from the connection is paused while the resource method does not keep up.
+    *
+    * @param streamingRequests true to stream request bodies, false by default
+    */
+   public void setStreamingRequests(boolean streamingRequests) {
+      this.streamingRequests = streamingRequests;
+   }
+
+   /**
+    * Set how many bytes of a streamed request body may be buffered before reading from the connection is paused.
+    *
+    * @param maxBufferedRequestBytes buffer limit per request. This is 64kb by default.
+    */
+   public void setMaxBufferedRequestBytes(int maxBufferedRequestBytes) {
+      this.maxBufferedRequestBytes = maxBufferedRequestBytes;
+   }
+
    public void setMaxInitialLineLength(int maxInitialLineLength) {
       this.maxInitialLineLength = maxInitialLineLength;
    }
@@ -152,6 +204,65 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
       this.backlog = backlog;
    }
 
+   /**
+    * Use the native epoll transport when it is available.  If the native library can't be loaded, e.g. when not
+    * running on Linux, the server falls back to NIO.
+    *
+    * @param nativeTransport true to use epoll, false by default
+    */
+   public void setNativeTransport(boolean nativeTransport)
+   {
+      this.nativeTransport = nativeTransport;
+   }
+
+   /**
+    * @return true if the server runs on the native epoll transport, only known once the server is started
+    */
+   public boolean isNativeTransport()
+   {
+      return eventLoopGroup instanceof EpollEventLoopGroup;
+   }
+
+   /**
+    * Bind the port with SO_REUSEPORT.  Together with {@link #setAcceptorCount(int)} the kernel spreads new
+    * connections across several accepting event loops.  Only applies to the native transport.
+    *
+    * @param reusePort true to set SO_REUSEPORT
+    */
+   public void setReusePort(boolean reusePort)
+   {
+      this.reusePort = reusePort;
+   }
+
+   /**
+    * Set the number of server channels bound to the port.  Values greater than one require
+    * {@link #setReusePort(boolean)} and the native transport, otherwise a single channel is bound.
+    *
+    * @param acceptorCount number of accepting event loops. This is 1 by default.
+    */
+   public void setAcceptorCount(int acceptorCount)
+   {
+      this.acceptorCount = acceptorCount;
+   }
+
+   /**
+    * Enable TCP_FASTOPEN on the server channel.  Only applies to the native transport.
+    *
+    * @param tcpFastOpen length of the pending fast open request queue, 0 to disable. This is 0 by default.
+    */
+   public void setTcpFastOpen(int tcpFastOpen)
+   {
+      this.tcpFastOpen = tcpFastOpen;
+   }
+
+   /**
+    * @param tcpNoDelay value of TCP_NODELAY on accepted connections. This is true by default.
+    */
+   public void setTcpNoDelay(boolean tcpNoDelay)
+   {
+      this.tcpNoDelay = tcpNoDelay;
+   }
+
    public int getIdleTimeout() {
       return idleTimeout;
    }
@@ -240,8 +351,19 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
    @SuppressWarnings("unchecked")
    @Override
    public void start() {
-      eventLoopGroup = new NioEventLoopGroup(ioWorkerCount);
-      eventExecutor = new NioEventLoopGroup(executorThreadCount);
+      boolean epoll = nativeTransport && Epoll.isAvailable();
+      if (nativeTransport && !epoll) {
+         LogMessages.LOGGER.warn(Messages.MESSAGES.nativeTransportUnavailable(), Epoll.unavailabilityCause());
+      }
+      eventLoopGroup = epoll ? new EpollEventLoopGroup(ioWorkerCount) : new NioEventLoopGroup(ioWorkerCount);
+      // handlers only need an executor, not a transport; without one requests are handled on the IO threads
+      if (invokeOnIoThreads) {
+         eventExecutor = null;
+      } else {
+         int threads = executorThreadCount > 0 ? executorThreadCount
+               : Math.max(1, Integer.getInteger("io.netty.eventLoopThreads", NettyRuntime.availableProcessors() * 2));
+         eventExecutor = new DefaultEventExecutorGroup(threads);
+      }
       deployment.start();
       // dynamically set the root path (the user can rewrite it by calling setRootResourcePath)
       if (deployment.getApplication() != null) {
@@ -253,11 +375,24 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
          }
       }
       // Configure the server.
+      Class<? extends ServerChannel> channelClass = epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
       bootstrap.group(eventLoopGroup)
-            .channel(NioServerSocketChannel.class)
+            .channel(channelClass)
             .childHandler(createChannelInitializer())
             .option(ChannelOption.SO_BACKLOG, backlog)
-            .childOption(ChannelOption.SO_KEEPALIVE, true);
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .childOption(ChannelOption.TCP_NODELAY, tcpNoDelay);
+
+      int acceptors = 1;
+      if (epoll) {
+         if (reusePort) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            acceptors = Math.max(1, acceptorCount);
+         }
+         if (tcpFastOpen > 0) {
+            bootstrap.option(EpollChannelOption.TCP_FASTOPEN, tcpFastOpen);
+         }
+      }
 
       for (Map.Entry<ChannelOption, Object> entry : channelOptions.entrySet()) {
          bootstrap.option(entry.getKey(), entry.getValue());
@@ -276,6 +411,11 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
 
       Channel channel = bootstrap.bind(socketAddress).syncUninterruptibly().channel();
       runtimePort = ((InetSocketAddress) channel.localAddress()).getPort();
+      // every bind registers a new server channel with the next event loop of the group
+      InetSocketAddress boundAddress = new InetSocketAddress(socketAddress.getAddress(), runtimePort);
+      for (int i = 1; i < acceptors; i++) {
+         bootstrap.bind(boundAddress).syncUninterruptibly();
+      }
    }
 
    private ChannelInitializer<SocketChannel> createChannelInitializer() {
@@ -313,9 +453,18 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
       channelPipeline.addLast(channelHandlers.toArray(new ChannelHandler[channelHandlers.size()]));
       channelPipeline.addLast(new HttpRequestDecoder(maxInitialLineLength, maxHeaderSize, maxChunkSize));
       channelPipeline.addLast(new HttpResponseEncoder());
-      channelPipeline.addLast(new HttpObjectAggregator(maxRequestSize));
+      if (streamingRequests) {
+         channelPipeline.addLast(new HttpServerExpectContinueHandler());
+      } else {
+         channelPipeline.addLast(new HttpObjectAggregator(maxRequestSize));
+      }
       channelPipeline.addLast(httpChannelHandlers.toArray(new ChannelHandler[httpChannelHandlers.size()]));
-      channelPipeline.addLast(new RestEasyHttpRequestDecoder(dispatcher.getDispatcher(), root, protocol));
+      RestEasyHttpRequestDecoder requestDecoder = new RestEasyHttpRequestDecoder(dispatcher.getDispatcher(), root, protocol);
+      if (streamingRequests) {
+         channelPipeline.addLast(new RestEasyHttpStreamingRequestDecoder(requestDecoder, maxBufferedRequestBytes));
+      } else {
+         channelPipeline.addLast(requestDecoder);
+      }
       channelPipeline.addLast(new RestEasyHttpResponseEncoder());
       if (idleTimeout > 0) {
          channelPipeline.addLast("idleStateHandler", new IdleStateHandler(0, 0, idleTimeout));
@@ -328,6 +477,8 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer
    {
       runtimePort = -1;
       eventLoopGroup.shutdownGracefully();
-      eventExecutor.shutdownGracefully();
+      if (eventExecutor != null) {
+         eventExecutor.shutdownGracefully();
+      }
    }
 }
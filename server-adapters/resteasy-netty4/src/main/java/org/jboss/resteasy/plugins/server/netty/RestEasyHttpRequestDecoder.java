@@ -8,6 +8,7 @@ import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpUtil;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.jboss.resteasy.core.SynchronousDispatcher;
@@ -54,6 +55,32 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
 
    @Override
    protected void decode(ChannelHandlerContext ctx, io.netty.handler.codec.http.HttpRequest request, List<Object> out) throws Exception
+   {
+      NettyHttpRequest nettyRequest = createNettyHttpRequest(ctx, request);
+      if (nettyRequest != null && request instanceof HttpContent)
+      {
+         HttpContent content = (HttpContent) request;
+         ByteBuf byteBuf = content.content();
+
+         // Does the request contain a body that will need to be retained
+         if(byteBuf.readableBytes() > 0) {
+            ByteBuf buf = byteBuf.retain();
+            nettyRequest.setContentBuffer(buf);
+         }
+
+         out.add(nettyRequest);
+      }
+   }
+
+   /**
+    * Creates the {@link NettyHttpRequest} from the request line and headers, the body is not touched.
+    *
+    * @param ctx channel handler context
+    * @param request netty request
+    * @return request, null if an error response was sent instead
+    * @throws IOException if the error response cannot be sent
+    */
+   protected NettyHttpRequest createNettyHttpRequest(ChannelHandlerContext ctx, io.netty.handler.codec.http.HttpRequest request) throws IOException
    {
       boolean keepAlive = HttpUtil.isKeepAlive(request);
       final NettyHttpResponse response = new NettyHttpResponse(ctx, keepAlive, dispatcher.getProviderFactory(), request.method());
@@ -70,7 +97,7 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
          {
             response.sendError(400);
          }
-         return;
+         return null;
       }
 
       final ResteasyHttpHeaders headers;
@@ -80,26 +107,14 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
          headers = NettyUtil.extractHttpHeaders(request);
 
          uriInfo = NettyUtil.extractUriInfo(request, servletMappingPrefix, proto);
-         NettyHttpRequest nettyRequest = new NettyHttpRequest(ctx, headers, uriInfo, request.method().name(), dispatcher, response, HttpUtil.is100ContinueExpected(request) );
-         if (request instanceof HttpContent)
-         {
-            HttpContent content = (HttpContent) request;
-            ByteBuf byteBuf = content.content();
-
-            // Does the request contain a body that will need to be retained
-            if(byteBuf.readableBytes() > 0) {
-               ByteBuf buf = byteBuf.retain();
-               nettyRequest.setContentBuffer(buf);
-            }
-
-            out.add(nettyRequest);
-         }
+         return new NettyHttpRequest(ctx, headers, uriInfo, request.method().name(), dispatcher, response, HttpUtil.is100ContinueExpected(request) );
       }
       catch (Exception e)
       {
          response.sendError(400);
          // made it warn so that people can filter this.
          LogMessages.LOGGER.warn(Messages.MESSAGES.failedToParseRequest(), e);
+         return null;
       }
    }
 }
@@ -0,0 +1,70 @@
+package org.jboss.resteasy.plugins.server.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
+
+/**
+ * Decodes a {@link HttpRequest} into a {@link NettyHttpRequest} as soon as its headers arrive.  The
+ * {@link HttpContent}s that follow are fed into the {@link ChunkInputStream} of the request instead of being
+ * aggregated first.
+ * <p>
+ * This implementation keeps per connection state and is not sharable.
+ */
+public class RestEasyHttpStreamingRequestDecoder extends MessageToMessageDecoder<HttpObject>
+{
+   private final RestEasyHttpRequestDecoder requestDecoder;
+   private final int maxBufferedBytes;
+   private ChunkInputStream current;
+
+   public RestEasyHttpStreamingRequestDecoder(final RestEasyHttpRequestDecoder requestDecoder, final int maxBufferedBytes)
+   {
+      this.requestDecoder = requestDecoder;
+      this.maxBufferedBytes = maxBufferedBytes;
+   }
+
+   @Override
+   protected void decode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception
+   {
+      if (msg instanceof HttpRequest)
+      {
+         NettyHttpRequest nettyRequest = requestDecoder.createNettyHttpRequest(ctx, (HttpRequest) msg);
+         // content of a request that could not be decoded is dropped
+         current = null;
+         if (nettyRequest != null)
+         {
+            current = new ChunkInputStream(ctx.channel(), maxBufferedBytes);
+            nettyRequest.setContentStream(current);
+            out.add(nettyRequest);
+         }
+      }
+      if (msg instanceof HttpContent && current != null)
+      {
+         current.offer(((HttpContent) msg).content().retain());
+         if (msg instanceof LastHttpContent)
+         {
+            current.complete();
+            current = null;
+         }
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception
+   {
+      if (current != null)
+      {
+         current.fail(new IOException(Messages.MESSAGES.connectionClosed()));
+         current = null;
+      }
+      super.channelInactive(ctx);
+   }
+}
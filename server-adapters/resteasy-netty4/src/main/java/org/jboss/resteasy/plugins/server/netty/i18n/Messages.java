@@ -22,18 +22,33 @@ public interface Messages
    @Message(id = BASE + 5, value = "Already suspended")
    String alreadySuspended();
 
+   @Message(id = BASE + 7, value = "Cannot wait for the request body on the event loop")
+   String cannotWaitOnEventLoop();
+
    @Message(id = BASE + 10, value = "Chunk size must be at least 1")
    String chunkSizeMustBeAtLeastOne();
 
+   @Message(id = BASE + 11, value = "Connection closed before the request body was complete")
+   String connectionClosed();
+
    @Message(id = BASE + 12, value = "Exception caught by handler")
    String exceptionCaught();
 
    @Message(id = BASE + 15, value = "Failed to parse request.")
    String failedToParseRequest();
 
+   @Message(id = BASE + 16, value = "Native transport is not available, using NIO")
+   String nativeTransportUnavailable();
+
+   @Message(id = BASE + 17, value = "Request body is incomplete")
+   String requestBodyIncomplete();
+
    @Message(id = BASE + 20, value = "response is committed")
    String responseIsCommitted();
 
+   @Message(id = BASE + 22, value = "Stream is closed")
+   String streamIsClosed();
+
    @Message(id = BASE + 25, value = "Unexpected")
    String unexpected();
 }
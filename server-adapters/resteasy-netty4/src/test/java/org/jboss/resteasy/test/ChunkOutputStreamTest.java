@@ -0,0 +1,130 @@
+package org.jboss.resteasy.test;
+
+import io.netty.buffer.AbstractByteBufAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+
+import org.jboss.resteasy.plugins.server.netty.ChunkOutputStream;
+import org.jboss.resteasy.plugins.server.netty.NettyHttpResponse;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Chunks allocated by {@link ChunkOutputStream} are released when the response fails.
+ */
+public class ChunkOutputStreamTest
+{
+   private final List<ByteBuf> allocated = new CopyOnWriteArrayList<ByteBuf>();
+   private EmbeddedChannel channel;
+   private NettyHttpResponse response;
+
+   @Before
+   public void before()
+   {
+      channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+      channel.config().setAllocator(new AbstractByteBufAllocator(false)
+      {
+         @Override
+         protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity)
+         {
+            ByteBuf buf = Unpooled.buffer(initialCapacity, maxCapacity);
+            allocated.add(buf);
+            return buf;
+         }
+
+         @Override
+         protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity)
+         {
+            ByteBuf buf = Unpooled.directBuffer(initialCapacity, maxCapacity);
+            allocated.add(buf);
+            return buf;
+         }
+
+         @Override
+         public boolean isDirectBufferPooled()
+         {
+            return false;
+         }
+      });
+      ChannelHandlerContext ctx = channel.pipeline().firstContext();
+      response = new NettyHttpResponse(ctx, true, ResteasyProviderFactory.getInstance());
+   }
+
+   @After
+   public void after()
+   {
+      channel.finishAndReleaseAll();
+   }
+
+   @Test
+   public void testResetAfterCommit() throws Exception
+   {
+      OutputStream out = response.getOutputStream();
+      // the first chunk commits the response, the rest stays in the next chunk
+      out.write(new byte[ChunkOutputStream.DEFAULT_CHUNK_SIZE + 100]);
+      Assert.assertTrue("Response was not committed", response.isCommitted());
+      try
+      {
+         response.reset();
+         Assert.fail("Committed response was reset");
+      }
+      catch (IllegalStateException expected)
+      {
+      }
+      assertReleased();
+   }
+
+   @Test
+   public void testFinishWithFailingFlush() throws Exception
+   {
+      OutputStream out = response.getOutputStream();
+      out.write(new byte[100]);
+      // an interceptor stream that fails before it flushes the chunk
+      response.setOutputStream(new FilterOutputStream(out)
+      {
+         @Override
+         public void flush() throws IOException
+         {
+            throw new IOException("flush failed");
+         }
+      });
+      try
+      {
+         response.finish();
+         Assert.fail("Flush did not fail");
+      }
+      catch (IOException expected)
+      {
+      }
+      assertReleased();
+   }
+
+   private void assertReleased()
+   {
+      // chunks handed to the pipeline are released once written
+      channel.flush();
+      Object msg;
+      while ((msg = channel.readOutbound()) != null)
+      {
+         ReferenceCountUtil.release(msg);
+      }
+      Assert.assertFalse("No chunk was allocated", allocated.isEmpty());
+      for (ByteBuf buf : allocated)
+      {
+         Assert.assertEquals("Chunk was not released", 0, buf.refCnt());
+      }
+   }
+}
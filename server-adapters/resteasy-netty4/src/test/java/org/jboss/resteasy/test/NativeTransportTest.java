@@ -0,0 +1,72 @@
+package org.jboss.resteasy.test;
+
+import io.netty.channel.epoll.Epoll;
+import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+/**
+ * The server runs on epoll when it is available and falls back to NIO otherwise.
+ */
+public class NativeTransportTest
+{
+   static NettyJaxrsServer netty;
+   static Client client;
+
+   @Path("/")
+   public static class Resource
+   {
+      @GET
+      @Path("hello")
+      public String hello()
+      {
+         return "hello";
+      }
+   }
+
+   @BeforeClass
+   public static void setup() throws Exception
+   {
+      netty = new NettyJaxrsServer();
+      ResteasyDeployment deployment = new ResteasyDeploymentImpl();
+      netty.setDeployment(deployment);
+      netty.setPort(TestPortProvider.getPort());
+      netty.setRootResourcePath("");
+      netty.setSecurityDomain(null);
+      netty.setNativeTransport(true);
+      netty.setReusePort(true);
+      netty.setAcceptorCount(2);
+      netty.setTcpFastOpen(16);
+      netty.start();
+      deployment.getRegistry().addPerRequestResource(Resource.class);
+      client = ClientBuilder.newClient();
+   }
+
+   @AfterClass
+   public static void end() throws Exception
+   {
+      client.close();
+      netty.stop();
+   }
+
+   @Test
+   public void testTransport() throws Exception
+   {
+      Assert.assertEquals(Epoll.isAvailable(), netty.isNativeTransport());
+      for (int i = 0; i < 4; i++)
+      {
+         Assert.assertEquals("hello", client.target(generateURL("/hello")).request().get(String.class));
+      }
+   }
+}
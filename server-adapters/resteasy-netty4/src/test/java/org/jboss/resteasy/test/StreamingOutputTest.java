@@ -76,8 +76,29 @@ public class StreamingOutputTest
          };
       }
 
+      @GET
+      @Path("large")
+      @Produces(MediaType.APPLICATION_OCTET_STREAM)
+      public StreamingOutput large() {
+         return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+               // odd sized writes spread over many chunks and over the flush threshold
+               byte[] data = largeBody();
+               for (int written = 0; written < data.length; written += 1000) {
+                  output.write(data, written, Math.min(1000, data.length - written));
+               }
+            }
+         };
+      }
+   }
 
-
+   static byte[] largeBody() {
+      byte[] data = new byte[1024 * 1024];
+      for (int i = 0; i < data.length; i++) {
+         data[i] = (byte) (i % 251);
+      }
+      return data;
    }
 
    @BeforeClass
@@ -139,4 +160,12 @@ public class StreamingOutputTest
               "\n"));
       Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
    }
+
+   @Test
+   public void testMultiChunkStreamingOutput() throws Exception
+   {
+      Response response = client.target(BASE_URI).path("test/large").request().get();
+      Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+      Assert.assertArrayEquals("Response body was corrupted", largeBody(), response.readEntity(byte[].class));
+   }
 }
@@ -0,0 +1,144 @@
+package org.jboss.resteasy.test;
+
+import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+/**
+ * Request bodies larger than the max request size and the streaming buffer are passed through when
+ * streaming requests are enabled.
+ */
+public class StreamingRequestTest
+{
+   private static final int BODY_SIZE = 1024 * 1024;
+
+   static NettyJaxrsServer netty;
+   static Client client;
+
+   @Path("/")
+   public static class Resource
+   {
+      @POST
+      @Path("count")
+      @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+      public String count(InputStream in) throws IOException
+      {
+         byte[] buf = new byte[8192];
+         long count = 0;
+         int n;
+         while ((n = in.read(buf)) != -1)
+         {
+            count += n;
+         }
+         return Long.toString(count);
+      }
+
+      @POST
+      @Path("ignore")
+      @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+      public String ignore()
+      {
+         return "ignored";
+      }
+
+      @GET
+      @Path("hello")
+      public String hello()
+      {
+         return "hello";
+      }
+   }
+
+   @BeforeClass
+   public static void setup() throws Exception
+   {
+      netty = new NettyJaxrsServer();
+      ResteasyDeployment deployment = new ResteasyDeploymentImpl();
+      netty.setDeployment(deployment);
+      netty.setPort(TestPortProvider.getPort());
+      netty.setRootResourcePath("");
+      netty.setSecurityDomain(null);
+      netty.setStreamingRequests(true);
+      netty.setMaxRequestSize(1024);
+      netty.setMaxBufferedRequestBytes(16 * 1024);
+      netty.start();
+      deployment.getRegistry().addPerRequestResource(Resource.class);
+      client = ClientBuilder.newClient();
+   }
+
+   @AfterClass
+   public static void end() throws Exception
+   {
+      client.close();
+      netty.stop();
+   }
+
+   @Test
+   public void testLargeBody() throws Exception
+   {
+      Response response = client.target(generateURL("/count")).request()
+            .post(Entity.entity(new byte[BODY_SIZE], MediaType.APPLICATION_OCTET_STREAM));
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals(Integer.toString(BODY_SIZE), response.readEntity(String.class));
+   }
+
+   @Test
+   public void testUnreadBodyAndNextRequest() throws Exception
+   {
+      Response response = client.target(generateURL("/ignore")).request()
+            .post(Entity.entity(new byte[BODY_SIZE], MediaType.APPLICATION_OCTET_STREAM));
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals("ignored", response.readEntity(String.class));
+
+      response = client.target(generateURL("/hello")).request().get();
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals("hello", response.readEntity(String.class));
+   }
+
+   @Test
+   public void testReadOnEventLoop() throws Exception
+   {
+      // without an executor the resource method runs on the event loop and must not block waiting for chunks
+      NettyJaxrsServer server = new NettyJaxrsServer();
+      ResteasyDeployment deployment = new ResteasyDeploymentImpl();
+      server.setDeployment(deployment);
+      server.setPort(0);
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.setStreamingRequests(true);
+      server.setInvokeOnIoThreads(true);
+      server.setMaxRequestSize(1024);
+      server.start();
+      try
+      {
+         deployment.getRegistry().addPerRequestResource(Resource.class);
+         Response response = client.target("http://localhost:" + server.getPort() + "/count").request()
+               .post(Entity.entity(new byte[BODY_SIZE], MediaType.APPLICATION_OCTET_STREAM));
+         Assert.assertEquals(500, response.getStatus());
+         response.close();
+      }
+      finally
+      {
+         server.stop();
+      }
+   }
+}
@@ -1,6 +1,7 @@
 package org.jboss.resteasy.plugins.server.undertow;
 
 import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
 import io.undertow.server.handlers.PathHandler;
 import io.undertow.server.handlers.resource.ResourceHandler;
 import io.undertow.servlet.api.DeploymentInfo;
@@ -37,6 +38,14 @@ public class UndertowJaxrsServer
    final PathHandler root = new PathHandler();
    final ServletContainer container = ServletContainer.Factory.newInstance();
    protected Undertow server;
+   protected int port = -1;
+   protected String hostname = "localhost";
+   protected int ioThreads = -1;
+   protected int workerThreads = -1;
+   protected int bufferSize = -1;
+   protected Boolean directBuffers;
+   protected boolean http2;
+   protected long maxEntitySize = -1;
 
    /**
     * Creates a web deployment for your ResteasyDeployent so you can set up things like security constraints
@@ -276,23 +285,141 @@ public class UndertowJaxrsServer
       return this;
    }
 
+   /**
+    * Port of the listener created by start().  Default value is PortProvider.getPort()
+    *
+    * @param port
+    * @return
+    */
+   public UndertowJaxrsServer setPort(int port)
+   {
+      this.port = port;
+      return this;
+   }
+
+   /**
+    * Host of the listener created by start().  Default value is "localhost"
+    *
+    * @param hostname
+    * @return
+    */
+   public UndertowJaxrsServer setHostname(String hostname)
+   {
+      this.hostname = hostname;
+      return this;
+   }
+
+   /**
+    * Number of IO threads, which accept connections and read requests.  Undertow defaults to one per core.
+    *
+    * @param ioThreads
+    * @return
+    */
+   public UndertowJaxrsServer setIoThreads(int ioThreads)
+   {
+      this.ioThreads = ioThreads;
+      return this;
+   }
+
+   /**
+    * Number of worker threads, on which the servlet, and so the resource methods, run.  Undertow defaults to 8 per
+    * IO thread.
+    *
+    * @param workerThreads
+    * @return
+    */
+   public UndertowJaxrsServer setWorkerThreads(int workerThreads)
+   {
+      this.workerThreads = workerThreads;
+      return this;
+   }
+
+   /**
+    * Size of the pooled buffers used for reading and writing.  Undertow sizes them from the max memory of the JVM,
+    * 16kb when it has more than 128mb.
+    *
+    * @param bufferSize
+    * @return
+    */
+   public UndertowJaxrsServer setBufferSize(int bufferSize)
+   {
+      this.bufferSize = bufferSize;
+      return this;
+   }
+
+   /**
+    * Whether the pooled buffers are allocated off heap.  Undertow uses direct buffers when the JVM has more than
+    * 64mb.
+    *
+    * @param directBuffers
+    * @return
+    */
+   public UndertowJaxrsServer setDirectBuffers(boolean directBuffers)
+   {
+      this.directBuffers = directBuffers;
+      return this;
+   }
+
+   /**
+    * Sets UndertowOptions.ENABLE_HTTP2.  Plain HTTP listeners then accept the h2c upgrade, and HTTPS listeners
+    * negotiate h2 with ALPN.  Disabled by default.
+    *
+    * @param http2
+    * @return
+    */
+   public UndertowJaxrsServer setHttp2(boolean http2)
+   {
+      this.http2 = http2;
+      return this;
+   }
+
+   /**
+    * Sets UndertowOptions.MAX_ENTITY_SIZE, the max size in bytes of request bodies.  Default value is -1, no limit.
+    *
+    * @param maxEntitySize
+    * @return
+    */
+   public UndertowJaxrsServer setMaxEntitySize(long maxEntitySize)
+   {
+      this.maxEntitySize = maxEntitySize;
+      return this;
+   }
+
+   /**
+    * Starts the server with your own builder.  The settings of this class are applied to it, except for port and
+    * hostname, as the builder brings its own listeners.
+    *
+    * @param builder
+    * @return
+    */
    public UndertowJaxrsServer start(Undertow.Builder builder)
    {
-      server = builder.setHandler(root).build();
+      server = configure(builder).setHandler(root).build();
       server.start();
       return this;
    }
 
    public UndertowJaxrsServer start()
    {
-      server = Undertow.builder()
-              .addHttpListener(PortProvider.getPort(), "localhost")
+      server = configure(Undertow.builder())
+              .addHttpListener(port > -1 ? port : PortProvider.getPort(), hostname)
               .setHandler(root)
               .build();
       server.start();
       return this;
    }
 
+   protected Undertow.Builder configure(Undertow.Builder builder)
+   {
+      if (ioThreads > 0) builder.setIoThreads(ioThreads);
+      if (workerThreads > 0) builder.setWorkerThreads(workerThreads);
+      if (bufferSize > 0) builder.setBufferSize(bufferSize);
+      if (directBuffers != null) builder.setDirectBuffers(directBuffers);
+      if (http2) builder.setServerOption(UndertowOptions.ENABLE_HTTP2, true);
+      if (maxEntitySize > -1) builder.setServerOption(UndertowOptions.MAX_ENTITY_SIZE, maxEntitySize);
+      return builder;
+   }
+
    public void stop()
    {
       server.stop();
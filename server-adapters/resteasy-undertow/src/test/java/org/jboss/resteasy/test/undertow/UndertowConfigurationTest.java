@@ -0,0 +1,126 @@
+package org.jboss.resteasy.test.undertow;
+
+import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Server settings of UndertowJaxrsServer: threads, buffers, HTTP/2 and max entity size.
+ */
+public class UndertowConfigurationTest
+{
+   private static UndertowJaxrsServer server;
+
+   @Path("/test")
+   public static class Resource
+   {
+      @GET
+      @Produces("text/plain")
+      public String get()
+      {
+         return "hello world";
+      }
+
+      @POST
+      @Consumes("text/plain")
+      @Produces("text/plain")
+      public String post(String body)
+      {
+         return body;
+      }
+   }
+
+   public static class MyApp extends Application
+   {
+      @Override
+      public Set<Class<?>> getClasses()
+      {
+         return Collections.<Class<?>>singleton(Resource.class);
+      }
+   }
+
+   @BeforeClass
+   public static void init() throws Exception
+   {
+      server = new UndertowJaxrsServer()
+            .setIoThreads(2)
+            .setWorkerThreads(4)
+            .setBufferSize(8192)
+            .setDirectBuffers(true)
+            .setHttp2(true)
+            .setMaxEntitySize(1000)
+            .deploy(MyApp.class)
+            .start();
+   }
+
+   @AfterClass
+   public static void stop() throws Exception
+   {
+      if (server != null)
+      {
+         server.stop();
+      }
+   }
+
+   @Test
+   public void testMaxEntitySize() throws Exception
+   {
+      Client client = ClientBuilder.newClient();
+      try
+      {
+         Assert.assertEquals("hello world", client.target(TestPortProvider.generateURL("/test")).request().get(String.class));
+         char[] body = new char[1000];
+         Arrays.fill(body, 'x');
+         Assert.assertEquals(new String(body), client.target(TestPortProvider.generateURL("/test")).request()
+               .post(Entity.text(new String(body)), String.class));
+         Response response = client.target(TestPortProvider.generateURL("/test")).request()
+               .post(Entity.text(new String(body) + "x"));
+         Assert.assertEquals(4, response.getStatus() / 100);
+         response.close();
+      }
+      finally
+      {
+         client.close();
+      }
+   }
+
+   @Test
+   public void testH2cUpgrade() throws Exception
+   {
+      try (Socket socket = new Socket(TestPortProvider.getHost(), TestPortProvider.getPort()))
+      {
+         OutputStream out = socket.getOutputStream();
+         out.write(("GET /test HTTP/1.1\r\n"
+               + "Host: " + TestPortProvider.getHost() + "\r\n"
+               + "Connection: Upgrade, HTTP2-Settings\r\n"
+               + "Upgrade: h2c\r\n"
+               + "HTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n"
+               + "\r\n").getBytes(StandardCharsets.US_ASCII));
+         out.flush();
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+         Assert.assertEquals("HTTP/1.1 101 Switching Protocols", in.readLine());
+      }
+   }
+}
@@ -0,0 +1,272 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import org.jboss.resteasy.plugins.server.vertx.i18n.Messages;
+
+/**
+ * Request body stream fed with the chunks of {@link HttpServerRequest#handler} while the resource method is already
+ * reading it.
+ * <p>
+ * At most about {@code maxBufferedBytes} are queued: when the queue grows over that limit the request is paused, and
+ * resumed once the reader has drained half of it.  Reads that would have to wait for a chunk fail when made on an
+ * event loop, which is the thread that delivers the chunks.  Readers that must not block use
+ * {@link #setDataListener(Runnable)} instead, and only read what {@link #available()} reports.
+ *
+ * @see VertxJaxrsServer#setStreamingRequests(boolean)
+ */
+public class ChunkInputStream extends InputStream
+{
+   private final HttpServerRequest request;
+   private final Context context;
+   private final int maxBufferedBytes;
+   private final ArrayDeque<Buffer> chunks = new ArrayDeque<Buffer>();
+   private int position;
+   private int buffered;
+   private boolean complete;
+   private boolean closed;
+   private boolean paused;
+   private boolean unbounded;
+   private Throwable failure;
+   private Runnable dataListener;
+
+   ChunkInputStream(final HttpServerRequest request, final Context context, final int maxBufferedBytes)
+   {
+      this.request = request;
+      this.context = context;
+      this.maxBufferedBytes = maxBufferedBytes;
+   }
+
+   /**
+    * Called on the event loop for every chunk of the request body.
+    *
+    * @param chunk chunk
+    */
+   void offer(Buffer chunk)
+   {
+      Runnable listener;
+      synchronized (this)
+      {
+         if (closed || complete || chunk.length() == 0) return;
+         chunks.add(chunk);
+         buffered += chunk.length();
+         if (!paused && !unbounded && buffered >= maxBufferedBytes)
+         {
+            paused = true;
+            request.pause();
+         }
+         notifyAll();
+         listener = dataListener;
+      }
+      if (listener != null) listener.run();
+   }
+
+   /**
+    * Called on the event loop once the request body is complete.
+    */
+   void complete()
+   {
+      Runnable listener;
+      synchronized (this)
+      {
+         complete = true;
+         notifyAll();
+         listener = dataListener;
+      }
+      if (listener != null) listener.run();
+   }
+
+   /**
+    * Called on the event loop if the request body cannot be completed.
+    *
+    * @param cause failure
+    */
+   void fail(Throwable cause)
+   {
+      Runnable listener;
+      synchronized (this)
+      {
+         if (complete) return;
+         failure = cause;
+         complete = true;
+         notifyAll();
+         listener = dataListener;
+      }
+      if (listener != null) listener.run();
+   }
+
+   /**
+    * Sets a listener called on the event loop whenever a chunk was queued or the body is complete, and right away
+    * if either already happened.  From the listener, {@link #available()} bytes can be read without blocking, and
+    * once {@link #isFinished()} returns true the rest of the body is queued.
+    *
+    * @param listener listener, null to remove it
+    */
+   public void setDataListener(Runnable listener)
+   {
+      boolean ready;
+      synchronized (this)
+      {
+         dataListener = listener;
+         ready = !chunks.isEmpty() || complete;
+      }
+      if (listener != null && ready)
+      {
+         context.runOnContext(v -> listener.run());
+      }
+   }
+
+   /**
+    * Queues the rest of the body without limit and calls the callback on the event loop once it is complete, so that
+    * it can then be read without blocking.  The size of the body is still limited by
+    * {@link VertxJaxrsServer#setMaxBodySize(long)}.
+    *
+    * @param callback callback
+    */
+   public void whenComplete(Runnable callback)
+   {
+      synchronized (this)
+      {
+         unbounded = true;
+         resumeRequest();
+      }
+      setDataListener(() -> {
+         if (isFinished())
+         {
+            setDataListener(null);
+            callback.run();
+         }
+      });
+   }
+
+   /**
+    * @return if the body is complete, or failed, and all of it is queued
+    */
+   public synchronized boolean isFinished()
+   {
+      return complete;
+   }
+
+   @Override
+   public synchronized int read() throws IOException
+   {
+      Buffer head = awaitChunk();
+      if (head == null) return -1;
+      int b = head.getByte(position) & 0xff;
+      consumed(1);
+      return b;
+   }
+
+   @Override
+   public synchronized int read(byte[] b, int off, int len) throws IOException
+   {
+      if (len == 0) return 0;
+      Buffer head = awaitChunk();
+      if (head == null) return -1;
+      int n = Math.min(len, head.length() - position);
+      head.getBytes(position, position + n, b, off);
+      consumed(n);
+      return n;
+   }
+
+   @Override
+   public synchronized long skip(long n) throws IOException
+   {
+      long skipped = 0;
+      while (skipped < n)
+      {
+         Buffer head = awaitChunk();
+         if (head == null) break;
+         int count = (int) Math.min(n - skipped, head.length() - position);
+         consumed(count);
+         skipped += count;
+      }
+      return skipped;
+   }
+
+   @Override
+   public synchronized int available() throws IOException
+   {
+      if (closed) throw new IOException(Messages.MESSAGES.streamIsClosed());
+      return buffered;
+   }
+
+   /**
+    * Drops the queued chunks, chunks that arrive later are discarded.
+    */
+   @Override
+   public synchronized void close()
+   {
+      if (closed) return;
+      closed = true;
+      chunks.clear();
+      position = 0;
+      buffered = 0;
+      dataListener = null;
+      resumeRequest();
+      notifyAll();
+   }
+
+   private Buffer awaitChunk() throws IOException
+   {
+      while (true)
+      {
+         if (closed) throw new IOException(Messages.MESSAGES.streamIsClosed());
+         Buffer head = chunks.peek();
+         if (head != null) return head;
+         if (failure != null) throw new IOException(Messages.MESSAGES.requestBodyIncomplete(), failure);
+         if (complete) return null;
+         if (Context.isOnEventLoopThread())
+         {
+            // the chunks are delivered by the event loop, waiting for them here would never end
+            throw new IOException(Messages.MESSAGES.cannotWaitOnEventLoop());
+         }
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+   }
+
+   private void consumed(int n)
+   {
+      position += n;
+      if (position == chunks.peek().length())
+      {
+         chunks.poll();
+         position = 0;
+      }
+      buffered -= n;
+      if (paused && buffered <= maxBufferedBytes / 2)
+      {
+         resumeRequest();
+      }
+   }
+
+   private void resumeRequest()
+   {
+      if (paused)
+      {
+         paused = false;
+         if (Context.isOnEventLoopThread())
+         {
+            request.resume();
+         }
+         else
+         {
+            context.runOnContext(v -> request.resume());
+         }
+      }
+   }
+}
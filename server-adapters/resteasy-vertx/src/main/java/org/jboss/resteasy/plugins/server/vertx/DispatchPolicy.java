@@ -0,0 +1,24 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+/**
+ * Thread on which {@link VertxJaxrsServer} invokes resource methods.  Requests are always matched on the event loop,
+ * the policy decides where the request filters and the resource method then run.
+ */
+public enum DispatchPolicy
+{
+   /**
+    * Everything runs on the event loop.  Resource methods must never block.
+    */
+   EVENT_LOOP,
+
+   /**
+    * Every resource method runs on the worker pool.
+    */
+   WORKER,
+
+   /**
+    * Asynchronous resource methods (returning a CompletionStage or a Publisher, taking a suspended AsyncResponse...)
+    * and those annotated with {@link NonBlocking} run on the event loop, all the others on the worker pool.
+    */
+   BY_METHOD
+}
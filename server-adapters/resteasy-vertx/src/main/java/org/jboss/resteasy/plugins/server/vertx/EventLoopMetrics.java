@@ -0,0 +1,88 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time that {@link VertxRequestHandler} keeps the event loop busy per request, from the complete body to the end of
+ * the synchronous part of the dispatch.  Requests over the threshold are counted as violations: they delay every
+ * other connection of their event loop, and are usually blocking resource methods that should run on the worker pool,
+ * see {@link DispatchPolicy}.
+ */
+public class EventLoopMetrics
+{
+   public static final long DEFAULT_THRESHOLD_MILLIS = 10;
+
+   protected final long thresholdNanos;
+   protected final AtomicLong dispatches = new AtomicLong();
+   protected final AtomicLong blockedNanos = new AtomicLong();
+   protected final AtomicLong maxBlockedNanos = new AtomicLong();
+   protected final AtomicLong violations = new AtomicLong();
+
+   public EventLoopMetrics()
+   {
+      this(DEFAULT_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * @param threshold event loop time above which a request counts as a violation
+    * @param unit unit of the threshold
+    */
+   public EventLoopMetrics(final long threshold, final TimeUnit unit)
+   {
+      this.thresholdNanos = unit.toNanos(threshold);
+   }
+
+   /**
+    * @param nanos time a request kept the event loop busy
+    */
+   public void record(long nanos)
+   {
+      dispatches.incrementAndGet();
+      blockedNanos.addAndGet(nanos);
+      maxBlockedNanos.accumulateAndGet(nanos, Math::max);
+      if (nanos > thresholdNanos)
+      {
+         violations.incrementAndGet();
+      }
+   }
+
+   public long getThreshold(TimeUnit unit)
+   {
+      return unit.convert(thresholdNanos, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @return number of requests dispatched on the event loop
+    */
+   public long getDispatches()
+   {
+      return dispatches.get();
+   }
+
+   /**
+    * @param unit unit of the result
+    * @return total time the event loops were kept busy by requests
+    */
+   public long getBlockedTime(TimeUnit unit)
+   {
+      return unit.convert(blockedNanos.get(), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @param unit unit of the result
+    * @return longest time a single request kept its event loop busy
+    */
+   public long getMaxBlockedTime(TimeUnit unit)
+   {
+      return unit.convert(maxBlockedNanos.get(), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @return number of requests that kept their event loop busy for longer than the threshold
+    */
+   public long getViolations()
+   {
+      return violations.get();
+   }
+}
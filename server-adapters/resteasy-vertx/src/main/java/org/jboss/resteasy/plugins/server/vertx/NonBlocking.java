@@ -0,0 +1,16 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method, or all the methods of a resource class, as never blocking, so that
+ * {@link DispatchPolicy#BY_METHOD} keeps them on the event loop.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NonBlocking
+{
+}
@@ -5,6 +5,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -41,7 +42,15 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer
    protected VertxResteasyDeployment deployment = new VertxResteasyDeployment();
    protected String root = "";
    protected SecurityDomain domain;
+   protected DispatchPolicy dispatchPolicy = DispatchPolicy.EVENT_LOOP;
+   protected Executor workerExecutor;
+   protected EventLoopMetrics eventLoopMetrics = new EventLoopMetrics();
+   protected boolean streamingRequests;
+   protected int maxBufferedRequestBytes = 64 * 1024;
+   protected long maxBodySize = -1;
    private String deploymentID;
+   // deployment the WorkerDispatchFilter was registered on, so that a restart does not register it twice
+   private ResteasyDeployment dispatchFilterDeployment;
    // default no idle timeout.
 
    public String getHostname()
@@ -96,6 +105,102 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer
       return serverOptions;
    }
 
+   public DispatchPolicy getDispatchPolicy()
+   {
+      return dispatchPolicy;
+   }
+
+   /**
+    * Set where resource methods are invoked, by default on the event loop.  Must be set before {@link #start()}.
+    *
+    * @param dispatchPolicy the {@link DispatchPolicy}.
+    */
+   public void setDispatchPolicy(DispatchPolicy dispatchPolicy)
+   {
+      this.dispatchPolicy = dispatchPolicy;
+   }
+
+   public Executor getWorkerExecutor()
+   {
+      return workerExecutor;
+   }
+
+   /**
+    * Set the executor of the resource methods that the {@link DispatchPolicy} moves off the event loop.  By default
+    * they run on the Vert.x worker pool, whose size is {@link VertxOptions#setWorkerPoolSize(int)}.  Requests that
+    * the executor rejects get a 503 response.
+    *
+    * @param workerExecutor the worker executor.
+    */
+   public void setWorkerExecutor(Executor workerExecutor)
+   {
+      this.workerExecutor = workerExecutor;
+   }
+
+   /**
+    * @return time spent by the requests on the event loops
+    */
+   public EventLoopMetrics getEventLoopMetrics()
+   {
+      return eventLoopMetrics;
+   }
+
+   /**
+    * Replace the {@link EventLoopMetrics}, for instance to change the threshold of the violations.  Must be set
+    * before {@link #start()}.
+    *
+    * @param eventLoopMetrics the event loop metrics.
+    */
+   public void setEventLoopMetrics(EventLoopMetrics eventLoopMetrics)
+   {
+      this.eventLoopMetrics = eventLoopMetrics;
+   }
+
+   public boolean isStreamingRequests()
+   {
+      return streamingRequests;
+   }
+
+   /**
+    * Dispatch requests as soon as their headers are read, instead of once their whole body is in memory.  The body
+    * is then read from a {@link ChunkInputStream}, and reading from the connection is paused while the resource method
+    * does not keep up.  Such a stream cannot be waited on from the event loop: with {@link DispatchPolicy#EVENT_LOOP},
+    * and for the methods that {@link DispatchPolicy#BY_METHOD} keeps on the event loop, the resource method is only
+    * invoked once the body is complete.
+    *
+    * @param streamingRequests true to stream request bodies, false by default
+    */
+   public void setStreamingRequests(boolean streamingRequests)
+   {
+      this.streamingRequests = streamingRequests;
+   }
+
+   /**
+    * Set how many bytes of a streamed request body may be buffered before reading from the connection is paused.
+    *
+    * @param maxBufferedRequestBytes buffer limit per request. This is 64kb by default.
+    */
+   public void setMaxBufferedRequestBytes(int maxBufferedRequestBytes)
+   {
+      this.maxBufferedRequestBytes = maxBufferedRequestBytes;
+   }
+
+   public long getMaxBodySize()
+   {
+      return maxBodySize;
+   }
+
+   /**
+    * Set the size limit of request bodies.  Requests whose Content-Length is over the limit get a 413 response
+    * before anything is read, others as soon as the limit is reached, and their connection is closed.
+    *
+    * @param maxBodySize max size in bytes, no limit if negative, which is the default
+    */
+   public void setMaxBodySize(long maxBodySize)
+   {
+      this.maxBodySize = maxBodySize;
+   }
+
    @Override
    public void setDeployment(ResteasyDeployment deployment)
    {
@@ -127,8 +232,14 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer
    {
       vertx = Vertx.vertx(vertxOptions);
       deployment.start();
+      if ((dispatchPolicy != DispatchPolicy.EVENT_LOOP || streamingRequests) && dispatchFilterDeployment != deployment)
+      {
+         WorkerDispatchFilter filter = new WorkerDispatchFilter(dispatchPolicy, workerExecutor, deployment.getProviderFactory());
+         deployment.getProviderFactory().register(filter, Integer.MIN_VALUE);
+         dispatchFilterDeployment = deployment;
+      }
       String key = UUID.randomUUID().toString();
-      deploymentMap.put(key, new Helper(root, serverOptions, deployment, domain));
+      deploymentMap.put(key, new Helper(this));
       // Configure the server.
       CompletableFuture<String> fut = new CompletableFuture<>();
       DeploymentOptions deploymentOptions = new DeploymentOptions()
@@ -188,18 +299,30 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer
       final HttpServerOptions serverOptions;
       final ResteasyDeployment deployment;
       final SecurityDomain domain;
+      final EventLoopMetrics eventLoopMetrics;
+      final boolean streamingRequests;
+      final int maxBufferedRequestBytes;
+      final long maxBodySize;
 
-      Helper(final String root, final HttpServerOptions serverOptions, final ResteasyDeployment deployment, final SecurityDomain domain)
+      Helper(final VertxJaxrsServer server)
       {
-         this.root = root;
-         this.serverOptions = serverOptions;
-         this.deployment = deployment;
-         this.domain = domain;
+         this.root = server.root;
+         this.serverOptions = server.serverOptions;
+         this.deployment = server.deployment;
+         this.domain = server.domain;
+         this.eventLoopMetrics = server.eventLoopMetrics;
+         this.streamingRequests = server.streamingRequests;
+         this.maxBufferedRequestBytes = server.maxBufferedRequestBytes;
+         this.maxBodySize = server.maxBodySize;
       }
 
       public Handler<HttpServerRequest> createHandler(Vertx vertx)
       {
-         return new VertxRequestHandler(vertx, deployment, root, domain);
+         VertxRequestHandler handler = new VertxRequestHandler(vertx, deployment, root, domain, eventLoopMetrics);
+         handler.setStreamingRequests(streamingRequests);
+         handler.setMaxBufferedRequestBytes(maxBufferedRequestBytes);
+         handler.setMaxBodySize(maxBodySize);
+         return handler;
       }
    }
 
@@ -213,7 +336,7 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer
       {
          Helper helper = deploymentMap.get(config().getString("helper"));
          server = vertx.createHttpServer(helper.serverOptions);
-         server.requestHandler(new VertxRequestHandler(vertx, helper.deployment, helper.root, helper.domain));
+         server.requestHandler(helper.createHandler(vertx));
          server.listen(ar -> {
             if (ar.succeeded())
             {
@@ -4,6 +4,8 @@ import io.netty.buffer.ByteBufInputStream;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import org.jboss.resteasy.core.SynchronousDispatcher;
@@ -16,6 +18,7 @@ import org.jboss.resteasy.spi.ResteasyDeployment;
 import org.jboss.resteasy.specimpl.ResteasyUriInfo;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -26,12 +29,26 @@ public class VertxRequestHandler implements Handler<HttpServerRequest>
    private final Vertx vertx;
    protected final RequestDispatcher dispatcher;
    private final String servletMappingPrefix;
+   private final EventLoopMetrics eventLoopMetrics;
+   private boolean streamingRequests;
+   private int maxBufferedRequestBytes = 64 * 1024;
+   private long maxBodySize = -1;
 
-   public VertxRequestHandler(final Vertx vertx, final ResteasyDeployment deployment, final String servletMappingPrefix, final SecurityDomain domain)
+   /**
+    * @param eventLoopMetrics receives the time each request spends on the event loop, may be null
+    */
+   public VertxRequestHandler(final Vertx vertx, final ResteasyDeployment deployment, final String servletMappingPrefix, final SecurityDomain domain,
+                              final EventLoopMetrics eventLoopMetrics)
    {
       this.vertx = vertx;
       this.dispatcher = new RequestDispatcher((SynchronousDispatcher) deployment.getDispatcher(), deployment.getProviderFactory(), domain);
       this.servletMappingPrefix = servletMappingPrefix;
+      this.eventLoopMetrics = eventLoopMetrics;
+   }
+
+   public VertxRequestHandler(final Vertx vertx, final ResteasyDeployment deployment, final String servletMappingPrefix, final SecurityDomain domain)
+   {
+      this(vertx, deployment, servletMappingPrefix, domain, null);
    }
 
    public VertxRequestHandler(final Vertx vertx, final ResteasyDeployment deployment, final String servletMappingPrefix)
@@ -44,44 +61,174 @@ public class VertxRequestHandler implements Handler<HttpServerRequest>
       this(vertx, deployment, "");
    }
 
+   /**
+    * @param streamingRequests true to dispatch requests before their body is complete
+    * @see VertxJaxrsServer#setStreamingRequests(boolean)
+    */
+   public void setStreamingRequests(boolean streamingRequests)
+   {
+      this.streamingRequests = streamingRequests;
+   }
+
+   /**
+    * @param maxBufferedRequestBytes buffer limit of a streamed request body
+    * @see VertxJaxrsServer#setMaxBufferedRequestBytes(int)
+    */
+   public void setMaxBufferedRequestBytes(int maxBufferedRequestBytes)
+   {
+      this.maxBufferedRequestBytes = maxBufferedRequestBytes;
+   }
+
+   /**
+    * @param maxBodySize size limit of request bodies, negative for no limit
+    * @see VertxJaxrsServer#setMaxBodySize(long)
+    */
+   public void setMaxBodySize(long maxBodySize)
+   {
+      this.maxBodySize = maxBodySize;
+   }
+
    @Override
    public void handle(HttpServerRequest request)
    {
-      request.bodyHandler(buff -> {
-         Context ctx = vertx.getOrCreateContext();
-         ResteasyUriInfo uriInfo = VertxUtil.extractUriInfo(request, servletMappingPrefix);
-         ResteasyHttpHeaders headers = VertxUtil.extractHttpHeaders(request);
-         HttpServerResponse response = request.response();
-         VertxHttpResponse vertxResponse = new VertxHttpResponse(response, dispatcher.getProviderFactory(), request.method());
-         VertxHttpRequest vertxRequest = new VertxHttpRequest(ctx, headers, uriInfo, request.rawMethod(), dispatcher.getDispatcher(), vertxResponse, false);
-         if (buff.length() > 0)
+      if (maxBodySize >= 0)
+      {
+         String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+         try
          {
-            ByteBufInputStream in = new ByteBufInputStream(buff.getByteBuf());
-            vertxRequest.setInputStream(in);
+            if (contentLength != null && Long.parseLong(contentLength.trim()) > maxBodySize)
+            {
+               rejectTooLarge(request);
+               return;
+            }
          }
+         catch (NumberFormatException ignore)
+         {
+            // left to the HTTP codec
+         }
+      }
+      if (streamingRequests)
+      {
+         ChunkInputStream in = new ChunkInputStream(request, vertx.getOrCreateContext(), maxBufferedRequestBytes);
+         request.handler(new BodyHandler(request, in, null));
+         request.endHandler(v -> in.complete());
+         request.exceptionHandler(in::fail);
+         request.response().bodyEndHandler(v -> in.close());
+         dispatch(request, in);
+      }
+      else
+      {
+         BodyHandler body = new BodyHandler(request, null, Buffer.buffer());
+         request.handler(body);
+         request.endHandler(v -> {
+            if (!body.rejected)
+            {
+               dispatch(request, body.buffer.length() > 0 ? new ByteBufInputStream(body.buffer.getByteBuf()) : null);
+            }
+         });
+      }
+   }
+
+   private void dispatch(HttpServerRequest request, InputStream in)
+   {
+      long start = eventLoopMetrics != null ? System.nanoTime() : 0L;
+      Context ctx = vertx.getOrCreateContext();
+      ResteasyUriInfo uriInfo = VertxUtil.extractUriInfo(request, servletMappingPrefix);
+      ResteasyHttpHeaders headers = VertxUtil.extractHttpHeaders(request);
+      HttpServerResponse response = request.response();
+      VertxHttpResponse vertxResponse = new VertxHttpResponse(response, dispatcher.getProviderFactory(), request.method());
+      VertxHttpRequest vertxRequest = new VertxHttpRequest(ctx, headers, uriInfo, request.rawMethod(), dispatcher.getDispatcher(), vertxResponse, false);
+      if (in != null)
+      {
+         vertxRequest.setInputStream(in);
+      }
+
+      try
+      {
+         dispatcher.service(ctx, request, response, vertxRequest, vertxResponse, true);
+      } catch (Failure e1)
+      {
+         vertxResponse.setStatus(e1.getErrorCode());
+      } catch (Exception ex)
+      {
+         vertxResponse.setStatus(500);
+         LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
+      }
 
+      if (!vertxRequest.getAsyncContext().isSuspended())
+      {
          try
          {
-            dispatcher.service(ctx, request, response, vertxRequest, vertxResponse, true);
-         } catch (Failure e1)
+            vertxResponse.finish();
+         } catch (IOException e)
          {
-            vertxResponse.setStatus(e1.getErrorCode());
-         } catch (Exception ex)
-         {
-            vertxResponse.setStatus(500);
-            LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
+            LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), e);
          }
+      }
+      if (eventLoopMetrics != null)
+      {
+         eventLoopMetrics.record(System.nanoTime() - start);
+      }
+   }
+
+   /**
+    * Answers 413 unless a response was already started, and closes the connection as the rest of the body is not
+    * read.
+    */
+   private static void rejectTooLarge(HttpServerRequest request)
+   {
+      HttpServerResponse response = request.response();
+      if (!response.headWritten())
+      {
+         response.setStatusCode(413).putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE).end();
+      }
+      request.connection().close();
+   }
 
-         if (!vertxRequest.getAsyncContext().isSuspended())
+   /**
+    * Counts the bytes of the request body against the max body size, and queues them in the stream of a streamed
+    * request or aggregates them in a buffer.
+    */
+   private class BodyHandler implements Handler<Buffer>
+   {
+      final HttpServerRequest request;
+      final ChunkInputStream stream;
+      final Buffer buffer;
+      long received;
+      boolean rejected;
+
+      BodyHandler(final HttpServerRequest request, final ChunkInputStream stream, final Buffer buffer)
+      {
+         this.request = request;
+         this.stream = stream;
+         this.buffer = buffer;
+      }
+
+      @Override
+      public void handle(Buffer chunk)
+      {
+         if (rejected)
          {
-            try
-            {
-               vertxResponse.finish();
-            } catch (IOException e)
+            return;
+         }
+         received += chunk.length();
+         if (maxBodySize >= 0 && received > maxBodySize)
+         {
+            rejected = true;
+            if (stream != null)
             {
-               LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), e);
+               stream.fail(new IOException(Messages.MESSAGES.requestBodyTooLarge(maxBodySize)));
             }
+            rejectTooLarge(request);
+         }
+         else if (stream != null)
+         {
+            stream.offer(chunk);
+         }
+         else
+         {
+            buffer.appendBuffer(chunk);
          }
-      });
+      }
    }
 }
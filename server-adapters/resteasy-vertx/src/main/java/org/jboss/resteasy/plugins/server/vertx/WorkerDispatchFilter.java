@@ -0,0 +1,134 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+import io.vertx.core.Context;
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.ResteasyContext;
+import org.jboss.resteasy.core.ThreadLocalResteasyProviderFactory;
+import org.jboss.resteasy.core.interception.jaxrs.PostMatchContainerRequestContext;
+import org.jboss.resteasy.core.interception.jaxrs.SuspendableContainerRequestContext;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+
+/**
+ * Moves the invocation of blocking resource methods off the event loop.  As the first post matching filter it knows
+ * the resource method but nothing has run for it yet, so it suspends the request, and resumes it, which runs the
+ * other filters and the method, on the worker executor or, if there is none, on the Vert.x worker pool with
+ * {@link Context#executeBlocking}.  The response is then written from the worker thread.
+ * <p>
+ * Methods that stay on the event loop cannot wait for a streamed request body, see
+ * {@link VertxJaxrsServer#setStreamingRequests(boolean)}, so their request is suspended until the body is complete
+ * and then resumed on the event loop.
+ * <p>
+ * Whether a method blocks is decided once per {@link ResourceMethodInvoker}, according to the {@link DispatchPolicy}.
+ * {@link VertxJaxrsServer} registers it with priority {@code Integer.MIN_VALUE} so that it runs before any other
+ * filter.
+ */
+public class WorkerDispatchFilter implements ContainerRequestFilter
+{
+   private final DispatchPolicy policy;
+   private final Executor executor;
+   private final ResteasyProviderFactory providerFactory;
+   private final Map<ResourceMethodInvoker, Boolean> blocking = new ConcurrentHashMap<ResourceMethodInvoker, Boolean>();
+
+   /**
+    * @param policy dispatch policy
+    * @param executor worker executor, null for the Vert.x worker pool
+    * @param providerFactory provider factory of the deployment
+    */
+   public WorkerDispatchFilter(final DispatchPolicy policy, final Executor executor, final ResteasyProviderFactory providerFactory)
+   {
+      this.policy = policy;
+      this.executor = executor;
+      this.providerFactory = providerFactory;
+   }
+
+   @Override
+   public void filter(ContainerRequestContext requestContext)
+   {
+      if (!Context.isOnEventLoopThread() || !(requestContext instanceof PostMatchContainerRequestContext))
+      {
+         return;
+      }
+      PostMatchContainerRequestContext postMatch = (PostMatchContainerRequestContext) requestContext;
+      SuspendableContainerRequestContext suspendable = (SuspendableContainerRequestContext) requestContext;
+      if (!blocking.computeIfAbsent(postMatch.getResourceMethod(), this::isBlocking))
+      {
+         InputStream in = postMatch.getHttpRequest().getInputStream();
+         if (in instanceof ChunkInputStream && !((ChunkInputStream) in).isFinished())
+         {
+            suspendable.suspend();
+            ((ChunkInputStream) in).whenComplete(resumer(suspendable));
+         }
+         return;
+      }
+
+      suspendable.suspend();
+      Runnable resume = resumer(suspendable);
+      if (executor != null)
+      {
+         try
+         {
+            executor.execute(resume);
+         }
+         catch (RejectedExecutionException e)
+         {
+            suspendable.resume(new ServiceUnavailableException());
+         }
+      }
+      else
+      {
+         Context context = ResteasyContext.getContextData(Context.class);
+         context.executeBlocking(future -> {
+            resume.run();
+            future.complete();
+         }, false, null);
+      }
+   }
+
+   private Runnable resumer(SuspendableContainerRequestContext suspendable)
+   {
+      // resume() waits for this filter to return, the request context is locked until then
+      return () -> {
+         boolean threadLocal = ResteasyProviderFactory.getInstance() instanceof ThreadLocalResteasyProviderFactory;
+         if (threadLocal)
+         {
+            ThreadLocalResteasyProviderFactory.push(providerFactory);
+         }
+         try
+         {
+            suspendable.resume();
+         }
+         finally
+         {
+            ResteasyContext.clearContextData();
+            if (threadLocal)
+            {
+               ThreadLocalResteasyProviderFactory.pop();
+            }
+         }
+      };
+   }
+
+   protected boolean isBlocking(ResourceMethodInvoker invoker)
+   {
+      if (policy == DispatchPolicy.WORKER)
+      {
+         return true;
+      }
+      if (policy == DispatchPolicy.EVENT_LOOP || invoker.isAsynchronous())
+      {
+         return false;
+      }
+      return !invoker.getMethod().isAnnotationPresent(NonBlocking.class)
+            && !invoker.getResourceClass().isAnnotationPresent(NonBlocking.class);
+   }
+}
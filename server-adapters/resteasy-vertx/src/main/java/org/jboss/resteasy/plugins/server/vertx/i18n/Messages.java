@@ -25,9 +25,21 @@ public interface Messages
    @Message(id = BASE + 10, value = "Chunk size must be at least 1")
    String chunkSizeMustBeAtLeastOne();
 
+   @Message(id = BASE + 12, value = "Cannot wait for the request body on the event loop")
+   String cannotWaitOnEventLoop();
+
+   @Message(id = BASE + 15, value = "Request body is larger than %s bytes")
+   String requestBodyTooLarge(long maxBodySize);
+
+   @Message(id = BASE + 17, value = "Request body is incomplete")
+   String requestBodyIncomplete();
+
    @Message(id = BASE + 20, value = "response is committed")
    String responseIsCommitted();
 
+   @Message(id = BASE + 22, value = "Stream is closed")
+   String streamIsClosed();
+
    @Message(id = BASE + 25, value = "Unexpected")
    String unexpected();
 }
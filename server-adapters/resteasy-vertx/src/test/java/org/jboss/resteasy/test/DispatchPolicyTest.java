@@ -0,0 +1,152 @@
+package org.jboss.resteasy.test;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.server.vertx.DispatchPolicy;
+import org.jboss.resteasy.plugins.server.vertx.NonBlocking;
+import org.jboss.resteasy.plugins.server.vertx.VertxJaxrsServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Thread on which the resource methods run for each {@link DispatchPolicy}.
+ */
+public class DispatchPolicyTest
+{
+   @Path("/")
+   public static class Resource
+   {
+      @GET
+      @Path("blocking")
+      @Produces("text/plain")
+      public String blocking(@Context io.vertx.core.Context context)
+      {
+         return context != null ? Thread.currentThread().getName() : "fail";
+      }
+
+      @GET
+      @Path("nonblocking")
+      @Produces("text/plain")
+      @NonBlocking
+      public String nonBlocking()
+      {
+         return Thread.currentThread().getName();
+      }
+
+      @GET
+      @Path("async")
+      @Produces("text/plain")
+      public CompletionStage<String> async()
+      {
+         return CompletableFuture.completedFuture(Thread.currentThread().getName());
+      }
+
+      @GET
+      @Path("exception")
+      @Produces("text/plain")
+      public String exception()
+      {
+         throw new RuntimeException();
+      }
+   }
+
+   private VertxJaxrsServer server;
+   private Client client;
+
+   @Before
+   public void before()
+   {
+      server = new VertxJaxrsServer();
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      client = ClientBuilder.newClient();
+   }
+
+   @After
+   public void after()
+   {
+      client.close();
+      server.stop();
+   }
+
+   private String get(String path)
+   {
+      return client.target(generateURL(path)).request().get(String.class);
+   }
+
+   @Test
+   public void testEventLoop() throws Exception
+   {
+      start();
+      Assert.assertTrue(get("/blocking").startsWith("vert.x-eventloop-thread-"));
+      Assert.assertTrue(get("/async").startsWith("vert.x-eventloop-thread-"));
+      assertDispatches(2);
+   }
+
+   @Test
+   public void testByMethod() throws Exception
+   {
+      server.setDispatchPolicy(DispatchPolicy.BY_METHOD);
+      start();
+      Assert.assertTrue(get("/blocking").startsWith("vert.x-worker-thread-"));
+      Assert.assertTrue(get("/nonblocking").startsWith("vert.x-eventloop-thread-"));
+      Assert.assertTrue(get("/async").startsWith("vert.x-eventloop-thread-"));
+      Response response = client.target(generateURL("/exception")).request().get();
+      Assert.assertEquals(500, response.getStatus());
+      response.close();
+      assertDispatches(4);
+   }
+
+   @Test
+   public void testWorkerExecutor() throws Exception
+   {
+      ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "resteasy-worker"));
+      try
+      {
+         server.setDispatchPolicy(DispatchPolicy.WORKER);
+         server.setWorkerExecutor(executor);
+         start();
+         Assert.assertEquals("resteasy-worker", get("/blocking"));
+         Assert.assertEquals("resteasy-worker", get("/nonblocking"));
+         Assert.assertEquals("resteasy-worker", get("/async"));
+      }
+      finally
+      {
+         executor.shutdown();
+         executor.awaitTermination(10, TimeUnit.SECONDS);
+      }
+   }
+
+   private void start()
+   {
+      server.start();
+      server.getDeployment().getRegistry().addPerRequestResource(Resource.class);
+   }
+
+   private void assertDispatches(long expected) throws InterruptedException
+   {
+      // the event loop records a request after its response may have been sent
+      for (int i = 0; i < 50 && server.getEventLoopMetrics().getDispatches() < expected; i++)
+      {
+         Thread.sleep(100);
+      }
+      Assert.assertEquals(expected, server.getEventLoopMetrics().getDispatches());
+   }
+}
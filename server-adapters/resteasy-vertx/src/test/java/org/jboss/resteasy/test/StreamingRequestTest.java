@@ -0,0 +1,206 @@
+package org.jboss.resteasy.test;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.server.vertx.DispatchPolicy;
+import org.jboss.resteasy.plugins.server.vertx.NonBlocking;
+import org.jboss.resteasy.plugins.server.vertx.VertxJaxrsServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Request bodies read while they are received, and the max body size.
+ */
+public class StreamingRequestTest
+{
+   @Path("/")
+   public static class Resource
+   {
+      @POST
+      @Path("count")
+      @Produces("text/plain")
+      public String count(InputStream in) throws IOException
+      {
+         byte[] buf = new byte[1000];
+         long count = 0;
+         for (int n = in.read(buf); n != -1; n = in.read(buf))
+         {
+            for (int i = 0; i < n; i++)
+            {
+               if (buf[i] != 'x')
+               {
+                  return "fail";
+               }
+            }
+            count += n;
+         }
+         return Long.toString(count);
+      }
+
+      @POST
+      @Path("length")
+      @Produces("text/plain")
+      @NonBlocking
+      public String length(byte[] body)
+      {
+         return Integer.toString(body.length);
+      }
+
+      @POST
+      @Path("async")
+      @Produces("text/plain")
+      public CompletionStage<String> async(String body)
+      {
+         return CompletableFuture.completedFuture(Integer.toString(body.length()));
+      }
+   }
+
+   private VertxJaxrsServer server;
+   private Client client;
+
+   @Before
+   public void before()
+   {
+      server = new VertxJaxrsServer();
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      client = ClientBuilder.newClient();
+   }
+
+   @After
+   public void after()
+   {
+      client.close();
+      server.stop();
+   }
+
+   @Test
+   public void testStreaming() throws Exception
+   {
+      server.setStreamingRequests(true);
+      server.setMaxBufferedRequestBytes(1024);
+      server.setDispatchPolicy(DispatchPolicy.BY_METHOD);
+      start();
+      Assert.assertEquals("1000000", post("/count", 1000000));
+      Assert.assertEquals("100000", post("/length", 100000));
+      Assert.assertEquals("100000", post("/async", 100000));
+      Assert.assertEquals("0", post("/count", 0));
+      Assert.assertEquals(200, postChunked("/count", 100000));
+   }
+
+   @Test
+   public void testStreamingOnEventLoop() throws Exception
+   {
+      server.setStreamingRequests(true);
+      server.setMaxBufferedRequestBytes(1024);
+      start();
+      Assert.assertEquals("100000", post("/length", 100000));
+      Assert.assertEquals("100000", post("/async", 100000));
+      Assert.assertEquals(200, postChunked("/length", 100000));
+   }
+
+   @Test
+   public void testMaxBodySize() throws Exception
+   {
+      server.setMaxBodySize(1000);
+      start();
+      Assert.assertEquals("1000", post("/length", 1000));
+      Response response = client.target(generateURL("/length")).request().post(Entity.text(body(1001)));
+      Assert.assertEquals(413, response.getStatus());
+      response.close();
+      Assert.assertEquals(413, postChunked("/length", 100000));
+   }
+
+   @Test
+   public void testStreamingMaxBodySize() throws Exception
+   {
+      server.setStreamingRequests(true);
+      server.setDispatchPolicy(DispatchPolicy.WORKER);
+      server.setMaxBodySize(1000);
+      start();
+      Assert.assertEquals("1000", post("/count", 1000));
+      Response response = client.target(generateURL("/count")).request().post(Entity.text(body(1001)));
+      Assert.assertEquals(413, response.getStatus());
+      response.close();
+      Assert.assertEquals(413, postChunked("/count", 100000));
+   }
+
+   private void start()
+   {
+      server.start();
+      server.getDeployment().getRegistry().addPerRequestResource(Resource.class);
+   }
+
+   private String post(String path, int length)
+   {
+      return client.target(generateURL(path)).request().post(Entity.entity(body(length), MediaType.TEXT_PLAIN), String.class);
+   }
+
+   private static int postChunked(String path, int length) throws IOException
+   {
+      HttpURLConnection connection = (HttpURLConnection) new URL(generateURL(path)).openConnection();
+      try
+      {
+         connection.setDoOutput(true);
+         connection.setRequestMethod("POST");
+         connection.setRequestProperty("Content-Type", MediaType.TEXT_PLAIN);
+         connection.setChunkedStreamingMode(1000);
+         try (OutputStream out = connection.getOutputStream())
+         {
+            out.write(body(length));
+         }
+         catch (IOException e)
+         {
+            // the server may close the connection before the whole body is sent
+         }
+         int status = connection.getResponseCode();
+         if (status == 200)
+         {
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            try (InputStream in = connection.getInputStream())
+            {
+               byte[] buf = new byte[1000];
+               for (int n = in.read(buf); n != -1; n = in.read(buf))
+               {
+                  response.write(buf, 0, n);
+               }
+            }
+            Assert.assertEquals(Integer.toString(length), response.toString("UTF-8"));
+         }
+         return status;
+      }
+      finally
+      {
+         connection.disconnect();
+      }
+   }
+
+   private static byte[] body(int length)
+   {
+      byte[] body = new byte[length];
+      Arrays.fill(body, (byte) 'x');
+      return body;
+   }
+}
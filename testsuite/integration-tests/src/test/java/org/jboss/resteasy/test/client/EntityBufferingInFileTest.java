@@ -2,6 +2,8 @@ package org.jboss.resteasy.test.client;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
 import org.jboss.arquillian.junit.Arquillian;
@@ -27,11 +29,16 @@ import org.junit.Ignore;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FilePermission;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.jboss.logging.Logger;
 import org.junit.runner.RunWith;
@@ -181,6 +188,53 @@ public class EntityBufferingInFileTest extends ClientTestBase{
       doTest(ApacheHttpClientEngine.MemoryUnit.GB, 1, 500000000, true);
    }
 
+   /**
+    * @tpTestDetails Client sends POST requests with File, InputStream and StreamingOutput entities larger than the
+    * maximum size allowed in memory.
+    * @tpPassCrit The entities are sent without buffering them in memory or in a temp file, the response is the same
+    * as the original entity
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testDirectEntities() throws Exception {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 100000; i++) {
+         sb.append("0");
+      }
+      final String body = sb.toString();
+      File file = File.createTempFile("EntityBufferingInFileTest", ".txt");
+      try {
+         Files.write(file.toPath(), body.getBytes(StandardCharsets.UTF_8));
+         StreamingOutput streamingOutput = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+               output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+         };
+
+         Assert.assertEquals(FileEntity.class, postDirect(Entity.text(file), body).getClass());
+         Assert.assertTrue(postDirect(Entity.text(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))), body) instanceof InputStreamEntity);
+         Assert.assertFalse(postDirect(Entity.text(streamingOutput), body).isRepeatable());
+      } finally {
+         file.delete();
+      }
+   }
+
+   private HttpEntity postDirect(Entity<?> entity, String body) throws Exception {
+      TestClientExecutor executor = new TestClientExecutor();
+      executor.setFileUploadMemoryUnit(ApacheHttpClientEngine.MemoryUnit.KB);
+      executor.setFileUploadInMemoryThresholdLimit(1);
+      ResteasyClient client = ((ResteasyClientBuilder)ClientBuilder.newBuilder()).httpEngine(executor).build();
+      try {
+         Response response = client.target(generateURL("/hello")).request().post(entity);
+         Assert.assertEquals(HttpResponseCodes.SC_OK, response.getStatus());
+         Assert.assertEquals(body, response.readEntity(String.class));
+         return executor.getBuildEntity();
+      } finally {
+         client.close();
+      }
+   }
+
    protected void doTest(ApacheHttpClientEngine.MemoryUnit memoryUnit, int threshold, int length, boolean inMemory) throws Exception {
       try {
          TestClientExecutor executor = new TestClientExecutor();
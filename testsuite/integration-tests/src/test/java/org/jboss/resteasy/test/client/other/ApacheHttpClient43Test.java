@@ -311,6 +311,26 @@ public class ApacheHttpClient43Test {
       Assert.assertEquals("Wrong count of requests", 30L, counter.get());
    }
 
+   /**
+    * @tpTestDetails Send request entities larger than the buffer of ApacheHttpAsyncClient4Engine, which are streamed
+    *                to the server instead of being buffered in memory.
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testAsyncEngineStreamedRequestBody() {
+      final ResteasyClient client = createEngine(engine3);
+      final ApacheHttpClient4Resource proxy = client.target(PortProviderUtil.generateBaseUrl(ApacheHttpClient43Test.class.getSimpleName())).proxy(ApacheHttpClient4Resource.class);
+      StringBuilder data = new StringBuilder();
+      while (data.length() < 1024 * 1024) {
+         data.append("0123456789");
+      }
+      for (int j = 0; j < 3; j++) {
+         String res = proxy.getData(data.toString());
+         Assert.assertEquals("Wrong response", "Here is your string:" + data, res);
+      }
+      client.close();
+   }
+
    private void callProxy(ApacheHttpClient4Resource proxy) {
       try {
          proxy.error();
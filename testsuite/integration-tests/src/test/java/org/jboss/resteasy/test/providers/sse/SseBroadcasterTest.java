@@ -186,6 +186,82 @@ public class SseBroadcasterTest
       }
    }
 
+   // We are expecting this test to deliver events to responsive event sinks
+   // while another registered event sink is stalled
+   @Test
+   public void testStalledEventSink() throws Exception
+   {
+      SseBroadcasterImpl sseBroadcasterImpl = new SseBroadcasterImpl();
+
+      CountDownLatch stalled = new CountDownLatch(1);
+      sseBroadcasterImpl.register(new SseEventSink()
+      {
+         @Override
+         public CompletionStage<?> send(OutboundSseEvent event)
+         {
+            try
+            {
+               stalled.await();
+            }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+            }
+            return CompletableFuture.completedFuture(null);
+         }
+
+         @Override
+         public boolean isClosed()
+         {
+            return false;
+         }
+
+         @Override
+         public void close()
+         {
+         }
+      });
+      CountDownLatch delivered = new CountDownLatch(3);
+      SseEventSink sseEventSink = newSseEventSink();
+      sseBroadcasterImpl.register(new SseEventSink()
+      {
+         @Override
+         public CompletionStage<?> send(OutboundSseEvent event)
+         {
+            delivered.countDown();
+            return sseEventSink.send(event);
+         }
+
+         @Override
+         public boolean isClosed()
+         {
+            return sseEventSink.isClosed();
+         }
+
+         @Override
+         public void close()
+         {
+            sseEventSink.close();
+         }
+      });
+
+      try
+      {
+         for (int i = 0; i < 3; i++)
+         {
+            sseBroadcasterImpl.broadcast(new OutboundSseEventImpl.BuilderImpl().data("Test" + i).build());
+         }
+         if (!delivered.await(3, TimeUnit.SECONDS))
+         {
+            Assert.fail("Events should have been delivered despite the stalled event sink");
+         }
+      }
+      finally
+      {
+         stalled.countDown();
+      }
+   }
+
    private SseEventSink newSseEventSink()
    {
       return newSseEventSink(null);
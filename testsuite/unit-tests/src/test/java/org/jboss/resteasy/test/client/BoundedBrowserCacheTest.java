@@ -0,0 +1,233 @@
+package org.jboss.resteasy.test.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.jboss.resteasy.client.jaxrs.cache.BoundedBrowserCache;
+import org.jboss.resteasy.client.jaxrs.cache.BrowserCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Resteasy-client
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Eviction, variants and statistics of BoundedBrowserCache
+ */
+public class BoundedBrowserCacheTest
+{
+   private static BrowserCache.Entry put(BoundedBrowserCache cache, String key, MediaType type, int size, int expires)
+   {
+      return cache.put(key, type, new MultivaluedHashMap<String, String>(), new byte[size], expires, null, null);
+   }
+
+   /**
+    * @tpTestDetails Entries are evicted least recently used first once their size exceeds the limit
+    * @tpPassCrit The entry read last survives, the size stays within the limit
+    */
+   @Test
+   public void testEviction() throws Exception
+   {
+      BoundedBrowserCache cache = new BoundedBrowserCache(12000);
+      for (int i = 0; i < 4; i++)
+      {
+         put(cache, "/" + i, MediaType.TEXT_PLAIN_TYPE, 2000, 60);
+      }
+      Assert.assertNotNull(cache.get("/0", MediaType.TEXT_PLAIN_TYPE));
+      cache.cleanUp();
+      for (int i = 4; i < 8; i++)
+      {
+         put(cache, "/" + i, MediaType.TEXT_PLAIN_TYPE, 2000, 60);
+      }
+      cache.cleanUp();
+
+      Assert.assertTrue(cache.getByteCount() <= 12000);
+      Assert.assertTrue(cache.getEvictions() > 0);
+      Assert.assertNotNull(cache.getAny("/0"));
+      Assert.assertNull(cache.getAny("/1"));
+      Assert.assertNotNull(cache.getAny("/7"));
+      Assert.assertEquals(cache.getEntryCount() + cache.getEvictions(), 8);
+
+      // larger than the whole cache
+      put(cache, "/big", MediaType.TEXT_PLAIN_TYPE, 20000, 60);
+      Assert.assertNull(cache.getAny("/big"));
+   }
+
+   /**
+    * @tpTestDetails Variants of the same URI are looked up by media type and replaced in place
+    * @tpPassCrit Exact, wildcard subtype and wildcard lookups return the expected variant
+    */
+   @Test
+   public void testVariants() throws Exception
+   {
+      BoundedBrowserCache cache = new BoundedBrowserCache();
+      put(cache, "/a", MediaType.TEXT_PLAIN_TYPE, 1, 60);
+      put(cache, "/a", MediaType.APPLICATION_JSON_TYPE, 2, 60);
+      put(cache, "/a", MediaType.APPLICATION_JSON_TYPE, 3, 60);
+      cache.cleanUp();
+
+      Assert.assertEquals(2, cache.getEntryCount());
+      Assert.assertEquals(3, cache.get("/a", MediaType.APPLICATION_JSON_TYPE).getCached().length);
+      Assert.assertEquals(3, cache.get("/a", new MediaType("application", "*")).getCached().length);
+      Assert.assertEquals(1, cache.get("/a", MediaType.WILDCARD_TYPE).getCached().length);
+      Assert.assertNull(cache.get("/a", MediaType.APPLICATION_XML_TYPE));
+
+      Assert.assertNotNull(cache.remove("/a", MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertEquals(3, cache.getAny("/a").getCached().length);
+      cache.clear();
+      cache.cleanUp();
+      Assert.assertNull(cache.getAny("/a"));
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertEquals(0, cache.getByteCount());
+   }
+
+   /**
+    * @tpTestDetails Lookups finding a fresh entry count as hits, the others as misses
+    * @tpPassCrit Hit and miss counts match the lookups
+    */
+   @Test
+   public void testStatistics() throws Exception
+   {
+      BoundedBrowserCache cache = new BoundedBrowserCache();
+      put(cache, "/fresh", MediaType.TEXT_PLAIN_TYPE, 10, 60);
+      put(cache, "/expired", MediaType.TEXT_PLAIN_TYPE, 10, 0);
+
+      Assert.assertNotNull(cache.get("/fresh", MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertTrue(cache.get("/expired", MediaType.TEXT_PLAIN_TYPE).expired());
+      Assert.assertNull(cache.get("/missing", MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertEquals(1, cache.getHits());
+      Assert.assertEquals(2, cache.getMisses());
+   }
+
+   /**
+    * @tpTestDetails Entries are added and read by several threads
+    * @tpPassCrit The accounted size matches the entries left in the cache
+    */
+   @Test
+   public void testConcurrentAccess() throws Exception
+   {
+      final BoundedBrowserCache cache = new BoundedBrowserCache(50000);
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try
+      {
+         List<Future<Void>> futures = new ArrayList<Future<Void>>();
+         for (int t = 0; t < 8; t++)
+         {
+            final int thread = t;
+            futures.add(executor.submit(new Callable<Void>()
+            {
+               @Override
+               public Void call()
+               {
+                  for (int i = 0; i < 1000; i++)
+                  {
+                     String key = "/" + ((thread * 1000 + i) % 200);
+                     if (cache.get(key, MediaType.TEXT_PLAIN_TYPE) == null)
+                     {
+                        put(cache, key, MediaType.TEXT_PLAIN_TYPE, 500, 60);
+                     }
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> future : futures)
+         {
+            future.get();
+         }
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+      cache.cleanUp();
+
+      Assert.assertTrue(cache.getByteCount() <= 50000);
+      long bytes = 0;
+      int entries = 0;
+      for (int i = 0; i < 200; i++)
+      {
+         if (cache.getAny("/" + i) != null)
+         {
+            bytes += 500 + 2 * ("/" + i).length() + 256;
+            entries++;
+         }
+      }
+      Assert.assertEquals(entries, cache.getEntryCount());
+      Assert.assertEquals(bytes, cache.getByteCount());
+   }
+
+   /**
+    * @tpTestDetails Lookups run without locking while another thread adds, replaces and evicts entries
+    * @tpPassCrit Lookups always find the entry that is read all the time with its media type, the other variant is
+    *             replaced and entries that aren't read are evicted instead
+    */
+   @Test
+   public void testReadsDuringWrites() throws Exception
+   {
+      final BoundedBrowserCache cache = new BoundedBrowserCache(5000);
+      put(cache, "/hot", MediaType.TEXT_PLAIN_TYPE, 100, 60);
+      final AtomicLong reads = new AtomicLong();
+      final AtomicBoolean done = new AtomicBoolean();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<Void>> futures = new ArrayList<Future<Void>>();
+         for (int t = 0; t < 4; t++)
+         {
+            futures.add(executor.submit(new Callable<Void>()
+            {
+               @Override
+               public Void call()
+               {
+                  while (!done.get())
+                  {
+                     BrowserCache.Entry entry = cache.get("/hot", MediaType.TEXT_PLAIN_TYPE);
+                     Assert.assertNotNull(entry);
+                     Assert.assertEquals(MediaType.TEXT_PLAIN_TYPE, entry.getMediaType());
+                     Assert.assertNotNull(cache.getAny("/hot"));
+                     reads.incrementAndGet();
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (int i = 0; i < 200; i++)
+         {
+            put(cache, "/hot", MediaType.APPLICATION_JSON_TYPE, i % 10, 60);
+            put(cache, "/cold/" + i, MediaType.TEXT_PLAIN_TYPE, 500, 60);
+            // an access to record before the next write, unless the readers failed
+            long read = reads.get();
+            while (reads.get() == read && !futures.get(0).isDone())
+            {
+               Thread.yield();
+            }
+         }
+         done.set(true);
+         for (Future<Void> future : futures)
+         {
+            future.get();
+         }
+      }
+      finally
+      {
+         done.set(true);
+         executor.shutdown();
+      }
+      cache.cleanUp();
+
+      Assert.assertEquals(199 % 10, cache.get("/hot", MediaType.APPLICATION_JSON_TYPE).getCached().length);
+      Assert.assertNull(cache.getAny("/cold/0"));
+      Assert.assertNotNull(cache.getAny("/cold/199"));
+      Assert.assertTrue(cache.getByteCount() <= 5000);
+      Assert.assertTrue(cache.getEvictions() > 0);
+   }
+}
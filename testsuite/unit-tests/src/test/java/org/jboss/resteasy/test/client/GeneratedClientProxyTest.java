@@ -0,0 +1,160 @@
+package org.jboss.resteasy.test.client;
+
+import java.lang.reflect.Proxy;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.GeneratedClientProxy;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ProxyBuilderImpl;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ResteasyClientProxy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Resteasy-client proxy
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Client proxies generated by ClientProxyGenerator instead of java.lang.reflect.Proxy
+ */
+public class GeneratedClientProxyTest
+{
+   @Path("/items")
+   public interface Items
+   {
+      @GET
+      @Path("{id}")
+      @Produces(MediaType.TEXT_PLAIN)
+      String get(@PathParam("id") int id);
+
+      @GET
+      @Path("{id}/{name}")
+      @Produces(MediaType.TEXT_PLAIN)
+      String get(@PathParam("id") long id, @PathParam("name") String name);
+
+      @POST
+      void post(String body);
+
+      @GET
+      Response response();
+
+      @Path("sub")
+      Sub sub();
+
+      String notAnnotated();
+   }
+
+   public interface Sub
+   {
+      @GET
+      @Produces(MediaType.TEXT_PLAIN)
+      String get();
+   }
+
+   public interface Other
+   {
+      @GET
+      @Path("other")
+      @Produces(MediaType.TEXT_PLAIN)
+      String get();
+   }
+
+   /**
+    * Answers every request with its method and path.
+    */
+   public static class EchoFilter implements ClientRequestFilter
+   {
+      @Override
+      public void filter(ClientRequestContext requestContext)
+      {
+         requestContext.abortWith(Response.ok(requestContext.getMethod() + " " + requestContext.getUri().getPath(),
+               MediaType.TEXT_PLAIN_TYPE).build());
+      }
+   }
+
+   private ResteasyClient client;
+
+   @Before
+   public void before()
+   {
+      client = (ResteasyClient) ClientBuilder.newBuilder().register(EchoFilter.class)
+            .property(ProxyBuilderImpl.GENERATED_PROXIES, true).build();
+   }
+
+   @After
+   public void after()
+   {
+      client.close();
+   }
+
+   /**
+    * @tpTestDetails Methods with primitive and reference parameters, void methods and sub-resource locators
+    * @tpPassCrit The requests are built as with java.lang.reflect.Proxy
+    */
+   @Test
+   public void testInvocations()
+   {
+      Items items = client.target("http://localhost/base").proxy(Items.class);
+      Assert.assertFalse(Proxy.isProxyClass(items.getClass()));
+      Assert.assertTrue(items instanceof GeneratedClientProxy);
+
+      Assert.assertEquals("GET /base/items/42", items.get(42));
+      Assert.assertEquals("GET /base/items/7/seven", items.get(7L, "seven"));
+      items.post("body");
+      Response response = items.response();
+      Assert.assertEquals(200, response.getStatus());
+      response.close();
+      Assert.assertEquals("GET /base/items/sub", items.sub().get());
+      try
+      {
+         items.notAnnotated();
+         Assert.fail();
+      }
+      catch (RuntimeException e)
+      {
+         Assert.assertTrue(e.getMessage(), e.getMessage().contains("notAnnotated"));
+      }
+   }
+
+   /**
+    * @tpTestDetails Object methods, as() and the ResteasyClientProxy methods
+    * @tpPassCrit They behave like those of the dynamic proxies
+    */
+   @Test
+   public void testProxyMethods()
+   {
+      Items items1 = client.target("http://localhost/base").proxy(Items.class);
+      Items items2 = client.target("http://localhost/base").proxy(Items.class);
+      Assert.assertSame(items1.getClass(), items2.getClass());
+      Assert.assertTrue(items1.equals(items1));
+      Assert.assertFalse(items1.equals(items2));
+      Assert.assertEquals(items1.hashCode(), items2.hashCode());
+      Assert.assertTrue(items1.toString().contains(Items.class.getName()));
+
+      ResteasyClientProxy proxy = (ResteasyClientProxy) items1;
+      Assert.assertEquals(4, proxy.getResteasyClientInvokers().size());
+      Assert.assertEquals("GET /base/items/other", proxy.as(Other.class).get());
+   }
+
+   /**
+    * @tpTestDetails The builder setting overrides the client property
+    * @tpPassCrit A dynamic proxy is created
+    */
+   @Test
+   public void testDisabled()
+   {
+      Items items = new ProxyBuilderImpl<Items>(Items.class, client.target("http://localhost/base")).generated(false).build();
+      Assert.assertTrue(Proxy.isProxyClass(items.getClass()));
+      Assert.assertEquals("GET /base/items/42", items.get(42));
+   }
+}
@@ -0,0 +1,111 @@
+package org.jboss.resteasy.test.mediatype;
+
+import org.jboss.resteasy.core.MediaTypeMap;
+import org.jboss.resteasy.core.MediaTypeMapCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * @tpSubChapter Media type
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Tests for the bounded class cache of MediaTypeMap
+ * @tpSince RESTEasy 4.0.0
+ */
+public class MediaTypeMapCacheTest {
+
+   private static MediaTypeMap<String> createMap() {
+      MediaTypeMap<String> map = new MediaTypeMap<String>();
+      map.add(MediaType.TEXT_PLAIN_TYPE, "plain");
+      map.add(MediaType.APPLICATION_XML_TYPE, "xml");
+      map.add(MediaType.APPLICATION_JSON_TYPE, "json");
+      return map;
+   }
+
+   /**
+    * @tpTestDetails Repeated lookups are counted as hits, the cache never grows over its maximum size
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testBoundedAndInstrumented() {
+      MediaTypeMap<String> map = createMap();
+      MediaTypeMapCache<String> cache = map.getCache();
+      cache.setMaxSize(2);
+
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      List<String> list = map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      Assert.assertEquals("Wrong lookup result", "plain", list.get(0));
+      Assert.assertEquals("Wrong number of hits", 1, cache.getHits());
+      Assert.assertEquals("Wrong number of misses", 1, cache.getMisses());
+
+      map.getPossible(MediaType.APPLICATION_XML_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_JSON_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_JSON_TYPE, Integer.class);
+      Assert.assertEquals("Cache is over its maximum size", 2, cache.size());
+      Assert.assertEquals("Wrong number of evictions", 2, cache.getEvictions());
+   }
+
+   /**
+    * @tpTestDetails LRU policy keeps an entry that was read, FIFO evicts the oldest entry
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testEvictionPolicy() {
+      MediaTypeMap<String> map = createMap();
+      map.getCache().setMaxSize(2);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_XML_TYPE, String.class);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_JSON_TYPE, String.class);
+      long hits = map.getCache().getHits();
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      Assert.assertEquals("Recently read entry was evicted", hits + 1, map.getCache().getHits());
+
+      map = createMap();
+      map.getCache().setMaxSize(2);
+      map.getCache().setEvictionPolicy(MediaTypeMapCache.EvictionPolicy.FIFO);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_XML_TYPE, String.class);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_JSON_TYPE, String.class);
+      hits = map.getCache().getHits();
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      Assert.assertEquals("Oldest entry was not evicted", hits, map.getCache().getHits());
+   }
+
+   /**
+    * @tpTestDetails Adding an entry only invalidates cached lookups its media type can match
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testTargetedInvalidation() {
+      MediaTypeMap<String> map = createMap();
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.APPLICATION_JSON_TYPE, String.class);
+
+      map.add(MediaType.valueOf("application/*"), "application");
+      Assert.assertEquals("Unrelated entry was invalidated", 1, map.getCache().size());
+      List<String> list = map.getPossible(MediaType.APPLICATION_JSON_TYPE, String.class);
+      Assert.assertEquals("Stale lookup result", 2, list.size());
+      Assert.assertEquals("Stale lookup result", "application", list.get(1));
+
+      map.add(MediaType.WILDCARD_TYPE, "wildcard");
+      Assert.assertEquals("Wildcard registration must invalidate everything", 0, map.getCache().size());
+   }
+
+   /**
+    * @tpTestDetails Size 0 disables the cache
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testDisabled() {
+      MediaTypeMap<String> map = createMap();
+      map.getCache().setMaxSize(0);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      map.getPossible(MediaType.TEXT_PLAIN_TYPE, String.class);
+      Assert.assertEquals("Disabled cache was used", 0, map.getCache().size());
+      Assert.assertEquals("Disabled cache was used", 0, map.getCache().getHits());
+   }
+}
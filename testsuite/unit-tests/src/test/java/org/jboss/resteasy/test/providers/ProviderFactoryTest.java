@@ -2,6 +2,7 @@ package org.jboss.resteasy.test.providers;
 
 import org.jboss.resteasy.spi.interception.JaxrsInterceptorRegistry;
 import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.core.ResteasyProviderFactoryImpl;
 import org.jboss.resteasy.plugins.providers.RegisterBuiltin;
 import org.jboss.resteasy.spi.ResteasyDeployment;
 import org.jboss.resteasy.spi.ResteasyProviderFactory;
@@ -57,6 +58,30 @@ public class ProviderFactoryTest {
       assertNotNull("Null StringParameterUnmarshaller object", factory.createStringParameterUnmarshaller(Date.class));
    }
 
+   /**
+    * @tpTestDetails Child provider factory only stores what is registered on it and reads everything else
+    *                from its parent.
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testLayeredChildFactory() {
+      factory.property("parent.property", "parent");
+      ResteasyProviderFactory child = new ResteasyProviderFactoryImpl(factory);
+      Assert.assertEquals("Parent property not visible", "parent", child.getProperty("parent.property"));
+      Assert.assertSame("Unmodified registry is not shared", factory.getContainerRequestFilterRegistry(),
+            child.getContainerRequestFilterRegistry());
+
+      child.property("child.property", "child");
+      child.register(new ContainerRequestFilter() {
+         public void filter(ContainerRequestContext requestContext) {
+         }
+      });
+      Assert.assertEquals("Parent property not visible", "parent", child.getProperty("parent.property"));
+      Assert.assertNull("Child property leaked into the parent", factory.getProperty("child.property"));
+      Assert.assertNotSame("Registry not copied on write", factory.getContainerRequestFilterRegistry(),
+            child.getContainerRequestFilterRegistry());
+   }
+
    /**
     * @tpTestDetails Regression test for JBEAP-4706
     *                Test whether the priority is supplied to the container request filter registry.
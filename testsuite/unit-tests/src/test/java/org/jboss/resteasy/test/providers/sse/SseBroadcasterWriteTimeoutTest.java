@@ -0,0 +1,130 @@
+package org.jboss.resteasy.test.providers.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.sse.SseEventSink;
+
+import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.core.SynchronousExecutionContext;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.plugins.providers.sse.OutboundSseEventImpl;
+import org.jboss.resteasy.plugins.providers.sse.SseBroadcasterImpl;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.test.providers.sse.resource.SseBroadcasterWriteTimeoutResource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Providers
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Clients that stop reading don't keep the broadcast from the others.
+ * @tpSince RESTEasy 4.0.0
+ */
+public class SseBroadcasterWriteTimeoutTest {
+
+   private static final int STALLED = SseBroadcasterImpl.DEFAULT_MAX_THREADS + 1;
+
+   private static final long WRITE_TIMEOUT = 500;
+
+   private static volatile boolean stall;
+
+   /**
+    * Blocks writes while stalling, until the sink is closed, as a container aborts the write of a completed response.
+    */
+   private static class StalledOutputStream extends OutputStream {
+      private final String id;
+
+      StalledOutputStream(final String id) {
+         this.id = id;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+         write(new byte[]{(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+         if (!stall) return;
+         SseEventSink sink = SseBroadcasterWriteTimeoutResource.SINKS.get(id);
+         while (!sink.isClosed()) {
+            try {
+               Thread.sleep(10);
+            } catch (InterruptedException e) {
+               throw new IOException(e);
+            }
+         }
+         throw new IOException("aborted");
+      }
+   }
+
+   /**
+    * @tpTestDetails More stalled sinks than the threads of the shared pool are closed after the write timeout
+    *                and the event is written to the sink that reads
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testStalledSinksTimeOut() throws Exception {
+      Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+      dispatcher.getRegistry().addPerRequestResource(SseBroadcasterWriteTimeoutResource.class);
+      SseBroadcasterImpl broadcaster = SseBroadcasterWriteTimeoutResource.BROADCASTER;
+      broadcaster.setWriteTimeout(WRITE_TIMEOUT);
+      List<Throwable> errors = new CopyOnWriteArrayList<>();
+      broadcaster.onError((sink, t) -> errors.add(t));
+
+      List<Thread> requests = new ArrayList<>();
+      for (int i = 0; i < STALLED; i++) {
+         requests.add(subscribe(dispatcher, "stalled" + i, new StalledOutputStream("stalled" + i)));
+      }
+      ByteArrayOutputStream healthy = new ByteArrayOutputStream();
+      requests.add(subscribe(dispatcher, "healthy", healthy));
+      for (int i = 0; i < 100 && SseBroadcasterWriteTimeoutResource.SINKS.size() < STALLED + 1; i++) {
+         Thread.sleep(50);
+      }
+      Assert.assertEquals("Not all clients subscribed", STALLED + 1, SseBroadcasterWriteTimeoutResource.SINKS.size());
+
+      stall = true;
+      try {
+         // failed writes are reported to the error listeners
+         broadcaster.broadcast(new OutboundSseEventImpl.BuilderImpl().data("event").build())
+               .toCompletableFuture().get(10, TimeUnit.SECONDS);
+      } finally {
+         stall = false;
+      }
+
+      Assert.assertTrue("Event was not written to the healthy sink", healthy.toString("UTF-8").contains("data: event"));
+      Assert.assertEquals("Wrong number of failed writes", STALLED, errors.size());
+      for (Throwable error : errors) {
+         Assert.assertTrue("Wrong failure " + error, error instanceof IOException);
+      }
+      for (int i = 0; i < STALLED; i++) {
+         Assert.assertTrue("Stalled sink was not closed", SseBroadcasterWriteTimeoutResource.SINKS.get("stalled" + i).isClosed());
+      }
+      Assert.assertFalse("Healthy sink was closed", SseBroadcasterWriteTimeoutResource.SINKS.get("healthy").isClosed());
+      broadcaster.close();
+      for (Thread request : requests) {
+         request.join(10000);
+         Assert.assertFalse("Response was not completed", request.isAlive());
+      }
+   }
+
+   private static Thread subscribe(Dispatcher dispatcher, String id, OutputStream out) throws Exception {
+      MockHttpRequest request = MockHttpRequest.get("/sse/" + id);
+      MockHttpResponse response = new MockHttpResponse();
+      response.setOutputStream(out);
+      request.setAsynchronousContext(new SynchronousExecutionContext((SynchronousDispatcher) dispatcher, request, response));
+      // the synchronous context waits for the response to complete
+      Thread thread = new Thread(() -> dispatcher.invoke(request, response));
+      thread.setDaemon(true);
+      thread.start();
+      return thread;
+   }
+}
@@ -0,0 +1,30 @@
+package org.jboss.resteasy.test.providers.sse.resource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.jboss.resteasy.plugins.providers.sse.SseBroadcasterImpl;
+
+@Path("/sse")
+public class SseBroadcasterWriteTimeoutResource {
+
+   public static final SseBroadcasterImpl BROADCASTER = new SseBroadcasterImpl();
+
+   public static final Map<String, SseEventSink> SINKS = new ConcurrentHashMap<>();
+
+   @GET
+   @Path("{id}")
+   @Produces(MediaType.SERVER_SENT_EVENTS)
+   public void subscribe(@PathParam("id") String id, @Context SseEventSink sink) {
+      SINKS.put(id, sink);
+      BROADCASTER.register(sink);
+   }
+}
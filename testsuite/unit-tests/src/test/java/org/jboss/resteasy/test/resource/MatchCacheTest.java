@@ -0,0 +1,140 @@
+package org.jboss.resteasy.test.resource;
+
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.ResourceMethodRegistry;
+import org.jboss.resteasy.core.registry.SegmentNode;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.jboss.resteasy.test.resource.resource.SegmentNullResource;
+import org.jboss.resteasy.test.resource.resource.SegmentResource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+
+/**
+ * @tpSubChapter Resource tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Tests for the registry match cache
+ * @tpSince RESTEasy 4.0.0
+ */
+public class MatchCacheTest {
+
+   /**
+    * @tpTestDetails Repeated request to a route without path parameters is served from the cache
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testHit() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addSingletonResource(new SegmentNullResource());
+
+      MockHttpRequest first = MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE);
+      ResourceMethodInvoker invoker = (ResourceMethodInvoker) registry.getResourceInvoker(first);
+      Assert.assertEquals("Wrong method matched", "childDoNothing", invoker.getMethod().getName());
+      Assert.assertEquals("Unexpected cache hit", 0, registry.getMatchCacheHits());
+
+      MockHttpRequest second = MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE);
+      invoker = (ResourceMethodInvoker) registry.getResourceInvoker(second);
+      Assert.assertEquals("Wrong method matched", "childDoNothing", invoker.getMethod().getName());
+      Assert.assertEquals("Expected cache hit", 1, registry.getMatchCacheHits());
+      Assert.assertNotNull("Chosen accept not set", second.getAttribute(SegmentNode.RESTEASY_CHOSEN_ACCEPT));
+   }
+
+   /**
+    * @tpTestDetails Templated routes are cached by the expressions the path matched rather than by the path, so more
+    *                unique templated paths than the cache size share one entry, still get their own path parameters
+    *                and do not evict the cached static routes
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testTemplatedPaths() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.setMatchCacheSize(4);
+      registry.addSingletonResource(new SegmentNullResource());
+
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      for (int i = 0; i < 20; i++) {
+         MockHttpRequest request = MockHttpRequest.get("/child/" + i).accept(MediaType.TEXT_PLAIN_TYPE);
+         ResourceMethodInvoker invoker = (ResourceMethodInvoker) registry.getResourceInvoker(request);
+         Assert.assertEquals("Wrong method matched", "childWithId", invoker.getMethod().getName());
+         Assert.assertEquals("Path parameter not populated", Integer.toString(i), request.getUri().getPathParameters().getFirst("id"));
+         Assert.assertNotNull("Chosen accept not set", request.getAttribute(SegmentNode.RESTEASY_CHOSEN_ACCEPT));
+      }
+      Assert.assertEquals("Templated match not cached", 19, registry.getMatchCacheHits());
+
+      MockHttpRequest named = MockHttpRequest.get("/child/abc").accept(MediaType.TEXT_PLAIN_TYPE);
+      ResourceMethodInvoker invoker = (ResourceMethodInvoker) registry.getResourceInvoker(named);
+      Assert.assertEquals("Wrong method matched", "childWithName", invoker.getMethod().getName());
+      Assert.assertEquals("Path parameter not populated", "abc", named.getUri().getPathParameters().getFirst("name"));
+      Assert.assertEquals("Wrong number of cache misses", 3, registry.getMatchCacheMisses());
+
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertEquals("Static route was evicted", 20, registry.getMatchCacheHits());
+   }
+
+   /**
+    * @tpTestDetails A full cache evicts its least recently used entry
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testLeastRecentlyUsedEviction() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.setMatchCacheSize(2);
+      registry.addSingletonResource(new SegmentNullResource());
+
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept("text/*"));
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertEquals("Expected cache hit", 1, registry.getMatchCacheHits());
+
+      // evicts the least recently used text/* entry
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.WILDCARD));
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      Assert.assertEquals("Recently used entry was evicted", 2, registry.getMatchCacheHits());
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept("text/*"));
+      Assert.assertEquals("Least recently used entry was kept", 2, registry.getMatchCacheHits());
+   }
+
+   /**
+    * @tpTestDetails Different Accept header is a different cache key
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testAcceptIsPartOfKey() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addSingletonResource(new SegmentNullResource());
+
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept(MediaType.TEXT_PLAIN_TYPE));
+      registry.getResourceInvoker(MockHttpRequest.get("/child").accept("text/*"));
+      Assert.assertEquals("Unexpected cache hit", 0, registry.getMatchCacheHits());
+      Assert.assertEquals("Wrong number of cache misses", 2, registry.getMatchCacheMisses());
+   }
+
+   /**
+    * @tpTestDetails Registering and removing resources invalidates the cache, disabled cache is never consulted
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testInvalidationAndDisable() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.setWiderMatching(true);
+      registry.addSingletonResource(new SegmentNullResource());
+
+      registry.getResourceInvoker(MockHttpRequest.get("/child"));
+      registry.addPerRequestResource(SegmentResource.class);
+      registry.getResourceInvoker(MockHttpRequest.get("/child"));
+      Assert.assertEquals("Cache not invalidated on registration", 0, registry.getMatchCacheHits());
+
+      registry.removeRegistrations(SegmentResource.class);
+      registry.getResourceInvoker(MockHttpRequest.get("/child"));
+      Assert.assertEquals("Cache not invalidated on removal", 0, registry.getMatchCacheHits());
+
+      registry.setMatchCacheSize(0);
+      long misses = registry.getMatchCacheMisses();
+      registry.getResourceInvoker(MockHttpRequest.get("/child"));
+      registry.getResourceInvoker(MockHttpRequest.get("/child"));
+      Assert.assertEquals("Disabled cache was used", 0, registry.getMatchCacheHits());
+      Assert.assertEquals("Disabled cache was used", misses, registry.getMatchCacheMisses());
+   }
+}
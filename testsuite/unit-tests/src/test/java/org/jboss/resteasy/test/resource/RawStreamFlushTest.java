@@ -0,0 +1,65 @@
+package org.jboss.resteasy.test.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.core.SynchronousExecutionContext;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.test.resource.resource.RawStreamResource;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Resource tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Elements of a raw stream are written in batches with one flush per batch.
+ * @tpSince RESTEasy 4.0.0
+ */
+public class RawStreamFlushTest {
+
+   private static final int COUNT = 100;
+
+   private static Dispatcher dispatcher;
+
+   @BeforeClass
+   public static void beforeClass() {
+      dispatcher = MockDispatcherFactory.createDispatcher();
+      dispatcher.getRegistry().addPerRequestResource(RawStreamResource.class);
+   }
+
+   /**
+    * @tpTestDetails A synchronous publisher of more elements than the prefetch is written completely and in order,
+    *                with fewer flushes than elements
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testFewerFlushesThanElements() throws Exception {
+      final int[] flushes = new int[1];
+      ByteArrayOutputStream out = new ByteArrayOutputStream() {
+         @Override
+         public void flush() throws IOException {
+            flushes[0]++;
+         }
+      };
+      MockHttpRequest request = MockHttpRequest.get("/raw?count=" + COUNT);
+      MockHttpResponse response = new MockHttpResponse();
+      response.setOutputStream(out);
+      // the mock request has no asynchronous context of its own, streamed responses need one
+      request.setAsynchronousContext(new SynchronousExecutionContext((SynchronousDispatcher) dispatcher, request, response));
+      dispatcher.invoke(request, response);
+
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < COUNT; i++) {
+         expected.append(i);
+      }
+      Assert.assertEquals("Wrong status", 200, response.getStatus());
+      Assert.assertEquals("Wrong stream content", expected.toString(), out.toString("UTF-8"));
+      Assert.assertTrue("Batches were not flushed", flushes[0] > 0);
+      Assert.assertTrue("Expected fewer flushes than elements, got " + flushes[0], flushes[0] < COUNT);
+   }
+}
@@ -0,0 +1,100 @@
+package org.jboss.resteasy.test.resource;
+
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.ResourceMethodRegistry;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.jboss.resteasy.test.resource.resource.SegmentNullResource;
+import org.jboss.resteasy.test.resource.resource.TrieMatchingResource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * @tpSubChapter Resource tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Tests for resource method matching through the segment trie
+ * @tpSince RESTEasy 4.0.0
+ */
+public class TrieMatchingTest {
+
+   private ResourceMethodRegistry createRegistry(boolean wider) {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.setWiderMatching(wider);
+      registry.setTrieMatching(true);
+      registry.addPerRequestResource(TrieMatchingResource.class);
+      registry.addSingletonResource(new SegmentNullResource());
+      return registry;
+   }
+
+   /**
+    * @tpTestDetails Literal and parameter segments are matched and path params are extracted by index
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testTemplates() throws Exception {
+      for (boolean wider : new boolean[]{false, true}) {
+         ResourceMethodRegistry registry = createRegistry(wider);
+         assertMatch(registry, "/orders", "list");
+         assertMatch(registry, "/orders/7", "order", "id", "7");
+         assertMatch(registry, "/orders/7/items/3", "item", "id", "7", "itemId", "3");
+         assertMatch(registry, "/orders/7/items/count", "itemCount", "id", "7");
+         assertMatch(registry, "/orders/7/lines/12", "line", "id", "7", "line", "12");
+         assertMatch(registry, "/child/foo", "childWithName", "name", "foo");
+         assertMatch(registry, "/child/1", "childWithId", "id", "1");
+         assertNotFound(registry, "/orders/7/lines/x");
+         assertNotFound(registry, "/orders/7/items");
+      }
+   }
+
+   /**
+    * @tpTestDetails A trailing '/' left in the matching path is tolerated, for literal and parameter segments
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testTrailingSlash() throws Exception {
+      ResourceMethodRegistry registry = createRegistry(true);
+      // matrix parameters on an empty last segment keep the trailing '/' in the matching path
+      assertMatch(registry, "/orders/;a=b", "list");
+      assertMatch(registry, "/orders/7/;a=b", "order", "id", "7");
+      assertMatch(registry, "/orders/7/items/3/;a=b", "item", "id", "7", "itemId", "3");
+      assertNotFound(registry, "/orders/7/items/;a=b");
+   }
+
+   /**
+    * @tpTestDetails Switching the engine after registration keeps every binding
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testSwitchAfterRegistration() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addPerRequestResource(TrieMatchingResource.class);
+      int size = registry.getSize();
+      registry.setTrieMatching(true);
+      Assert.assertEquals("Bindings lost while switching engine", size, registry.getSize());
+      assertMatch(registry, "/orders/7/items/3", "item", "id", "7", "itemId", "3");
+      registry.removeRegistrations(TrieMatchingResource.class);
+      Assert.assertEquals("Bindings not removed", 0, registry.getSize());
+      assertNotFound(registry, "/orders/7");
+   }
+
+   private void assertMatch(ResourceMethodRegistry registry, String url, String methodName, String... params) throws Exception {
+      MockHttpRequest request = MockHttpRequest.get(url);
+      ResourceMethodInvoker invoker = (ResourceMethodInvoker) registry.getResourceInvoker(request);
+      Assert.assertEquals("Wrong method matched for " + url, methodName, invoker.getMethod().getName());
+      MultivaluedMap<String, String> pathParams = request.getUri().getPathParameters();
+      for (int i = 0; i < params.length; i += 2) {
+         Assert.assertEquals("Wrong path param for " + url, params[i + 1], pathParams.getFirst(params[i]));
+      }
+   }
+
+   private void assertNotFound(ResourceMethodRegistry registry, String url) throws Exception {
+      try {
+         registry.getResourceInvoker(MockHttpRequest.get(url));
+         Assert.fail("Expected no match for " + url);
+      } catch (NotFoundException e) {
+      }
+   }
+}
@@ -0,0 +1,63 @@
+package org.jboss.resteasy.test.resource.resource;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.jboss.resteasy.annotations.Stream;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+@Path("/raw")
+public class RawStreamResource {
+
+   @GET
+   @Produces(MediaType.TEXT_PLAIN)
+   @Stream(value = Stream.MODE.RAW, prefetch = 16)
+   public Publisher<String> raw(@QueryParam("count") int count) {
+      return subscriber -> subscriber.onSubscribe(new RangeSubscription(subscriber, count));
+   }
+
+   /**
+    * Delivers the numbers up to count from request, as a synchronous publisher does.
+    */
+   private static class RangeSubscription implements Subscription {
+      private final Subscriber<? super String> subscriber;
+      private final int count;
+      private int next;
+      private long requested;
+      private boolean emitting;
+      private boolean cancelled;
+
+      RangeSubscription(final Subscriber<? super String> subscriber, final int count) {
+         this.subscriber = subscriber;
+         this.count = count;
+      }
+
+      @Override
+      public void request(long n) {
+         requested += n;
+         if (emitting) {
+            return;
+         }
+         emitting = true;
+         while (requested > 0 && next < count && !cancelled) {
+            requested--;
+            subscriber.onNext(Integer.toString(next++));
+         }
+         emitting = false;
+         if (next == count && !cancelled) {
+            cancelled = true;
+            subscriber.onComplete();
+         }
+      }
+
+      @Override
+      public void cancel() {
+         cancelled = true;
+      }
+   }
+}
@@ -0,0 +1,44 @@
+package org.jboss.resteasy.test.resource.resource;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+
+@Path("/orders")
+public class TrieMatchingResource {
+
+   @GET
+   @Produces("text/plain")
+   public String list() {
+      return "list";
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}")
+   public String order(@PathParam("id") String id) {
+      return id;
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}/items/{itemId}")
+   public String item(@PathParam("id") String id, @PathParam("itemId") String itemId) {
+      return id + itemId;
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}/items/count")
+   public String itemCount(@PathParam("id") String id) {
+      return id;
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}/lines/{line: \\d+}")
+   public String line(@PathParam("id") String id, @PathParam("line") String line) {
+      return id + line;
+   }
+}
@@ -0,0 +1,63 @@
+package org.jboss.resteasy.test.util;
+
+import org.jboss.resteasy.util.AcceptableMediaTypes;
+import org.jboss.resteasy.util.WeightedMediaType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @tpSubChapter Util tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Test for AcceptableMediaTypes class.
+ * @tpSince RESTEasy 4.0.0
+ */
+public class AcceptableMediaTypesTest {
+
+   /**
+    * @tpTestDetails Accept header is sorted by weight and q values are parsed once
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testParse() {
+      AcceptableMediaTypes accepts = AcceptableMediaTypes.valueOf("text/plain;q=0.5, application/json, */*;q=0.1");
+      List<MediaType> types = accepts.getMediaTypes();
+      Assert.assertEquals("Wrong number of media types", 3, types.size());
+      Assert.assertEquals("Wrong order", MediaType.APPLICATION_JSON_TYPE, types.get(0));
+      List<WeightedMediaType> weighted = accepts.getWeightedMediaTypes();
+      Assert.assertEquals("Wrong weight", 1.0f, weighted.get(0).getWeight(), 0.0f);
+      Assert.assertEquals("Wrong weight", 0.5f, weighted.get(1).getWeight(), 0.0f);
+      Assert.assertEquals("Wrong weight", 0.1f, weighted.get(2).getWeight(), 0.0f);
+   }
+
+   /**
+    * @tpTestDetails Same header string is interned, multiple header values behave like one joined value
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testInterned() {
+      String header = "application/xml, application/json;q=0.9";
+      Assert.assertSame("Accept header not interned", AcceptableMediaTypes.valueOf(header), AcceptableMediaTypes.valueOf(new String(header)));
+      Assert.assertSame("Missing header should be wildcard", AcceptableMediaTypes.WILDCARD, AcceptableMediaTypes.of((List<String>) null));
+      Assert.assertEquals("Multiple header values not merged", AcceptableMediaTypes.valueOf(header).getMediaTypes(),
+            AcceptableMediaTypes.of(Arrays.asList("application/xml", "application/json;q=0.9")).getMediaTypes());
+   }
+
+   /**
+    * @tpTestDetails Headers keep being parsed and interned once more distinct headers than the cache size were seen
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testFullCache() {
+      for (int i = 0; i < 2 * AcceptableMediaTypes.CACHE_SIZE + 1; i++) {
+         String header = "application/x-" + i + ", text/plain;q=0.5";
+         AcceptableMediaTypes accepts = AcceptableMediaTypes.valueOf(header);
+         Assert.assertEquals("Wrong media type", MediaType.valueOf("application/x-" + i), accepts.getMediaTypes().get(0));
+         Assert.assertSame("Accept header not interned", accepts, AcceptableMediaTypes.valueOf(new String(header)));
+      }
+   }
+}
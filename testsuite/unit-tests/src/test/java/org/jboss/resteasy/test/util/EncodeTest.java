@@ -0,0 +1,43 @@
+package org.jboss.resteasy.test.util;
+
+import org.jboss.resteasy.util.Encode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Util tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Test for path decoding of Encode class.
+ * @tpSince RESTEasy 4.0.0
+ */
+public class EncodeTest {
+
+   /**
+    * @tpTestDetails Only valid %XX sequences are decoded, '+' is kept
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testDecodePath() {
+      String plain = "/customers/123;name=bill";
+      Assert.assertSame("Path without sequences should not be copied", plain, Encode.decodePath(plain));
+      Assert.assertEquals("Wrong decoded path", "/a b/c+d/e/f", Encode.decodePath("/a%20b/c+d/e%2Ff"));
+      Assert.assertEquals("Wrong decoded path", "%zz/%4/%", Encode.decodePath("%zz/%4/%"));
+      Assert.assertEquals("Wrong decoded path", "A%4", Encode.decodePath("%41%4"));
+      Assert.assertEquals("Wrong decoded path", "/\u00FC\u5E74/x\u00E9", Encode.decodePath("/%C3%BC%E5%B9%B4/x%c3%a9"));
+   }
+
+   /**
+    * @tpTestDetails Invalid UTF-8 fails in strict mode and is replaced otherwise
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testDecodeMalformedPath() {
+      try {
+         Encode.decodePath("/%FF");
+         Assert.fail("Invalid UTF-8 should fail");
+      } catch (RuntimeException expected) {
+         // expected
+      }
+      Assert.assertEquals("Wrong decoded path", "/\uFFFD/\u00FC", Encode.decodePath("/%FF/%C3%BC", false));
+   }
+}
@@ -0,0 +1,62 @@
+package org.jboss.resteasy.test.util;
+
+import org.jboss.resteasy.specimpl.ResteasyUriInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+
+/**
+ * @tpSubChapter Util tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Test for ResteasyUriInfo created from the request URI string.
+ * @tpSince RESTEasy 4.0.0
+ */
+public class ResteasyUriInfoTest {
+
+   /**
+    * @tpTestDetails Paths, query parameters and URIs of a request under a context path
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testContextPath() {
+      ResteasyUriInfo uriInfo = new ResteasyUriInfo("http://localhost:8080/ctx/api/orders/a%20b;x=1", "page=2&q=a%20b", "/ctx");
+      Assert.assertEquals("Wrong encoded path", "/api/orders/a%20b;x=1", uriInfo.getPath(false));
+      Assert.assertEquals("Wrong path", "/api/orders/a b;x=1", uriInfo.getPath());
+      Assert.assertEquals("Wrong matching path", "/api/orders/a%20b", uriInfo.getMatchingPath());
+      Assert.assertEquals("Wrong query parameter", "a b", uriInfo.getQueryParameters().getFirst("q"));
+      Assert.assertEquals("Wrong query parameter", "a%20b", uriInfo.getQueryParameters(false).getFirst("q"));
+      Assert.assertEquals("Wrong request uri", URI.create("http://localhost:8080/ctx/api/orders/a%20b;x=1?page=2&q=a%20b"), uriInfo.getRequestUri());
+      Assert.assertEquals("Wrong absolute path", URI.create("http://localhost:8080/ctx/api/orders/a%20b;x=1"), uriInfo.getAbsolutePath());
+      Assert.assertEquals("Wrong base uri", URI.create("http://localhost:8080/ctx/"), uriInfo.getBaseUri());
+   }
+
+   /**
+    * @tpTestDetails The base URI of a request to the context root is its absolute path
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testContextRoot() {
+      ResteasyUriInfo uriInfo = new ResteasyUriInfo("http://localhost:8080/ctx", null, "/ctx");
+      Assert.assertEquals("Wrong path", "/", uriInfo.getPath());
+      Assert.assertEquals("Wrong request uri", URI.create("http://localhost:8080/ctx"), uriInfo.getRequestUri());
+      Assert.assertEquals("Wrong base uri", URI.create("http://localhost:8080/ctx"), uriInfo.getBaseUri());
+      Assert.assertTrue("Unexpected query parameters", uriInfo.getQueryParameters().isEmpty());
+   }
+
+   /**
+    * @tpTestDetails Setting a relative request URI resets the lazily built URIs
+    * @tpSince RESTEasy 4.0.0
+    */
+   @Test
+   public void testSetRequestUri() {
+      ResteasyUriInfo uriInfo = new ResteasyUriInfo("http://localhost:8080/ctx/a", "x=1", "/ctx");
+      Assert.assertEquals("Wrong request uri", URI.create("http://localhost:8080/ctx/a?x=1"), uriInfo.getRequestUri());
+      uriInfo.setRequestUri(URI.create("b/c?y=2"));
+      Assert.assertEquals("Wrong path", "/b/c", uriInfo.getPath());
+      Assert.assertEquals("Wrong request uri", URI.create("http://localhost:8080/ctx/b/c?y=2"), uriInfo.getRequestUri());
+      Assert.assertEquals("Wrong base uri", URI.create("http://localhost:8080/ctx/"), uriInfo.getBaseUri());
+      Assert.assertNull("Old query parameter kept", uriInfo.getQueryParameters().getFirst("x"));
+      Assert.assertEquals("Wrong query parameter", "2", uriInfo.getQueryParameters().getFirst("y"));
+   }
+}